@@ -18,21 +18,26 @@ package org.springframework.core.codec;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.file.StandardOpenOption;
 
 import reactor.core.publisher.Flux;
 
 import org.springframework.core.ResolvableType;
 import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.ResourceRegion;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferFactory;
 import org.springframework.core.io.buffer.support.DataBufferUtils;
+import org.springframework.core.io.support.ResourceUtils2;
 import org.springframework.util.Assert;
 import org.springframework.util.MimeType;
 import org.springframework.util.MimeTypeUtils;
 import org.springframework.util.StreamUtils;
 
 /**
- * An encoder for {@link Resource}s.
+ * An encoder for {@link Resource}s. Resources that are backed by a file are read through
+ * an {@link AsynchronousFileChannel}, so that reading does not block.
  * @author Arjen Poutsma
  */
 public class ResourceEncoder extends AbstractSingleValueEncoder<Resource> {
@@ -62,8 +67,65 @@ public class ResourceEncoder extends AbstractSingleValueEncoder<Resource> {
 	protected Flux<DataBuffer> encode(Resource resource,
 			DataBufferFactory dataBufferFactory,
 			ResolvableType type, MimeType mimeType, Object... hints) throws IOException {
+		if (ResourceUtils2.hasFile(resource)) {
+			AsynchronousFileChannel channel = AsynchronousFileChannel
+					.open(resource.getFile().toPath(), StandardOpenOption.READ);
+			return DataBufferUtils.read(channel, 0, dataBufferFactory, this.bufferSize);
+		}
 		InputStream is = resource.getInputStream();
-		return DataBufferUtils.read(is, dataBufferFactory, bufferSize);
+		return DataBufferUtils.read(is, dataBufferFactory, this.bufferSize);
+	}
+
+	/**
+	 * Encode only the given region of a resource. File-backed resources are read
+	 * starting at the region position; other resources are skipped up to it. In both
+	 * cases reading stops once {@linkplain ResourceRegion#getCount() count} bytes
+	 * have been emitted.
+	 * @param region the resource region to encode
+	 * @param dataBufferFactory the factory to create data buffers with
+	 * @return the region contents
+	 */
+	public Flux<DataBuffer> encodeRegion(ResourceRegion region,
+			DataBufferFactory dataBufferFactory) {
+		Assert.notNull(region, "'region' must not be null");
+		Assert.notNull(dataBufferFactory, "'dataBufferFactory' must not be null");
+
+		return Flux.defer(() -> {
+			Resource resource = region.getResource();
+			Flux<DataBuffer> content;
+			try {
+				if (ResourceUtils2.hasFile(resource)) {
+					AsynchronousFileChannel channel = AsynchronousFileChannel
+							.open(resource.getFile().toPath(), StandardOpenOption.READ);
+					content = DataBufferUtils.read(channel, region.getPosition(),
+							dataBufferFactory, this.bufferSize);
+				}
+				else {
+					InputStream is = resource.getInputStream();
+					skip(is, region.getPosition());
+					content = DataBufferUtils.read(is, dataBufferFactory, this.bufferSize);
+				}
+			}
+			catch (IOException ex) {
+				return Flux.error(ex);
+			}
+			return DataBufferUtils.takeUntilByteCount(content, region.getCount());
+		});
+	}
+
+	private static void skip(InputStream is, long count) throws IOException {
+		long remaining = count;
+		while (remaining > 0) {
+			long skipped = is.skip(remaining);
+			if (skipped <= 0) {
+				if (is.read() == -1) {
+					is.close();
+					throw new IOException("Resource ended before position " + count);
+				}
+				skipped = 1;
+			}
+			remaining -= skipped;
+		}
 	}
 
 }
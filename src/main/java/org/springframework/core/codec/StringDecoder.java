@@ -16,10 +16,15 @@
 
 package org.springframework.core.codec;
 
+import java.nio.ByteBuffer;
 import java.nio.CharBuffer;
 import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.function.IntPredicate;
 
@@ -30,6 +35,7 @@ import reactor.core.publisher.Mono;
 import org.springframework.core.ResolvableType;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.support.DataBufferUtils;
+import org.springframework.util.Assert;
 import org.springframework.util.MimeType;
 import org.springframework.util.MimeTypeUtils;
 
@@ -40,6 +46,15 @@ import org.springframework.util.MimeTypeUtils;
  * characters ({@code \r\n}), but this can be changed by passing {@code false} as
  * constructor argument.
  *
+ * <p>Alternatively, this decoder can be created with a list of delimiters, in which
+ * case the input is decoded as a continuous stream of lines: partial lines are carried
+ * over from one data buffer to the next, and every line is emitted as soon as its
+ * delimiter has been received. Lines can be bounded by a
+ * {@linkplain #setMaxLineLength maximum length}.
+ *
+ * <p>In all modes, a stateful {@link CharsetDecoder} is used, so that multi-byte
+ * characters split across data buffers are decoded correctly.
+ *
  * @author Sebastien Deleuze
  * @author Brian Clozel
  * @author Arjen Poutsma
@@ -50,11 +65,29 @@ public class StringDecoder extends AbstractDecoder<String> {
 
 	public static final Charset DEFAULT_CHARSET = StandardCharsets.UTF_8;
 
+	/**
+	 * The default delimiters used when decoding a stream of lines.
+	 */
+	public static final List<String> DEFAULT_DELIMITERS = Arrays.asList("\r\n", "\n");
+
+	/**
+	 * The default maximum length of a line, in characters: 1M.
+	 */
+	public static final int DEFAULT_MAX_LINE_LENGTH = 1024 * 1024;
+
 	private static final IntPredicate NEWLINE_DELIMITER = b -> b == '\n' || b == '\r';
 
+	private static final ByteBuffer EMPTY_BUFFER = ByteBuffer.allocate(0);
+
 
 	private final boolean splitOnNewline;
 
+	private final List<String> delimiters;
+
+	private final boolean stripDelimiter;
+
+	private int maxLineLength = DEFAULT_MAX_LINE_LENGTH;
+
 
 	/**
 	 * Create a {@code StringDecoder} that decodes a bytes stream to a String stream
@@ -74,9 +107,52 @@ public class StringDecoder extends AbstractDecoder<String> {
 	public StringDecoder(boolean splitOnNewline) {
 		super(new MimeType("text", "*", DEFAULT_CHARSET), MimeTypeUtils.ALL);
 		this.splitOnNewline = splitOnNewline;
+		this.delimiters = null;
+		this.stripDelimiter = false;
+	}
+
+	/**
+	 * Create a {@code StringDecoder} that decodes a bytes stream to a stream of lines,
+	 * ended by any of the given delimiters.
+	 *
+	 * <p>A line ends as soon as one of the delimiters has been received; when several
+	 * delimiters match at that point, the longest one is used. For instance, given the
+	 * {@linkplain #DEFAULT_DELIMITERS default delimiters}, both {@code "\r\n"} and
+	 * {@code "\n"} end a line.
+	 * @param delimiters the line delimiters
+	 * @param stripDelimiter whether to remove the delimiter from the emitted lines
+	 */
+	public StringDecoder(List<String> delimiters, boolean stripDelimiter) {
+		super(new MimeType("text", "*", DEFAULT_CHARSET), MimeTypeUtils.ALL);
+		Assert.notEmpty(delimiters, "'delimiters' must not be empty");
+		this.splitOnNewline = false;
+		this.delimiters = new ArrayList<>(delimiters);
+		this.delimiters.forEach(delimiter ->
+				Assert.hasLength(delimiter, "'delimiters' must not contain empty delimiters"));
+		this.delimiters.sort((d1, d2) -> d2.length() - d1.length());
+		this.stripDelimiter = stripDelimiter;
 	}
 
 
+	/**
+	 * Sets the maximum number of characters of a line, excluding its delimiter. Lines
+	 * exceeding this length cause an {@link IllegalStateException}. Only applies when
+	 * this decoder was created with a list of delimiters. Defaults to
+	 * {@link #DEFAULT_MAX_LINE_LENGTH}.
+	 * @param maxLineLength the maximum line length
+	 */
+	public void setMaxLineLength(int maxLineLength) {
+		Assert.isTrue(maxLineLength > 0, "'maxLineLength' must be larger than 0");
+		this.maxLineLength = maxLineLength;
+	}
+
+	/**
+	 * Returns the maximum number of characters of a line.
+	 */
+	public int getMaxLineLength() {
+		return this.maxLineLength;
+	}
+
 	@Override
 	public boolean canDecode(ResolvableType elementType, MimeType mimeType, Object... hints) {
 		return super.canDecode(elementType, mimeType, hints) &&
@@ -87,6 +163,17 @@ public class StringDecoder extends AbstractDecoder<String> {
 	public Flux<String> decode(Publisher<DataBuffer> inputStream, ResolvableType elementType,
 			MimeType mimeType, Object... hints) {
 
+		if (this.delimiters != null) {
+			Charset charset = getCharset(mimeType);
+			int maxLineLength = this.maxLineLength;
+			return Flux.defer(() -> {
+				LineDecoder lineDecoder = new LineDecoder(charset, this.delimiters,
+						this.stripDelimiter, maxLineLength);
+				return Flux.from(inputStream).
+						flatMap(lineDecoder::decode).
+						concatWith(Flux.defer(lineDecoder::complete));
+			});
+		}
 		Flux<DataBuffer> inputFlux = Flux.from(inputStream);
 		if (this.splitOnNewline) {
 			inputFlux = Flux.from(inputStream).flatMap(StringDecoder::splitOnNewline);
@@ -122,10 +209,19 @@ public class StringDecoder extends AbstractDecoder<String> {
 
 	private Flux<String> decodeInternal(Flux<DataBuffer> inputFlux, MimeType mimeType) {
 		Charset charset = getCharset(mimeType);
-		return inputFlux.map(dataBuffer -> {
-			CharBuffer charBuffer = charset.decode(dataBuffer.asByteBuffer());
-			DataBufferUtils.release(dataBuffer);
-			return charBuffer.toString();
+		return Flux.defer(() -> {
+			ChunkDecoder chunkDecoder = new ChunkDecoder(charset);
+			return inputFlux.map(dataBuffer -> {
+				try {
+					return chunkDecoder.decode(dataBuffer.asByteBuffer(), false).toString();
+				}
+				finally {
+					DataBufferUtils.release(dataBuffer);
+				}
+			}).concatWith(Flux.defer(() -> {
+				CharBuffer remainder = chunkDecoder.decode(EMPTY_BUFFER, true);
+				return (remainder.hasRemaining() ? Mono.just(remainder.toString()) : Mono.empty());
+			}));
 		});
 	}
 
@@ -138,4 +234,199 @@ public class StringDecoder extends AbstractDecoder<String> {
 		}
 	}
 
+
+	/**
+	 * Decodes consecutive chunks of bytes with a single {@link CharsetDecoder}, carrying
+	 * over the bytes of a character that is split across chunks. The returned
+	 * {@link CharBuffer} is reused, and only valid until the next invocation.
+	 */
+	private static class ChunkDecoder {
+
+		private final CharsetDecoder decoder;
+
+		private final int maxBytesPerChar;
+
+		private CharBuffer charBuffer = CharBuffer.allocate(256);
+
+		private ByteBuffer leftover;
+
+		public ChunkDecoder(Charset charset) {
+			this.decoder = charset.newDecoder().
+					onMalformedInput(CodingErrorAction.REPLACE).
+					onUnmappableCharacter(CodingErrorAction.REPLACE);
+			this.maxBytesPerChar = Math.max(4, (int) Math.ceil(charset.newEncoder().maxBytesPerChar()));
+		}
+
+		public CharBuffer decode(ByteBuffer input, boolean endOfInput) {
+			int capacity = (int) ((input.remaining() + this.maxBytesPerChar) *
+					this.decoder.maxCharsPerByte()) + 1;
+			if (this.charBuffer.capacity() < capacity) {
+				this.charBuffer = CharBuffer.allocate(capacity);
+			}
+			this.charBuffer.clear();
+			if (this.leftover != null) {
+				input = completeLeftover(input, endOfInput);
+			}
+			decodeChars(input, endOfInput);
+			if (input.hasRemaining()) {
+				this.leftover = ByteBuffer.allocate(this.maxBytesPerChar);
+				this.leftover.put(input);
+				this.leftover.flip();
+			}
+			if (endOfInput) {
+				this.decoder.flush(this.charBuffer);
+				this.decoder.reset();
+			}
+			this.charBuffer.flip();
+			return this.charBuffer;
+		}
+
+		/**
+		 * Decodes the character started by the leftover bytes, by appending as many
+		 * bytes of the given input as necessary.
+		 * @return the input, positioned after the bytes that were used
+		 */
+		private ByteBuffer completeLeftover(ByteBuffer input, boolean endOfInput) {
+			ByteBuffer leftover = this.leftover;
+			this.leftover = null;
+			int leftoverLength = leftover.remaining();
+			int count = Math.min(input.remaining(), this.maxBytesPerChar);
+			ByteBuffer combined = ByteBuffer.allocate(leftoverLength + count);
+			combined.put(leftover);
+			ByteBuffer head = input.duplicate();
+			head.limit(head.position() + count);
+			combined.put(head);
+			combined.flip();
+
+			boolean allInput = (count == input.remaining());
+			decodeChars(combined, endOfInput && allInput);
+			int used = combined.position() - leftoverLength;
+			if (used < 0 || (combined.hasRemaining() && allInput)) {
+				// Still incomplete: keep all bytes for the next chunk
+				this.leftover = combined;
+				ByteBuffer rest = input.duplicate();
+				rest.position(rest.limit());
+				return rest;
+			}
+			ByteBuffer rest = input.duplicate();
+			rest.position(rest.position() + used);
+			return rest;
+		}
+
+		private void decodeChars(ByteBuffer input, boolean endOfInput) {
+			CoderResult result = this.decoder.decode(input, this.charBuffer, endOfInput);
+			Assert.state(!result.isOverflow(), "CharBuffer overflow");
+		}
+	}
+
+
+	/**
+	 * Splits the decoded characters into lines, carrying over the start of a line
+	 * that is not complete yet in between data buffers.
+	 */
+	private static class LineDecoder {
+
+		private final ChunkDecoder chunkDecoder;
+
+		private final List<String> delimiters;
+
+		private final boolean stripDelimiter;
+
+		private final int maxLineLength;
+
+		private final StringBuilder line = new StringBuilder();
+
+		public LineDecoder(Charset charset, List<String> delimiters, boolean stripDelimiter,
+				int maxLineLength) {
+			this.chunkDecoder = new ChunkDecoder(charset);
+			this.delimiters = delimiters;
+			this.stripDelimiter = stripDelimiter;
+			this.maxLineLength = maxLineLength;
+		}
+
+		public Publisher<String> decode(DataBuffer dataBuffer) {
+			CharBuffer chars;
+			try {
+				chars = this.chunkDecoder.decode(dataBuffer.asByteBuffer(), false);
+			}
+			finally {
+				DataBufferUtils.release(dataBuffer);
+			}
+			return split(chars);
+		}
+
+		public Publisher<String> complete() {
+			CharBuffer chars = this.chunkDecoder.decode(EMPTY_BUFFER, true);
+			Flux<String> lines = Flux.from(split(chars));
+			if (this.line.length() > 0) {
+				String last = this.line.toString();
+				this.line.setLength(0);
+				lines = lines.concatWith(Mono.just(last));
+			}
+			return lines;
+		}
+
+		private Publisher<String> split(CharBuffer chars) {
+			List<String> lines = new ArrayList<>();
+			int runStart = chars.position();
+			int limit = chars.limit();
+			for (int i = runStart; i < limit; i++) {
+				char c = chars.get(i);
+				if (!isDelimiterEnd(c)) {
+					continue;
+				}
+				this.line.append(chars, runStart - chars.position(), i + 1 - chars.position());
+				runStart = i + 1;
+				String delimiter = endingDelimiter();
+				if (delimiter != null) {
+					int length = this.line.length() - delimiter.length();
+					if (length > this.maxLineLength) {
+						return lineTooLong(lines);
+					}
+					lines.add(this.stripDelimiter ?
+							this.line.substring(0, length) : this.line.toString());
+					this.line.setLength(0);
+				}
+			}
+			this.line.append(chars, runStart - chars.position(), limit - chars.position());
+			if (this.line.length() > this.maxLineLength + maxDelimiterLength()) {
+				return lineTooLong(lines);
+			}
+			return Flux.fromIterable(lines);
+		}
+
+		private boolean isDelimiterEnd(char c) {
+			for (String delimiter : this.delimiters) {
+				if (delimiter.charAt(delimiter.length() - 1) == c) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * Returns the longest delimiter that the current line ends with, if any.
+		 */
+		private String endingDelimiter() {
+			int lineLength = this.line.length();
+			for (String delimiter : this.delimiters) {
+				int offset = lineLength - delimiter.length();
+				if (offset >= 0 && this.line.indexOf(delimiter, offset) == offset) {
+					return delimiter;
+				}
+			}
+			return null;
+		}
+
+		private int maxDelimiterLength() {
+			return this.delimiters.get(0).length();
+		}
+
+		private Publisher<String> lineTooLong(List<String> lines) {
+			this.line.setLength(0);
+			return Flux.fromIterable(lines).concatWith(Flux.error(new IllegalStateException(
+					"line length exceeds " + this.maxLineLength + " characters")));
+		}
+	}
+
 }
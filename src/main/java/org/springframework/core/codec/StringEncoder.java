@@ -16,20 +16,40 @@
 
 package org.springframework.core.codec;
 
+import java.nio.charset.CharacterCodingException;
 import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.reactivestreams.Publisher;
 import reactor.core.publisher.Flux;
 
+import org.springframework.core.NamedThreadLocal;
 import org.springframework.core.ResolvableType;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.support.DataBufferUtils;
+import org.springframework.util.Assert;
 import org.springframework.util.MimeType;
 
 /**
  * Encode from a String stream to a bytes stream.
  *
+ * <p>Strings are encoded with a {@link CharsetEncoder} directly into a data buffer of
+ * the given {@link DataBufferFactory}, sized after the average number of bytes per
+ * character. Frequently emitted constant strings can be {@linkplain #setCachedValues
+ * cached} in their encoded form, so that they do not have to be encoded again; they
+ * are copied into a new data buffer every time they are emitted.
+ *
  * @author Sebastien Deleuze
  * @see StringDecoder
  */
@@ -37,11 +57,53 @@ public class StringEncoder extends AbstractEncoder<String> {
 
 	public static final Charset DEFAULT_CHARSET = StandardCharsets.UTF_8;
 
+	/**
+	 * The values cached by default: a single newline.
+	 */
+	public static final Set<String> DEFAULT_CACHED_VALUES = Collections.singleton("\n");
+
+	/**
+	 * Encoders for use outside of an encoded stream, reused per thread.
+	 */
+	private static final ThreadLocal<Map<Charset, CharsetEncoder>> charsetEncoders =
+			new NamedThreadLocal<Map<Charset, CharsetEncoder>>("StringEncoder CharsetEncoders") {
+				@Override
+				protected Map<Charset, CharsetEncoder> initialValue() {
+					return new HashMap<>(4);
+				}
+			};
+
+
+	private Set<String> cachedValues = DEFAULT_CACHED_VALUES;
+
+	private final Map<Charset, Map<String, byte[]>> encodedValues = new ConcurrentHashMap<>(4);
+
+
 	public StringEncoder() {
 		super(new MimeType("text", "plain", DEFAULT_CHARSET));
 	}
 
 
+	/**
+	 * Sets the strings that are cached in their encoded form. Intended for a small
+	 * number of short, frequently emitted constants, such as delimiters. Defaults to
+	 * {@link #DEFAULT_CACHED_VALUES}.
+	 * @param cachedValues the values to cache
+	 */
+	public void setCachedValues(String... cachedValues) {
+		Assert.notNull(cachedValues, "'cachedValues' must not be null");
+		this.cachedValues = Collections.unmodifiableSet(
+				new LinkedHashSet<>(Arrays.asList(cachedValues)));
+		this.encodedValues.clear();
+	}
+
+	/**
+	 * Returns the strings that are cached in their encoded form.
+	 */
+	public Collection<String> getCachedValues() {
+		return this.cachedValues;
+	}
+
 	@Override
 	public boolean canEncode(ResolvableType elementType, MimeType mimeType, Object... hints) {
 		Class<?> clazz = elementType.getRawClass();
@@ -59,12 +121,106 @@ public class StringEncoder extends AbstractEncoder<String> {
 		else {
 			 charset = DEFAULT_CHARSET;
 		}
-		return Flux.from(inputStream).map(s -> {
-			byte[] bytes = s.getBytes(charset);
-			DataBuffer dataBuffer = bufferFactory.allocateBuffer(bytes.length);
-			dataBuffer.write(bytes);
-			return dataBuffer;
+		return Flux.defer(() -> {
+			CharsetEncoder charsetEncoder = createCharsetEncoder(charset);
+			return Flux.from(inputStream).
+					map(value -> encodeValue(value, bufferFactory, charset, charsetEncoder));
 		});
 	}
 
+	/**
+	 * Encode a single string into a new {@link DataBuffer}.
+	 * @param value the string to encode
+	 * @param bufferFactory the factory to create the data buffer with
+	 * @param charset the charset to encode with
+	 * @return the encoded string
+	 */
+	public DataBuffer encodeValue(CharSequence value, DataBufferFactory bufferFactory,
+			Charset charset) {
+
+		Assert.notNull(value, "'value' must not be null");
+		Assert.notNull(bufferFactory, "'bufferFactory' must not be null");
+		Assert.notNull(charset, "'charset' must not be null");
+		return encodeValue(value, bufferFactory, charset, getCharsetEncoder(charset));
+	}
+
+	/**
+	 * Encode a single string into the given {@link DataBuffer}, starting at its current
+	 * writing position.
+	 * @param value the string to encode
+	 * @param dataBuffer the data buffer to write to
+	 * @param charset the charset to encode with
+	 * @return the given data buffer
+	 */
+	public DataBuffer encodeValue(CharSequence value, DataBuffer dataBuffer,
+			Charset charset) {
+
+		Assert.notNull(value, "'value' must not be null");
+		Assert.notNull(dataBuffer, "'dataBuffer' must not be null");
+		Assert.notNull(charset, "'charset' must not be null");
+		byte[] encodedValue = getEncodedValue(value, charset);
+		if (encodedValue != null) {
+			return dataBuffer.write(encodedValue);
+		}
+		return write(value, dataBuffer, getCharsetEncoder(charset));
+	}
+
+	private DataBuffer encodeValue(CharSequence value, DataBufferFactory bufferFactory,
+			Charset charset, CharsetEncoder charsetEncoder) {
+
+		byte[] encodedValue = getEncodedValue(value, charset);
+		if (encodedValue != null) {
+			return bufferFactory.allocateBuffer(encodedValue.length).write(encodedValue);
+		}
+		int estimatedSize = (int) Math.ceil(value.length() * charsetEncoder.averageBytesPerChar());
+		DataBuffer dataBuffer = bufferFactory.allocateBuffer(Math.max(1, estimatedSize));
+		try {
+			return write(value, dataBuffer, charsetEncoder);
+		}
+		catch (CodecException ex) {
+			DataBufferUtils.release(dataBuffer);
+			throw ex;
+		}
+	}
+
+	private byte[] getEncodedValue(CharSequence value, Charset charset) {
+		if (!(value instanceof String) || !this.cachedValues.contains(value)) {
+			return null;
+		}
+		Map<String, byte[]> values = this.encodedValues.computeIfAbsent(charset, key -> {
+			Map<String, byte[]> result = new ConcurrentHashMap<>(this.cachedValues.size());
+			this.cachedValues.forEach(cachedValue ->
+					result.put(cachedValue, cachedValue.getBytes(key)));
+			return result;
+		});
+		byte[] encodedValue = values.get(value);
+		// The cached values may have been changed concurrently
+		return (encodedValue != null ? encodedValue : ((String) value).getBytes(charset));
+	}
+
+	/**
+	 * Encodes the given string directly into the given data buffer.
+	 */
+	private static DataBuffer write(CharSequence value, DataBuffer dataBuffer,
+			CharsetEncoder charsetEncoder) {
+
+		try {
+			return dataBuffer.write(value, charsetEncoder);
+		}
+		catch (CharacterCodingException ex) {
+			throw new CodecException("Could not encode string", ex);
+		}
+	}
+
+	private static CharsetEncoder getCharsetEncoder(Charset charset) {
+		return charsetEncoders.get().
+				computeIfAbsent(charset, StringEncoder::createCharsetEncoder);
+	}
+
+	private static CharsetEncoder createCharsetEncoder(Charset charset) {
+		return charset.newEncoder().
+				onMalformedInput(CodingErrorAction.REPLACE).
+				onUnmappableCharacter(CodingErrorAction.REPLACE);
+	}
+
 }
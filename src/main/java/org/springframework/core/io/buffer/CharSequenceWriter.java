@@ -0,0 +1,76 @@
+/*
+ * Copyright 2002-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+/**
+ * Encodes characters directly into the writable storage of a {@link DataBuffer},
+ * requesting more room whenever the encoded form does not fit. Shared by the
+ * {@code DataBuffer} implementations of this package.
+ */
+abstract class CharSequenceWriter {
+
+	/**
+	 * Encode the given characters with the given encoder.
+	 * @param source the characters to encode
+	 * @param encoder the encoder to use, which is reset first
+	 * @param writable returns a byte buffer positioned at the current writing position,
+	 * with at least the given number of bytes remaining
+	 * @param written invoked with the byte buffer last returned by {@code writable}
+	 * after bytes have been encoded into it, to advance the writing position
+	 * @throws CharacterCodingException if the encoder reports malformed or unmappable
+	 * input
+	 */
+	static void write(CharSequence source, CharsetEncoder encoder,
+			IntFunction<ByteBuffer> writable, Consumer<ByteBuffer> written)
+			throws CharacterCodingException {
+
+		CharBuffer charBuffer = CharBuffer.wrap(source);
+		encoder.reset();
+		int capacity = capacity(charBuffer.remaining(), encoder.averageBytesPerChar());
+		CoderResult result;
+		do {
+			ByteBuffer byteBuffer = writable.apply(capacity);
+			result = encoder.encode(charBuffer, byteBuffer, true);
+			written.accept(byteBuffer);
+			capacity = capacity(Math.max(1, charBuffer.remaining()), encoder.maxBytesPerChar());
+		}
+		while (result.isOverflow());
+		if (result.isError()) {
+			result.throwException();
+		}
+		capacity = capacity(1, encoder.maxBytesPerChar());
+		do {
+			ByteBuffer byteBuffer = writable.apply(capacity);
+			result = encoder.flush(byteBuffer);
+			written.accept(byteBuffer);
+		}
+		while (result.isOverflow());
+	}
+
+	private static int capacity(int chars, float bytesPerChar) {
+		return (int) Math.ceil(chars * (double) bytesPerChar);
+	}
+
+}
@@ -0,0 +1,511 @@
+/*
+ * Copyright 2002-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetEncoder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntPredicate;
+
+import org.springframework.util.Assert;
+import org.springframework.util.ObjectUtils;
+
+/**
+ * {@link DataBuffer} implementation that presents a number of component buffers as a
+ * single, logical buffer, without copying their contents. Indices used by
+ * {@link #indexOf}, {@link #lastIndexOf} and {@link #slice} are relative to the start
+ * of the first component, and work across component boundaries.
+ *
+ * <p>Data buffers {@linkplain #write(DataBuffer...) written} to a composite become
+ * components themselves; the composite takes ownership of them, and releases them when
+ * it is released itself. Bytes written to a composite are stored in an additional
+ * component that is allocated as needed.
+ *
+ * @see org.springframework.core.io.buffer.support.DataBufferUtils#join
+ */
+public class CompositeDataBuffer implements PooledDataBuffer {
+
+	private static final int DEFAULT_TAIL_CAPACITY = 256;
+
+
+	private final DataBufferFactory dataBufferFactory;
+
+	private final CompositeDataBuffer parent;
+
+	private final List<DataBuffer> components = new ArrayList<>();
+
+	private final AtomicInteger refCount = new AtomicInteger(1);
+
+	private ByteBuffer[] views = new ByteBuffer[4];
+
+	private int[] offsets = new int[4];
+
+	private int viewCount;
+
+	private ByteBuffer tail;
+
+	private int readPosition;
+
+	private int writePosition;
+
+
+	/**
+	 * Creates a new, empty {@code CompositeDataBuffer}.
+	 * @param dataBufferFactory the factory that is reported as {@linkplain #factory()
+	 * creating} this buffer
+	 */
+	public CompositeDataBuffer(DataBufferFactory dataBufferFactory) {
+		Assert.notNull(dataBufferFactory, "'dataBufferFactory' must not be null");
+		this.dataBufferFactory = dataBufferFactory;
+		this.parent = null;
+	}
+
+	/**
+	 * Creates a new {@code CompositeDataBuffer} consisting of the given buffers. The
+	 * composite takes ownership of the buffers, and reports the factory of the first one
+	 * as its own.
+	 * @param dataBuffers the buffers to compose
+	 */
+	public CompositeDataBuffer(List<? extends DataBuffer> dataBuffers) {
+		Assert.notEmpty(dataBuffers, "'dataBuffers' must not be empty");
+		this.dataBufferFactory = dataBuffers.get(0).factory();
+		this.parent = null;
+		dataBuffers.forEach(this::addComponent);
+	}
+
+	private CompositeDataBuffer(CompositeDataBuffer parent) {
+		this.dataBufferFactory = parent.dataBufferFactory;
+		this.parent = parent;
+	}
+
+
+	@Override
+	public DataBufferFactory factory() {
+		return this.dataBufferFactory;
+	}
+
+	/**
+	 * Returns the number of components in this buffer.
+	 */
+	public int componentCount() {
+		return this.viewCount;
+	}
+
+	@Override
+	public int indexOf(IntPredicate predicate, int fromIndex) {
+		Assert.notNull(predicate, "'predicate' must not be null");
+		if (fromIndex < 0) {
+			fromIndex = 0;
+		}
+		else if (fromIndex >= this.writePosition) {
+			return -1;
+		}
+		for (int c = componentIndex(fromIndex); c < this.viewCount; c++) {
+			ByteBuffer view = this.views[c];
+			int offset = this.offsets[c];
+			for (int i = Math.max(fromIndex - offset, 0); i < view.limit(); i++) {
+				if (predicate.test(view.get(i))) {
+					return offset + i;
+				}
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public int lastIndexOf(IntPredicate predicate, int fromIndex) {
+		Assert.notNull(predicate, "'predicate' must not be null");
+		fromIndex = Math.min(fromIndex, this.writePosition - 1);
+		if (fromIndex < 0) {
+			return -1;
+		}
+		for (int c = componentIndex(fromIndex); c >= 0; c--) {
+			ByteBuffer view = this.views[c];
+			int offset = this.offsets[c];
+			for (int i = Math.min(fromIndex - offset, view.limit() - 1); i >= 0; i--) {
+				if (predicate.test(view.get(i))) {
+					return offset + i;
+				}
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public int readableByteCount() {
+		return this.writePosition - this.readPosition;
+	}
+
+	@Override
+	public byte read() {
+		if (this.readPosition >= this.writePosition) {
+			throw new IndexOutOfBoundsException("No readable bytes left");
+		}
+		int c = componentIndex(this.readPosition);
+		byte b = this.views[c].get(this.readPosition - this.offsets[c]);
+		this.readPosition++;
+		return b;
+	}
+
+	@Override
+	public CompositeDataBuffer read(byte[] destination) {
+		Assert.notNull(destination, "'destination' must not be null");
+		return read(destination, 0, destination.length);
+	}
+
+	@Override
+	public CompositeDataBuffer read(byte[] destination, int offset, int length) {
+		Assert.notNull(destination, "'destination' must not be null");
+		if (length > readableByteCount()) {
+			throw new IndexOutOfBoundsException("Cannot read " + length +
+					" bytes; only " + readableByteCount() + " readable");
+		}
+		copy(this.readPosition, destination, offset, length);
+		this.readPosition += length;
+		return this;
+	}
+
+	private void copy(int index, byte[] destination, int offset, int length) {
+		int c = componentIndex(index);
+		while (length > 0) {
+			ByteBuffer view = this.views[c].duplicate();
+			view.position(index - this.offsets[c]);
+			int count = Math.min(length, view.remaining());
+			view.get(destination, offset, count);
+			index += count;
+			offset += count;
+			length -= count;
+			c++;
+		}
+	}
+
+	@Override
+	public CompositeDataBuffer write(byte b) {
+		ensureTailCapacity(1);
+		growTail(1);
+		this.tail.put(this.tail.limit() - 1, b);
+		return this;
+	}
+
+	@Override
+	public CompositeDataBuffer write(byte[] source) {
+		Assert.notNull(source, "'source' must not be null");
+		return write(source, 0, source.length);
+	}
+
+	@Override
+	public CompositeDataBuffer write(byte[] source, int offset, int length) {
+		Assert.notNull(source, "'source' must not be null");
+		if (length == 0) {
+			return this;
+		}
+		ensureTailCapacity(length);
+		ByteBuffer duplicate = this.tail.duplicate();
+		duplicate.limit(duplicate.capacity());
+		duplicate.position(this.tail.limit());
+		duplicate.put(source, offset, length);
+		growTail(length);
+		return this;
+	}
+
+	@Override
+	public int write(InputStream source, int length) throws IOException {
+		Assert.notNull(source, "'source' must not be null");
+		if (length == 0) {
+			return 0;
+		}
+		ensureTailCapacity(length);
+		int read = source.read(this.tail.array(),
+				this.tail.arrayOffset() + this.tail.limit(), length);
+		if (read > 0) {
+			growTail(read);
+		}
+		return read;
+	}
+
+	@Override
+	public CompositeDataBuffer write(CharSequence source, CharsetEncoder encoder)
+			throws CharacterCodingException {
+		Assert.notNull(source, "'source' must not be null");
+		Assert.notNull(encoder, "'encoder' must not be null");
+
+		CharSequenceWriter.write(source, encoder,
+				capacity -> {
+					ensureTailCapacity(capacity);
+					ByteBuffer duplicate = this.tail.duplicate();
+					duplicate.limit(duplicate.capacity());
+					duplicate.position(this.tail.limit());
+					return duplicate;
+				},
+				buffer -> growTail(buffer.position() - this.tail.limit()));
+		return this;
+	}
+
+	/**
+	 * Adds the given buffers as components of this composite, without copying their
+	 * contents. This composite takes ownership of the given buffers, and releases them
+	 * when it is released itself.
+	 * @param buffers the buffers to add
+	 * @return this buffer
+	 */
+	@Override
+	public CompositeDataBuffer write(DataBuffer... buffers) {
+		if (!ObjectUtils.isEmpty(buffers)) {
+			Arrays.stream(buffers).forEach(this::addComponent);
+		}
+		return this;
+	}
+
+	/**
+	 * Adds the given byte buffers as components of this composite, without copying
+	 * their contents.
+	 * @param buffers the buffers to add
+	 * @return this buffer
+	 */
+	@Override
+	public CompositeDataBuffer write(ByteBuffer... buffers) {
+		Assert.notNull(buffers, "'buffers' must not be null");
+		Arrays.stream(buffers).forEach(byteBuffer -> addView(byteBuffer.slice()));
+		return this;
+	}
+
+	private void addComponent(DataBuffer dataBuffer) {
+		Assert.notNull(dataBuffer, "'dataBuffer' must not be null");
+		if (dataBuffer instanceof CompositeDataBuffer) {
+			CompositeDataBuffer composite = (CompositeDataBuffer) dataBuffer;
+			int index = composite.readPosition;
+			int length = composite.readableByteCount();
+			if (length > 0) {
+				composite.views(index, length).forEach(this::addView);
+			}
+		}
+		else if (dataBuffer.readableByteCount() > 0) {
+			addView(dataBuffer.asByteBuffer().slice());
+		}
+		this.components.add(dataBuffer);
+	}
+
+	private void addView(ByteBuffer view) {
+		if (view.hasRemaining()) {
+			appendView(view);
+			this.tail = null;
+		}
+	}
+
+	private void appendView(ByteBuffer view) {
+		if (this.viewCount == this.views.length) {
+			int newLength = this.viewCount * 2;
+			this.views = Arrays.copyOf(this.views, newLength);
+			this.offsets = Arrays.copyOf(this.offsets, newLength);
+		}
+		this.views[this.viewCount] = view;
+		this.offsets[this.viewCount] = this.writePosition;
+		this.viewCount++;
+		this.writePosition += view.limit();
+	}
+
+	private void ensureTailCapacity(int length) {
+		if (this.tail == null || this.tail.capacity() - this.tail.limit() < length) {
+			ByteBuffer newTail = ByteBuffer.allocate(Math.max(length, DEFAULT_TAIL_CAPACITY));
+			newTail.limit(0);
+			appendView(newTail);
+			this.tail = newTail;
+		}
+	}
+
+	private void growTail(int length) {
+		this.tail.limit(this.tail.limit() + length);
+		this.writePosition += length;
+	}
+
+	/**
+	 * Returns the index of the component that contains the byte at the given index.
+	 */
+	private int componentIndex(int index) {
+		int low = 0;
+		int high = this.viewCount - 1;
+		while (low < high) {
+			int mid = (low + high + 1) >>> 1;
+			if (this.offsets[mid] <= index) {
+				low = mid;
+			}
+			else {
+				high = mid - 1;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Returns views on the given region of this buffer, one per component touched.
+	 */
+	private List<ByteBuffer> views(int index, int length) {
+		List<ByteBuffer> result = new ArrayList<>();
+		int c = componentIndex(index);
+		while (length > 0) {
+			ByteBuffer view = this.views[c].duplicate();
+			view.position(index - this.offsets[c]);
+			int count = Math.min(length, view.remaining());
+			view.limit(view.position() + count);
+			result.add(view.slice());
+			index += count;
+			length -= count;
+			c++;
+		}
+		return result;
+	}
+
+	@Override
+	public CompositeDataBuffer slice(int index, int length) {
+		if (index < 0 || length < 0 || index + length > this.writePosition) {
+			throw new IndexOutOfBoundsException("index: " + index + ", length: " +
+					length + " (expected: range(0, " + this.writePosition + "))");
+		}
+		CompositeDataBuffer slice = new CompositeDataBuffer(root());
+		if (length > 0) {
+			views(index, length).forEach(slice::addView);
+		}
+		return slice;
+	}
+
+	/**
+	 * Exposes this buffer's readable bytes as a {@link ByteBuffer}. If these bytes are
+	 * contained in a single component, data is shared; otherwise, they are copied into
+	 * a newly allocated byte buffer.
+	 * @return this data buffer as a byte buffer
+	 */
+	@Override
+	public ByteBuffer asByteBuffer() {
+		int length = readableByteCount();
+		if (length == 0) {
+			return ByteBuffer.allocate(0);
+		}
+		List<ByteBuffer> views = views(this.readPosition, length);
+		if (views.size() == 1) {
+			return views.get(0);
+		}
+		ByteBuffer result = ByteBuffer.allocate(length);
+		views.forEach(result::put);
+		result.flip();
+		return result;
+	}
+
+	@Override
+	public InputStream asInputStream() {
+		return new CompositeDataBufferInputStream();
+	}
+
+	@Override
+	public OutputStream asOutputStream() {
+		return new CompositeDataBufferOutputStream();
+	}
+
+	private CompositeDataBuffer root() {
+		return (this.parent != null ? this.parent : this);
+	}
+
+	@Override
+	public CompositeDataBuffer retain() {
+		CompositeDataBuffer root = root();
+		int count;
+		do {
+			count = root.refCount.get();
+			if (count <= 0) {
+				throw new IllegalStateException("Buffer has already been released");
+			}
+		}
+		while (!root.refCount.compareAndSet(count, count + 1));
+		return this;
+	}
+
+	@Override
+	public boolean release() {
+		CompositeDataBuffer root = root();
+		int count;
+		do {
+			count = root.refCount.get();
+			if (count <= 0) {
+				throw new IllegalStateException("Buffer has already been released");
+			}
+		}
+		while (!root.refCount.compareAndSet(count, count - 1));
+
+		if (count == 1) {
+			for (DataBuffer component : root.components) {
+				if (component instanceof PooledDataBuffer) {
+					((PooledDataBuffer) component).release();
+				}
+			}
+			return true;
+		}
+		return false;
+	}
+
+	@Override
+	public String toString() {
+		return "CompositeDataBuffer (components: " + this.viewCount + ", readPosition: " +
+				this.readPosition + ", writePosition: " + this.writePosition + ")";
+	}
+
+
+	private class CompositeDataBufferInputStream extends InputStream {
+
+		@Override
+		public int available() throws IOException {
+			return readableByteCount();
+		}
+
+		@Override
+		public int read() {
+			return (readableByteCount() > 0 ? CompositeDataBuffer.this.read() & 0xFF : -1);
+		}
+
+		@Override
+		public int read(byte[] bytes, int off, int len) throws IOException {
+			int count = readableByteCount();
+			if (count > 0) {
+				int minLen = Math.min(len, count);
+				CompositeDataBuffer.this.read(bytes, off, minLen);
+				return minLen;
+			}
+			else {
+				return -1;
+			}
+		}
+	}
+
+	private class CompositeDataBufferOutputStream extends OutputStream {
+
+		@Override
+		public void write(int b) throws IOException {
+			CompositeDataBuffer.this.write((byte) b);
+		}
+
+		@Override
+		public void write(byte[] bytes, int off, int len) throws IOException {
+			CompositeDataBuffer.this.write(bytes, off, len);
+		}
+	}
+
+}
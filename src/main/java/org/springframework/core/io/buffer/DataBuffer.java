@@ -16,9 +16,12 @@
 
 package org.springframework.core.io.buffer;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetEncoder;
 import java.util.function.IntPredicate;
 
 /**
@@ -126,6 +129,32 @@ public interface DataBuffer {
 	 */
 	DataBuffer write(ByteBuffer... buffers);
 
+	/**
+	 * Reads at most {@code length} bytes from the given input stream into this buffer,
+	 * starting at the current writing position. Implementations read directly into the
+	 * storage of this buffer where possible. Only a single
+	 * {@link InputStream#read(byte[], int, int) read} is performed on the stream.
+	 * @param source the stream to read from
+	 * @param length the maximum number of bytes to read
+	 * @return the number of bytes read; or {@code -1} if the stream has reached its end
+	 * @throws IOException in case of I/O errors
+	 */
+	int write(InputStream source, int length) throws IOException;
+
+	/**
+	 * Encodes the given characters into this buffer with the given encoder, starting at
+	 * the current writing position. Implementations encode directly into the storage
+	 * of this buffer where possible, growing it as needed.
+	 * @param source the characters to encode
+	 * @param encoder the encoder to use, which is {@linkplain CharsetEncoder#reset()
+	 * reset} first
+	 * @return this buffer
+	 * @throws CharacterCodingException if the encoder reports malformed or unmappable
+	 * input
+	 */
+	DataBuffer write(CharSequence source, CharsetEncoder encoder)
+			throws CharacterCodingException;
+
 	/**
 	 * Creates a new {@code DataBuffer} whose contents is a shared subsequence of this
 	 * data buffer's content.  Data between this data buffer and the returned buffer is
@@ -20,6 +20,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetEncoder;
 import java.util.Arrays;
 import java.util.function.Function;
 import java.util.function.IntPredicate;
@@ -209,6 +211,45 @@ public class DefaultDataBuffer implements DataBuffer {
 		return this;
 	}
 
+	@Override
+	public int write(InputStream source, int length) throws IOException {
+		Assert.notNull(source, "'source' must not be null");
+
+		ensureExtraCapacity(length);
+		int read;
+		if (this.byteBuffer.hasArray()) {
+			read = source.read(this.byteBuffer.array(),
+					this.byteBuffer.arrayOffset() + this.writePosition, length);
+			if (read > 0) {
+				this.writePosition += read;
+			}
+		}
+		else {
+			byte[] bytes = new byte[length];
+			read = source.read(bytes);
+			if (read > 0) {
+				write(bytes, 0, read);
+			}
+		}
+		return read;
+	}
+
+	@Override
+	public DefaultDataBuffer write(CharSequence source, CharsetEncoder encoder)
+			throws CharacterCodingException {
+		Assert.notNull(source, "'source' must not be null");
+		Assert.notNull(encoder, "'encoder' must not be null");
+
+		CharSequenceWriter.write(source, encoder,
+				capacity -> {
+					ensureExtraCapacity(capacity);
+					this.byteBuffer.position(this.writePosition);
+					return this.byteBuffer;
+				},
+				buffer -> this.writePosition = buffer.position());
+		return this;
+	}
+
 	/**
 	 * Internal write method that keeps track of the {@link #writePosition} before and
 	 * after applying the given function on {@link #byteBuffer}.
@@ -265,15 +306,36 @@ public class DefaultDataBuffer implements DataBuffer {
 
 	void grow(int minCapacity) {
 		ByteBuffer oldBuffer = this.byteBuffer;
-		ByteBuffer newBuffer =
-				(oldBuffer.isDirect() ? ByteBuffer.allocateDirect(minCapacity) :
-						ByteBuffer.allocate(minCapacity));
+		ByteBuffer newBuffer = allocate(minCapacity, oldBuffer.isDirect());
 
-		oldBuffer.position(this.readPosition);
+		// copy everything up to the write position, so that both positions stay valid
+		oldBuffer.position(0);
+		oldBuffer.limit(this.writePosition);
 		newBuffer.put(oldBuffer);
 
 		this.byteBuffer = newBuffer;
 		oldBuffer.clear();
+		discard(oldBuffer);
+	}
+
+	/**
+	 * Allocates a new {@code ByteBuffer} of the given capacity when this buffer
+	 * needs to grow. Can be overridden to obtain the memory from elsewhere.
+	 * @param capacity the minimum capacity of the new byte buffer
+	 * @param direct whether the new byte buffer should be direct
+	 * @return the newly allocated byte buffer
+	 */
+	ByteBuffer allocate(int capacity, boolean direct) {
+		return (direct ? ByteBuffer.allocateDirect(capacity) :
+				ByteBuffer.allocate(capacity));
+	}
+
+	/**
+	 * Invoked after growing, with the {@code ByteBuffer} that is no longer used by
+	 * this data buffer. The default implementation does nothing.
+	 * @param byteBuffer the byte buffer that was replaced
+	 */
+	void discard(ByteBuffer byteBuffer) {
 	}
 
 
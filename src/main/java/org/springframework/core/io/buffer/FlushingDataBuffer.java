@@ -16,9 +16,12 @@
 
 package org.springframework.core.io.buffer;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetEncoder;
 import java.util.function.IntPredicate;
 
 /**
@@ -96,6 +99,17 @@ public class FlushingDataBuffer implements DataBuffer {
 		return this.buffer.write(buffers);
 	}
 
+	@Override
+	public int write(InputStream source, int length) throws IOException {
+		return this.buffer.write(source, length);
+	}
+
+	@Override
+	public DataBuffer write(CharSequence source, CharsetEncoder encoder)
+			throws CharacterCodingException {
+		return this.buffer.write(source, encoder);
+	}
+
 	@Override
 	public DataBuffer write(ByteBuffer... buffers) {
 		return this.buffer.write(buffers);
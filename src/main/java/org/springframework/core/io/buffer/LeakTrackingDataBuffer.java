@@ -0,0 +1,181 @@
+/*
+ * Copyright 2002-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetEncoder;
+import java.util.function.IntPredicate;
+
+/**
+ * {@link PooledDataBuffer} wrapper created by the {@link LeakTrackingDataBufferFactory},
+ * which notifies the factory when the wrapped buffer is released.
+ */
+class LeakTrackingDataBuffer implements PooledDataBuffer {
+
+	private final PooledDataBuffer delegate;
+
+	private final LeakTrackingDataBufferFactory.Tracker tracker;
+
+
+	LeakTrackingDataBuffer(PooledDataBuffer delegate,
+			LeakTrackingDataBufferFactory.Tracker tracker) {
+		this.delegate = delegate;
+		this.tracker = tracker;
+	}
+
+
+	@Override
+	public LeakTrackingDataBufferFactory factory() {
+		return this.tracker.factory();
+	}
+
+	@Override
+	public int indexOf(IntPredicate predicate, int fromIndex) {
+		return this.delegate.indexOf(predicate, fromIndex);
+	}
+
+	@Override
+	public int lastIndexOf(IntPredicate predicate, int fromIndex) {
+		return this.delegate.lastIndexOf(predicate, fromIndex);
+	}
+
+	@Override
+	public int readableByteCount() {
+		return this.delegate.readableByteCount();
+	}
+
+	@Override
+	public byte read() {
+		return this.delegate.read();
+	}
+
+	@Override
+	public LeakTrackingDataBuffer read(byte[] destination) {
+		this.delegate.read(destination);
+		return this;
+	}
+
+	@Override
+	public LeakTrackingDataBuffer read(byte[] destination, int offset, int length) {
+		this.delegate.read(destination, offset, length);
+		return this;
+	}
+
+	@Override
+	public LeakTrackingDataBuffer write(byte b) {
+		this.delegate.write(b);
+		return this;
+	}
+
+	@Override
+	public LeakTrackingDataBuffer write(byte[] source) {
+		this.delegate.write(source);
+		return this;
+	}
+
+	@Override
+	public LeakTrackingDataBuffer write(byte[] source, int offset, int length) {
+		this.delegate.write(source, offset, length);
+		return this;
+	}
+
+	@Override
+	public LeakTrackingDataBuffer write(DataBuffer... buffers) {
+		this.delegate.write(buffers);
+		return this;
+	}
+
+	@Override
+	public LeakTrackingDataBuffer write(ByteBuffer... buffers) {
+		this.delegate.write(buffers);
+		return this;
+	}
+
+	@Override
+	public int write(InputStream source, int length) throws IOException {
+		return this.delegate.write(source, length);
+	}
+
+	@Override
+	public DataBuffer write(CharSequence source, CharsetEncoder encoder)
+			throws CharacterCodingException {
+		return this.delegate.write(source, encoder);
+	}
+
+	@Override
+	public DataBuffer slice(int index, int length) {
+		DataBuffer slice = this.delegate.slice(index, length);
+		return (slice instanceof PooledDataBuffer ?
+				new LeakTrackingDataBuffer((PooledDataBuffer) slice, this.tracker) : slice);
+	}
+
+	@Override
+	public ByteBuffer asByteBuffer() {
+		return this.delegate.asByteBuffer();
+	}
+
+	@Override
+	public InputStream asInputStream() {
+		return this.delegate.asInputStream();
+	}
+
+	@Override
+	public OutputStream asOutputStream() {
+		return this.delegate.asOutputStream();
+	}
+
+	@Override
+	public LeakTrackingDataBuffer retain() {
+		this.delegate.retain();
+		return this;
+	}
+
+	@Override
+	public boolean release() {
+		boolean released = this.delegate.release();
+		if (released) {
+			this.tracker.released();
+		}
+		return released;
+	}
+
+	@Override
+	public int hashCode() {
+		return this.delegate.hashCode();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		else if (obj instanceof LeakTrackingDataBuffer) {
+			return this.delegate.equals(((LeakTrackingDataBuffer) obj).delegate);
+		}
+		return false;
+	}
+
+	@Override
+	public String toString() {
+		return "LeakTracking(" + this.delegate + ")";
+	}
+
+}
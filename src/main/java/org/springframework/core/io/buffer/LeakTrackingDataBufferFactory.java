@@ -0,0 +1,236 @@
+/*
+ * Copyright 2002-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.util.Assert;
+
+/**
+ * {@link DataBufferFactory} decorator that keeps track of the {@link PooledDataBuffer}s
+ * allocated by its delegate, in order to detect buffers that are never released.
+ *
+ * <p>All pooled buffers are counted, so that the number of live buffers and the number
+ * of bytes they hold can be monitored through {@link #getLiveBufferCount()} and
+ * {@link #getLiveByteCount()}. In addition, a sample of the allocations, determined by
+ * the sampling rate, records its allocation site. When such a buffer is garbage
+ * collected without having been released, the leak is logged together with the place
+ * where the buffer was allocated. Given that recording allocation sites is relatively
+ * expensive, a low sampling rate is recommended for production use.
+ *
+ * <p>Buffers that are not pooled cannot leak, and are returned as is.
+ *
+ * @see org.springframework.http.server.reactive.ServletHttpHandlerAdapter#setDataBufferFactory
+ */
+public class LeakTrackingDataBufferFactory implements DataBufferFactory {
+
+	/**
+	 * The default sampling rate: one out of a hundred allocations.
+	 */
+	public static final double DEFAULT_SAMPLING_RATE = 0.01;
+
+	private static final Log logger = LogFactory.getLog(LeakTrackingDataBufferFactory.class);
+
+
+	private final DataBufferFactory delegate;
+
+	private final double samplingRate;
+
+	private final AtomicLong liveBufferCount = new AtomicLong();
+
+	private final AtomicLong liveByteCount = new AtomicLong();
+
+	private final AtomicLong leakCount = new AtomicLong();
+
+	private final ReferenceQueue<Tracker> referenceQueue = new ReferenceQueue<>();
+
+	private final Set<LeakReference> leakReferences = ConcurrentHashMap.newKeySet();
+
+
+	/**
+	 * Creates a new {@code LeakTrackingDataBufferFactory} with the
+	 * {@linkplain #DEFAULT_SAMPLING_RATE default sampling rate}.
+	 * @param delegate the factory to track the buffers of
+	 */
+	public LeakTrackingDataBufferFactory(DataBufferFactory delegate) {
+		this(delegate, DEFAULT_SAMPLING_RATE);
+	}
+
+	/**
+	 * Creates a new {@code LeakTrackingDataBufferFactory} with the given sampling rate.
+	 * @param delegate the factory to track the buffers of
+	 * @param samplingRate the fraction of allocations whose allocation site is recorded,
+	 * between {@code 0} (none) and {@code 1} (all)
+	 */
+	public LeakTrackingDataBufferFactory(DataBufferFactory delegate, double samplingRate) {
+		Assert.notNull(delegate, "'delegate' must not be null");
+		Assert.isTrue(samplingRate >= 0 && samplingRate <= 1,
+				"'samplingRate' must be between 0 and 1");
+		this.delegate = delegate;
+		this.samplingRate = samplingRate;
+	}
+
+
+	/**
+	 * Returns the number of pooled buffers that have been allocated, but not yet
+	 * released.
+	 */
+	public long getLiveBufferCount() {
+		return this.liveBufferCount.get();
+	}
+
+	/**
+	 * Returns the capacity, in bytes, of all pooled buffers that have been allocated,
+	 * but not yet released.
+	 */
+	public long getLiveByteCount() {
+		return this.liveByteCount.get();
+	}
+
+	/**
+	 * Returns the number of sampled buffers that have been garbage collected without
+	 * having been released.
+	 */
+	public long getLeakCount() {
+		return this.leakCount.get();
+	}
+
+	@Override
+	public DataBuffer allocateBuffer() {
+		return track(this.delegate.allocateBuffer());
+	}
+
+	@Override
+	public DataBuffer allocateBuffer(int initialCapacity) {
+		return track(this.delegate.allocateBuffer(initialCapacity));
+	}
+
+	@Override
+	public DataBuffer wrap(ByteBuffer byteBuffer) {
+		return track(this.delegate.wrap(byteBuffer));
+	}
+
+	private DataBuffer track(DataBuffer dataBuffer) {
+		reportLeaks();
+		if (!(dataBuffer instanceof PooledDataBuffer)) {
+			return dataBuffer;
+		}
+		int capacity = capacity(dataBuffer);
+		this.liveBufferCount.incrementAndGet();
+		this.liveByteCount.addAndGet(capacity);
+
+		Tracker tracker = new Tracker(capacity);
+		if (this.samplingRate >= 1 || (this.samplingRate > 0 &&
+				ThreadLocalRandom.current().nextDouble() < this.samplingRate)) {
+			tracker.leakReference = new LeakReference(tracker, this.referenceQueue);
+			this.leakReferences.add(tracker.leakReference);
+		}
+		return new LeakTrackingDataBuffer((PooledDataBuffer) dataBuffer, tracker);
+	}
+
+	private static int capacity(DataBuffer dataBuffer) {
+		if (dataBuffer instanceof NettyDataBuffer) {
+			return ((NettyDataBuffer) dataBuffer).getNativeBuffer().capacity();
+		}
+		else if (dataBuffer instanceof DefaultDataBuffer) {
+			return ((DefaultDataBuffer) dataBuffer).getNativeBuffer().capacity();
+		}
+		else {
+			return dataBuffer.readableByteCount();
+		}
+	}
+
+	private void reportLeaks() {
+		LeakReference reference;
+		while ((reference = (LeakReference) this.referenceQueue.poll()) != null) {
+			if (this.leakReferences.remove(reference) && !reference.released) {
+				this.leakCount.incrementAndGet();
+				if (logger.isErrorEnabled()) {
+					logger.error("LEAK: DataBuffer with capacity " + reference.capacity +
+							" was garbage collected without being released. " +
+							"Make sure to call DataBufferUtils.release() when done with it.",
+							reference.allocationSite);
+				}
+			}
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "LeakTrackingDataBufferFactory (" + this.delegate + ")";
+	}
+
+
+	/**
+	 * Tracks the release of a single allocation. Shared by the allocated buffer and all
+	 * of its slices, so that it only becomes unreachable once they all are.
+	 */
+	final class Tracker {
+
+		private final int capacity;
+
+		private final AtomicBoolean released = new AtomicBoolean();
+
+		private LeakReference leakReference;
+
+		Tracker(int capacity) {
+			this.capacity = capacity;
+		}
+
+		LeakTrackingDataBufferFactory factory() {
+			return LeakTrackingDataBufferFactory.this;
+		}
+
+		void released() {
+			if (this.released.compareAndSet(false, true)) {
+				liveBufferCount.decrementAndGet();
+				liveByteCount.addAndGet(-this.capacity);
+				LeakReference reference = this.leakReference;
+				if (reference != null) {
+					reference.released = true;
+					leakReferences.remove(reference);
+					reference.clear();
+				}
+			}
+		}
+	}
+
+	private static final class LeakReference extends WeakReference<Tracker> {
+
+		private final Throwable allocationSite = new Throwable("DataBuffer allocation site");
+
+		private final int capacity;
+
+		private volatile boolean released;
+
+		public LeakReference(Tracker tracker, ReferenceQueue<Tracker> queue) {
+			super(tracker, queue);
+			this.capacity = tracker.capacity;
+		}
+	}
+
+}
@@ -16,9 +16,13 @@
 
 package org.springframework.core.io.buffer;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetEncoder;
 import java.util.Arrays;
 import java.util.function.IntPredicate;
 
@@ -163,6 +167,33 @@ public class NettyDataBuffer implements PooledDataBuffer {
 		return write(wrappedBuffers);
 	}
 
+	@Override
+	public int write(InputStream source, int length) throws IOException {
+		Assert.notNull(source, "'source' must not be null");
+		return this.byteBuf.writeBytes(source, length);
+	}
+
+	@Override
+	public NettyDataBuffer write(CharSequence source, CharsetEncoder encoder)
+			throws CharacterCodingException {
+		Assert.notNull(source, "'source' must not be null");
+		Assert.notNull(encoder, "'encoder' must not be null");
+
+		if (this.byteBuf instanceof CompositeByteBuf || this.byteBuf.nioBufferCount() != 1) {
+			// no single NIO view to encode into
+			this.byteBuf.writeBytes(encoder.encode(CharBuffer.wrap(source)));
+			return this;
+		}
+		CharSequenceWriter.write(source, encoder,
+				capacity -> {
+					this.byteBuf.ensureWritable(capacity);
+					return this.byteBuf.nioBuffer(this.byteBuf.writerIndex(),
+							this.byteBuf.writableBytes());
+				},
+				buffer -> this.byteBuf.writerIndex(this.byteBuf.writerIndex() + buffer.position()));
+		return this;
+	}
+
 	/**
 	 * Writes one or more Netty {@link ByteBuf}s to this buffer, starting at the current
 	 * writing position.
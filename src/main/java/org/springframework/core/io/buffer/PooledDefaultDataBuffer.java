@@ -0,0 +1,155 @@
+/*
+ * Copyright 2002-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reference-counted {@link DefaultDataBuffer}, whose memory is returned to the
+ * {@link PooledDefaultDataBufferFactory} that created it once it is released. Slices
+ * share both the memory and the reference count of the buffer they were created from.
+ *
+ * @see PooledDefaultDataBufferFactory
+ */
+public class PooledDefaultDataBuffer extends DefaultDataBuffer implements PooledDataBuffer {
+
+	private final PooledDefaultDataBufferFactory dataBufferFactory;
+
+	private final AtomicInteger refCount = new AtomicInteger(1);
+
+	private volatile boolean sliced;
+
+
+	PooledDefaultDataBuffer(ByteBuffer byteBuffer,
+			PooledDefaultDataBufferFactory dataBufferFactory) {
+		super(byteBuffer, dataBufferFactory);
+		this.dataBufferFactory = dataBufferFactory;
+	}
+
+
+	@Override
+	public PooledDefaultDataBufferFactory factory() {
+		return this.dataBufferFactory;
+	}
+
+	@Override
+	ByteBuffer allocate(int capacity, boolean direct) {
+		return this.dataBufferFactory.acquire(capacity, direct);
+	}
+
+	@Override
+	void discard(ByteBuffer byteBuffer) {
+		// slices might still refer to the old memory
+		if (!this.sliced) {
+			this.dataBufferFactory.recycle(byteBuffer);
+		}
+	}
+
+	@Override
+	public DataBuffer slice(int index, int length) {
+		ByteBuffer duplicate = getNativeBuffer().duplicate();
+		duplicate.position(index);
+		ByteBuffer slice = duplicate.slice();
+		slice.limit(length);
+		this.sliced = true;
+		return new SlicedPooledDataBuffer(slice, length, this);
+	}
+
+	@Override
+	public PooledDefaultDataBuffer retain() {
+		int count;
+		do {
+			count = this.refCount.get();
+			if (count <= 0) {
+				throw new IllegalStateException("Buffer has already been released");
+			}
+		}
+		while (!this.refCount.compareAndSet(count, count + 1));
+		return this;
+	}
+
+	@Override
+	public boolean release() {
+		int count;
+		do {
+			count = this.refCount.get();
+			if (count <= 0) {
+				throw new IllegalStateException("Buffer has already been released");
+			}
+		}
+		while (!this.refCount.compareAndSet(count, count - 1));
+
+		if (count == 1) {
+			// slices share the reference count, so they are released as well
+			this.dataBufferFactory.recycle(getNativeBuffer());
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the current reference count of this buffer.
+	 */
+	int refCount() {
+		return this.refCount.get();
+	}
+
+
+	/**
+	 * Slice of a {@code PooledDefaultDataBuffer}, which delegates reference counting to
+	 * its parent.
+	 */
+	private static class SlicedPooledDataBuffer extends DefaultDataBuffer
+			implements PooledDataBuffer {
+
+		private final PooledDefaultDataBuffer parent;
+
+		SlicedPooledDataBuffer(ByteBuffer byteBuffer, int length,
+				PooledDefaultDataBuffer parent) {
+			super(byteBuffer, 0, length, parent.factory());
+			this.parent = parent;
+		}
+
+		@Override
+		public DataBuffer slice(int index, int length) {
+			ByteBuffer duplicate = getNativeBuffer().duplicate();
+			duplicate.position(index);
+			ByteBuffer slice = duplicate.slice();
+			slice.limit(length);
+			return new SlicedPooledDataBuffer(slice, length, this.parent);
+		}
+
+		@Override
+		void grow(int minCapacity) {
+			throw new UnsupportedOperationException(
+					"Growing the capacity of a sliced buffer is not supported");
+		}
+
+		@Override
+		public PooledDataBuffer retain() {
+			this.parent.retain();
+			return this;
+		}
+
+		@Override
+		public boolean release() {
+			return this.parent.release();
+		}
+	}
+
+}
@@ -0,0 +1,234 @@
+/*
+ * Copyright 2002-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import org.springframework.util.Assert;
+
+/**
+ * Extension of the {@link DefaultDataBufferFactory} that recycles the memory of
+ * released buffers. Allocated buffers are {@link PooledDefaultDataBuffer}s: once their
+ * reference count drops to zero, their underlying {@link ByteBuffer} is returned to this
+ * factory, and handed out again on a subsequent allocation.
+ *
+ * <p>Capacities are rounded up to power-of-two size classes, starting at
+ * {@link #MIN_POOLED_CAPACITY}. Each size class has a bounded pool that is shared
+ * between all threads, fronted by a small cache per thread. Requests for a capacity
+ * larger than the configured maximum pooled capacity are served with regular,
+ * unpooled memory.
+ *
+ * <p>Buffers that are never released are not leaked, but simply garbage collected;
+ * their memory is just not reused.
+ *
+ * @see PooledDefaultDataBuffer
+ */
+public class PooledDefaultDataBufferFactory extends DefaultDataBufferFactory {
+
+	/**
+	 * The capacity of the smallest size class.
+	 */
+	public static final int MIN_POOLED_CAPACITY = 256;
+
+	/**
+	 * The default maximum capacity of pooled buffers.
+	 */
+	public static final int DEFAULT_MAX_POOLED_CAPACITY = 64 * 1024;
+
+	/**
+	 * The default number of buffers kept per size class in the shared pool.
+	 */
+	public static final int DEFAULT_SHARED_POOL_SIZE = 64;
+
+	/**
+	 * The default number of buffers kept per size class in each thread cache.
+	 */
+	public static final int DEFAULT_THREAD_CACHE_SIZE = 4;
+
+
+	private final boolean preferDirect;
+
+	private final int maxPooledCapacity;
+
+	private final List<BlockingQueue<ByteBuffer>> sharedPools;
+
+	private final ThreadLocal<ThreadCache> threadCaches;
+
+
+	/**
+	 * Creates a new {@code PooledDefaultDataBufferFactory} with default settings.
+	 */
+	public PooledDefaultDataBufferFactory() {
+		this(false);
+	}
+
+	/**
+	 * Creates a new {@code PooledDefaultDataBufferFactory}, indicating whether direct
+	 * buffers should be pooled.
+	 * @param preferDirect {@code true} if direct buffers are to be preferred; {@code
+	 * false} otherwise
+	 */
+	public PooledDefaultDataBufferFactory(boolean preferDirect) {
+		this(preferDirect, DEFAULT_INITIAL_CAPACITY, DEFAULT_MAX_POOLED_CAPACITY,
+				DEFAULT_SHARED_POOL_SIZE, DEFAULT_THREAD_CACHE_SIZE);
+	}
+
+	/**
+	 * Creates a new {@code PooledDefaultDataBufferFactory} with the given settings.
+	 * @param preferDirect {@code true} if direct buffers are to be preferred; {@code
+	 * false} otherwise
+	 * @param defaultInitialCapacity the capacity used by {@link #allocateBuffer()}
+	 * @param maxPooledCapacity the capacity above which buffers are no longer pooled;
+	 * rounded up to the next power of two
+	 * @param sharedPoolSize the maximum number of buffers kept per size class in the
+	 * pool shared between threads
+	 * @param threadCacheSize the maximum number of buffers kept per size class in the
+	 * cache of each thread; {@code 0} to disable thread caches
+	 */
+	public PooledDefaultDataBufferFactory(boolean preferDirect, int defaultInitialCapacity,
+			int maxPooledCapacity, int sharedPoolSize, int threadCacheSize) {
+		super(preferDirect, defaultInitialCapacity);
+		Assert.isTrue(maxPooledCapacity >= MIN_POOLED_CAPACITY,
+				"'maxPooledCapacity' should be at least " + MIN_POOLED_CAPACITY);
+		Assert.isTrue(sharedPoolSize > 0, "'sharedPoolSize' should be larger than 0");
+		Assert.isTrue(threadCacheSize >= 0, "'threadCacheSize' should be 0 or higher");
+
+		this.preferDirect = preferDirect;
+		this.maxPooledCapacity = roundUp(maxPooledCapacity);
+
+		int sizeClasses = sizeClass(this.maxPooledCapacity) + 1;
+		this.sharedPools = new ArrayList<>(sizeClasses);
+		for (int i = 0; i < sizeClasses; i++) {
+			this.sharedPools.add(new ArrayBlockingQueue<>(sharedPoolSize));
+		}
+		this.threadCaches = (threadCacheSize > 0 ?
+				ThreadLocal.withInitial(() -> new ThreadCache(sizeClasses, threadCacheSize)) :
+				null);
+	}
+
+
+	@Override
+	public PooledDefaultDataBuffer allocateBuffer(int initialCapacity) {
+		return new PooledDefaultDataBuffer(acquire(initialCapacity, this.preferDirect), this);
+	}
+
+	/**
+	 * Obtains a cleared {@code ByteBuffer} of at least the given capacity, either from
+	 * the thread cache, the shared pool, or by allocating a new one.
+	 */
+	ByteBuffer acquire(int capacity, boolean direct) {
+		if (capacity > this.maxPooledCapacity || direct != this.preferDirect) {
+			return (direct ? ByteBuffer.allocateDirect(capacity) :
+					ByteBuffer.allocate(capacity));
+		}
+		int sizeClass = sizeClass(capacity);
+		ByteBuffer byteBuffer = null;
+		if (this.threadCaches != null) {
+			byteBuffer = this.threadCaches.get().poll(sizeClass);
+		}
+		if (byteBuffer == null) {
+			byteBuffer = this.sharedPools.get(sizeClass).poll();
+		}
+		if (byteBuffer == null) {
+			int normalizedCapacity = MIN_POOLED_CAPACITY << sizeClass;
+			byteBuffer = (direct ? ByteBuffer.allocateDirect(normalizedCapacity) :
+					ByteBuffer.allocate(normalizedCapacity));
+		}
+		return byteBuffer;
+	}
+
+	/**
+	 * Returns the given {@code ByteBuffer} to the pool, if it was obtained from it, and
+	 * if there is room left. Otherwise, the buffer is left for garbage collection.
+	 */
+	void recycle(ByteBuffer byteBuffer) {
+		int capacity = byteBuffer.capacity();
+		if (capacity < MIN_POOLED_CAPACITY || capacity > this.maxPooledCapacity ||
+				Integer.bitCount(capacity) != 1 || byteBuffer.isDirect() != this.preferDirect) {
+			return;
+		}
+		byteBuffer.clear();
+		int sizeClass = sizeClass(capacity);
+		if (this.threadCaches == null || !this.threadCaches.get().offer(sizeClass, byteBuffer)) {
+			this.sharedPools.get(sizeClass).offer(byteBuffer);
+		}
+	}
+
+	private static int roundUp(int capacity) {
+		if (capacity <= MIN_POOLED_CAPACITY) {
+			return MIN_POOLED_CAPACITY;
+		}
+		int highestOneBit = Integer.highestOneBit(capacity);
+		return (highestOneBit == capacity ? capacity : highestOneBit << 1);
+	}
+
+	private static int sizeClass(int capacity) {
+		return Integer.numberOfTrailingZeros(roundUp(capacity)) -
+				Integer.numberOfTrailingZeros(MIN_POOLED_CAPACITY);
+	}
+
+	@Override
+	public String toString() {
+		return "PooledDefaultDataBufferFactory - preferDirect: " + this.preferDirect +
+				", maxPooledCapacity: " + this.maxPooledCapacity;
+	}
+
+
+	/**
+	 * Per-thread stack of recycled buffers for each size class. Only ever accessed by
+	 * the owning thread, hence no synchronization.
+	 */
+	private static class ThreadCache {
+
+		private final ByteBuffer[][] entries;
+
+		private final int[] counts;
+
+		public ThreadCache(int sizeClasses, int capacity) {
+			this.entries = new ByteBuffer[sizeClasses][capacity];
+			this.counts = new int[sizeClasses];
+		}
+
+		public ByteBuffer poll(int sizeClass) {
+			int count = this.counts[sizeClass];
+			if (count == 0) {
+				return null;
+			}
+			ByteBuffer[] stack = this.entries[sizeClass];
+			ByteBuffer byteBuffer = stack[--count];
+			stack[count] = null;
+			this.counts[sizeClass] = count;
+			return byteBuffer;
+		}
+
+		public boolean offer(int sizeClass, ByteBuffer byteBuffer) {
+			int count = this.counts[sizeClass];
+			ByteBuffer[] stack = this.entries[sizeClass];
+			if (count == stack.length) {
+				return false;
+			}
+			stack[count] = byteBuffer;
+			this.counts[sizeClass] = count + 1;
+			return true;
+		}
+	}
+
+}
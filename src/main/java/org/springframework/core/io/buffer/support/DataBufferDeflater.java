@@ -0,0 +1,205 @@
+/*
+ * Copyright 2002-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.core.io.buffer.support;
+
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.FlushingDataBuffer;
+import org.springframework.util.Assert;
+
+/**
+ * Compresses a stream of {@link DataBuffer}s in the {@code gzip} or {@code deflate}
+ * (zlib) format, one data buffer at a time.
+ *
+ * <p>Instances are stateful, and should be used for a single stream only. The native
+ * resources held by an instance must be freed by calling {@link #release()}; the
+ * {@link #deflate(Publisher, DataBufferFactory, boolean, int)} method takes care of
+ * that.
+ *
+ * @see DataBufferInflater
+ */
+public class DataBufferDeflater {
+
+	private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0,
+			0, 0, 0, 0, 0, (byte) 0xff};
+
+	private static final int OUTPUT_SIZE = 8192;
+
+
+	private final DataBufferFactory bufferFactory;
+
+	private final Deflater deflater;
+
+	private final CRC32 crc;
+
+	private final byte[] output = new byte[OUTPUT_SIZE];
+
+	private byte[] input = new byte[OUTPUT_SIZE];
+
+	private boolean headerWritten;
+
+
+	/**
+	 * Create a new {@code DataBufferDeflater}.
+	 * @param bufferFactory the factory to create compressed data buffers with
+	 * @param gzip {@code true} for the {@code gzip} format; {@code false} for the
+	 * {@code deflate} format
+	 * @param level the compression level, from {@code 0} to {@code 9}, or
+	 * {@link Deflater#DEFAULT_COMPRESSION}
+	 */
+	public DataBufferDeflater(DataBufferFactory bufferFactory, boolean gzip, int level) {
+		Assert.notNull(bufferFactory, "'bufferFactory' must not be null");
+		this.bufferFactory = bufferFactory;
+		this.deflater = new Deflater(level, gzip);
+		this.crc = (gzip ? new CRC32() : null);
+		this.headerWritten = !gzip;
+	}
+
+
+	/**
+	 * Compress the given data buffer in its entirety, and release it.
+	 * @param dataBuffer the data to compress
+	 * @return the compressed data that is available so far; possibly empty
+	 */
+	public DataBuffer deflate(DataBuffer dataBuffer) {
+		try {
+			ByteBuffer byteBuffer = dataBuffer.asByteBuffer();
+			int length = byteBuffer.remaining();
+			if (this.input.length < length) {
+				this.input = new byte[length];
+			}
+			byteBuffer.get(this.input, 0, length);
+			if (this.crc != null) {
+				this.crc.update(this.input, 0, length);
+			}
+			this.deflater.setInput(this.input, 0, length);
+		}
+		finally {
+			DataBufferUtils.release(dataBuffer);
+		}
+		DataBuffer result = startBuffer();
+		while (!this.deflater.needsInput()) {
+			write(result, this.deflater.deflate(this.output, 0, OUTPUT_SIZE, Deflater.NO_FLUSH));
+		}
+		return result;
+	}
+
+	/**
+	 * Flush all data compressed so far, so that it can be decompressed on the
+	 * receiving side without waiting for more data.
+	 * @return the flushed compressed data
+	 */
+	public DataBuffer flush() {
+		DataBuffer result = startBuffer();
+		int count;
+		do {
+			count = this.deflater.deflate(this.output, 0, OUTPUT_SIZE, Deflater.SYNC_FLUSH);
+			write(result, count);
+		}
+		while (count == OUTPUT_SIZE);
+		return result;
+	}
+
+	/**
+	 * Finish the compressed stream.
+	 * @return the remaining compressed data, including the {@code gzip} trailer
+	 */
+	public DataBuffer finish() {
+		DataBuffer result = startBuffer();
+		this.deflater.finish();
+		while (!this.deflater.finished()) {
+			write(result, this.deflater.deflate(this.output, 0, OUTPUT_SIZE));
+		}
+		if (this.crc != null) {
+			writeIntLittleEndian(result, (int) this.crc.getValue());
+			writeIntLittleEndian(result, (int) this.deflater.getBytesRead());
+		}
+		return result;
+	}
+
+	/**
+	 * Free the native resources held by this deflater.
+	 */
+	public void release() {
+		this.deflater.end();
+	}
+
+	private DataBuffer startBuffer() {
+		DataBuffer result = this.bufferFactory.allocateBuffer();
+		if (!this.headerWritten) {
+			result.write(GZIP_HEADER);
+			this.headerWritten = true;
+		}
+		return result;
+	}
+
+	private void write(DataBuffer dataBuffer, int count) {
+		if (count > 0) {
+			dataBuffer.write(this.output, 0, count);
+		}
+	}
+
+	private static void writeIntLittleEndian(DataBuffer dataBuffer, int value) {
+		dataBuffer.write(new byte[]{(byte) value, (byte) (value >> 8), (byte) (value >> 16),
+				(byte) (value >> 24)});
+	}
+
+
+	/**
+	 * Compress the given data buffers. A {@link FlushingDataBuffer} in the source
+	 * flushes the data compressed so far, and is passed on after it.
+	 * @param source the data buffers to compress
+	 * @param bufferFactory the factory to create compressed data buffers with
+	 * @param gzip {@code true} for the {@code gzip} format; {@code false} for the
+	 * {@code deflate} format
+	 * @param level the compression level
+	 * @return the compressed data buffers
+	 */
+	public static Flux<DataBuffer> deflate(Publisher<DataBuffer> source,
+			DataBufferFactory bufferFactory, boolean gzip, int level) {
+
+		Assert.notNull(source, "'source' must not be null");
+		return Flux.using(() -> new DataBufferDeflater(bufferFactory, gzip, level),
+				deflater -> Flux.from(source).
+						concatMap(dataBuffer -> {
+							if (dataBuffer instanceof FlushingDataBuffer) {
+								return Flux.just(deflater.flush(), dataBuffer);
+							}
+							return nonEmpty(deflater.deflate(dataBuffer));
+						}).
+						concatWith(Flux.defer(() -> Mono.just(deflater.finish()))),
+				DataBufferDeflater::release);
+	}
+
+	private static Mono<DataBuffer> nonEmpty(DataBuffer dataBuffer) {
+		if (dataBuffer.readableByteCount() > 0) {
+			return Mono.just(dataBuffer);
+		}
+		DataBufferUtils.release(dataBuffer);
+		return Mono.empty();
+	}
+
+}
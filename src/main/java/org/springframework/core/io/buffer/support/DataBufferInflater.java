@@ -0,0 +1,307 @@
+/*
+ * Copyright 2002-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.core.io.buffer.support;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.util.Assert;
+
+/**
+ * Decompresses a stream of {@link DataBuffer}s in the {@code gzip} or {@code deflate}
+ * (zlib) format, one data buffer at a time.
+ *
+ * <p>Instances are stateful, and should be used for a single stream only. The native
+ * resources held by an instance must be freed by calling {@link #release()}; the
+ * {@link #inflate(Publisher, DataBufferFactory, boolean, long)} method takes care of
+ * that. Invalid or truncated input, as well as output that exceeds the maximum size,
+ * results in an {@link IllegalStateException}.
+ *
+ * @see DataBufferDeflater
+ */
+public class DataBufferInflater {
+
+	private static final int GZIP_MAGIC = 0x8b1f;
+
+	private static final int GZIP_TRAILER_LENGTH = 8;
+
+	private static final int FHCRC = 2;
+
+	private static final int FEXTRA = 4;
+
+	private static final int FNAME = 8;
+
+	private static final int FCOMMENT = 16;
+
+	private static final int OUTPUT_SIZE = 8192;
+
+	private enum State {HEADER, BODY, TRAILER, DONE}
+
+
+	private final DataBufferFactory bufferFactory;
+
+	private final boolean gzip;
+
+	private final long maxSize;
+
+	private final Inflater inflater;
+
+	private final CRC32 crc;
+
+	private final byte[] output = new byte[OUTPUT_SIZE];
+
+	private byte[] input = new byte[OUTPUT_SIZE];
+
+	private byte[] pending = new byte[0];
+
+	private State state;
+
+	private long size;
+
+
+	/**
+	 * Create a new {@code DataBufferInflater}.
+	 * @param bufferFactory the factory to create decompressed data buffers with
+	 * @param gzip {@code true} for the {@code gzip} format; {@code false} for the
+	 * {@code deflate} format
+	 * @param maxSize the maximum number of decompressed bytes, or {@code -1} for no limit
+	 */
+	public DataBufferInflater(DataBufferFactory bufferFactory, boolean gzip, long maxSize) {
+		Assert.notNull(bufferFactory, "'bufferFactory' must not be null");
+		this.bufferFactory = bufferFactory;
+		this.gzip = gzip;
+		this.maxSize = maxSize;
+		this.inflater = new Inflater(gzip);
+		this.crc = (gzip ? new CRC32() : null);
+		this.state = (gzip ? State.HEADER : State.BODY);
+	}
+
+
+	/**
+	 * Decompress the given data buffer in its entirety, and release it.
+	 * @param dataBuffer the data to decompress
+	 * @return the decompressed data that is available so far; possibly empty
+	 */
+	public DataBuffer inflate(DataBuffer dataBuffer) {
+		int length;
+		try {
+			ByteBuffer byteBuffer = dataBuffer.asByteBuffer();
+			length = byteBuffer.remaining();
+			if (this.input.length < length) {
+				this.input = new byte[length];
+			}
+			byteBuffer.get(this.input, 0, length);
+		}
+		finally {
+			DataBufferUtils.release(dataBuffer);
+		}
+		DataBuffer result = this.bufferFactory.allocateBuffer();
+		try {
+			process(this.input, 0, length, result);
+			return result;
+		}
+		catch (RuntimeException ex) {
+			DataBufferUtils.release(result);
+			throw ex;
+		}
+	}
+
+	/**
+	 * Verify that the compressed stream is complete.
+	 */
+	public void finish() {
+		if (this.state != State.DONE) {
+			throw new IllegalStateException("Compressed stream is truncated");
+		}
+	}
+
+	/**
+	 * Free the native resources held by this inflater.
+	 */
+	public void release() {
+		this.inflater.end();
+	}
+
+	private void process(byte[] bytes, int offset, int length, DataBuffer result) {
+		while (length > 0) {
+			int used;
+			switch (this.state) {
+				case HEADER:
+					used = readHeader(bytes, offset, length);
+					break;
+				case BODY:
+					used = inflate(bytes, offset, length, result);
+					break;
+				case TRAILER:
+					used = readTrailer(bytes, offset, length);
+					break;
+				default:
+					// Ignore anything after the end of the compressed stream
+					return;
+			}
+			offset += used;
+			length -= used;
+		}
+	}
+
+	private int readHeader(byte[] bytes, int offset, int length) {
+		int pendingLength = this.pending.length;
+		byte[] header = Arrays.copyOf(this.pending, pendingLength + length);
+		System.arraycopy(bytes, offset, header, pendingLength, length);
+		int headerLength = gzipHeaderLength(header);
+		if (headerLength == -1) {
+			this.pending = header;
+			return length;
+		}
+		this.pending = new byte[0];
+		this.state = State.BODY;
+		return headerLength - pendingLength;
+	}
+
+	private int inflate(byte[] bytes, int offset, int length, DataBuffer result) {
+		this.inflater.setInput(bytes, offset, length);
+		try {
+			while (!this.inflater.finished() && !this.inflater.needsInput()) {
+				int count = this.inflater.inflate(this.output);
+				if (count == 0 && this.inflater.needsDictionary()) {
+					throw new IllegalStateException("Compressed stream requires a dictionary");
+				}
+				this.size += count;
+				if (this.maxSize >= 0 && this.size > this.maxSize) {
+					throw new IllegalStateException(
+							"Decompressed data exceeds " + this.maxSize + " bytes");
+				}
+				if (this.crc != null) {
+					this.crc.update(this.output, 0, count);
+				}
+				result.write(this.output, 0, count);
+			}
+		}
+		catch (DataFormatException ex) {
+			throw new IllegalStateException("Invalid compressed stream: " + ex.getMessage(), ex);
+		}
+		if (this.inflater.finished()) {
+			this.state = (this.gzip ? State.TRAILER : State.DONE);
+			return length - this.inflater.getRemaining();
+		}
+		return length;
+	}
+
+	private int readTrailer(byte[] bytes, int offset, int length) {
+		int pendingLength = this.pending.length;
+		int used = Math.min(length, GZIP_TRAILER_LENGTH - pendingLength);
+		this.pending = Arrays.copyOf(this.pending, pendingLength + used);
+		System.arraycopy(bytes, offset, this.pending, pendingLength, used);
+		if (this.pending.length == GZIP_TRAILER_LENGTH) {
+			if (readIntLittleEndian(this.pending, 0) != (int) this.crc.getValue() ||
+					readIntLittleEndian(this.pending, 4) != (int) this.size) {
+				throw new IllegalStateException("Corrupt gzip trailer");
+			}
+			this.pending = new byte[0];
+			this.state = State.DONE;
+		}
+		return used;
+	}
+
+	/**
+	 * Returns the length of the gzip header at the start of the given bytes, or
+	 * {@code -1} if the header is not complete yet.
+	 */
+	private static int gzipHeaderLength(byte[] header) {
+		if (header.length < 10) {
+			return -1;
+		}
+		if (((header[0] & 0xff) | ((header[1] & 0xff) << 8)) != GZIP_MAGIC ||
+				header[2] != 8) {
+			throw new IllegalStateException("Not in gzip format");
+		}
+		int flags = header[3];
+		int position = 10;
+		if ((flags & FEXTRA) != 0) {
+			if (header.length < position + 2) {
+				return -1;
+			}
+			position += 2 + ((header[position] & 0xff) | ((header[position + 1] & 0xff) << 8));
+		}
+		if ((flags & FNAME) != 0) {
+			position = skipZeroTerminated(header, position);
+		}
+		if ((flags & FCOMMENT) != 0 && position != -1) {
+			position = skipZeroTerminated(header, position);
+		}
+		if ((flags & FHCRC) != 0 && position != -1) {
+			position += 2;
+		}
+		return (position != -1 && position <= header.length ? position : -1);
+	}
+
+	private static int skipZeroTerminated(byte[] bytes, int position) {
+		for (int i = position; i < bytes.length; i++) {
+			if (bytes[i] == 0) {
+				return i + 1;
+			}
+		}
+		return -1;
+	}
+
+	private static int readIntLittleEndian(byte[] bytes, int offset) {
+		return (bytes[offset] & 0xff) | ((bytes[offset + 1] & 0xff) << 8) |
+				((bytes[offset + 2] & 0xff) << 16) | ((bytes[offset + 3] & 0xff) << 24);
+	}
+
+
+	/**
+	 * Decompress the given data buffers.
+	 * @param source the data buffers to decompress
+	 * @param bufferFactory the factory to create decompressed data buffers with
+	 * @param gzip {@code true} for the {@code gzip} format; {@code false} for the
+	 * {@code deflate} format
+	 * @param maxSize the maximum number of decompressed bytes, or {@code -1} for no limit
+	 * @return the decompressed data buffers
+	 */
+	public static Flux<DataBuffer> inflate(Publisher<DataBuffer> source,
+			DataBufferFactory bufferFactory, boolean gzip, long maxSize) {
+
+		Assert.notNull(source, "'source' must not be null");
+		return Flux.using(() -> new DataBufferInflater(bufferFactory, gzip, maxSize),
+				inflater -> Flux.from(source).
+						concatMap(dataBuffer -> {
+							DataBuffer result = inflater.inflate(dataBuffer);
+							if (result.readableByteCount() > 0) {
+								return Mono.just(result);
+							}
+							DataBufferUtils.release(result);
+							return Mono.empty();
+						}).
+						concatWith(Mono.defer(() -> {
+							inflater.finish();
+							return Mono.empty();
+						})),
+				DataBufferInflater::release);
+	}
+
+}
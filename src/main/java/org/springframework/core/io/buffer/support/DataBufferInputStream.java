@@ -0,0 +1,226 @@
+/*
+ * Copyright 2002-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.core.io.buffer.support;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.util.Assert;
+
+/**
+ * {@link InputStream} that bridges a {@link DataBuffer} publisher to blocking readers,
+ * such as the XML parser of the JDK or Jackson parsers of binary formats.
+ *
+ * <p>At most {@code prefetch} data buffers are requested ahead of the reader; every
+ * buffer that has been read completely is released, after which the next one is
+ * requested. Reading blocks until data is available, so this stream should only be
+ * read from a thread that is allowed to block.
+ */
+public class DataBufferInputStream extends InputStream implements Subscriber<DataBuffer> {
+
+	private static final Object COMPLETE = new Object();
+
+	private static final Object CLOSED = new Object();
+
+
+	private final BlockingQueue<Object> queue = new LinkedBlockingQueue<>();
+
+	private final int prefetch;
+
+	private volatile Subscription subscription;
+
+	private volatile boolean closed;
+
+	private DataBuffer current;
+
+	private boolean completed;
+
+
+	public DataBufferInputStream(Publisher<DataBuffer> source, int prefetch) {
+		Assert.notNull(source, "'source' must not be null");
+		Assert.isTrue(prefetch > 0, "'prefetch' must be larger than 0");
+		this.prefetch = prefetch;
+		source.subscribe(this);
+	}
+
+
+	@Override
+	public void onSubscribe(Subscription subscription) {
+		this.subscription = subscription;
+		subscription.request(this.prefetch);
+	}
+
+	@Override
+	public void onNext(DataBuffer dataBuffer) {
+		if (this.closed) {
+			DataBufferUtils.release(dataBuffer);
+			return;
+		}
+		this.queue.offer(dataBuffer);
+		if (this.closed) {
+			releaseQueued();
+		}
+	}
+
+	@Override
+	public void onError(Throwable throwable) {
+		this.queue.offer(throwable);
+	}
+
+	@Override
+	public void onComplete() {
+		this.queue.offer(COMPLETE);
+	}
+
+	@Override
+	public int read() throws IOException {
+		if (!awaitCurrent()) {
+			return -1;
+		}
+		synchronized (this) {
+			if (this.closed) {
+				throw new IOException("Stream closed");
+			}
+			int b = this.current.read() & 0xFF;
+			releaseCurrentIfRead();
+			return b;
+		}
+	}
+
+	@Override
+	public int read(byte[] bytes, int offset, int length) throws IOException {
+		if (length == 0) {
+			return 0;
+		}
+		if (!awaitCurrent()) {
+			return -1;
+		}
+		synchronized (this) {
+			if (this.closed) {
+				throw new IOException("Stream closed");
+			}
+			int count = Math.min(length, this.current.readableByteCount());
+			this.current.read(bytes, offset, count);
+			releaseCurrentIfRead();
+			return count;
+		}
+	}
+
+	@Override
+	public synchronized int available() throws IOException {
+		return (this.current != null ? this.current.readableByteCount() : 0);
+	}
+
+	/**
+	 * Waits until a data buffer with readable bytes is available.
+	 * @return {@code false} if the source has completed
+	 */
+	private boolean awaitCurrent() throws IOException {
+		while (this.current == null) {
+			if (this.completed) {
+				return false;
+			}
+			Object signal;
+			try {
+				signal = this.queue.take();
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException();
+			}
+			if (signal instanceof DataBuffer) {
+				DataBuffer dataBuffer = (DataBuffer) signal;
+				synchronized (this) {
+					if (this.closed) {
+						DataBufferUtils.release(dataBuffer);
+						throw new IOException("Stream closed");
+					}
+					this.current = dataBuffer;
+					releaseCurrentIfRead();
+				}
+			}
+			else if (signal == COMPLETE) {
+				this.completed = true;
+			}
+			else if (signal == CLOSED) {
+				throw new IOException("Stream closed");
+			}
+			else {
+				throw new IOException((Throwable) signal);
+			}
+		}
+		return true;
+	}
+
+	private void releaseCurrentIfRead() {
+		if (this.current.readableByteCount() == 0) {
+			DataBufferUtils.release(this.current);
+			this.current = null;
+			this.subscription.request(1);
+		}
+	}
+
+	/**
+	 * Cancels the subscription to the source, and releases all buffers that have not
+	 * been read. Can be invoked from any thread; a blocked reader is woken up.
+	 */
+	@Override
+	public void close() {
+		synchronized (this) {
+			if (this.closed) {
+				return;
+			}
+			this.closed = true;
+			if (this.current != null) {
+				DataBufferUtils.release(this.current);
+				this.current = null;
+			}
+		}
+		Subscription subscription = this.subscription;
+		if (subscription != null) {
+			subscription.cancel();
+		}
+		releaseQueued();
+		this.queue.offer(CLOSED);
+	}
+
+	private void releaseQueued() {
+		List<Object> signals = new ArrayList<>();
+		this.queue.drainTo(signals);
+		for (Object signal : signals) {
+			if (signal instanceof DataBuffer) {
+				DataBufferUtils.release((DataBuffer) signal);
+			}
+			else {
+				// Keep terminal signals, so that a blocked reader still wakes up
+				this.queue.offer(signal);
+			}
+		}
+	}
+
+}
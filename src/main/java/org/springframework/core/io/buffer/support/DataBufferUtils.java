@@ -19,16 +19,28 @@ package org.springframework.core.io.buffer.support;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.Channel;
 import java.nio.channels.Channels;
+import java.nio.channels.CompletionHandler;
+import java.nio.channels.FileChannel;
 import java.nio.channels.ReadableByteChannel;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
 
 import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoEmitter;
 import reactor.core.subscriber.SignalEmitter;
+import reactor.core.util.BackpressureUtils;
 
+import org.springframework.core.io.buffer.CompositeDataBuffer;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferFactory;
 import org.springframework.core.io.buffer.PooledDataBuffer;
@@ -41,7 +53,7 @@ import org.springframework.util.Assert;
  */
 public abstract class DataBufferUtils {
 
-	private static final Consumer<ReadableByteChannel> CLOSE_CONSUMER = channel -> {
+	private static final Consumer<Channel> CLOSE_CONSUMER = channel -> {
 		try {
 			if (channel != null) {
 				channel.close();
@@ -86,6 +98,112 @@ public abstract class DataBufferUtils {
 				CLOSE_CONSUMER);
 	}
 
+	/**
+	 * Reads the given {@code FileChannel} into a {@code Flux} of {@code DataBuffer}s, by
+	 * {@linkplain FileChannel#map(FileChannel.MapMode, long, long) mapping} consecutive
+	 * regions of the file into memory and {@linkplain DataBufferFactory#wrap(ByteBuffer)
+	 * wrapping} them, rather than copying their contents. Closes the channel when the
+	 * flux is terminated.
+	 * <p>Note that accessing a mapped region can still block the calling thread while the
+	 * operating system pages in its contents.
+	 * @param channel the channel to read from
+	 * @param dataBufferFactory the factory to wrap the mapped regions with
+	 * @param regionSize the maximum size of the mapped regions
+	 * @return a flux of data buffers mapped from the given channel
+	 */
+	public static Flux<DataBuffer> readMapped(FileChannel channel,
+			DataBufferFactory dataBufferFactory, int regionSize) {
+		Assert.notNull(channel, "'channel' must not be null");
+		Assert.notNull(dataBufferFactory, "'dataBufferFactory' must not be null");
+		Assert.isTrue(regionSize > 0, "'regionSize' must be larger than 0");
+
+		return Flux.generate(() -> 0L,
+				new MappedFileChannelGenerator(channel, Long.MAX_VALUE, dataBufferFactory,
+						regionSize),
+				position -> CLOSE_CONSUMER.accept(channel));
+	}
+
+	/**
+	 * Reads the given region of a {@code FileChannel} into a {@code Flux} of
+	 * {@code DataBuffer}s, by mapping consecutive parts of the region into memory.
+	 * Closes the channel when the flux is terminated.
+	 * @param channel the channel to read from
+	 * @param position the position in the file to start reading from
+	 * @param count the maximum number of bytes to read
+	 * @param dataBufferFactory the factory to wrap the mapped regions with
+	 * @param regionSize the maximum size of the mapped regions
+	 * @return a flux of data buffers mapped from the given channel region
+	 * @see #readMapped(FileChannel, DataBufferFactory, int)
+	 */
+	public static Flux<DataBuffer> readMapped(FileChannel channel, long position,
+			long count, DataBufferFactory dataBufferFactory, int regionSize) {
+		Assert.notNull(channel, "'channel' must not be null");
+		Assert.notNull(dataBufferFactory, "'dataBufferFactory' must not be null");
+		Assert.isTrue(position >= 0, "'position' must be 0 or higher");
+		Assert.isTrue(count >= 0, "'count' must be 0 or higher");
+		Assert.isTrue(regionSize > 0, "'regionSize' must be larger than 0");
+
+		return Flux.generate(() -> position,
+				new MappedFileChannelGenerator(channel, position + count,
+						dataBufferFactory, regionSize),
+				current -> CLOSE_CONSUMER.accept(channel));
+	}
+
+	/**
+	 * Reads the given {@code AsynchronousFileChannel} into a {@code Flux} of
+	 * {@code DataBuffer}s, starting at the given position. Reads are only issued when
+	 * there is demand, and never block the calling thread. Closes the channel when the
+	 * flux is terminated.
+	 * @param channel the channel to read from
+	 * @param position the position in the file to start reading from
+	 * @param dataBufferFactory the factory to wrap the read bytes with
+	 * @param bufferSize the maximum size of the data buffers
+	 * @return a flux of data buffers read from the given channel
+	 */
+	public static Flux<DataBuffer> read(AsynchronousFileChannel channel, long position,
+			DataBufferFactory dataBufferFactory, int bufferSize) {
+		Assert.notNull(channel, "'channel' must not be null");
+		Assert.notNull(dataBufferFactory, "'dataBufferFactory' must not be null");
+		Assert.isTrue(position >= 0, "'position' must be 0 or higher");
+		Assert.isTrue(bufferSize > 0, "'bufferSize' must be larger than 0");
+
+		return Flux.from(new AsynchronousFileChannelPublisher(channel, position,
+				dataBufferFactory, bufferSize));
+	}
+
+	/**
+	 * Writes the buffers emitted by the given {@link Publisher} to the given
+	 * {@code AsynchronousFileChannel}, starting at the given position. Buffers are
+	 * written one at a time, with completion-driven writes that never block the calling
+	 * thread, and are released once written. Does <strong>not</strong> close the channel.
+	 * @param publisher the publisher whose buffers to write
+	 * @param channel the channel to write to
+	 * @param position the position in the file to start writing at
+	 * @return a mono that completes when all buffers have been written
+	 */
+	public static Mono<Void> write(Publisher<DataBuffer> publisher,
+			AsynchronousFileChannel channel, long position) {
+		Assert.notNull(publisher, "'publisher' must not be null");
+		Assert.notNull(channel, "'channel' must not be null");
+		Assert.isTrue(position >= 0, "'position' must be 0 or higher");
+
+		return Flux.defer(() -> {
+			AtomicLong nextPosition = new AtomicLong(position);
+			return Flux.from(publisher).
+					concatMap(dataBuffer -> {
+						long bufferPosition =
+								nextPosition.getAndAdd(dataBuffer.readableByteCount());
+						return Mono.<Void>create(emitter -> {
+							ByteBuffer byteBuffer = dataBuffer.asByteBuffer();
+							channel.write(byteBuffer, bufferPosition, byteBuffer,
+									new AsynchronousFileChannelWriteHandler(channel,
+											dataBuffer, bufferPosition, emitter));
+						});
+					});
+		}).
+				then();
+	}
+
 	/**
 	 * Relays buffers from the given {@link Publisher} until the total
 	 * {@linkplain DataBuffer#readableByteCount() byte count} reaches the given maximum
@@ -120,6 +238,26 @@ public abstract class DataBufferUtils {
 				});
 	}
 
+	/**
+	 * Joins all data buffers emitted by the given {@link Publisher} into a single
+	 * {@link CompositeDataBuffer}, without copying their contents. If the publisher emits
+	 * only a single buffer, that buffer is returned as is.
+	 * <p>The returned buffer takes ownership of the joined buffers: releasing it releases
+	 * all of them.
+	 * @param publisher the publisher whose buffers to join
+	 * @return a mono with the joined buffer; or an empty mono if the publisher did not
+	 * emit any buffers
+	 */
+	public static Mono<DataBuffer> join(Publisher<DataBuffer> publisher) {
+		Assert.notNull(publisher, "'publisher' must not be null");
+
+		return Flux.from(publisher).
+				collectList().
+				filter(dataBuffers -> !dataBuffers.isEmpty()).
+				map(dataBuffers -> dataBuffers.size() == 1 ? dataBuffers.get(0) :
+						new CompositeDataBuffer(dataBuffers));
+	}
+
 	/**
 	 * Retains the given data buffer, it it is a {@link PooledDataBuffer}.
 	 * @param dataBuffer the data buffer to retain
@@ -193,4 +331,193 @@ public abstract class DataBufferUtils {
 		}
 	}
 
+
+	private static class MappedFileChannelGenerator
+			implements BiFunction<Long, SignalEmitter<DataBuffer>, Long> {
+
+		private final FileChannel channel;
+
+		private final long end;
+
+		private final DataBufferFactory dataBufferFactory;
+
+		private final int regionSize;
+
+		public MappedFileChannelGenerator(FileChannel channel, long end,
+				DataBufferFactory dataBufferFactory, int regionSize) {
+			this.channel = channel;
+			this.end = end;
+			this.dataBufferFactory = dataBufferFactory;
+			this.regionSize = regionSize;
+		}
+
+		@Override
+		public Long apply(Long position, SignalEmitter<DataBuffer> sub) {
+			try {
+				long size = Math.min(this.channel.size(), this.end);
+				if (position < size) {
+					long count = Math.min(this.regionSize, size - position);
+					MappedByteBuffer region =
+							this.channel.map(FileChannel.MapMode.READ_ONLY, position, count);
+					sub.next(this.dataBufferFactory.wrap(region));
+					return position + count;
+				}
+				else {
+					sub.complete();
+				}
+			}
+			catch (IOException ex) {
+				sub.fail(ex);
+			}
+			return position;
+		}
+	}
+
+	/**
+	 * Publisher that issues a read on an {@link AsynchronousFileChannel} for every
+	 * requested buffer, one at a time.
+	 */
+	private static class AsynchronousFileChannelPublisher
+			implements Publisher<DataBuffer>, Subscription,
+			CompletionHandler<Integer, ByteBuffer> {
+
+		private final AsynchronousFileChannel channel;
+
+		private final DataBufferFactory dataBufferFactory;
+
+		private final int bufferSize;
+
+		private final AtomicLong demand = new AtomicLong();
+
+		private final AtomicBoolean reading = new AtomicBoolean();
+
+		private final AtomicBoolean subscribed = new AtomicBoolean();
+
+		private volatile boolean terminated;
+
+		private long position;
+
+		private Subscriber<? super DataBuffer> subscriber;
+
+		public AsynchronousFileChannelPublisher(AsynchronousFileChannel channel,
+				long position, DataBufferFactory dataBufferFactory, int bufferSize) {
+			this.channel = channel;
+			this.position = position;
+			this.dataBufferFactory = dataBufferFactory;
+			this.bufferSize = bufferSize;
+		}
+
+		@Override
+		public void subscribe(Subscriber<? super DataBuffer> subscriber) {
+			Assert.notNull(subscriber, "'subscriber' must not be null");
+			if (!this.subscribed.compareAndSet(false, true)) {
+				throw new IllegalStateException(
+						"AsynchronousFileChannel can only be read by a single subscriber");
+			}
+			this.subscriber = subscriber;
+			subscriber.onSubscribe(this);
+		}
+
+		@Override
+		public void request(long n) {
+			if (BackpressureUtils.checkRequest(n, this.subscriber)) {
+				BackpressureUtils.addAndGet(this.demand, n);
+				readIfPossible();
+			}
+		}
+
+		@Override
+		public void cancel() {
+			this.terminated = true;
+			if (!this.reading.get()) {
+				CLOSE_CONSUMER.accept(this.channel);
+			}
+		}
+
+		private void readIfPossible() {
+			if (!this.terminated && this.demand.get() > 0 &&
+					this.reading.compareAndSet(false, true)) {
+				ByteBuffer byteBuffer = ByteBuffer.allocate(this.bufferSize);
+				this.channel.read(byteBuffer, this.position, byteBuffer, this);
+			}
+		}
+
+		@Override
+		public void completed(Integer read, ByteBuffer byteBuffer) {
+			if (this.terminated) {
+				CLOSE_CONSUMER.accept(this.channel);
+			}
+			else if (read == -1) {
+				this.terminated = true;
+				CLOSE_CONSUMER.accept(this.channel);
+				this.subscriber.onComplete();
+			}
+			else {
+				this.position += read;
+				byteBuffer.flip();
+				BackpressureUtils.getAndSub(this.demand, 1L);
+				this.subscriber.onNext(this.dataBufferFactory.wrap(byteBuffer));
+				this.reading.set(false);
+				if (this.terminated) {
+					// cancelled from onNext, while cancel() saw the read in progress
+					CLOSE_CONSUMER.accept(this.channel);
+				}
+				else {
+					readIfPossible();
+				}
+			}
+		}
+
+		@Override
+		public void failed(Throwable ex, ByteBuffer byteBuffer) {
+			CLOSE_CONSUMER.accept(this.channel);
+			if (!this.terminated) {
+				this.terminated = true;
+				this.subscriber.onError(ex);
+			}
+		}
+	}
+
+	/**
+	 * Completion handler that keeps writing a single buffer to an
+	 * {@link AsynchronousFileChannel} until it has been written completely.
+	 */
+	private static class AsynchronousFileChannelWriteHandler
+			implements CompletionHandler<Integer, ByteBuffer> {
+
+		private final AsynchronousFileChannel channel;
+
+		private final DataBuffer dataBuffer;
+
+		private final MonoEmitter<Void> emitter;
+
+		private long position;
+
+		public AsynchronousFileChannelWriteHandler(AsynchronousFileChannel channel,
+				DataBuffer dataBuffer, long position, MonoEmitter<Void> emitter) {
+			this.channel = channel;
+			this.dataBuffer = dataBuffer;
+			this.position = position;
+			this.emitter = emitter;
+		}
+
+		@Override
+		public void completed(Integer written, ByteBuffer byteBuffer) {
+			this.position += written;
+			if (byteBuffer.hasRemaining()) {
+				this.channel.write(byteBuffer, this.position, byteBuffer, this);
+			}
+			else {
+				release(this.dataBuffer);
+				this.emitter.complete();
+			}
+		}
+
+		@Override
+		public void failed(Throwable ex, ByteBuffer byteBuffer) {
+			release(this.dataBuffer);
+			this.emitter.fail(ex);
+		}
+	}
+
 }
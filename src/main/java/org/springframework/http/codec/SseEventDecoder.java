@@ -0,0 +1,384 @@
+/*
+ * Copyright 2002-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.http.codec;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.AbstractDecoder;
+import org.springframework.core.codec.CodecException;
+import org.springframework.core.codec.Decoder;
+import org.springframework.core.io.buffer.CompositeDataBuffer;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.core.io.buffer.support.DataBufferUtils;
+import org.springframework.http.MediaType;
+import org.springframework.util.Assert;
+import org.springframework.util.MimeType;
+import org.springframework.web.reactive.sse.SseEvent;
+
+/**
+ * A decoder for {@code text/event-stream} content, the counterpart of
+ * {@link SseEventEncoder}.
+ *
+ * <p>The stream is parsed incrementally, line by line, as data buffers arrive. When
+ * decoding to {@link SseEvent}, the events are emitted with their data as
+ * {@code String}; when decoding to {@code String}, only the data of the events is
+ * emitted. For any other type, the data of every event is decoded as JSON by the first
+ * of the data decoders that supports it. The data lines are then passed on as the
+ * slices of the data buffers they were received in, without being turned into a
+ * {@code String} first.
+ *
+ * <p>Memory used per stream is bounded by the {@linkplain #setMaxEventSize maximum
+ * event size}. Lines are expected to end with {@code \n} or {@code \r\n}.
+ *
+ * @see <a href="https://www.w3.org/TR/eventsource/">Server-Sent Events W3C recommendation</a>
+ */
+public class SseEventDecoder extends AbstractDecoder<Object> {
+
+	/**
+	 * The default maximum size of an event, in bytes: 1M.
+	 */
+	public static final int DEFAULT_MAX_EVENT_SIZE = 1024 * 1024;
+
+	private static final MediaType DATA_MEDIA_TYPE = MediaType.APPLICATION_JSON;
+
+	private static final byte[] NEWLINE = {'\n'};
+
+
+	private final List<Decoder<?>> dataDecoders;
+
+	private final DefaultDataBufferFactory bufferFactory = new DefaultDataBufferFactory();
+
+	private int maxEventSize = DEFAULT_MAX_EVENT_SIZE;
+
+
+	public SseEventDecoder(List<Decoder<?>> dataDecoders) {
+		super(new MimeType("text", "event-stream"));
+		Assert.notNull(dataDecoders, "'dataDecoders' must not be null");
+		this.dataDecoders = dataDecoders;
+	}
+
+
+	/**
+	 * Sets the maximum number of bytes of a single line, and of the data of a single
+	 * event. Defaults to {@link #DEFAULT_MAX_EVENT_SIZE}.
+	 * @param maxEventSize the maximum event size
+	 */
+	public void setMaxEventSize(int maxEventSize) {
+		Assert.isTrue(maxEventSize > 0, "'maxEventSize' must be larger than 0");
+		this.maxEventSize = maxEventSize;
+	}
+
+	/**
+	 * Returns the maximum number of bytes of a single line, and of the data of a single
+	 * event.
+	 */
+	public int getMaxEventSize() {
+		return this.maxEventSize;
+	}
+
+	@Override
+	public boolean canDecode(ResolvableType elementType, MimeType mimeType, Object... hints) {
+		if (mimeType == null || !super.canDecode(elementType, mimeType, hints)) {
+			return false;
+		}
+		Class<?> clazz = elementType.getRawClass();
+		return (SseEvent.class.equals(clazz) || String.class.equals(clazz) ||
+				findDataDecoder(elementType).isPresent());
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public Flux<Object> decode(Publisher<DataBuffer> inputStream, ResolvableType elementType,
+			MimeType mimeType, Object... hints) {
+
+		Class<?> clazz = elementType.getRawClass();
+		Optional<Decoder<?>> dataDecoder = Optional.empty();
+		if (!SseEvent.class.equals(clazz) && !String.class.equals(clazz)) {
+			dataDecoder = findDataDecoder(elementType);
+			if (!dataDecoder.isPresent()) {
+				return Flux.error(new CodecException("No suitable decoder found for " + elementType));
+			}
+		}
+		int maxEventSize = this.maxEventSize;
+		boolean rawData = dataDecoder.isPresent();
+		Flux<SseEvent> events = Flux.using(() -> new EventParser(maxEventSize, rawData),
+				parser -> Flux.from(inputStream).concatMap(parser::parse),
+				EventParser::release);
+
+		if (SseEvent.class.equals(clazz)) {
+			return events.map(event -> (Object) event);
+		}
+		else if (String.class.equals(clazz)) {
+			return events.map(SseEvent::getData);
+		}
+		Decoder<?> decoder = dataDecoder.get();
+		return events.concatMap(event -> decodeData((List<DataBuffer>) event.getData(),
+				decoder, elementType));
+	}
+
+	private Optional<Decoder<?>> findDataDecoder(ResolvableType elementType) {
+		return this.dataDecoders.stream().
+				filter(decoder -> decoder.canDecode(elementType, DATA_MEDIA_TYPE)).
+				findFirst();
+	}
+
+	/**
+	 * Decode the given data lines, joined by newlines as in the W3C recommendation.
+	 */
+	@SuppressWarnings("unchecked")
+	private Flux<Object> decodeData(List<DataBuffer> lines, Decoder<?> dataDecoder,
+			ResolvableType elementType) {
+
+		List<DataBuffer> dataBuffers = new ArrayList<>(lines.size() * 2 - 1);
+		for (DataBuffer line : lines) {
+			if (!dataBuffers.isEmpty()) {
+				dataBuffers.add(this.bufferFactory.wrap(ByteBuffer.wrap(NEWLINE)));
+			}
+			dataBuffers.add(line);
+		}
+		return ((Decoder<Object>) dataDecoder).decode(
+				DataBufferUtils.join(Flux.fromIterable(dataBuffers)), elementType,
+				DATA_MEDIA_TYPE);
+	}
+
+
+	/**
+	 * Splits data buffers into lines, keeping the start of a line that is not complete
+	 * yet in between buffers, and interprets the lines. Emits an event for every blank
+	 * line that follows data. As in the W3C recommendation, the last event id carries
+	 * over to subsequent events.
+	 */
+	private static class EventParser {
+
+		private final int maxEventSize;
+
+		private final boolean rawData;
+
+		/**
+		 * Slices that make up the current, incomplete line.
+		 */
+		private final List<DataBuffer> pending = new ArrayList<>();
+
+		private int pendingLength;
+
+		private final StringBuilder data = new StringBuilder();
+
+		/**
+		 * Slices that hold the data lines of the current event, if {@link #rawData}.
+		 */
+		private final List<DataBuffer> dataLines = new ArrayList<>();
+
+		private int dataLength;
+
+		private boolean hasData;
+
+		private String id;
+
+		private String name;
+
+		private Long reconnectTime;
+
+		private String comment;
+
+		public EventParser(int maxEventSize, boolean rawData) {
+			this.maxEventSize = maxEventSize;
+			this.rawData = rawData;
+		}
+
+		public Publisher<SseEvent> parse(DataBuffer dataBuffer) {
+			// Composing a single buffer gives us indices relative to its read position
+			DataBuffer chunk = new CompositeDataBuffer(Collections.singletonList(dataBuffer));
+			List<SseEvent> events = new ArrayList<>();
+			try {
+				ByteBuffer byteBuffer = chunk.asByteBuffer();
+				int offset = byteBuffer.position();
+				int lineStart = 0;
+				int length = byteBuffer.remaining();
+				for (int i = 0; i < length; i++) {
+					if (byteBuffer.get(offset + i) == '\n') {
+						addPending(chunk, lineStart, i - lineStart);
+						SseEvent event = processLine(completeLine());
+						if (event != null) {
+							events.add(event);
+						}
+						lineStart = i + 1;
+					}
+				}
+				addPending(chunk, lineStart, length - lineStart);
+				return Flux.fromIterable(events);
+			}
+			catch (IllegalStateException ex) {
+				release();
+				return Flux.fromIterable(events).concatWith(Flux.error(ex));
+			}
+			finally {
+				DataBufferUtils.release(chunk);
+			}
+		}
+
+		private void addPending(DataBuffer chunk, int index, int length) {
+			if (length > 0) {
+				this.pending.add(DataBufferUtils.retain(chunk.slice(index, length)));
+				this.pendingLength += length;
+			}
+			if (this.pendingLength > this.maxEventSize) {
+				throw new IllegalStateException(
+						"line length exceeds " + this.maxEventSize + " bytes");
+			}
+		}
+
+		private DataBuffer completeLine() {
+			DataBuffer line;
+			if (this.pending.isEmpty()) {
+				line = null;
+			}
+			else if (this.pending.size() == 1) {
+				line = this.pending.get(0);
+			}
+			else {
+				line = new CompositeDataBuffer(new ArrayList<>(this.pending));
+			}
+			this.pending.clear();
+			this.pendingLength = 0;
+			return line;
+		}
+
+		private SseEvent processLine(DataBuffer line) {
+			if (line == null) {
+				return dispatch();
+			}
+			try {
+				ByteBuffer bytes = line.asByteBuffer();
+				int start = bytes.position();
+				int end = bytes.limit();
+				if (bytes.get(end - 1) == '\r') {
+					end--;
+				}
+				if (start == end) {
+					return dispatch();
+				}
+				int colon = start;
+				while (colon < end && bytes.get(colon) != ':') {
+					colon++;
+				}
+				if (colon == start) {
+					this.comment = string(bytes, start + 1, end);
+					return null;
+				}
+				String field = string(bytes, start, colon);
+				int valueStart = Math.min(colon + 1, end);
+				if (valueStart < end && bytes.get(valueStart) == ' ') {
+					valueStart++;
+				}
+				switch (field) {
+					case "data":
+						addData(line, bytes, valueStart - start, valueStart, end);
+						break;
+					case "id":
+						this.id = string(bytes, valueStart, end);
+						break;
+					case "event":
+						this.name = string(bytes, valueStart, end);
+						break;
+					case "retry":
+						String value = string(bytes, valueStart, end);
+						if (!value.isEmpty() && value.chars().allMatch(Character::isDigit)) {
+							this.reconnectTime = Long.valueOf(value);
+						}
+						break;
+					default:
+						// Unknown fields are ignored
+				}
+				return null;
+			}
+			finally {
+				DataBufferUtils.release(line);
+			}
+		}
+
+		private void addData(DataBuffer line, ByteBuffer bytes, int index, int start,
+				int end) {
+
+			int length = end - start;
+			if (this.dataLength + length + 1 > this.maxEventSize) {
+				throw new IllegalStateException(
+						"event data exceeds " + this.maxEventSize + " bytes");
+			}
+			if (this.rawData) {
+				this.dataLines.add(DataBufferUtils.retain(line.slice(index, length)));
+			}
+			else {
+				this.data.append(string(bytes, start, end)).append('\n');
+			}
+			this.dataLength += length + 1;
+			this.hasData = true;
+		}
+
+		private static String string(ByteBuffer bytes, int start, int end) {
+			ByteBuffer region = bytes.duplicate();
+			region.position(start);
+			region.limit(end);
+			return StandardCharsets.UTF_8.decode(region).toString();
+		}
+
+		private SseEvent dispatch() {
+			if (!this.hasData) {
+				reset();
+				return null;
+			}
+			SseEvent event = new SseEvent(this.rawData ? new ArrayList<>(this.dataLines) :
+					this.data.substring(0, this.data.length() - 1));
+			event.setId(this.id);
+			event.setName(this.name);
+			event.setReconnectTime(this.reconnectTime);
+			event.setComment(this.comment);
+			this.dataLines.clear();
+			reset();
+			return event;
+		}
+
+		private void reset() {
+			this.data.setLength(0);
+			this.dataLines.forEach(DataBufferUtils::release);
+			this.dataLines.clear();
+			this.dataLength = 0;
+			this.hasData = false;
+			this.name = null;
+			this.reconnectTime = null;
+			this.comment = null;
+		}
+
+		public void release() {
+			this.pending.forEach(DataBufferUtils::release);
+			this.pending.clear();
+			this.pendingLength = 0;
+			reset();
+		}
+	}
+
+}
@@ -16,21 +16,28 @@
 
 package org.springframework.http.codec;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
 
 import org.reactivestreams.Publisher;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.core.scheduler.TimedScheduler;
 
 import org.springframework.core.ResolvableType;
 import org.springframework.core.codec.CodecException;
 import org.springframework.core.codec.Encoder;
 import org.springframework.core.codec.AbstractEncoder;
+import org.springframework.core.codec.StringEncoder;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferFactory;
 import org.springframework.core.io.buffer.FlushingDataBuffer;
+import org.springframework.core.io.buffer.support.DataBufferUtils;
 import org.springframework.http.MediaType;
 import org.springframework.util.Assert;
 import org.springframework.util.MimeType;
@@ -39,12 +46,46 @@ import org.springframework.web.reactive.sse.SseEvent;
 /**
  * An encoder for {@link SseEvent}s that also supports any other kind of {@link Object}
  * (in that case, the object will be the data of the {@link SseEvent}).
+ *
+ * <p>Each event is written into a single {@link DataBuffer}. Written events are flushed
+ * through a {@link FlushingDataBuffer} according to a flush policy: after every
+ * {@linkplain #setFlushInterval flush interval} events, at most
+ * {@linkplain #setFlushPeriod flush period} milliseconds after an event was written,
+ * or when the unflushed events exceed the {@linkplain #setFlushThreshold flush
+ * threshold}, whichever comes first. By default, every event is flushed immediately.
+ *
  * @author Sebastien Deleuze
  */
 public class SseEventEncoder extends AbstractEncoder<Object> {
 
+	/**
+	 * The default flush threshold, in bytes: 8K.
+	 */
+	public static final int DEFAULT_FLUSH_THRESHOLD = 8 * 1024;
+
+	private static final Charset CHARSET = StandardCharsets.UTF_8;
+
+	private static final byte[] DATA_PREFIX = "data:".getBytes(CHARSET);
+
+	private static final byte[] EVENT_END = "\n\n".getBytes(CHARSET);
+
+	private static final Object FLUSH_PERIOD_ELAPSED = new Object();
+
+	private static final Object SOURCE_COMPLETE = new Object();
+
+
 	private final List<Encoder<?>> dataEncoders;
 
+	private final StringEncoder stringEncoder = new StringEncoder();
+
+	private int flushInterval = 1;
+
+	private long flushPeriod = 0;
+
+	private int flushThreshold = DEFAULT_FLUSH_THRESHOLD;
+
+	private TimedScheduler timer = Schedulers.timer();
+
 
 	public SseEventEncoder(List<Encoder<?>> dataEncoders) {
 		super(new MimeType("text", "event-stream"));
@@ -52,84 +93,241 @@ public class SseEventEncoder extends AbstractEncoder<Object> {
 		this.dataEncoders = dataEncoders;
 	}
 
+
+	/**
+	 * Sets the number of events after which written events are flushed. Defaults to
+	 * {@code 1}, i.e. flush after every event; {@code 0} disables flushing based on the
+	 * number of events.
+	 * @param flushInterval the number of events in between flushes
+	 */
+	public void setFlushInterval(int flushInterval) {
+		Assert.isTrue(flushInterval >= 0, "'flushInterval' must not be negative");
+		this.flushInterval = flushInterval;
+	}
+
+	/**
+	 * Returns the number of events after which written events are flushed.
+	 */
+	public int getFlushInterval() {
+		return this.flushInterval;
+	}
+
+	/**
+	 * Sets the maximum number of milliseconds that a written event remains unflushed.
+	 * Defaults to {@code 0}, which disables flushing based on time. Must be a multiple
+	 * of the resolution of the {@linkplain #setTimer timer}.
+	 * @param flushPeriod the flush period in milliseconds
+	 */
+	public void setFlushPeriod(long flushPeriod) {
+		Assert.isTrue(flushPeriod >= 0, "'flushPeriod' must not be negative");
+		this.flushPeriod = flushPeriod;
+	}
+
+	/**
+	 * Returns the maximum number of milliseconds that a written event remains unflushed.
+	 */
+	public long getFlushPeriod() {
+		return this.flushPeriod;
+	}
+
+	/**
+	 * Sets the timer that signals elapsed flush periods. Defaults to
+	 * {@link Schedulers#timer()}, which has a resolution of 50 milliseconds.
+	 * @param timer the timer to use
+	 */
+	public void setTimer(TimedScheduler timer) {
+		Assert.notNull(timer, "'timer' must not be null");
+		this.timer = timer;
+	}
+
+	/**
+	 * Sets the number of unflushed bytes after which written events are flushed.
+	 * Defaults to {@link #DEFAULT_FLUSH_THRESHOLD}.
+	 * @param flushThreshold the flush threshold in bytes
+	 */
+	public void setFlushThreshold(int flushThreshold) {
+		Assert.isTrue(flushThreshold > 0, "'flushThreshold' must be larger than 0");
+		this.flushThreshold = flushThreshold;
+	}
+
+	/**
+	 * Returns the number of unflushed bytes after which written events are flushed.
+	 */
+	public int getFlushThreshold() {
+		return this.flushThreshold;
+	}
+
 	@Override
 	public Flux<DataBuffer> encode(Publisher<?> inputStream, DataBufferFactory bufferFactory,
 			ResolvableType type, MimeType sseMimeType, Object... hints) {
 
-		return Flux.from(inputStream).flatMap(input -> {
-			SseEvent event = (SseEvent.class.equals(type.getRawClass()) ?
-					(SseEvent)input : new SseEvent(input));
+		Flux<Object> events = Flux.from(inputStream).
+				concatMap(input -> encodeEvent(input, type, bufferFactory)).
+				map(dataBuffer -> (Object) dataBuffer).
+				concatWith(Mono.just(SOURCE_COMPLETE));
+		if (this.flushPeriod > 0) {
+			// Ticks are dropped while a slow client has no demand: one suffices to flush
+			Flux<Object> ticks = Flux.interval(this.flushPeriod, this.timer).onBackpressureDrop().
+					map(tick -> FLUSH_PERIOD_ELAPSED);
+			events = Flux.merge(events, ticks).takeUntil(signal -> signal == SOURCE_COMPLETE);
+		}
+		Flux<Object> signals = events;
 
-			StringBuilder sb = new StringBuilder();
+		// Keep the SSE connection open even for cold stream in order to avoid
+		// unexpected browser reconnection
+		return Flux.defer(() -> signals.concatMap(new FlushPolicy(this.flushInterval,
+				this.flushThreshold))).
+				concatWith(Flux.never());
+	}
 
-			if (event.getId() != null) {
-				sb.append("id:");
-				sb.append(event.getId());
-				sb.append("\n");
-			}
+	@SuppressWarnings("unchecked")
+	private Mono<DataBuffer> encodeEvent(Object input, ResolvableType type,
+			DataBufferFactory bufferFactory) {
 
-			if (event.getName() != null) {
-				sb.append("event:");
-				sb.append(event.getName());
-				sb.append("\n");
-			}
+		SseEvent event = (SseEvent.class.equals(type.getRawClass()) ?
+				(SseEvent) input : new SseEvent(input));
 
-			if (event.getReconnectTime() != null) {
-				sb.append("retry:");
-				sb.append(event.getReconnectTime().toString());
-				sb.append("\n");
-			}
+		StringBuilder sb = new StringBuilder();
+		if (event.getId() != null) {
+			sb.append("id:").append(event.getId()).append('\n');
+		}
+		if (event.getName() != null) {
+			sb.append("event:").append(event.getName()).append('\n');
+		}
+		if (event.getReconnectTime() != null) {
+			sb.append("retry:").append(event.getReconnectTime()).append('\n');
+		}
+		if (event.getComment() != null) {
+			appendLines(sb, ":", event.getComment());
+		}
 
-			if (event.getComment() != null) {
-				sb.append(":");
-				sb.append(event.getComment().replaceAll("\\n", "\n:"));
-				sb.append("\n");
+		Object data = event.getData();
+		if (data == null || data instanceof String) {
+			if (data != null) {
+				appendLines(sb, "data:", (String) data);
 			}
+			sb.append('\n');
+			return Mono.just(this.stringEncoder.encodeValue(sb, bufferFactory, CHARSET));
+		}
 
-			Object data = event.getData();
-			Flux<DataBuffer> dataBuffer = Flux.empty();
-			MediaType mediaType = (event.getMediaType() == null ?
-					MediaType.ALL : event.getMediaType());
-			if (data != null) {
-				sb.append("data:");
-				if (data instanceof String) {
-					sb.append(((String)data).replaceAll("\\n", "\ndata:")).append("\n");
-				}
-				else {
-					Optional<Encoder<?>> encoder = dataEncoders
-						.stream()
-						.filter(e -> e.canEncode(ResolvableType.forClass(data.getClass()), mediaType))
-						.findFirst();
-
-					if (encoder.isPresent()) {
-						dataBuffer = ((Encoder<Object>)encoder.get())
-								.encode(Mono.just(data), bufferFactory,
-										ResolvableType.forClass(data.getClass()), mediaType)
-								.concatWith(encodeString("\n", bufferFactory));
-					}
-					else {
-						throw new CodecException("No suitable encoder found!");
-					}
+		MediaType mediaType = (event.getMediaType() == null ?
+				MediaType.ALL : event.getMediaType());
+		ResolvableType dataType = ResolvableType.forClass(data.getClass());
+		Optional<Encoder<?>> encoder = this.dataEncoders.stream().
+				filter(e -> e.canEncode(dataType, mediaType)).
+				findFirst();
+		if (!encoder.isPresent()) {
+			return Mono.error(new CodecException("No suitable encoder found!"));
+		}
+		sb.append("data:");
+		return ((Encoder<Object>) encoder.get()).
+				encode(Mono.just(data), bufferFactory, dataType, mediaType).
+				collectList().
+				map(dataBuffers -> {
+					DataBuffer buffer = this.stringEncoder.encodeValue(sb,
+							bufferFactory.allocateBuffer(), CHARSET);
+					dataBuffers.forEach(dataBuffer -> writeData(buffer, dataBuffer));
+					return buffer.write(EVENT_END);
+				});
+	}
+
+	/**
+	 * Appends the given text as lines with the given prefix, one for every line of the
+	 * text.
+	 */
+	private static void appendLines(StringBuilder sb, String prefix, String text) {
+		int start = 0;
+		int end;
+		while ((end = text.indexOf('\n', start)) != -1) {
+			sb.append(prefix).append(text, start, end).append('\n');
+			start = end + 1;
+		}
+		sb.append(prefix).append(text, start, text.length()).append('\n');
+	}
+
+	/**
+	 * Copies the given encoded data into the buffer, prefixing every line after the
+	 * first one with {@code data:}.
+	 */
+	private static void writeData(DataBuffer buffer, DataBuffer data) {
+		try {
+			ByteBuffer byteBuffer = data.asByteBuffer();
+			int start = byteBuffer.position();
+			int end = byteBuffer.limit();
+			for (int i = start; i < end; i++) {
+				if (byteBuffer.get(i) == '\n') {
+					write(buffer, byteBuffer, start, i + 1);
+					buffer.write(DATA_PREFIX);
+					start = i + 1;
 				}
 			}
+			write(buffer, byteBuffer, start, end);
+		}
+		finally {
+			DataBufferUtils.release(data);
+		}
+	}
 
-			// Keep the SSE connection open even for cold stream in order to avoid
-			// unexpected browser reconnection
-			return Flux.concat(
-					encodeString(sb.toString(), bufferFactory),
-					dataBuffer,
-					encodeString("\n", bufferFactory),
-					Mono.just(FlushingDataBuffer.INSTANCE),
-					Flux.never()
-			);
-		});
+	/**
+	 * Copies the given region of the byte buffer into the data buffer. Byte buffers
+	 * are not written as such, since some data buffers would keep them rather than
+	 * copy them, while the encoded data is released right after.
+	 */
+	private static void write(DataBuffer buffer, ByteBuffer byteBuffer, int start,
+			int end) {
 
+		if (byteBuffer.hasArray()) {
+			buffer.write(byteBuffer.array(), byteBuffer.arrayOffset() + start, end - start);
+		}
+		else {
+			byte[] bytes = new byte[end - start];
+			ByteBuffer region = byteBuffer.duplicate();
+			region.position(start);
+			region.get(bytes);
+			buffer.write(bytes);
+		}
 	}
 
-	private Mono<DataBuffer> encodeString(String str, DataBufferFactory bufferFactory) {
-		byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
-		DataBuffer buffer = bufferFactory.allocateBuffer(bytes.length).write(bytes);
-		return Mono.just(buffer);
+
+	/**
+	 * Function that passes on the encoded events, followed by a
+	 * {@link FlushingDataBuffer} when the flush policy requires so.
+	 */
+	private static class FlushPolicy implements Function<Object, Publisher<DataBuffer>> {
+
+		private final int flushInterval;
+
+		private final int flushThreshold;
+
+		private int eventCount;
+
+		private long byteCount;
+
+		public FlushPolicy(int flushInterval, int flushThreshold) {
+			this.flushInterval = flushInterval;
+			this.flushThreshold = flushThreshold;
+		}
+
+		@Override
+		public Publisher<DataBuffer> apply(Object signal) {
+			if (signal == FLUSH_PERIOD_ELAPSED || signal == SOURCE_COMPLETE) {
+				return (this.eventCount > 0 ? flush() : Flux.empty());
+			}
+			DataBuffer dataBuffer = (DataBuffer) signal;
+			this.eventCount++;
+			this.byteCount += dataBuffer.readableByteCount();
+			if ((this.flushInterval > 0 && this.eventCount >= this.flushInterval) ||
+					this.byteCount >= this.flushThreshold) {
+				return Flux.concat(Mono.just(dataBuffer), flush());
+			}
+			return Mono.just(dataBuffer);
+		}
+
+		private Mono<DataBuffer> flush() {
+			this.eventCount = 0;
+			this.byteCount = 0;
+			return Mono.just(FlushingDataBuffer.INSTANCE);
+		}
 	}
 
 }
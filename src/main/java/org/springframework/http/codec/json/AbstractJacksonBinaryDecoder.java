@@ -0,0 +1,141 @@
+/*
+ * Copyright 2002-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.codec.json;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.AbstractDecoder;
+import org.springframework.core.codec.CodecException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.support.DataBufferInputStream;
+import org.springframework.core.io.buffer.support.DataBufferUtils;
+import org.springframework.util.Assert;
+import org.springframework.util.MimeType;
+
+/**
+ * Base class for decoders that deserialize a binary Jackson data format, such as
+ * Smile or CBOR, into Objects.
+ *
+ * <p>Unlike JSON, binary formats cannot be split into values without parsing them,
+ * and Jackson 2.7 has no non-blocking parser for these formats. When decoding a stream
+ * of values, the parser therefore reads the data buffers through a blocking input
+ * stream on a {@linkplain #setScheduler separate scheduler}, and deserializes values
+ * one by one as they are requested, from either a top-level array or a sequence of
+ * root-level values. Only a few data buffers are held at a time, regardless of the
+ * size of the body. When decoding a single value, the received data buffers are
+ * joined (without copying them) and parsed once complete.
+ *
+ * @see AbstractJacksonBinaryEncoder
+ */
+public abstract class AbstractJacksonBinaryDecoder extends AbstractDecoder<Object> {
+
+	/**
+	 * The number of data buffers requested ahead of the blocking parser.
+	 */
+	private static final int BLOCKING_PREFETCH = 4;
+
+
+	private final ObjectMapper mapper;
+
+	private final JacksonTypeCache<ObjectReader> readerCache = new JacksonTypeCache<>();
+
+	private Scheduler scheduler = Schedulers.elastic();
+
+
+	protected AbstractJacksonBinaryDecoder(ObjectMapper mapper, MimeType... mimeTypes) {
+		super(mimeTypes);
+		Assert.notNull(mapper, "'mapper' must not be null");
+		this.mapper = mapper;
+	}
+
+
+	/**
+	 * Returns the object mapper used by this decoder.
+	 */
+	public ObjectMapper getObjectMapper() {
+		return this.mapper;
+	}
+
+	/**
+	 * Sets the scheduler on which the parser blocks while waiting for data, when
+	 * decoding a stream of values. Defaults to {@link Schedulers#elastic()}.
+	 * @param scheduler the scheduler to parse on
+	 */
+	public void setScheduler(Scheduler scheduler) {
+		Assert.notNull(scheduler, "'scheduler' must not be null");
+		this.scheduler = scheduler;
+	}
+
+	@Override
+	public Flux<Object> decode(Publisher<DataBuffer> inputStream, ResolvableType elementType,
+			MimeType mimeType, Object... hints) {
+
+		ObjectReader reader = getReader(inputStream, elementType, hints);
+		return Flux.using(() -> new DataBufferInputStream(inputStream, BLOCKING_PREFETCH),
+				is -> Flux.fromIterable(() -> readValues(reader, is)),
+				DataBufferInputStream::close).
+				subscribeOn(this.scheduler);
+	}
+
+	@Override
+	public Mono<Object> decodeOne(Publisher<DataBuffer> inputStream, ResolvableType elementType,
+			MimeType mimeType, Object... hints) {
+
+		ObjectReader reader = getReader(inputStream, elementType, hints);
+		return Flux.from(DataBufferUtils.join(inputStream)).
+				map(dataBuffer -> JacksonJsonDecoder.readValue(reader, dataBuffer)).
+				single();
+	}
+
+	private ObjectReader getReader(Publisher<DataBuffer> inputStream,
+			ResolvableType elementType, Object[] hints) {
+
+		Assert.notNull(inputStream, "'inputStream' must not be null");
+		Assert.notNull(elementType, "'elementType' must not be null");
+
+		return this.readerCache.get(elementType, hints, this::createReader);
+	}
+
+	private ObjectReader createReader(ResolvableType elementType) {
+		TypeFactory typeFactory = this.mapper.getTypeFactory();
+		JavaType javaType = typeFactory.constructType(elementType.getType());
+		return this.mapper.readerFor(javaType);
+	}
+
+	private Iterator<Object> readValues(ObjectReader reader, InputStream inputStream) {
+		try {
+			return reader.readValues(inputStream);
+		}
+		catch (IOException ex) {
+			throw new CodecException("Error while reading the data", ex);
+		}
+	}
+
+}
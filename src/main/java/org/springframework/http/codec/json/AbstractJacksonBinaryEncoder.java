@@ -0,0 +1,202 @@
+/*
+ * Copyright 2002-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.codec.json;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.AbstractEncoder;
+import org.springframework.core.codec.CodecException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.support.DataBufferUtils;
+import org.springframework.util.Assert;
+import org.springframework.util.MimeType;
+
+/**
+ * Base class for encoders that serialize Objects into a binary Jackson data format,
+ * such as Smile or CBOR.
+ *
+ * <p>A {@link Mono} is encoded as a single value. Any other publisher is encoded as an
+ * array that is streamed element by element: a single generator is used for the whole
+ * array, so that format features such as shared string references span elements, and
+ * every element is emitted as a data buffer as soon as it has been serialized.
+ *
+ * @see AbstractJacksonBinaryDecoder
+ */
+public abstract class AbstractJacksonBinaryEncoder extends AbstractEncoder<Object> {
+
+	private final ObjectMapper mapper;
+
+	private final JacksonTypeCache<ObjectWriter> writerCache = new JacksonTypeCache<>();
+
+
+	protected AbstractJacksonBinaryEncoder(ObjectMapper mapper, MimeType... mimeTypes) {
+		super(mimeTypes);
+		Assert.notNull(mapper, "'mapper' must not be null");
+		this.mapper = mapper;
+	}
+
+
+	/**
+	 * Returns the object mapper used by this encoder.
+	 */
+	public ObjectMapper getObjectMapper() {
+		return this.mapper;
+	}
+
+	@Override
+	public Flux<DataBuffer> encode(Publisher<?> inputStream,
+			DataBufferFactory bufferFactory, ResolvableType elementType, MimeType mimeType,
+			Object... hints) {
+
+		Assert.notNull(inputStream, "'inputStream' must not be null");
+		Assert.notNull(bufferFactory, "'bufferFactory' must not be null");
+		Assert.notNull(elementType, "'elementType' must not be null");
+
+		ObjectWriter writer = this.writerCache.get(elementType, hints, this::createWriter);
+		if (inputStream instanceof Mono) {
+			return Flux.from(inputStream).
+					map(value -> serialize(value, bufferFactory, writer));
+		}
+		return Flux.using(() -> new ArrayGenerator(bufferFactory, writer),
+				generator -> Flux.from(inputStream).
+						map(generator::writeElement).
+						concatWith(Mono.fromSupplier(generator::writeEnd)),
+				ArrayGenerator::release);
+	}
+
+	private ObjectWriter createWriter(ResolvableType type) {
+		TypeFactory typeFactory = this.mapper.getTypeFactory();
+		JavaType javaType = typeFactory.constructType(type.getType());
+		return this.mapper.writerFor(javaType);
+	}
+
+	private DataBuffer serialize(Object value, DataBufferFactory dataBufferFactory,
+			ObjectWriter writer) {
+		DataBuffer buffer = dataBufferFactory.allocateBuffer();
+		try {
+			writer.writeValue(buffer.asOutputStream(), value);
+		}
+		catch (IOException ex) {
+			throw new CodecException("Error while writing the data", ex);
+		}
+		return buffer;
+	}
+
+
+	/**
+	 * Writes the elements of an array with a single generator, cutting its output
+	 * into a new data buffer for every element.
+	 */
+	private static class ArrayGenerator extends OutputStream {
+
+		private final DataBufferFactory dataBufferFactory;
+
+		private final ObjectWriter writer;
+
+		private final JsonGenerator generator;
+
+		private DataBuffer buffer;
+
+		private boolean started;
+
+		public ArrayGenerator(DataBufferFactory dataBufferFactory, ObjectWriter writer)
+				throws IOException {
+			this.dataBufferFactory = dataBufferFactory;
+			this.writer = writer;
+			this.generator = writer.getFactory().createGenerator(this);
+		}
+
+		public DataBuffer writeElement(Object value) {
+			try {
+				writeStartIfNecessary();
+				this.writer.writeValue(this.generator, value);
+				return takeBuffer();
+			}
+			catch (IOException ex) {
+				throw new CodecException("Error while writing the data", ex);
+			}
+		}
+
+		public DataBuffer writeEnd() {
+			try {
+				writeStartIfNecessary();
+				this.generator.writeEndArray();
+				return takeBuffer();
+			}
+			catch (IOException ex) {
+				throw new CodecException("Error while writing the data", ex);
+			}
+		}
+
+		private void writeStartIfNecessary() throws IOException {
+			if (!this.started) {
+				this.generator.writeStartArray();
+				this.started = true;
+			}
+		}
+
+		private DataBuffer takeBuffer() throws IOException {
+			this.generator.flush();
+			DataBuffer result = getBuffer();
+			this.buffer = null;
+			return result;
+		}
+
+		private DataBuffer getBuffer() {
+			if (this.buffer == null) {
+				this.buffer = this.dataBufferFactory.allocateBuffer();
+			}
+			return this.buffer;
+		}
+
+		@Override
+		public void write(int b) {
+			getBuffer().write((byte) b);
+		}
+
+		@Override
+		public void write(byte[] bytes, int off, int len) {
+			getBuffer().write(bytes, off, len);
+		}
+
+		public void release() {
+			try {
+				this.generator.close();
+			}
+			catch (IOException ex) {
+				// ignore, we are only interested in the generator releasing its buffers
+			}
+			if (this.buffer != null) {
+				DataBufferUtils.release(this.buffer);
+				this.buffer = null;
+			}
+		}
+	}
+
+}
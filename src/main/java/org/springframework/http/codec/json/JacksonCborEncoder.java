@@ -0,0 +1,46 @@
+/*
+ * Copyright 2002-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.codec.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+
+import org.springframework.util.Assert;
+import org.springframework.util.MimeType;
+
+/**
+ * Encode from an {@code Object} stream to a byte stream of
+ * <a href="https://tools.ietf.org/html/rfc7049">CBOR</a> values.
+ *
+ * @see JacksonCborDecoder
+ */
+public class JacksonCborEncoder extends AbstractJacksonBinaryEncoder {
+
+	static final MimeType CBOR_MIME_TYPE = new MimeType("application", "cbor");
+
+
+	public JacksonCborEncoder() {
+		this(new ObjectMapper(new CBORFactory()));
+	}
+
+	public JacksonCborEncoder(ObjectMapper mapper) {
+		super(mapper, CBOR_MIME_TYPE);
+		Assert.isInstanceOf(CBORFactory.class, mapper.getFactory(),
+				"'mapper' must be configured with a CBORFactory");
+	}
+
+}
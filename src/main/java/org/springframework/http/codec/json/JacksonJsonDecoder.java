@@ -17,6 +17,7 @@
 package org.springframework.http.codec.json;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 
 import com.fasterxml.jackson.databind.JavaType;
@@ -39,6 +40,14 @@ import org.springframework.util.MimeType;
 /**
  * Decode a byte stream into JSON and convert to Object's with Jackson.
  *
+ * <p>When decoding a stream of objects, the input is split into JSON objects with a
+ * {@link JsonObjectDecoder}, and each object is deserialized as soon as it is complete.
+ * When decoding a single value, the input is aggregated and deserialized in one pass.
+ * Heap-based data buffers are parsed directly from their backing array.
+ *
+ * <p>The {@link ObjectReader} for each element type is cached; the cache hit and miss
+ * counts are exposed for monitoring purposes.
+ *
  * @author Sebastien Deleuze
  * @author Rossen Stoyanchev
  *
@@ -56,7 +65,7 @@ public class JacksonJsonDecoder extends AbstractDecoder<Object> {
 
 	private final JsonObjectDecoder fluxObjectDecoder = new JsonObjectDecoder(true);
 
-	private final JsonObjectDecoder monoObjectDecoder = new JsonObjectDecoder(false);
+	private final JacksonTypeCache<ObjectReader> readerCache = new JacksonTypeCache<>();
 
 
 	public JacksonJsonDecoder() {
@@ -69,44 +78,81 @@ public class JacksonJsonDecoder extends AbstractDecoder<Object> {
 	}
 
 
+	@Override
+	public boolean canDecode(ResolvableType elementType, MimeType mimeType, Object... hints) {
+		return !JacksonNdjsonEncoder.isNdjson(mimeType) &&
+				super.canDecode(elementType, mimeType, hints);
+	}
+
+	/**
+	 * Returns the number of times a cached {@link ObjectReader} was used.
+	 */
+	public long getReaderCacheHitCount() {
+		return this.readerCache.getHitCount();
+	}
+
+	/**
+	 * Returns the number of times an {@link ObjectReader} had to be created.
+	 */
+	public long getReaderCacheMissCount() {
+		return this.readerCache.getMissCount();
+	}
+
 	@Override
 	public Flux<Object> decode(Publisher<DataBuffer> inputStream, ResolvableType elementType,
 			MimeType mimeType, Object... hints) {
 
-		JsonObjectDecoder objectDecoder = this.fluxObjectDecoder;
-		return decodeInternal(objectDecoder, inputStream, elementType, mimeType, hints);
+		ObjectReader reader = getReader(inputStream, elementType, hints);
+		return this.fluxObjectDecoder.decode(inputStream, elementType, mimeType, hints).
+				map(dataBuffer -> readValue(reader, dataBuffer));
 	}
 
 	@Override
 	public Mono<Object> decodeOne(Publisher<DataBuffer> inputStream, ResolvableType elementType,
 			MimeType mimeType, Object... hints) {
 
-		JsonObjectDecoder objectDecoder = this.monoObjectDecoder;
-		return decodeInternal(objectDecoder, inputStream, elementType, mimeType, hints).single();
+		// No need to look for object boundaries: Jackson parses the whole input anyway
+		ObjectReader reader = getReader(inputStream, elementType, hints);
+		return Flux.from(DataBufferUtils.join(inputStream)).
+				map(dataBuffer -> readValue(reader, dataBuffer)).
+				single();
 	}
 
-	private Flux<Object> decodeInternal(JsonObjectDecoder objectDecoder, Publisher<DataBuffer> inputStream,
-			ResolvableType elementType, MimeType mimeType, Object[] hints) {
+	private ObjectReader getReader(Publisher<DataBuffer> inputStream,
+			ResolvableType elementType, Object[] hints) {
 
 		Assert.notNull(inputStream, "'inputStream' must not be null");
 		Assert.notNull(elementType, "'elementType' must not be null");
 
+		return this.readerCache.get(elementType, hints, this::createReader);
+	}
+
+	private ObjectReader createReader(ResolvableType elementType) {
 		TypeFactory typeFactory = this.mapper.getTypeFactory();
 		JavaType javaType = typeFactory.constructType(elementType.getType());
+		return this.mapper.readerFor(javaType);
+	}
 
-		ObjectReader reader = this.mapper.readerFor(javaType);
-
-		return objectDecoder.decode(inputStream, elementType, mimeType, hints)
-				.map(dataBuffer -> {
-					try {
-						Object value = reader.readValue(dataBuffer.asInputStream());
-						DataBufferUtils.release(dataBuffer);
-						return value;
-					}
-					catch (IOException e) {
-						return Flux.error(new CodecException("Error while reading the data", e));
-					}
-				});
+	/**
+	 * Deserializes the given buffer with the given reader, and releases the buffer.
+	 */
+	static Object readValue(ObjectReader reader, DataBuffer dataBuffer) {
+		try {
+			ByteBuffer byteBuffer = dataBuffer.asByteBuffer();
+			if (byteBuffer.hasArray()) {
+				return reader.readValue(byteBuffer.array(),
+						byteBuffer.arrayOffset() + byteBuffer.position(), byteBuffer.remaining());
+			}
+			else {
+				return reader.readValue(dataBuffer.asInputStream());
+			}
+		}
+		catch (IOException ex) {
+			throw new CodecException("Error while reading the data", ex);
+		}
+		finally {
+			DataBufferUtils.release(dataBuffer);
+		}
 	}
 
 }
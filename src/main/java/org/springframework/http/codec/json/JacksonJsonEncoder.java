@@ -18,7 +18,6 @@ package org.springframework.http.codec.json;
 
 import java.io.IOException;
 import java.io.OutputStream;
-import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 
 import com.fasterxml.jackson.databind.JavaType;
@@ -40,19 +39,32 @@ import org.springframework.util.MimeType;
 /**
  * Encode from an {@code Object} stream to a byte stream of JSON objects.
  *
+ * <p>A {@link Mono} is encoded as a single JSON value; any other publisher as a JSON
+ * array, of which the brackets and separators are written into the same buffers as
+ * the elements. Elements that are available right away are batched into a single
+ * buffer up to the {@linkplain #setBatchSize batch size}.
+ *
+ * <p>The {@link ObjectWriter} for each element type is cached; the cache hit and miss
+ * counts are exposed for monitoring purposes.
+ *
  * @author Sebastien Deleuze
  * @author Arjen Poutsma
  * @see JacksonJsonDecoder
  */
 public class JacksonJsonEncoder extends AbstractEncoder<Object> {
 
+	/**
+	 * The default batch size used when encoding arrays: 8 KB.
+	 */
+	public static final int DEFAULT_BATCH_SIZE = 8 * 1024;
+
+
 	private final ObjectMapper mapper;
 
-	private static final ByteBuffer START_ARRAY_BUFFER = ByteBuffer.wrap(new byte[]{'['});
+	private final JacksonTypeCache<ObjectWriter> writerCache = new JacksonTypeCache<>();
 
-	private static final ByteBuffer SEPARATOR_BUFFER = ByteBuffer.wrap(new byte[]{','});
+	private int batchSize = DEFAULT_BATCH_SIZE;
 
-	private static final ByteBuffer END_ARRAY_BUFFER = ByteBuffer.wrap(new byte[]{']'});
 
 	public JacksonJsonEncoder() {
 		this(new ObjectMapper());
@@ -66,6 +78,46 @@ public class JacksonJsonEncoder extends AbstractEncoder<Object> {
 		this.mapper = mapper;
 	}
 
+
+	@Override
+	public boolean canEncode(ResolvableType elementType, MimeType mimeType, Object... hints) {
+		return !JacksonNdjsonEncoder.isNdjson(mimeType) &&
+				super.canEncode(elementType, mimeType, hints);
+	}
+
+	/**
+	 * Sets the number of bytes up to which array elements that are available right
+	 * away are collected into a single data buffer. Defaults to
+	 * {@link #DEFAULT_BATCH_SIZE}; {@code 1} emits each element in its own buffer.
+	 * @param batchSize the batch size in bytes
+	 */
+	public void setBatchSize(int batchSize) {
+		Assert.isTrue(batchSize > 0, "'batchSize' must be larger than 0");
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Returns the number of bytes up to which array elements are collected into a
+	 * single data buffer.
+	 */
+	public int getBatchSize() {
+		return this.batchSize;
+	}
+
+	/**
+	 * Returns the number of times a cached {@link ObjectWriter} was used.
+	 */
+	public long getWriterCacheHitCount() {
+		return this.writerCache.getHitCount();
+	}
+
+	/**
+	 * Returns the number of times an {@link ObjectWriter} had to be created.
+	 */
+	public long getWriterCacheMissCount() {
+		return this.writerCache.getMissCount();
+	}
+
 	@Override
 	public Flux<DataBuffer> encode(Publisher<?> inputStream,
 			DataBufferFactory bufferFactory, ResolvableType elementType, MimeType mimeType,
@@ -73,37 +125,26 @@ public class JacksonJsonEncoder extends AbstractEncoder<Object> {
 		Assert.notNull(inputStream, "'inputStream' must not be null");
 		Assert.notNull(bufferFactory, "'bufferFactory' must not be null");
 		Assert.notNull(elementType, "'elementType' must not be null");
+		ObjectWriter writer = this.writerCache.get(elementType, hints, this::createWriter);
 		if (inputStream instanceof Mono) {
 			// single object
 			return Flux.from(inputStream)
-					.map(value -> serialize(value, bufferFactory, elementType));
+					.map(value -> serialize(value, bufferFactory, writer));
 		}
 		else {
-			// array
-			Mono<DataBuffer> startArray =
-					Mono.just(bufferFactory.wrap(START_ARRAY_BUFFER));
-			Flux<DataBuffer> arraySeparators =
-					Mono.fromSupplier(() -> bufferFactory.wrap(SEPARATOR_BUFFER)).repeat();
-			Mono<DataBuffer> endArray =
-					Mono.just(bufferFactory.wrap(END_ARRAY_BUFFER));
-
-			Flux<DataBuffer> serializedObjects = Flux.from(inputStream)
-					.map(value -> serialize(value, bufferFactory, elementType));
-
-			Flux<DataBuffer> array = Flux.zip(serializedObjects, arraySeparators)
-					.flatMap(tuple -> Flux.just(tuple.getT1(), tuple.getT2()));
-
-			Flux<DataBuffer> arrayWithoutLastSeparator = array.skipLast(1);
-
-			return Flux.concat(startArray, arrayWithoutLastSeparator, endArray);
+			return Flux.from(new JsonArrayPublisher(inputStream, bufferFactory, writer,
+					this.batchSize));
 		}
 	}
 
-	private DataBuffer serialize(Object value, DataBufferFactory dataBufferFactory,
-			ResolvableType type) {
+	private ObjectWriter createWriter(ResolvableType type) {
 		TypeFactory typeFactory = this.mapper.getTypeFactory();
 		JavaType javaType = typeFactory.constructType(type.getType());
-		ObjectWriter writer = this.mapper.writerFor(javaType);
+		return this.mapper.writerFor(javaType);
+	}
+
+	private DataBuffer serialize(Object value, DataBufferFactory dataBufferFactory,
+			ObjectWriter writer) {
 		DataBuffer buffer = dataBufferFactory.allocateBuffer();
 		OutputStream outputStream = buffer.asOutputStream();
 		try {
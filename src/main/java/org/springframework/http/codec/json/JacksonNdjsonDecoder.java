@@ -0,0 +1,227 @@
+/*
+ * Copyright 2002-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.codec.json;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.AbstractDecoder;
+import org.springframework.core.io.buffer.CompositeDataBuffer;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.support.DataBufferUtils;
+import org.springframework.util.Assert;
+import org.springframework.util.MimeType;
+
+/**
+ * Decode a byte stream of newline delimited JSON (also known as
+ * <a href="http://ndjson.org/">NDJSON</a> or JSON Lines) into Objects with Jackson.
+ *
+ * <p>The stream is split along newline characters, even if these are spread across
+ * data buffers, after which each non-blank line is deserialized as a single object.
+ * Lines are emitted as slices of the received buffers, so no bytes are copied until
+ * Jackson parses them.
+ *
+ * @see JacksonNdjsonEncoder
+ */
+public class JacksonNdjsonDecoder extends AbstractDecoder<Object> {
+
+	private static final byte NEWLINE = '\n';
+
+
+	private final ObjectMapper mapper;
+
+	private final JacksonTypeCache<ObjectReader> readerCache = new JacksonTypeCache<>();
+
+	private int maxLineLength = 1024 * 1024;
+
+
+	public JacksonNdjsonDecoder() {
+		this(new ObjectMapper());
+	}
+
+	public JacksonNdjsonDecoder(ObjectMapper mapper) {
+		super(JacksonNdjsonEncoder.MIME_TYPES);
+		Assert.notNull(mapper, "'mapper' must not be null");
+		this.mapper = mapper;
+	}
+
+
+	/**
+	 * Sets the maximum number of bytes a single line may contain. Lines exceeding this
+	 * length cause an {@link IllegalStateException}. Defaults to 1 MB.
+	 * @param maxLineLength the maximum line length in bytes
+	 */
+	public void setMaxLineLength(int maxLineLength) {
+		Assert.isTrue(maxLineLength > 0, "'maxLineLength' must be larger than 0");
+		this.maxLineLength = maxLineLength;
+	}
+
+	/**
+	 * Returns the maximum number of bytes a single line may contain.
+	 */
+	public int getMaxLineLength() {
+		return this.maxLineLength;
+	}
+
+	@Override
+	public Flux<Object> decode(Publisher<DataBuffer> inputStream, ResolvableType elementType,
+			MimeType mimeType, Object... hints) {
+
+		Assert.notNull(inputStream, "'inputStream' must not be null");
+		Assert.notNull(elementType, "'elementType' must not be null");
+
+		ObjectReader reader = this.readerCache.get(elementType, hints, this::createReader);
+		int maxLineLength = this.maxLineLength;
+		return Flux.using(() -> new LineSplitter(maxLineLength),
+				splitter -> Flux.from(inputStream).
+						flatMap(splitter::split).
+						concatWith(Flux.defer(splitter::remainder)),
+				LineSplitter::release).
+				map(line -> JacksonJsonDecoder.readValue(reader, line));
+	}
+
+	@Override
+	public Mono<Object> decodeOne(Publisher<DataBuffer> inputStream, ResolvableType elementType,
+			MimeType mimeType, Object... hints) {
+
+		return decode(inputStream, elementType, mimeType, hints).single();
+	}
+
+	private ObjectReader createReader(ResolvableType elementType) {
+		TypeFactory typeFactory = this.mapper.getTypeFactory();
+		JavaType javaType = typeFactory.constructType(elementType.getType());
+		return this.mapper.readerFor(javaType);
+	}
+
+
+	/**
+	 * Splits data buffers along newlines, keeping the start of a line that is not
+	 * complete yet in between buffers.
+	 */
+	private static class LineSplitter {
+
+		private final int maxLineLength;
+
+		/**
+		 * Slices that make up the current, incomplete line.
+		 */
+		private final List<DataBuffer> pending = new ArrayList<>();
+
+		private int pendingLength;
+
+		private boolean blank = true;
+
+
+		public LineSplitter(int maxLineLength) {
+			this.maxLineLength = maxLineLength;
+		}
+
+
+		public Publisher<DataBuffer> split(DataBuffer dataBuffer) {
+			// Composing a single buffer gives us indices relative to its read position
+			DataBuffer chunk = new CompositeDataBuffer(Collections.singletonList(dataBuffer));
+			try {
+				List<DataBuffer> lines = new ArrayList<>();
+				ByteBuffer byteBuffer = chunk.asByteBuffer();
+				int offset = byteBuffer.position();
+				int lineStart = 0;
+				int length = byteBuffer.remaining();
+				for (int i = 0; i < length; i++) {
+					byte b = byteBuffer.get(offset + i);
+					if (b == NEWLINE) {
+						addPending(chunk, lineStart, i - lineStart);
+						if (this.pendingLength > this.maxLineLength) {
+							return lineTooLong(lines);
+						}
+						DataBuffer line = completeLine();
+						if (line != null) {
+							lines.add(line);
+						}
+						lineStart = i + 1;
+					}
+					else if (this.blank && !Character.isWhitespace(b)) {
+						this.blank = false;
+					}
+				}
+				addPending(chunk, lineStart, length - lineStart);
+				if (this.pendingLength > this.maxLineLength) {
+					return lineTooLong(lines);
+				}
+				return Flux.fromIterable(lines);
+			}
+			finally {
+				DataBufferUtils.release(chunk);
+			}
+		}
+
+		private Publisher<DataBuffer> lineTooLong(List<DataBuffer> lines) {
+			release();
+			return Flux.fromIterable(lines).concatWith(Flux.error(new IllegalStateException(
+					"line length exceeds " + this.maxLineLength + " bytes")));
+		}
+
+		/**
+		 * Returns the last line, if it was not terminated by a newline.
+		 */
+		public Publisher<DataBuffer> remainder() {
+			DataBuffer line = completeLine();
+			return (line != null ? Mono.just(line) : Mono.empty());
+		}
+
+		private void addPending(DataBuffer chunk, int index, int length) {
+			if (length > 0) {
+				this.pending.add(DataBufferUtils.retain(chunk.slice(index, length)));
+				this.pendingLength += length;
+			}
+		}
+
+		private DataBuffer completeLine() {
+			DataBuffer line = null;
+			if (this.blank) {
+				release();
+			}
+			else if (this.pending.size() == 1) {
+				line = this.pending.get(0);
+			}
+			else {
+				line = new CompositeDataBuffer(new ArrayList<>(this.pending));
+			}
+			this.pending.clear();
+			this.pendingLength = 0;
+			this.blank = true;
+			return line;
+		}
+
+		public void release() {
+			this.pending.forEach(DataBufferUtils::release);
+			this.pending.clear();
+			this.pendingLength = 0;
+		}
+	}
+
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2002-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.codec.json;
+
+import java.io.IOException;
+import java.util.function.Function;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.AbstractEncoder;
+import org.springframework.core.codec.CodecException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.FlushingDataBuffer;
+import org.springframework.util.Assert;
+import org.springframework.util.MimeType;
+
+/**
+ * Encode from an {@code Object} stream to a byte stream of newline delimited JSON
+ * (also known as <a href="http://ndjson.org/">NDJSON</a> or JSON Lines), i.e. one JSON
+ * object per line, without surrounding array.
+ *
+ * <p>A {@link FlushingDataBuffer} is emitted after every
+ * {@linkplain #setFlushInterval flush interval} objects, so that streaming clients
+ * receive them without delay.
+ *
+ * @see JacksonNdjsonDecoder
+ */
+public class JacksonNdjsonEncoder extends AbstractEncoder<Object> {
+
+	static final MimeType[] MIME_TYPES = new MimeType[] {
+			new MimeType("application", "x-ndjson"),
+			new MimeType("application", "stream+json")
+	};
+
+	private static final byte NEWLINE = '\n';
+
+
+	private final ObjectMapper mapper;
+
+	private final JacksonTypeCache<ObjectWriter> writerCache = new JacksonTypeCache<>();
+
+	private int flushInterval = 1;
+
+
+	public JacksonNdjsonEncoder() {
+		this(new ObjectMapper());
+	}
+
+	public JacksonNdjsonEncoder(ObjectMapper mapper) {
+		super(MIME_TYPES);
+		Assert.notNull(mapper, "'mapper' must not be null");
+		this.mapper = mapper;
+	}
+
+
+	/**
+	 * Sets the number of objects after which data written so far is flushed. Defaults
+	 * to {@code 1}, i.e. flush after every object; {@code 0} disables explicit flushes.
+	 * @param flushInterval the number of objects in between flushes
+	 */
+	public void setFlushInterval(int flushInterval) {
+		Assert.isTrue(flushInterval >= 0, "'flushInterval' must not be negative");
+		this.flushInterval = flushInterval;
+	}
+
+	/**
+	 * Returns the number of objects after which data written so far is flushed.
+	 */
+	public int getFlushInterval() {
+		return this.flushInterval;
+	}
+
+	/**
+	 * Indicates whether the given MIME type explicitly denotes newline delimited JSON.
+	 * Used by the JSON codecs to leave {@code application/stream+json}, which also
+	 * matches {@code application/*+json}, to the NDJSON codecs.
+	 */
+	static boolean isNdjson(MimeType mimeType) {
+		if (mimeType == null) {
+			return false;
+		}
+		for (MimeType ndjsonType : MIME_TYPES) {
+			if (ndjsonType.includes(mimeType)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public Flux<DataBuffer> encode(Publisher<?> inputStream,
+			DataBufferFactory bufferFactory, ResolvableType elementType, MimeType mimeType,
+			Object... hints) {
+
+		Assert.notNull(inputStream, "'inputStream' must not be null");
+		Assert.notNull(bufferFactory, "'bufferFactory' must not be null");
+		Assert.notNull(elementType, "'elementType' must not be null");
+
+		ObjectWriter writer = this.writerCache.get(elementType, hints, this::createWriter);
+		Flux<DataBuffer> lines = Flux.from(inputStream).
+				map(value -> serialize(value, bufferFactory, writer));
+		if (inputStream instanceof Mono || this.flushInterval == 0) {
+			return lines;
+		}
+		return Flux.defer(() -> lines.flatMap(new FlushInserter(this.flushInterval)));
+	}
+
+	private ObjectWriter createWriter(ResolvableType type) {
+		TypeFactory typeFactory = this.mapper.getTypeFactory();
+		JavaType javaType = typeFactory.constructType(type.getType());
+		// Indenting would break the one-object-per-line format
+		return this.mapper.writerFor(javaType).without(SerializationFeature.INDENT_OUTPUT);
+	}
+
+	private DataBuffer serialize(Object value, DataBufferFactory dataBufferFactory,
+			ObjectWriter writer) {
+		DataBuffer buffer = dataBufferFactory.allocateBuffer();
+		try {
+			writer.writeValue(buffer.asOutputStream(), value);
+		}
+		catch (IOException ex) {
+			throw new CodecException("Error while writing the data", ex);
+		}
+		return buffer.write(NEWLINE);
+	}
+
+
+	/**
+	 * Function that follows every n-th buffer with a {@link FlushingDataBuffer}.
+	 */
+	private static class FlushInserter implements Function<DataBuffer, Publisher<DataBuffer>> {
+
+		private final int flushInterval;
+
+		private int count;
+
+		public FlushInserter(int flushInterval) {
+			this.flushInterval = flushInterval;
+		}
+
+		@Override
+		public Publisher<DataBuffer> apply(DataBuffer dataBuffer) {
+			if (++this.count < this.flushInterval) {
+				return Mono.just(dataBuffer);
+			}
+			this.count = 0;
+			return Flux.just(dataBuffer, FlushingDataBuffer.INSTANCE);
+		}
+	}
+
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2002-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.codec.json;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.util.Assert;
+import org.springframework.util.ObjectUtils;
+
+/**
+ * Bounded, concurrent cache of Jackson objects, such as an
+ * {@link com.fasterxml.jackson.databind.ObjectReader ObjectReader} or
+ * {@link com.fasterxml.jackson.databind.ObjectWriter ObjectWriter}, keyed by the
+ * {@link ResolvableType} and hints they were created for.
+ *
+ * <p>Once the cache limit has been reached, objects for new keys are still created,
+ * but no longer cached.
+ *
+ * @param <T> the type of cached objects
+ */
+class JacksonTypeCache<T> {
+
+	/**
+	 * The default maximum number of cached objects.
+	 */
+	static final int DEFAULT_CACHE_LIMIT = 256;
+
+
+	private final Map<Key, T> cache = new ConcurrentHashMap<>(64);
+
+	private final int cacheLimit;
+
+	private final AtomicLong hitCount = new AtomicLong();
+
+	private final AtomicLong missCount = new AtomicLong();
+
+
+	JacksonTypeCache() {
+		this(DEFAULT_CACHE_LIMIT);
+	}
+
+	JacksonTypeCache(int cacheLimit) {
+		Assert.isTrue(cacheLimit >= 0, "'cacheLimit' must not be negative");
+		this.cacheLimit = cacheLimit;
+	}
+
+
+	/**
+	 * Returns the object cached for the given type and hints, creating it with the
+	 * given function if not found.
+	 * @param type the type to return the object for
+	 * @param hints the hints to return the object for
+	 * @param factory the function that creates the object for a type
+	 * @return the cached or newly created object
+	 */
+	public T get(ResolvableType type, Object[] hints, Function<ResolvableType, T> factory) {
+		Key key = new Key(type, hints);
+		T result = this.cache.get(key);
+		if (result != null) {
+			this.hitCount.incrementAndGet();
+			return result;
+		}
+		this.missCount.incrementAndGet();
+		result = factory.apply(type);
+		if (this.cache.size() < this.cacheLimit) {
+			T existing = this.cache.putIfAbsent(key, result);
+			if (existing != null) {
+				result = existing;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the number of lookups that were served from the cache.
+	 */
+	public long getHitCount() {
+		return this.hitCount.get();
+	}
+
+	/**
+	 * Returns the number of lookups that required a new object to be created.
+	 */
+	public long getMissCount() {
+		return this.missCount.get();
+	}
+
+	/**
+	 * Returns the number of cached objects.
+	 */
+	public int size() {
+		return this.cache.size();
+	}
+
+
+	private static final class Key {
+
+		private final ResolvableType type;
+
+		private final Object[] hints;
+
+		public Key(ResolvableType type, Object[] hints) {
+			this.type = type;
+			this.hints = (ObjectUtils.isEmpty(hints) ? null : hints);
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof Key)) {
+				return false;
+			}
+			Key otherKey = (Key) other;
+			return (this.type.equals(otherKey.type) &&
+					ObjectUtils.nullSafeEquals(this.hints, otherKey.hints));
+		}
+
+		@Override
+		public int hashCode() {
+			return this.type.hashCode() * 31 + ObjectUtils.nullSafeHashCode(this.hints);
+		}
+	}
+
+}
@@ -0,0 +1,266 @@
+/*
+ * Copyright 2002-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.codec.json;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import reactor.core.util.BackpressureUtils;
+
+import org.springframework.core.codec.CodecException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.support.DataBufferUtils;
+import org.springframework.util.Assert;
+
+/**
+ * Publisher that serializes the elements of a source publisher into a JSON array.
+ *
+ * <p>Brackets and separators are written into the same buffer as the elements they
+ * surround. Elements that the source makes available immediately are collected into
+ * one buffer until it reaches the batch size; as soon as the source has no element
+ * ready, the buffer collected so far is emitted. Elements are only requested from the
+ * source while there is demand for buffers, so at most one batch is held at any time.
+ *
+ * @see JacksonJsonEncoder
+ */
+class JsonArrayPublisher implements Publisher<DataBuffer> {
+
+	private final Publisher<?> source;
+
+	private final DataBufferFactory dataBufferFactory;
+
+	private final ObjectWriter writer;
+
+	private final int batchSize;
+
+
+	public JsonArrayPublisher(Publisher<?> source, DataBufferFactory dataBufferFactory,
+			ObjectWriter writer, int batchSize) {
+		Assert.notNull(source, "'source' must not be null");
+		Assert.notNull(dataBufferFactory, "'dataBufferFactory' must not be null");
+		Assert.notNull(writer, "'writer' must not be null");
+		Assert.isTrue(batchSize > 0, "'batchSize' must be larger than 0");
+		this.source = source;
+		this.dataBufferFactory = dataBufferFactory;
+		this.writer = writer;
+		this.batchSize = batchSize;
+	}
+
+
+	@Override
+	public void subscribe(Subscriber<? super DataBuffer> subscriber) {
+		Assert.notNull(subscriber, "'subscriber' must not be null");
+		this.source.subscribe(new ArraySubscriber(subscriber));
+	}
+
+
+	private class ArraySubscriber implements Subscriber<Object>, Subscription {
+
+		private final Subscriber<? super DataBuffer> subscriber;
+
+		private final AtomicLong demand = new AtomicLong();
+
+		private final AtomicInteger wip = new AtomicInteger();
+
+		private Subscription subscription;
+
+		private volatile Object value;
+
+		private volatile boolean done;
+
+		private volatile Throwable error;
+
+		private volatile boolean cancelled;
+
+		// The following fields are only accessed from within drain()
+
+		private boolean terminated;
+
+		private boolean elementRequested;
+
+		private boolean started;
+
+		private DataBuffer batch;
+
+
+		public ArraySubscriber(Subscriber<? super DataBuffer> subscriber) {
+			this.subscriber = subscriber;
+		}
+
+		@Override
+		public void onSubscribe(Subscription subscription) {
+			if (BackpressureUtils.validate(this.subscription, subscription)) {
+				this.subscription = subscription;
+				this.subscriber.onSubscribe(this);
+			}
+		}
+
+		@Override
+		public void onNext(Object value) {
+			this.value = value;
+			drain();
+		}
+
+		@Override
+		public void onError(Throwable ex) {
+			this.error = ex;
+			this.done = true;
+			drain();
+		}
+
+		@Override
+		public void onComplete() {
+			this.done = true;
+			drain();
+		}
+
+		@Override
+		public void request(long n) {
+			if (BackpressureUtils.checkRequest(n, this.subscriber)) {
+				BackpressureUtils.addAndGet(this.demand, n);
+				drain();
+			}
+		}
+
+		@Override
+		public void cancel() {
+			this.cancelled = true;
+			this.subscription.cancel();
+			drain();
+		}
+
+		/**
+		 * Serializes access to the batch buffer and the downstream subscriber, and makes
+		 * sure that elements requested from a synchronous source are handled in a loop
+		 * rather than recursively.
+		 */
+		private void drain() {
+			if (this.wip.getAndIncrement() != 0) {
+				return;
+			}
+			int missed = 1;
+			do {
+				while (!this.terminated && drainOnce()) {
+					// keep going
+				}
+				missed = this.wip.addAndGet(-missed);
+			}
+			while (missed != 0);
+		}
+
+		/**
+		 * Performs a single step of work.
+		 * @return {@code true} if progress was made; {@code false} if we have to wait
+		 * for a signal
+		 */
+		private boolean drainOnce() {
+			if (this.cancelled) {
+				this.terminated = true;
+				this.value = null;
+				releaseBatch();
+				return false;
+			}
+			Object value = this.value;
+			if (value != null) {
+				this.value = null;
+				this.elementRequested = false;
+				return writeElement(value);
+			}
+			if (this.done) {
+				Throwable error = this.error;
+				if (error != null) {
+					this.terminated = true;
+					releaseBatch();
+					this.subscriber.onError(error);
+					return false;
+				}
+				if (this.demand.get() == 0) {
+					return false;
+				}
+				this.terminated = true;
+				DataBuffer batch = getBatch();
+				if (!this.started) {
+					batch.write((byte) '[');
+				}
+				batch.write((byte) ']');
+				emitBatch();
+				this.subscriber.onComplete();
+				return false;
+			}
+			if (this.demand.get() == 0) {
+				return false;
+			}
+			if (this.batch != null &&
+					(this.elementRequested || this.batch.readableByteCount() >= batchSize)) {
+				// Either the batch is full, or the source does not have an element ready
+				emitBatch();
+				return true;
+			}
+			if (this.elementRequested) {
+				return false;
+			}
+			this.elementRequested = true;
+			this.subscription.request(1);
+			return true;
+		}
+
+		private boolean writeElement(Object value) {
+			DataBuffer batch = getBatch();
+			batch.write((byte) (this.started ? ',' : '['));
+			this.started = true;
+			try {
+				writer.writeValue(batch.asOutputStream(), value);
+				return true;
+			}
+			catch (IOException ex) {
+				this.terminated = true;
+				this.subscription.cancel();
+				releaseBatch();
+				this.subscriber.onError(new CodecException("Error while writing the data", ex));
+				return false;
+			}
+		}
+
+		private DataBuffer getBatch() {
+			if (this.batch == null) {
+				this.batch = dataBufferFactory.allocateBuffer();
+			}
+			return this.batch;
+		}
+
+		private void emitBatch() {
+			DataBuffer batch = this.batch;
+			this.batch = null;
+			BackpressureUtils.getAndSub(this.demand, 1L);
+			this.subscriber.onNext(batch);
+		}
+
+		private void releaseBatch() {
+			if (this.batch != null) {
+				DataBufferUtils.release(this.batch);
+				this.batch = null;
+			}
+		}
+	}
+
+}
@@ -16,21 +16,20 @@
 
 package org.springframework.http.codec.json;
 
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
-import java.util.function.Function;
 
-import io.netty.buffer.ByteBuf;
-import io.netty.buffer.ByteBufUtil;
-import io.netty.buffer.Unpooled;
 import org.reactivestreams.Publisher;
 import reactor.core.publisher.Flux;
 
 import org.springframework.core.ResolvableType;
 import org.springframework.core.codec.AbstractDecoder;
+import org.springframework.core.io.buffer.CompositeDataBuffer;
 import org.springframework.core.io.buffer.DataBuffer;
-import org.springframework.core.io.buffer.DataBufferFactory;
 import org.springframework.core.io.buffer.support.DataBufferUtils;
 import org.springframework.util.MimeType;
 
@@ -42,6 +41,12 @@ import org.springframework.util.MimeType;
  * is considered a JSON object/array if it contains a matching number of opening
  * and closing braces/brackets.
  *
+ * <p>Decoding is incremental: the scanning state is kept across the received data
+ * buffers, and each object is emitted as a slice of the buffer(s) it was received in,
+ * without copying. Only the buffers holding the object currently being decoded are
+ * retained, so memory use is bounded by the maximum object length rather than by the
+ * size of the stream.
+ *
  * Based on  <a href="https://github.com/netty/netty/blob/master/codec/src/main/java/io/netty/handler/codec/json/JsonObjectDecoder.java">Netty JsonObjectDecoder</a>
  *
  * @author Sebastien Deleuze
@@ -97,169 +102,217 @@ class JsonObjectDecoder extends AbstractDecoder<DataBuffer> {
 	public Flux<DataBuffer> decode(Publisher<DataBuffer> inputStream, ResolvableType elementType,
 			MimeType mimeType, Object... hints) {
 
-		return Flux.from(inputStream)
-				.flatMap(new Function<DataBuffer, Publisher<? extends DataBuffer>>() {
-
-			int openBraces;
-			int index;
-			int state;
-			boolean insideString;
-			ByteBuf input;
-			Integer writerIndex;
-
-			@Override
-			public Publisher<? extends DataBuffer> apply(DataBuffer b) {
-				List<DataBuffer> chunks = new ArrayList<>();
-				if (this.input == null) {
-					this.input = Unpooled.copiedBuffer(b.asByteBuffer());
-					DataBufferUtils.release(b);
-					this.writerIndex = this.input.writerIndex();
-				}
-				else {
-					this.input = Unpooled.copiedBuffer(this.input,
-							Unpooled.copiedBuffer(b.asByteBuffer()));
-					DataBufferUtils.release(b);
-					this.writerIndex = this.input.writerIndex();
-				}
-				if (this.state == ST_CORRUPTED) {
-					this.input.skipBytes(this.input.readableBytes());
-					return Flux.error(new IllegalStateException("Corrupted stream"));
-				}
-				if (this.writerIndex > maxObjectLength) {
-					// buffer size exceeded maxObjectLength; discarding the complete buffer.
-					this.input.skipBytes(this.input.readableBytes());
-					reset();
-					return Flux.error(new IllegalStateException("object length exceeds " +
-							maxObjectLength + ": " + this.writerIndex + " bytes discarded"));
-				}
-				DataBufferFactory dataBufferFactory = b.factory();
-				for (/* use current index */; this.index < this.writerIndex; this.index++) {
-					byte c = this.input.getByte(this.index);
-					if (this.state == ST_DECODING_NORMAL) {
-						decodeByte(c, this.input, this.index);
-
-						// All opening braces/brackets have been closed. That's enough to conclude
-						// that the JSON object/array is complete.
-						if (this.openBraces == 0) {
-							ByteBuf json = extractObject(this.input, this.input.readerIndex(),
-									this.index + 1 - this.input.readerIndex());
-							if (json != null) {
-								chunks.add(dataBufferFactory.wrap(json.nioBuffer()));
-							}
+		return Flux.using(Tokenizer::new,
+				tokenizer -> Flux.from(inputStream).flatMap(tokenizer::tokenize),
+				Tokenizer::release);
+	}
 
-							// The JSON object/array was extracted => discard the bytes from
-							// the input buffer.
-							this.input.readerIndex(this.index + 1);
-							// Reset the object state to get ready for the next JSON object/text
-							// coming along the byte stream.
-							reset();
-						}
-					}
-					else if (this.state == ST_DECODING_ARRAY_STREAM) {
-						decodeByte(c, this.input, this.index);
-
-						if (!this.insideString && (this.openBraces == 1 && c == ',' ||
-								this.openBraces == 0 && c == ']')) {
-							// skip leading spaces. No range check is needed and the loop will terminate
-							// because the byte at position index is not a whitespace.
-							for (int i = this.input.readerIndex(); Character.isWhitespace(this.input.getByte(i)); i++) {
-								this.input.skipBytes(1);
-							}
 
-							// skip trailing spaces.
-							int idxNoSpaces = this.index - 1;
-							while (idxNoSpaces >= this.input.readerIndex() &&
-									Character.isWhitespace(this.input.getByte(idxNoSpaces))) {
+	/**
+	 * Incremental tokenizer that keeps its scanning state across data buffers, so that
+	 * every byte is inspected only once. Only the buffers that contain the object that
+	 * is currently being decoded are held on to; objects are emitted as slices of these
+	 * buffers rather than as copies.
+	 */
+	private class Tokenizer {
 
-								idxNoSpaces--;
-							}
+		/**
+		 * The buffers that contain unconsumed input, in order of arrival.
+		 */
+		private final List<DataBuffer> chunks = new ArrayList<>();
 
-							ByteBuf json = extractObject(this.input, this.input.readerIndex(),
-									idxNoSpaces + 1 - this.input.readerIndex());
+		/**
+		 * The position of the first byte of {@link #chunks} in the overall byte stream.
+		 */
+		private long chunksPosition;
 
-							if (json != null) {
-								chunks.add(dataBufferFactory.wrap(json.nioBuffer()));
-							}
+		/**
+		 * The position in the overall byte stream right after the last byte received.
+		 */
+		private long position;
 
-							this.input.readerIndex(this.index + 1);
+		/**
+		 * The start position of the current object, or {@code -1} if none.
+		 */
+		private long objectStart = -1;
 
-							if (c == ']') {
-								reset();
-							}
+		/**
+		 * The position right after the last non-whitespace byte of the current object.
+		 */
+		private long objectEnd;
+
+		private int state = ST_INIT;
+
+		private int openBraces;
+
+		private boolean insideString;
+
+		private boolean escaped;
+
+		public Publisher<DataBuffer> tokenize(DataBuffer dataBuffer) {
+			if (this.state == ST_CORRUPTED) {
+				DataBufferUtils.release(dataBuffer);
+				return Flux.error(new IllegalStateException("Corrupted stream"));
+			}
+			if (dataBuffer.readableByteCount() == 0) {
+				DataBufferUtils.release(dataBuffer);
+				return Flux.empty();
+			}
+			// Composing a single buffer gives us indices relative to its read position
+			DataBuffer chunk = new CompositeDataBuffer(Collections.singletonList(dataBuffer));
+			ByteBuffer byteBuffer = chunk.asByteBuffer();
+			this.chunks.add(chunk);
+
+			List<DataBuffer> results = new ArrayList<>();
+			int limit = byteBuffer.limit();
+			for (int i = byteBuffer.position(); i < limit; i++) {
+				byte b = byteBuffer.get(i);
+				long current = this.position++;
+				if (this.state == ST_DECODING_NORMAL) {
+					decodeByte(b);
+					this.objectEnd = current + 1;
+					// All opening braces/brackets have been closed. That's enough to
+					// conclude that the JSON object/array is complete.
+					if (this.openBraces == 0) {
+						results.add(extractObject());
+						reset();
+					}
+				}
+				else if (this.state == ST_DECODING_ARRAY_STREAM) {
+					if (!this.insideString && this.openBraces == 1 && (b == ',' || b == ']')) {
+						if (this.objectStart != -1) {
+							results.add(extractObject());
+						}
+						this.objectStart = -1;
+						if (b == ']') {
+							reset();
 						}
-						// JSON object/array detected. Accumulate bytes until all braces/brackets are closed.
 					}
-					else if (c == '{' || c == '[') {
-						initDecoding(c, streamArrayElements);
-
-						if (this.state == ST_DECODING_ARRAY_STREAM) {
-							// Discard the array bracket
-							this.input.skipBytes(1);
+					else {
+						decodeByte(b);
+						if (this.insideString || !Character.isWhitespace(b)) {
+							if (this.objectStart == -1) {
+								this.objectStart = current;
+							}
+							this.objectEnd = current + 1;
 						}
-						// Discard leading spaces in front of a JSON object/array.
 					}
-					else if (Character.isWhitespace(c)) {
-						this.input.skipBytes(1);
+				}
+				else if (b == '{' || b == '[') {
+					this.openBraces = 1;
+					if (b == '[' && streamArrayElements) {
+						// Discard the array bracket
+						this.state = ST_DECODING_ARRAY_STREAM;
 					}
 					else {
-						this.state = ST_CORRUPTED;
-						return Flux.error(new IllegalStateException(
-								"invalid JSON received at byte position " + this.index + ": " +
-										ByteBufUtil.hexDump(this.input)));
+						this.state = ST_DECODING_NORMAL;
+						this.objectStart = current;
 					}
 				}
+				// Discard spaces in between JSON objects/arrays.
+				else if (!Character.isWhitespace(b)) {
+					return corrupted(results, new IllegalStateException(
+							"invalid JSON received at byte position " + current));
+				}
 
-				if (this.input.readableBytes() == 0) {
-					this.index = 0;
+				if (this.objectStart != -1 && current - this.objectStart >= maxObjectLength) {
+					return corrupted(results, new IllegalStateException("object length exceeds " +
+							maxObjectLength + ": " + (current + 1 - this.objectStart) +
+							" bytes discarded"));
 				}
-				return Flux.fromIterable(chunks);
 			}
+			discardConsumedChunks();
+			return Flux.fromIterable(results);
+		}
 
-			/**
-			 * Override this method if you want to filter the json objects/arrays that
-			 * get passed through the pipeline.
-			 */
-			@SuppressWarnings("UnusedParameters")
-			protected ByteBuf extractObject(ByteBuf buffer, int index, int length) {
-				return buffer.slice(index, length).retain();
-			}
+		/**
+		 * Emits the objects decoded so far, followed by the given error.
+		 */
+		private Publisher<DataBuffer> corrupted(List<DataBuffer> results,
+				IllegalStateException ex) {
+
+			this.state = ST_CORRUPTED;
+			release();
+			return Flux.fromIterable(results).concatWith(Flux.error(ex));
+		}
 
-			private void decodeByte(byte c, ByteBuf input, int index) {
-				if ((c == '{' || c == '[') && !this.insideString) {
-					this.openBraces++;
+		private void decodeByte(byte b) {
+			if (this.insideString) {
+				// Track escapes, so that an escaped double quote (or backslash) is
+				// recognized even if it spans two data buffers.
+				if (this.escaped) {
+					this.escaped = false;
 				}
-				else if ((c == '}' || c == ']') && !this.insideString) {
-					this.openBraces--;
+				else if (b == '\\') {
+					this.escaped = true;
 				}
-				else if (c == '"') {
-					// start of a new JSON string. It's necessary to detect strings as they may
-					// also contain braces/brackets and that could lead to incorrect results.
-					if (!this.insideString) {
-						this.insideString = true;
-						// If the double quote wasn't escaped then this is the end of a string.
-					}
-					else if (input.getByte(index - 1) != '\\') {
-						this.insideString = false;
-					}
+				else if (b == '"') {
+					this.insideString = false;
 				}
 			}
+			// It's necessary to detect strings as they may also contain braces/brackets
+			// and that could lead to incorrect results.
+			else if (b == '"') {
+				this.insideString = true;
+			}
+			else if (b == '{' || b == '[') {
+				this.openBraces++;
+			}
+			else if (b == '}' || b == ']') {
+				this.openBraces--;
+			}
+		}
 
-			private void initDecoding(byte openingBrace, boolean streamArrayElements) {
-				this.openBraces = 1;
-				if (openingBrace == '[' && streamArrayElements) {
-					this.state = ST_DECODING_ARRAY_STREAM;
-				}
-				else {
-					this.state = ST_DECODING_NORMAL;
+		/**
+		 * Returns the current object as a slice of the chunk that contains it, or as a
+		 * composite of slices if it spans multiple chunks.
+		 */
+		private DataBuffer extractObject() {
+			List<DataBuffer> slices = new ArrayList<>(1);
+			long chunkStart = this.chunksPosition;
+			for (DataBuffer chunk : this.chunks) {
+				long chunkEnd = chunkStart + chunk.readableByteCount();
+				if (chunkEnd > this.objectStart && chunkStart < this.objectEnd) {
+					int index = (int) (Math.max(this.objectStart, chunkStart) - chunkStart);
+					int length = (int) (Math.min(this.objectEnd, chunkEnd) - chunkStart) - index;
+					slices.add(DataBufferUtils.retain(chunk.slice(index, length)));
 				}
+				chunkStart = chunkEnd;
 			}
+			return (slices.size() == 1 ? slices.get(0) : new CompositeDataBuffer(slices));
+		}
 
-			private void reset() {
-				this.insideString = false;
-				this.state = ST_INIT;
-				this.openBraces = 0;
+		/**
+		 * Releases the chunks that lie entirely before the current object, or all of
+		 * them if no object is being decoded.
+		 */
+		private void discardConsumedChunks() {
+			long consumed = (this.objectStart != -1 ? this.objectStart : this.position);
+			Iterator<DataBuffer> iterator = this.chunks.iterator();
+			while (iterator.hasNext()) {
+				DataBuffer chunk = iterator.next();
+				long chunkEnd = this.chunksPosition + chunk.readableByteCount();
+				if (chunkEnd > consumed) {
+					break;
+				}
+				DataBufferUtils.release(chunk);
+				this.chunksPosition = chunkEnd;
+				iterator.remove();
 			}
-		});
+		}
+
+		private void reset() {
+			this.state = ST_INIT;
+			this.openBraces = 0;
+			this.insideString = false;
+			this.escaped = false;
+			this.objectStart = -1;
+		}
+
+		public void release() {
+			this.chunks.forEach(DataBufferUtils::release);
+			this.chunks.clear();
+		}
 	}
 
 }
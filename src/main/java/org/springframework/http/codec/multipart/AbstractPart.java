@@ -0,0 +1,117 @@
+/*
+ * Copyright 2002-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.http.codec.multipart;
+
+import java.util.Optional;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.Assert;
+
+/**
+ * Abstract base class for {@link Part} implementations, exposing the name and file
+ * name from the {@code Content-Disposition} header.
+ */
+abstract class AbstractPart implements Part {
+
+	private static final String CONTENT_DISPOSITION = "Content-Disposition";
+
+
+	private final HttpHeaders headers;
+
+	private final String name;
+
+	private final String filename;
+
+
+	protected AbstractPart(HttpHeaders headers) {
+		Assert.notNull(headers, "'headers' must not be null");
+		this.headers = headers;
+		String contentDisposition = headers.getFirst(CONTENT_DISPOSITION);
+		this.name = getParameter(contentDisposition, "name");
+		this.filename = getParameter(contentDisposition, "filename");
+	}
+
+
+	@Override
+	public String getName() {
+		return this.name;
+	}
+
+	@Override
+	public Optional<String> getFilename() {
+		return Optional.ofNullable(this.filename);
+	}
+
+	@Override
+	public HttpHeaders getHeaders() {
+		return this.headers;
+	}
+
+
+	/**
+	 * Return the value of the given parameter of a {@code Content-Disposition} header,
+	 * e.g. {@code name} in {@code form-data; name="field"}, or {@code null} if not found.
+	 */
+	static String getParameter(String contentDisposition, String parameter) {
+		if (contentDisposition == null) {
+			return null;
+		}
+		int index = contentDisposition.indexOf(';');
+		while (index != -1) {
+			int nameStart = index + 1;
+			int equals = contentDisposition.indexOf('=', nameStart);
+			if (equals == -1) {
+				return null;
+			}
+			String name = contentDisposition.substring(nameStart, equals).trim();
+			StringBuilder value = new StringBuilder();
+			int position = equals + 1;
+			while (position < contentDisposition.length() &&
+					Character.isWhitespace(contentDisposition.charAt(position))) {
+				position++;
+			}
+			if (position < contentDisposition.length() && contentDisposition.charAt(position) == '"') {
+				position++;
+				while (position < contentDisposition.length() && contentDisposition.charAt(position) != '"') {
+					char c = contentDisposition.charAt(position++);
+					if (c == '\\' && position < contentDisposition.length()) {
+						c = contentDisposition.charAt(position++);
+					}
+					value.append(c);
+				}
+				index = contentDisposition.indexOf(';', position);
+			}
+			else {
+				index = contentDisposition.indexOf(';', position);
+				int end = (index != -1 ? index : contentDisposition.length());
+				value.append(contentDisposition.substring(position, end).trim());
+			}
+			if (parameter.equalsIgnoreCase(name)) {
+				return value.toString();
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + " [name=" + this.name + ", filename=" +
+				this.filename + "]";
+	}
+
+}
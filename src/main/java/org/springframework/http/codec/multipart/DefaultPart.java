@@ -0,0 +1,181 @@
+/*
+ * Copyright 2002-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.http.codec.multipart;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.Channel;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.support.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+
+/**
+ * {@link Part} whose content is read directly from the request by a
+ * {@link MultipartParser.PartSplitter}. The content can be subscribed to only once.
+ */
+class DefaultPart extends AbstractPart {
+
+	private final MultipartParser.PartSplitter splitter;
+
+	private final AtomicBoolean subscribed = new AtomicBoolean();
+
+	private final AtomicLong demand = new AtomicLong();
+
+	private final AtomicBoolean signalled = new AtomicBoolean();
+
+	private volatile Subscriber<? super DataBuffer> subscriber;
+
+	private volatile boolean cancelled;
+
+	private volatile boolean done;
+
+	private volatile Throwable error;
+
+
+	public DefaultPart(HttpHeaders headers, MultipartParser.PartSplitter splitter) {
+		super(headers);
+		this.splitter = splitter;
+	}
+
+
+	@Override
+	public Flux<DataBuffer> getContent() {
+		return Flux.from((Publisher<DataBuffer>) this::subscribe);
+	}
+
+	private void subscribe(Subscriber<? super DataBuffer> subscriber) {
+		if (!this.subscribed.compareAndSet(false, true)) {
+			Flux.<DataBuffer>error(new IllegalStateException(
+					"The content of a streamed part can only be consumed once")).subscribe(subscriber);
+			return;
+		}
+		this.subscriber = subscriber;
+		subscriber.onSubscribe(new Subscription() {
+			@Override
+			public void request(long n) {
+				if (n > 0) {
+					addDemand(n);
+					splitter.drain();
+				}
+			}
+			@Override
+			public void cancel() {
+				cancelled = true;
+				splitter.drain();
+			}
+		});
+		if (this.done) {
+			signalDone();
+		}
+		else {
+			this.splitter.drain();
+		}
+	}
+
+	private void addDemand(long n) {
+		long current;
+		long next;
+		do {
+			current = this.demand.get();
+			next = current + n;
+			if (next < 0) {
+				next = Long.MAX_VALUE;
+			}
+		}
+		while (!this.demand.compareAndSet(current, next));
+	}
+
+	@Override
+	public Mono<Void> transferTo(File dest) {
+		return Mono.using(() -> AsynchronousFileChannel.open(dest.toPath(),
+						StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+						StandardOpenOption.WRITE),
+				channel -> DataBufferUtils.write(getContent(), channel, 0),
+				DefaultPart::closeQuietly);
+	}
+
+	@Override
+	public Mono<Void> delete() {
+		return Mono.empty();
+	}
+
+	static void closeQuietly(Channel channel) {
+		try {
+			channel.close();
+		}
+		catch (IOException ignored) {
+		}
+	}
+
+
+	// Callbacks from the splitter, which are never invoked concurrently
+
+	boolean isSubscribed() {
+		return (this.subscriber != null);
+	}
+
+	boolean isCancelled() {
+		return this.cancelled;
+	}
+
+	boolean hasDemand() {
+		return (this.demand.get() > 0);
+	}
+
+	void next(DataBuffer dataBuffer) {
+		this.demand.decrementAndGet();
+		this.subscriber.onNext(dataBuffer);
+	}
+
+	void complete() {
+		this.done = true;
+		if (this.subscriber != null) {
+			signalDone();
+		}
+	}
+
+	void error(Throwable ex) {
+		this.error = ex;
+		complete();
+	}
+
+	private void signalDone() {
+		if (this.cancelled || !this.signalled.compareAndSet(false, true)) {
+			return;
+		}
+		Throwable ex = this.error;
+		if (ex != null) {
+			this.subscriber.onError(ex);
+		}
+		else {
+			this.subscriber.onComplete();
+		}
+	}
+
+}
@@ -0,0 +1,282 @@
+/*
+ * Copyright 2002-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.http.codec.multipart;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.AbstractDecoder;
+import org.springframework.core.codec.CodecException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.core.io.buffer.support.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.util.Assert;
+import org.springframework.util.MimeType;
+import org.springframework.util.StringUtils;
+
+/**
+ * Decode a {@code multipart/form-data} byte stream into {@link Part}s. The boundary
+ * delimiters are found incrementally, so that parts can span any number of data
+ * buffers.
+ *
+ * <p>By default, parts are streamed: the content of each part is emitted as it is
+ * read from the input, without being collected in memory, and must be consumed before
+ * the next part is emitted. Alternatively, when {@linkplain #setStreaming(boolean)
+ * streaming} is disabled, each part is received completely before it is emitted: up
+ * to {@linkplain #setMaxInMemorySize(int) a given size} in memory, and in a temporary
+ * file beyond that size. Temporary files are written through an
+ * {@link AsynchronousFileChannel}, so that the thread that delivers the input is never
+ * blocked on disk I/O.
+ *
+ * @see Part
+ */
+public class MultipartDecoder extends AbstractDecoder<Part> {
+
+	/**
+	 * The default maximum size of the headers of a single part: 8 KB.
+	 */
+	public static final int DEFAULT_MAX_HEADER_SIZE = 8 * 1024;
+
+	/**
+	 * The default maximum size of a stored part kept in memory: 256 KB.
+	 */
+	public static final int DEFAULT_MAX_IN_MEMORY_SIZE = 256 * 1024;
+
+
+	private int maxHeaderSize = DEFAULT_MAX_HEADER_SIZE;
+
+	private boolean streaming = true;
+
+	private int maxInMemorySize = DEFAULT_MAX_IN_MEMORY_SIZE;
+
+	private Path fileStorageDirectory;
+
+
+	public MultipartDecoder() {
+		super(MediaType.MULTIPART_FORM_DATA);
+	}
+
+
+	/**
+	 * Sets the maximum size, in bytes, of the headers of a single part. Larger
+	 * headers cause a {@link CodecException}. Defaults to
+	 * {@link #DEFAULT_MAX_HEADER_SIZE}.
+	 */
+	public void setMaxHeaderSize(int maxHeaderSize) {
+		Assert.isTrue(maxHeaderSize > 0, "'maxHeaderSize' must be larger than 0");
+		this.maxHeaderSize = maxHeaderSize;
+	}
+
+	/**
+	 * Returns the maximum size, in bytes, of the headers of a single part.
+	 */
+	public int getMaxHeaderSize() {
+		return this.maxHeaderSize;
+	}
+
+	/**
+	 * Indicate whether parts are streamed, or stored before they are emitted.
+	 * Defaults to {@code true}.
+	 */
+	public void setStreaming(boolean streaming) {
+		this.streaming = streaming;
+	}
+
+	/**
+	 * Return whether parts are streamed.
+	 */
+	public boolean isStreaming() {
+		return this.streaming;
+	}
+
+	/**
+	 * Sets the maximum size, in bytes, of a stored part that is kept in memory.
+	 * Larger parts are written to a temporary file. Only applies when
+	 * {@linkplain #setStreaming(boolean) streaming} is disabled. Defaults to
+	 * {@link #DEFAULT_MAX_IN_MEMORY_SIZE}.
+	 */
+	public void setMaxInMemorySize(int maxInMemorySize) {
+		Assert.isTrue(maxInMemorySize >= 0, "'maxInMemorySize' must not be negative");
+		this.maxInMemorySize = maxInMemorySize;
+	}
+
+	/**
+	 * Returns the maximum size, in bytes, of a stored part that is kept in memory.
+	 */
+	public int getMaxInMemorySize() {
+		return this.maxInMemorySize;
+	}
+
+	/**
+	 * Sets the directory to create temporary files for stored parts in. Defaults to
+	 * the default temporary-file directory of the system.
+	 */
+	public void setFileStorageDirectory(Path fileStorageDirectory) {
+		this.fileStorageDirectory = fileStorageDirectory;
+	}
+
+	/**
+	 * Returns the directory to create temporary files for stored parts in.
+	 */
+	public Path getFileStorageDirectory() {
+		return this.fileStorageDirectory;
+	}
+
+	@Override
+	public boolean canDecode(ResolvableType elementType, MimeType mimeType, Object... hints) {
+		return super.canDecode(elementType, mimeType, hints) &&
+				Part.class.isAssignableFrom(elementType.getRawClass());
+	}
+
+	@Override
+	public Flux<Part> decode(Publisher<DataBuffer> inputStream, ResolvableType elementType,
+			MimeType mimeType, Object... hints) {
+
+		Assert.notNull(inputStream, "'inputStream' must not be null");
+		String boundary = (mimeType != null ? mimeType.getParameter("boundary") : null);
+		if (!StringUtils.hasLength(boundary)) {
+			return Flux.error(new CodecException("No multipart boundary found in " + mimeType));
+		}
+		if (boundary.length() > 1 && boundary.startsWith("\"") && boundary.endsWith("\"")) {
+			boundary = boundary.substring(1, boundary.length() - 1);
+		}
+		Flux<Part> parts = Flux.from(new MultipartParser(inputStream,
+				boundary.getBytes(StandardCharsets.ISO_8859_1), this.maxHeaderSize));
+		if (!this.streaming) {
+			int maxInMemorySize = this.maxInMemorySize;
+			Path directory = this.fileStorageDirectory;
+			parts = parts.concatMap(part ->
+					Flux.using(() -> new PartStore(part.getHeaders(), maxInMemorySize, directory),
+							store -> part.getContent().
+									concatMap(store::add).
+									concatWith(Flux.defer(store::complete)),
+							PartStore::release));
+		}
+		return parts;
+	}
+
+
+	/**
+	 * Collects the content of a part in memory, or in a temporary file once the
+	 * content grows too large.
+	 */
+	private static class PartStore {
+
+		private final HttpHeaders headers;
+
+		private final int maxInMemorySize;
+
+		private final Path directory;
+
+		private final List<DataBuffer> buffers = new ArrayList<>();
+
+		private long size;
+
+		private DataBufferFactory bufferFactory = new DefaultDataBufferFactory();
+
+		private Path file;
+
+		private AsynchronousFileChannel channel;
+
+		private boolean completed;
+
+
+		public PartStore(HttpHeaders headers, int maxInMemorySize, Path directory) {
+			this.headers = headers;
+			this.maxInMemorySize = maxInMemorySize;
+			this.directory = directory;
+		}
+
+
+		public Publisher<Part> add(DataBuffer dataBuffer) {
+			this.bufferFactory = dataBuffer.factory();
+			long position = this.size;
+			this.size += dataBuffer.readableByteCount();
+			if (this.channel != null) {
+				return write(Mono.just(dataBuffer), position);
+			}
+			this.buffers.add(dataBuffer);
+			if (this.size <= this.maxInMemorySize) {
+				return Mono.empty();
+			}
+			try {
+				this.file = (this.directory != null ?
+						Files.createTempFile(this.directory, "multipart", ".tmp") :
+						Files.createTempFile("multipart", ".tmp"));
+				this.channel = AsynchronousFileChannel.open(this.file, StandardOpenOption.WRITE);
+			}
+			catch (IOException ex) {
+				return Mono.error(new CodecException("Could not store part content", ex));
+			}
+			List<DataBuffer> buffered = new ArrayList<>(this.buffers);
+			this.buffers.clear();
+			return write(Flux.fromIterable(buffered), 0);
+		}
+
+		private Mono<Part> write(Publisher<DataBuffer> dataBuffers, long position) {
+			return DataBufferUtils.write(dataBuffers, this.channel, position).
+					mapError(ex -> new CodecException("Could not store part content", ex)).
+					then(Mono.empty());
+		}
+
+		public Publisher<Part> complete() {
+			this.completed = true;
+			if (this.channel != null) {
+				DefaultPart.closeQuietly(this.channel);
+				return Mono.just(new StoredPart(this.headers, this.bufferFactory, this.file));
+			}
+			ByteArrayOutputStream content = new ByteArrayOutputStream((int) this.size);
+			for (DataBuffer dataBuffer : this.buffers) {
+				byte[] bytes = new byte[dataBuffer.readableByteCount()];
+				dataBuffer.read(bytes);
+				content.write(bytes, 0, bytes.length);
+			}
+			release();
+			return Mono.just(new StoredPart(this.headers, this.bufferFactory, content.toByteArray()));
+		}
+
+		public void release() {
+			this.buffers.forEach(DataBufferUtils::release);
+			this.buffers.clear();
+			if (!this.completed && this.channel != null) {
+				DefaultPart.closeQuietly(this.channel);
+				try {
+					Files.deleteIfExists(this.file);
+				}
+				catch (IOException ignored) {
+				}
+			}
+		}
+	}
+
+}
@@ -0,0 +1,514 @@
+/*
+ * Copyright 2002-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.http.codec.multipart;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import org.springframework.core.codec.CodecException;
+import org.springframework.core.io.buffer.CompositeDataBuffer;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.support.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+
+/**
+ * Parses a stream of data buffers into {@link Part}s, whose content is emitted as it
+ * arrives rather than collected in memory.
+ *
+ * <p>Data buffers are requested one at a time, and only when both the part subscriber
+ * and the subscriber of the current part's content have demand, so that the request
+ * body is read at the pace in which it is consumed.
+ */
+class MultipartParser implements Publisher<Part> {
+
+	private final Publisher<DataBuffer> source;
+
+	private final byte[] boundary;
+
+	private final int maxHeaderSize;
+
+
+	public MultipartParser(Publisher<DataBuffer> source, byte[] boundary, int maxHeaderSize) {
+		this.source = source;
+		this.boundary = boundary;
+		this.maxHeaderSize = maxHeaderSize;
+	}
+
+
+	@Override
+	public void subscribe(Subscriber<? super Part> subscriber) {
+		Tokenizer tokenizer = new Tokenizer(this.boundary, this.maxHeaderSize);
+		this.source.subscribe(new PartSplitter(subscriber, tokenizer));
+	}
+
+
+	/**
+	 * Receives data buffers, and emits the parts and their content found in these to
+	 * the part subscriber and the content subscribers respectively.
+	 */
+	static class PartSplitter implements Subscriber<DataBuffer>, Subscription {
+
+		private final Subscriber<? super Part> subscriber;
+
+		private final Tokenizer tokenizer;
+
+		/**
+		 * Tokens not emitted yet: part headers, content, and ends of parts.
+		 */
+		private final Queue<Object> tokens = new ConcurrentLinkedQueue<>();
+
+		private final AtomicLong demand = new AtomicLong();
+
+		private final AtomicInteger wip = new AtomicInteger();
+
+		private Subscription upstream;
+
+		private volatile boolean upstreamRequested;
+
+		private volatile boolean done;
+
+		private volatile Throwable error;
+
+		private volatile boolean cancelled;
+
+		private volatile boolean terminated;
+
+		private DefaultPart current;
+
+
+		public PartSplitter(Subscriber<? super Part> subscriber, Tokenizer tokenizer) {
+			this.subscriber = subscriber;
+			this.tokenizer = tokenizer;
+		}
+
+
+		@Override
+		public void onSubscribe(Subscription subscription) {
+			this.upstream = subscription;
+			this.subscriber.onSubscribe(this);
+		}
+
+		@Override
+		public void onNext(DataBuffer dataBuffer) {
+			if (this.terminated) {
+				DataBufferUtils.release(dataBuffer);
+				return;
+			}
+			try {
+				this.tokens.addAll(this.tokenizer.tokenize(dataBuffer));
+			}
+			catch (CodecException ex) {
+				this.upstream.cancel();
+				this.error = ex;
+				this.done = true;
+			}
+			this.upstreamRequested = false;
+			drain();
+		}
+
+		@Override
+		public void onError(Throwable throwable) {
+			this.error = throwable;
+			this.done = true;
+			drain();
+		}
+
+		@Override
+		public void onComplete() {
+			this.done = true;
+			drain();
+		}
+
+		@Override
+		public void request(long n) {
+			if (n <= 0) {
+				return;
+			}
+			long current;
+			long next;
+			do {
+				current = this.demand.get();
+				next = current + n;
+				if (next < 0) {
+					next = Long.MAX_VALUE;
+				}
+			}
+			while (!this.demand.compareAndSet(current, next));
+			drain();
+		}
+
+		@Override
+		public void cancel() {
+			this.cancelled = true;
+			drain();
+		}
+
+		/**
+		 * Emit as many tokens as there is demand for. Only one thread at a time
+		 * drains; a thread that finds another one draining leaves the work to it.
+		 */
+		void drain() {
+			if (this.wip.getAndIncrement() != 0) {
+				return;
+			}
+			int missed = 1;
+			do {
+				drainLoop();
+				missed = this.wip.addAndGet(-missed);
+			}
+			while (missed != 0);
+		}
+
+		private void drainLoop() {
+			while (!this.terminated) {
+				DefaultPart part = this.current;
+				if (this.cancelled && (part == null || !part.isSubscribed() || part.isCancelled())) {
+					// Keep reading the current part if its content is still wanted
+					terminate();
+					this.upstream.cancel();
+					return;
+				}
+				Object token = this.tokens.peek();
+				if (token == null) {
+					if (this.done) {
+						complete(part);
+					}
+					else if (!this.upstreamRequested) {
+						this.upstreamRequested = true;
+						this.upstream.request(1);
+					}
+					return;
+				}
+				if (token instanceof HttpHeaders) {
+					if (this.demand.get() == 0) {
+						return;
+					}
+					this.tokens.poll();
+					this.demand.decrementAndGet();
+					this.current = new DefaultPart((HttpHeaders) token, this);
+					this.subscriber.onNext(this.current);
+				}
+				else if (token == Tokenizer.END_OF_PART) {
+					if (!part.isSubscribed() && !part.isCancelled()) {
+						return;
+					}
+					this.tokens.poll();
+					this.current = null;
+					part.complete();
+				}
+				else if (part.isCancelled()) {
+					DataBufferUtils.release((DataBuffer) this.tokens.poll());
+				}
+				else if (part.hasDemand()) {
+					part.next((DataBuffer) this.tokens.poll());
+				}
+				else {
+					return;
+				}
+			}
+			releaseTokens();
+		}
+
+		private void complete(DefaultPart part) {
+			terminate();
+			Throwable ex = this.error;
+			if (ex == null && !this.tokenizer.isComplete()) {
+				ex = new CodecException("Multipart content ended before the closing boundary");
+			}
+			if (ex != null) {
+				// Signal the part subscriber first, so that an operator that is also
+				// subscribed to the current part content can cancel the latter
+				this.subscriber.onError(ex);
+				if (part != null) {
+					part.error(ex);
+				}
+			}
+			else {
+				this.subscriber.onComplete();
+			}
+		}
+
+		private void terminate() {
+			this.terminated = true;
+			releaseTokens();
+		}
+
+		private void releaseTokens() {
+			Object token;
+			while ((token = this.tokens.poll()) != null) {
+				if (token instanceof DataBuffer) {
+					DataBufferUtils.release((DataBuffer) token);
+				}
+			}
+		}
+	}
+
+
+	/**
+	 * Splits data buffers into part headers and part content. Boundary delimiters are
+	 * found with the Knuth-Morris-Pratt algorithm, so that no data has to be held back
+	 * other than the bytes that might be the start of a delimiter split across buffers.
+	 */
+	static class Tokenizer {
+
+		/**
+		 * Token that marks the end of the content of a part.
+		 */
+		static final Object END_OF_PART = new Object();
+
+		private static final byte CR = '\r';
+
+		private static final byte LF = '\n';
+
+		private static final byte HYPHEN = '-';
+
+		private static final int CRLF = 0x0d0a;
+
+		private static final int CRLF_CRLF = 0x0d0a0d0a;
+
+		private enum State {PREAMBLE, DELIMITER_SUFFIX, HEADERS, BODY, EPILOGUE}
+
+
+		private final byte[] delimiter;
+
+		private final int[] failure;
+
+		private final int maxHeaderSize;
+
+		private State state = State.PREAMBLE;
+
+		/**
+		 * The number of delimiter bytes matched so far. The first delimiter may be at
+		 * the very start of the content, without a preceding CRLF.
+		 */
+		private int matched = 2;
+
+		private byte previous;
+
+		private final ByteArrayOutputStream headers = new ByteArrayOutputStream();
+
+		/**
+		 * The last four header bytes, to find the blank line that ends the headers.
+		 */
+		private int headersEnd;
+
+
+		public Tokenizer(byte[] boundary, int maxHeaderSize) {
+			this.delimiter = new byte[boundary.length + 4];
+			this.delimiter[0] = CR;
+			this.delimiter[1] = LF;
+			this.delimiter[2] = HYPHEN;
+			this.delimiter[3] = HYPHEN;
+			System.arraycopy(boundary, 0, this.delimiter, 4, boundary.length);
+			this.failure = failureTable(this.delimiter);
+			this.maxHeaderSize = maxHeaderSize;
+		}
+
+		private static int[] failureTable(byte[] pattern) {
+			int[] failure = new int[pattern.length + 1];
+			int k = 0;
+			for (int i = 1; i < pattern.length; i++) {
+				while (k > 0 && pattern[i] != pattern[k]) {
+					k = failure[k];
+				}
+				if (pattern[i] == pattern[k]) {
+					k++;
+				}
+				failure[i + 1] = k;
+			}
+			return failure;
+		}
+
+
+		/**
+		 * Indicate whether the closing boundary delimiter has been found.
+		 */
+		public boolean isComplete() {
+			return this.state == State.EPILOGUE;
+		}
+
+		/**
+		 * Split the given data buffer, and release it.
+		 * @return {@link HttpHeaders} for the start of a part, {@link DataBuffer}s with
+		 * part content, and {@link #END_OF_PART} for the end of a part
+		 * @throws CodecException in case of malformed content
+		 */
+		public List<Object> tokenize(DataBuffer dataBuffer) {
+			// Composing a single buffer gives us indices relative to its read position
+			DataBuffer chunk = new CompositeDataBuffer(Collections.singletonList(dataBuffer));
+			try {
+				List<Object> tokens = new ArrayList<>();
+				ByteBuffer byteBuffer = chunk.asByteBuffer();
+				int offset = byteBuffer.position();
+				int length = byteBuffer.remaining();
+				int position = 0;
+				while (position < length) {
+					switch (this.state) {
+						case PREAMBLE:
+						case BODY:
+							position = readBody(chunk, byteBuffer, offset, position, length, tokens);
+							break;
+						case DELIMITER_SUFFIX:
+							position = readDelimiterSuffix(byteBuffer, offset, position, length);
+							break;
+						case HEADERS:
+							position = readHeaders(byteBuffer, offset, position, length, tokens);
+							break;
+						default:
+							// Ignore the epilogue
+							return tokens;
+					}
+				}
+				return tokens;
+			}
+			finally {
+				DataBufferUtils.release(chunk);
+			}
+		}
+
+		private int readBody(DataBuffer chunk, ByteBuffer byteBuffer, int offset,
+				int start, int length, List<Object> tokens) {
+
+			// Delimiter bytes matched at the end of the previous buffer
+			int carried = this.matched;
+			for (int i = start; i < length; i++) {
+				byte b = byteBuffer.get(offset + i);
+				while (this.matched > 0 && b != this.delimiter[this.matched]) {
+					this.matched = this.failure[this.matched];
+				}
+				if (b == this.delimiter[this.matched]) {
+					this.matched++;
+				}
+				if (this.matched == this.delimiter.length) {
+					addContent(chunk, start, i + 1 - this.delimiter.length, carried, tokens);
+					if (this.state == State.BODY) {
+						tokens.add(END_OF_PART);
+					}
+					this.matched = 0;
+					this.state = State.DELIMITER_SUFFIX;
+					return i + 1;
+				}
+			}
+			addContent(chunk, start, length - this.matched, carried, tokens);
+			return length;
+		}
+
+		/**
+		 * Add the content between {@code start} and {@code end}, preceded by the
+		 * delimiter bytes carried over from the previous buffer that turned out not to
+		 * be part of a delimiter. An {@code end} before {@code start} indicates that
+		 * some of the carried bytes are part of a delimiter after all.
+		 */
+		private void addContent(DataBuffer chunk, int start, int end, int carried,
+				List<Object> tokens) {
+
+			if (this.state == State.PREAMBLE) {
+				return;
+			}
+			int released = (end < start ? carried - (start - end) : carried);
+			if (released > 0) {
+				DataBuffer buffer = chunk.factory().allocateBuffer(released);
+				buffer.write(this.delimiter, 0, released);
+				tokens.add(buffer);
+			}
+			if (end > start) {
+				tokens.add(DataBufferUtils.retain(chunk.slice(start, end - start)));
+			}
+		}
+
+		private int readDelimiterSuffix(ByteBuffer byteBuffer, int offset, int start,
+				int length) {
+
+			for (int i = start; i < length; i++) {
+				byte b = byteBuffer.get(offset + i);
+				if (this.previous == HYPHEN) {
+					if (b != HYPHEN) {
+						throw new CodecException("Invalid multipart boundary delimiter");
+					}
+					this.state = State.EPILOGUE;
+					return length;
+				}
+				else if (this.previous == CR) {
+					if (b != LF) {
+						throw new CodecException("Invalid multipart boundary delimiter");
+					}
+					this.previous = 0;
+					this.headers.reset();
+					this.headers.write(CR);
+					this.headers.write(LF);
+					this.headersEnd = CRLF;
+					this.state = State.HEADERS;
+					return i + 1;
+				}
+				else if (b == HYPHEN || b == CR) {
+					this.previous = b;
+				}
+				else if (b != ' ' && b != '\t') {
+					throw new CodecException("Invalid multipart boundary delimiter");
+				}
+			}
+			return length;
+		}
+
+		private int readHeaders(ByteBuffer byteBuffer, int offset, int start, int length,
+				List<Object> tokens) {
+
+			for (int i = start; i < length; i++) {
+				byte b = byteBuffer.get(offset + i);
+				this.headers.write(b);
+				this.headersEnd = (this.headersEnd << 8) | (b & 0xff);
+				if (this.headers.size() > this.maxHeaderSize) {
+					throw new CodecException("Part headers exceed the limit of " +
+							this.maxHeaderSize + " bytes");
+				}
+				if (this.headersEnd == CRLF_CRLF) {
+					tokens.add(parseHeaders());
+					this.state = State.BODY;
+					return i + 1;
+				}
+			}
+			return length;
+		}
+
+		private HttpHeaders parseHeaders() {
+			HttpHeaders result = new HttpHeaders();
+			// Browsers send file names in UTF-8
+			String headers = new String(this.headers.toByteArray(), StandardCharsets.UTF_8);
+			for (String line : headers.split("\r\n")) {
+				int index = line.indexOf(':');
+				if (index > 0) {
+					result.add(line.substring(0, index).trim(), line.substring(index + 1).trim());
+				}
+			}
+			return result;
+		}
+	}
+
+}
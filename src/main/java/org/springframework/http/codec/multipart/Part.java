@@ -0,0 +1,76 @@
+/*
+ * Copyright 2002-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.http.codec.multipart;
+
+import java.io.File;
+import java.util.Optional;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+
+/**
+ * Representation of a single part in a {@code multipart/form-data} request.
+ *
+ * <p>Parts decoded by {@link MultipartDecoder} in streaming mode expose content that
+ * is read directly from the request, and that can be consumed only once. The content
+ * of such a part must be consumed, or its subscription cancelled, before the next part
+ * is emitted.
+ *
+ * @see MultipartDecoder
+ */
+public interface Part {
+
+	/**
+	 * Return the name of the part, as given in its {@code Content-Disposition} header.
+	 */
+	String getName();
+
+	/**
+	 * Return the original file name, as given in the {@code Content-Disposition}
+	 * header, if any.
+	 */
+	Optional<String> getFilename();
+
+	/**
+	 * Return the headers of the part.
+	 */
+	HttpHeaders getHeaders();
+
+	/**
+	 * Return the content of the part.
+	 */
+	Flux<DataBuffer> getContent();
+
+	/**
+	 * Transfer the content of the part to the given destination file. If the content
+	 * has been stored in a temporary file, that file is moved rather than copied.
+	 * @param dest the destination file
+	 * @return a {@code Mono} that indicates completion or error
+	 */
+	Mono<Void> transferTo(File dest);
+
+	/**
+	 * Delete the underlying storage of the part, such as a temporary file, if any.
+	 * @return a {@code Mono} that indicates completion or error
+	 */
+	Mono<Void> delete();
+
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2002-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.http.codec.multipart;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.support.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+
+/**
+ * {@link Part} whose content has been received completely, and is held either in
+ * memory or in a temporary file. The content can be consumed any number of times.
+ */
+class StoredPart extends AbstractPart {
+
+	private static final int FILE_BUFFER_SIZE = 8192;
+
+
+	private final DataBufferFactory bufferFactory;
+
+	private final byte[] content;
+
+	private final Path file;
+
+
+	/**
+	 * Create a part held in memory.
+	 */
+	public StoredPart(HttpHeaders headers, DataBufferFactory bufferFactory, byte[] content) {
+		super(headers);
+		this.bufferFactory = bufferFactory;
+		this.content = content;
+		this.file = null;
+	}
+
+	/**
+	 * Create a part held in the given file.
+	 */
+	public StoredPart(HttpHeaders headers, DataBufferFactory bufferFactory, Path file) {
+		super(headers);
+		this.bufferFactory = bufferFactory;
+		this.content = null;
+		this.file = file;
+	}
+
+
+	@Override
+	public Flux<DataBuffer> getContent() {
+		if (this.content != null) {
+			return Flux.defer(() -> Flux.just(this.bufferFactory.wrap(ByteBuffer.wrap(this.content))));
+		}
+		return Flux.defer(() -> {
+			try {
+				FileChannel channel = FileChannel.open(this.file, StandardOpenOption.READ);
+				return DataBufferUtils.read(channel, this.bufferFactory, FILE_BUFFER_SIZE);
+			}
+			catch (IOException ex) {
+				return Flux.error(ex);
+			}
+		});
+	}
+
+	@Override
+	public Mono<Void> transferTo(File dest) {
+		return Mono.defer(() -> {
+			try {
+				if (this.content != null) {
+					Files.write(dest.toPath(), this.content);
+				}
+				else {
+					Files.move(this.file, dest.toPath(), StandardCopyOption.REPLACE_EXISTING);
+				}
+				return Mono.empty();
+			}
+			catch (IOException ex) {
+				return Mono.error(ex);
+			}
+		});
+	}
+
+	@Override
+	public Mono<Void> delete() {
+		return Mono.defer(() -> {
+			try {
+				if (this.file != null) {
+					Files.deleteIfExists(this.file);
+				}
+				return Mono.empty();
+			}
+			catch (IOException ex) {
+				return Mono.error(ex);
+			}
+		});
+	}
+
+}
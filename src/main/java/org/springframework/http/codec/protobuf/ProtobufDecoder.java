@@ -0,0 +1,300 @@
+/*
+ * Copyright 2002-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.codec.protobuf;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import com.google.protobuf.Message;
+import com.google.protobuf.Parser;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.AbstractDecoder;
+import org.springframework.core.codec.CodecException;
+import org.springframework.core.io.buffer.CompositeDataBuffer;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.support.DataBufferUtils;
+import org.springframework.util.Assert;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.MimeType;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Decode a byte stream into Protocol Buffers {@link Message}s.
+ *
+ * <p>{@link #decodeOne} reads the whole input as a single message. {@link #decode}
+ * reads a stream of messages, each of which is preceded by its size as a varint (i.e.
+ * as written by {@link Message#writeDelimitedTo}). Messages split across data buffers
+ * are reassembled from slices of these buffers, so that only the message currently
+ * being read is held on to, rather than the whole input.
+ *
+ * <p>The {@link Parser} of each message class is cached.
+ *
+ * @see ProtobufEncoder
+ */
+public class ProtobufDecoder extends AbstractDecoder<Message> {
+
+	/**
+	 * The default maximum size of a single message in a stream: 1 MB.
+	 */
+	public static final int DEFAULT_MAX_MESSAGE_SIZE = 1024 * 1024;
+
+	private static final Map<Class<?>, Parser<?>> parserCache =
+			new ConcurrentReferenceHashMap<>();
+
+
+	private int maxMessageSize = DEFAULT_MAX_MESSAGE_SIZE;
+
+
+	public ProtobufDecoder() {
+		super(ProtobufEncoder.MIME_TYPES);
+	}
+
+
+	/**
+	 * Sets the maximum size, in bytes, of a single message in a stream. Larger
+	 * messages cause a {@link CodecException}. Defaults to
+	 * {@link #DEFAULT_MAX_MESSAGE_SIZE}.
+	 * @param maxMessageSize the maximum message size
+	 */
+	public void setMaxMessageSize(int maxMessageSize) {
+		Assert.isTrue(maxMessageSize > 0, "'maxMessageSize' must be larger than 0");
+		this.maxMessageSize = maxMessageSize;
+	}
+
+	/**
+	 * Returns the maximum size, in bytes, of a single message in a stream.
+	 */
+	public int getMaxMessageSize() {
+		return this.maxMessageSize;
+	}
+
+	@Override
+	public boolean canDecode(ResolvableType elementType, MimeType mimeType, Object... hints) {
+		return super.canDecode(elementType, mimeType, hints) &&
+				Message.class.isAssignableFrom(elementType.getRawClass());
+	}
+
+	@Override
+	public Flux<Message> decode(Publisher<DataBuffer> inputStream, ResolvableType elementType,
+			MimeType mimeType, Object... hints) {
+
+		Parser<?> parser = getParser(inputStream, elementType);
+		int maxMessageSize = this.maxMessageSize;
+		return Flux.using(() -> new MessageSplitter(maxMessageSize),
+				splitter -> Flux.from(inputStream).
+						flatMap(splitter::split).
+						concatWith(Flux.defer(splitter::complete)),
+				MessageSplitter::release).
+				map(dataBuffer -> parse(parser, dataBuffer));
+	}
+
+	@Override
+	public Mono<Message> decodeOne(Publisher<DataBuffer> inputStream,
+			ResolvableType elementType, MimeType mimeType, Object... hints) {
+
+		Parser<?> parser = getParser(inputStream, elementType);
+		// An empty body is a valid encoding of a message with default values
+		return Flux.from(DataBufferUtils.join(inputStream)).
+				map(dataBuffer -> parse(parser, dataBuffer)).
+				singleOrDefault(() -> parseEmpty(parser));
+	}
+
+	private static Parser<?> getParser(Publisher<DataBuffer> inputStream,
+			ResolvableType elementType) {
+
+		Assert.notNull(inputStream, "'inputStream' must not be null");
+		Assert.notNull(elementType, "'elementType' must not be null");
+
+		return parserCache.computeIfAbsent(elementType.getRawClass(), messageClass -> {
+			Method method = ReflectionUtils.findMethod(messageClass, "getDefaultInstance");
+			Assert.notNull(method, "No getDefaultInstance() method found on " + messageClass);
+			Message defaultInstance = (Message) ReflectionUtils.invokeMethod(method, null);
+			return defaultInstance.getParserForType();
+		});
+	}
+
+	private static Message parse(Parser<?> parser, DataBuffer dataBuffer) {
+		try {
+			ByteBuffer byteBuffer = dataBuffer.asByteBuffer();
+			if (byteBuffer.hasArray()) {
+				return (Message) parser.parseFrom(byteBuffer.array(),
+						byteBuffer.arrayOffset() + byteBuffer.position(), byteBuffer.remaining());
+			}
+			else {
+				return (Message) parser.parseFrom(dataBuffer.asInputStream());
+			}
+		}
+		catch (IOException ex) {
+			throw new CodecException("Error while reading the data", ex);
+		}
+		finally {
+			DataBufferUtils.release(dataBuffer);
+		}
+	}
+
+
+	private static Message parseEmpty(Parser<?> parser) {
+		try {
+			return (Message) parser.parseFrom(new byte[0]);
+		}
+		catch (IOException ex) {
+			throw new CodecException("Error while reading the data", ex);
+		}
+	}
+
+
+	/**
+	 * Splits data buffers into varint length-delimited messages, keeping the start of
+	 * a message that is not complete yet in between buffers.
+	 */
+	private static class MessageSplitter {
+
+		private final int maxMessageSize;
+
+		/**
+		 * Slices that make up the current, incomplete message.
+		 */
+		private final List<DataBuffer> pending = new ArrayList<>();
+
+		private int pendingLength;
+
+		/**
+		 * The size of the current message, or {@code -1} if still reading its varint.
+		 */
+		private int messageSize = -1;
+
+		private int varint;
+
+		private int varintShift;
+
+
+		public MessageSplitter(int maxMessageSize) {
+			this.maxMessageSize = maxMessageSize;
+		}
+
+
+		public Publisher<DataBuffer> split(DataBuffer dataBuffer) {
+			// Composing a single buffer gives us indices relative to its read position
+			DataBuffer chunk = new CompositeDataBuffer(Collections.singletonList(dataBuffer));
+			try {
+				List<DataBuffer> messages = new ArrayList<>();
+				ByteBuffer byteBuffer = chunk.asByteBuffer();
+				int offset = byteBuffer.position();
+				int length = byteBuffer.remaining();
+				int position = 0;
+				while (position < length) {
+					if (this.messageSize == -1) {
+						byte b = byteBuffer.get(offset + position++);
+						if (!readVarint(b)) {
+							release();
+							return Flux.fromIterable(messages).concatWith(Flux.error(
+									new CodecException("Malformed message size varint")));
+						}
+						if (this.messageSize > this.maxMessageSize) {
+							release();
+							return Flux.fromIterable(messages).concatWith(Flux.error(
+									new CodecException("Message size of " + this.messageSize +
+											" bytes exceeds the limit of " +
+											this.maxMessageSize + " bytes")));
+						}
+					}
+					else {
+						int count = Math.min(this.messageSize - this.pendingLength,
+								length - position);
+						if (count > 0) {
+							this.pending.add(DataBufferUtils.retain(chunk.slice(position, count)));
+							this.pendingLength += count;
+							position += count;
+						}
+					}
+					if (this.messageSize != -1 && this.pendingLength == this.messageSize) {
+						messages.add(completeMessage(chunk));
+					}
+				}
+				return Flux.fromIterable(messages);
+			}
+			finally {
+				DataBufferUtils.release(chunk);
+			}
+		}
+
+		/**
+		 * Reads a byte of the message size varint.
+		 * @return {@code false} if the varint is malformed
+		 */
+		private boolean readVarint(byte b) {
+			if (this.varintShift >= 32) {
+				return false;
+			}
+			this.varint |= (b & 0x7f) << this.varintShift;
+			this.varintShift += 7;
+			if ((b & 0x80) == 0) {
+				if (this.varint < 0) {
+					return false;
+				}
+				this.messageSize = this.varint;
+				this.varint = 0;
+				this.varintShift = 0;
+			}
+			return true;
+		}
+
+		private DataBuffer completeMessage(DataBuffer chunk) {
+			DataBuffer message;
+			if (this.pending.isEmpty()) {
+				message = DataBufferUtils.retain(chunk.slice(0, 0));
+			}
+			else if (this.pending.size() == 1) {
+				message = this.pending.get(0);
+			}
+			else {
+				message = new CompositeDataBuffer(new ArrayList<>(this.pending));
+			}
+			this.pending.clear();
+			this.pendingLength = 0;
+			this.messageSize = -1;
+			return message;
+		}
+
+		/**
+		 * Verifies that the input did not end in the middle of a message.
+		 */
+		public Publisher<DataBuffer> complete() {
+			if (this.messageSize != -1 || this.varintShift != 0) {
+				release();
+				return Flux.error(new CodecException("Input ended in the middle of a message"));
+			}
+			return Flux.empty();
+		}
+
+		public void release() {
+			this.pending.forEach(DataBufferUtils::release);
+			this.pending.clear();
+			this.pendingLength = 0;
+		}
+	}
+
+}
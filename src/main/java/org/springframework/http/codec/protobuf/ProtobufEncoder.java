@@ -0,0 +1,98 @@
+/*
+ * Copyright 2002-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.codec.protobuf;
+
+import java.io.IOException;
+
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.Message;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.AbstractEncoder;
+import org.springframework.core.codec.CodecException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.util.Assert;
+import org.springframework.util.MimeType;
+
+/**
+ * Encode from a stream of Protocol Buffers {@link Message}s to a byte stream.
+ *
+ * <p>A {@link Mono} is encoded as a single message. Any other publisher is encoded as
+ * a stream of messages, each of which is preceded by its size as a varint (i.e.
+ * as written by {@link Message#writeDelimitedTo}).
+ *
+ * @see ProtobufDecoder
+ */
+public class ProtobufEncoder extends AbstractEncoder<Message> {
+
+	static final MimeType[] MIME_TYPES = new MimeType[] {
+			new MimeType("application", "x-protobuf"),
+			new MimeType("application", "octet-stream")
+	};
+
+
+	public ProtobufEncoder() {
+		super(MIME_TYPES);
+	}
+
+
+	@Override
+	public boolean canEncode(ResolvableType elementType, MimeType mimeType, Object... hints) {
+		return super.canEncode(elementType, mimeType, hints) &&
+				Message.class.isAssignableFrom(elementType.getRawClass());
+	}
+
+	@Override
+	public Flux<DataBuffer> encode(Publisher<? extends Message> inputStream,
+			DataBufferFactory bufferFactory, ResolvableType elementType, MimeType mimeType,
+			Object... hints) {
+
+		Assert.notNull(inputStream, "'inputStream' must not be null");
+		Assert.notNull(bufferFactory, "'bufferFactory' must not be null");
+
+		boolean delimited = !(inputStream instanceof Mono);
+		return Flux.from(inputStream).
+				map(message -> serialize(message, bufferFactory, delimited));
+	}
+
+	private DataBuffer serialize(Message message, DataBufferFactory dataBufferFactory,
+			boolean delimited) {
+
+		int size = message.getSerializedSize();
+		if (delimited) {
+			size += CodedOutputStream.computeUInt32SizeNoTag(size);
+		}
+		DataBuffer buffer = dataBufferFactory.allocateBuffer(size);
+		try {
+			if (delimited) {
+				message.writeDelimitedTo(buffer.asOutputStream());
+			}
+			else {
+				message.writeTo(buffer.asOutputStream());
+			}
+		}
+		catch (IOException ex) {
+			throw new CodecException("Error while writing the data", ex);
+		}
+		return buffer;
+	}
+
+}
@@ -17,7 +17,9 @@
 package org.springframework.http.codec.xml;
 
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.function.Function;
 import javax.xml.XMLConstants;
 import javax.xml.bind.JAXBElement;
@@ -28,6 +30,7 @@ import javax.xml.bind.annotation.XmlSchema;
 import javax.xml.bind.annotation.XmlType;
 import javax.xml.namespace.QName;
 import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.events.XMLEvent;
 
 import org.reactivestreams.Publisher;
@@ -61,7 +64,7 @@ public class Jaxb2Decoder extends AbstractDecoder<Object> {
 	 */
 	private final static String JAXB_DEFAULT_ANNOTATION_VALUE = "##default";
 
-	private final XmlEventDecoder xmlEventDecoder = new XmlEventDecoder();
+	final XmlEventDecoder xmlEventDecoder = new XmlEventDecoder();
 
 	private final JaxbContextContainer jaxbContexts = new JaxbContextContainer();
 
@@ -85,13 +88,33 @@ public class Jaxb2Decoder extends AbstractDecoder<Object> {
 	public Flux<Object> decode(Publisher<DataBuffer> inputStream, ResolvableType elementType,
 			MimeType mimeType, Object... hints) {
 		Class<?> outputClass = elementType.getRawClass();
+		QName typeName = toQName(outputClass);
+		if (!this.xmlEventDecoder.usesAalto()) {
+			// Unmarshal straight from the live reader, without collecting events
+			return this.xmlEventDecoder.readBlocking(inputStream,
+					eventReader -> new UnmarshallingIterator(eventReader, typeName, outputClass));
+		}
 		Flux<XMLEvent> xmlEventFlux =
 				this.xmlEventDecoder.decode(inputStream, null, mimeType);
 
-		QName typeName = toQName(outputClass);
 		Flux<List<XMLEvent>> splitEvents = split(xmlEventFlux, typeName);
 
-		return splitEvents.map(events -> unmarshal(events, outputClass));
+		return splitEvents.map(events ->
+				unmarshal(StaxUtils2.createXMLEventReader(events), outputClass));
+	}
+
+	/**
+	 * Returns the number of times a pooled {@link Unmarshaller} was reused.
+	 */
+	public long getUnmarshallerPoolHitCount() {
+		return this.jaxbContexts.getUnmarshallerHitCount();
+	}
+
+	/**
+	 * Returns the number of times an {@link Unmarshaller} had to be created.
+	 */
+	public long getUnmarshallerPoolMissCount() {
+		return this.jaxbContexts.getUnmarshallerMissCount();
 	}
 
 	/**
@@ -195,10 +218,10 @@ public class Jaxb2Decoder extends AbstractDecoder<Object> {
 				});
 	}
 
-	private Object unmarshal(List<XMLEvent> events, Class<?> outputClass) {
+	private Object unmarshal(XMLEventReader eventReader, Class<?> outputClass) {
+		Unmarshaller unmarshaller = null;
 		try {
-			Unmarshaller unmarshaller = this.jaxbContexts.createUnmarshaller(outputClass);
-			XMLEventReader eventReader = StaxUtils2.createXMLEventReader(events);
+			unmarshaller = this.jaxbContexts.borrowUnmarshaller(outputClass);
 			if (outputClass.isAnnotationPresent(XmlRootElement.class)) {
 				return unmarshaller.unmarshal(eventReader);
 			}
@@ -211,6 +234,58 @@ public class Jaxb2Decoder extends AbstractDecoder<Object> {
 		catch (JAXBException ex) {
 			throw new CodecException(ex.getMessage(), ex);
 		}
+		finally {
+			if (unmarshaller != null) {
+				this.jaxbContexts.returnUnmarshaller(outputClass, unmarshaller);
+			}
+		}
+	}
+
+
+	/**
+	 * Iterator that unmarshals every element with the desired name directly from an
+	 * {@link XMLEventReader}, skipping all other events.
+	 */
+	private class UnmarshallingIterator implements Iterator<Object> {
+
+		private final XMLEventReader eventReader;
+
+		private final QName desiredName;
+
+		private final Class<?> outputClass;
+
+		public UnmarshallingIterator(XMLEventReader eventReader, QName desiredName,
+				Class<?> outputClass) {
+			this.eventReader = eventReader;
+			this.desiredName = desiredName;
+			this.outputClass = outputClass;
+		}
+
+		@Override
+		public boolean hasNext() {
+			try {
+				while (this.eventReader.hasNext()) {
+					XMLEvent event = this.eventReader.peek();
+					if (event.isStartElement() &&
+							this.desiredName.equals(event.asStartElement().getName())) {
+						return true;
+					}
+					this.eventReader.nextEvent();
+				}
+				return false;
+			}
+			catch (XMLStreamException ex) {
+				throw new CodecException(ex.getMessage(), ex);
+			}
+		}
+
+		@Override
+		public Object next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			return unmarshal(this.eventReader, this.outputClass);
+		}
 	}
 
 }
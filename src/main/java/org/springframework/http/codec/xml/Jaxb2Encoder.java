@@ -23,12 +23,16 @@ import javax.xml.bind.Marshaller;
 import javax.xml.bind.annotation.XmlRootElement;
 import javax.xml.bind.annotation.XmlType;
 
+import org.reactivestreams.Publisher;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import org.springframework.core.ResolvableType;
-import org.springframework.core.codec.AbstractSingleValueEncoder;
+import org.springframework.core.codec.AbstractEncoder;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.support.DataBufferUtils;
+import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.MimeType;
 import org.springframework.util.MimeTypeUtils;
@@ -36,18 +40,54 @@ import org.springframework.util.MimeTypeUtils;
 /**
  * Encode from an {@code Object} stream to a byte stream of XML elements.
  *
+ * <p>A single value, published as a {@link Mono}, is marshalled as an XML document.
+ * Multiple values are streamed as one document: an opening
+ * {@linkplain #setRootElementName root element}, followed by every value marshalled
+ * as a fragment into its own buffer as it arrives, and finally the closing root
+ * element.
+ *
  * @author Sebastien Deleuze
  * @author Arjen Poutsma
  * @see Jaxb2Decoder
  */
-public class Jaxb2Encoder extends AbstractSingleValueEncoder<Object> {
+public class Jaxb2Encoder extends AbstractEncoder<Object> {
+
+	/**
+	 * The default name of the root element that wraps multiple values.
+	 */
+	public static final String DEFAULT_ROOT_ELEMENT_NAME = "root";
+
+	private static final String XML_DECLARATION =
+			"<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>";
+
 
 	private final JaxbContextContainer jaxbContexts = new JaxbContextContainer();
 
+	private String rootElementName = DEFAULT_ROOT_ELEMENT_NAME;
+
+
 	public Jaxb2Encoder() {
 		super(MimeTypeUtils.APPLICATION_XML, MimeTypeUtils.TEXT_XML);
 	}
 
+
+	/**
+	 * Sets the name of the root element that wraps multiple values. Defaults to
+	 * {@link #DEFAULT_ROOT_ELEMENT_NAME}.
+	 * @param rootElementName the root element name
+	 */
+	public void setRootElementName(String rootElementName) {
+		Assert.hasLength(rootElementName, "'rootElementName' must not be empty");
+		this.rootElementName = rootElementName;
+	}
+
+	/**
+	 * Returns the name of the root element that wraps multiple values.
+	 */
+	public String getRootElementName() {
+		return this.rootElementName;
+	}
+
 	@Override
 	public boolean canEncode(ResolvableType elementType, MimeType mimeType, Object... hints) {
 		if (super.canEncode(elementType, mimeType, hints)) {
@@ -62,24 +102,71 @@ public class Jaxb2Encoder extends AbstractSingleValueEncoder<Object> {
 	}
 
 	@Override
-	protected Flux<DataBuffer> encode(Object value, DataBufferFactory dataBufferFactory,
-			ResolvableType type, MimeType mimeType, Object... hints) {
+	public Flux<DataBuffer> encode(Publisher<?> inputStream, DataBufferFactory bufferFactory,
+			ResolvableType elementType, MimeType mimeType, Object... hints) {
+
+		Assert.notNull(inputStream, "'inputStream' must not be null");
+		Assert.notNull(bufferFactory, "'bufferFactory' must not be null");
+
+		if (inputStream instanceof Mono) {
+			return Mono.from(inputStream).
+					flatMap(value -> marshal(value, bufferFactory, false));
+		}
+		String rootElementName = this.rootElementName;
+		return Flux.concat(
+				Flux.defer(() -> Mono.just(writeString(bufferFactory,
+						XML_DECLARATION + "<" + rootElementName + ">"))),
+				Flux.from(inputStream).concatMap(value -> marshal(value, bufferFactory, true)),
+				Flux.defer(() -> Mono.just(writeString(bufferFactory,
+						"</" + rootElementName + ">"))));
+	}
+
+	/**
+	 * Returns the number of times a pooled {@link Marshaller} was reused.
+	 */
+	public long getMarshallerPoolHitCount() {
+		return this.jaxbContexts.getMarshallerHitCount();
+	}
+
+	/**
+	 * Returns the number of times a {@link Marshaller} had to be created.
+	 */
+	public long getMarshallerPoolMissCount() {
+		return this.jaxbContexts.getMarshallerMissCount();
+	}
+
+	private Mono<DataBuffer> marshal(Object value, DataBufferFactory dataBufferFactory,
+			boolean fragment) {
+
+		Class<?> clazz = ClassUtils.getUserClass(value);
+		Marshaller marshaller;
+		try {
+			marshaller = this.jaxbContexts.borrowMarshaller(clazz);
+		}
+		catch (JAXBException ex) {
+			return Mono.error(ex);
+		}
+		DataBuffer buffer = dataBufferFactory.allocateBuffer(1024);
 		try {
-			DataBuffer buffer = dataBufferFactory.allocateBuffer(1024);
 			OutputStream outputStream = buffer.asOutputStream();
-			Class<?> clazz = ClassUtils.getUserClass(value);
-			Marshaller marshaller = jaxbContexts.createMarshaller(clazz);
 			marshaller
 					.setProperty(Marshaller.JAXB_ENCODING, StandardCharsets.UTF_8.name());
+			marshaller.setProperty(Marshaller.JAXB_FRAGMENT, fragment);
 			marshaller.marshal(value, outputStream);
-			return Flux.just(buffer);
+			return Mono.just(buffer);
 		}
 		catch (JAXBException ex) {
-			return Flux.error(ex);
+			DataBufferUtils.release(buffer);
+			return Mono.error(ex);
+		}
+		finally {
+			this.jaxbContexts.returnMarshaller(clazz, marshaller);
 		}
 	}
 
-
+	private static DataBuffer writeString(DataBufferFactory dataBufferFactory, String value) {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		return dataBufferFactory.allocateBuffer(bytes.length).write(bytes);
+	}
 
 }
-
@@ -16,8 +16,12 @@
 
 package org.springframework.http.codec.xml;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Marshaller;
@@ -26,21 +30,139 @@ import javax.xml.bind.Unmarshaller;
 import org.springframework.util.Assert;
 
 /**
+ * Holds the {@link JAXBContext}s for classes, and pools their {@link Marshaller}s and
+ * {@link Unmarshaller}s.
+ *
+ * <p>Marshallers and unmarshallers are not thread-safe, and relatively expensive to
+ * create. Instead of creating one for every use, callers borrow one from a bounded,
+ * per-class pool, and return it when done. Returned instances are reset to their
+ * default configuration; when the pool is full, they are discarded.
+ *
  * @author Arjen Poutsma
  */
 final class JaxbContextContainer {
 
+	/**
+	 * The default maximum number of idle marshallers, and of idle unmarshallers, kept
+	 * per class.
+	 */
+	static final int DEFAULT_MAX_IDLE = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+
+
 	private final ConcurrentMap<Class<?>, JAXBContext> jaxbContexts =
 			new ConcurrentHashMap<>(64);
 
-	public Marshaller createMarshaller(Class<?> clazz) throws JAXBException {
-		JAXBContext jaxbContext = getJaxbContext(clazz);
-		return jaxbContext.createMarshaller();
+	private final Pool<Marshaller> marshallers = new Pool<>();
+
+	private final Pool<Unmarshaller> unmarshallers = new Pool<>();
+
+	private final int maxIdle;
+
+
+	public JaxbContextContainer() {
+		this(DEFAULT_MAX_IDLE);
+	}
+
+	public JaxbContextContainer(int maxIdle) {
+		Assert.isTrue(maxIdle > 0, "'maxIdle' must be larger than 0");
+		this.maxIdle = maxIdle;
+	}
+
+
+	/**
+	 * Borrows a marshaller for the given class, which should be
+	 * {@linkplain #returnMarshaller returned} when done.
+	 */
+	public Marshaller borrowMarshaller(Class<?> clazz) throws JAXBException {
+		Marshaller marshaller = this.marshallers.poll(clazz);
+		return (marshaller != null ? marshaller : getJaxbContext(clazz).createMarshaller());
+	}
+
+	/**
+	 * Returns a marshaller borrowed with {@link #borrowMarshaller}.
+	 */
+	public void returnMarshaller(Class<?> clazz, Marshaller marshaller) {
+		try {
+			marshaller.setProperty(Marshaller.JAXB_ENCODING, StandardCharsets.UTF_8.name());
+			marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.FALSE);
+			marshaller.setProperty(Marshaller.JAXB_FRAGMENT, Boolean.FALSE);
+			marshaller.setEventHandler(null);
+			marshaller.setSchema(null);
+			marshaller.setListener(null);
+		}
+		catch (JAXBException ex) {
+			// Could not reset: let it be garbage collected
+			return;
+		}
+		this.marshallers.offer(clazz, marshaller);
+	}
+
+	/**
+	 * Borrows an unmarshaller for the given class, which should be
+	 * {@linkplain #returnUnmarshaller returned} when done.
+	 */
+	public Unmarshaller borrowUnmarshaller(Class<?> clazz) throws JAXBException {
+		Unmarshaller unmarshaller = this.unmarshallers.poll(clazz);
+		return (unmarshaller != null ? unmarshaller :
+				getJaxbContext(clazz).createUnmarshaller());
+	}
+
+	/**
+	 * Returns an unmarshaller borrowed with {@link #borrowUnmarshaller}.
+	 */
+	public void returnUnmarshaller(Class<?> clazz, Unmarshaller unmarshaller) {
+		try {
+			unmarshaller.setEventHandler(null);
+			unmarshaller.setSchema(null);
+			unmarshaller.setListener(null);
+		}
+		catch (JAXBException ex) {
+			// Could not reset: let it be garbage collected
+			return;
+		}
+		this.unmarshallers.offer(clazz, unmarshaller);
 	}
 
-	public Unmarshaller createUnmarshaller(Class<?> clazz) throws JAXBException {
-		JAXBContext jaxbContext = getJaxbContext(clazz);
-		return jaxbContext.createUnmarshaller();
+	/**
+	 * Returns the number of times a pooled marshaller was reused.
+	 */
+	public long getMarshallerHitCount() {
+		return this.marshallers.hitCount.get();
+	}
+
+	/**
+	 * Returns the number of times a marshaller had to be created.
+	 */
+	public long getMarshallerMissCount() {
+		return this.marshallers.missCount.get();
+	}
+
+	/**
+	 * Returns the number of idle marshallers, for all classes.
+	 */
+	public int getIdleMarshallerCount() {
+		return this.marshallers.idleCount();
+	}
+
+	/**
+	 * Returns the number of times a pooled unmarshaller was reused.
+	 */
+	public long getUnmarshallerHitCount() {
+		return this.unmarshallers.hitCount.get();
+	}
+
+	/**
+	 * Returns the number of times an unmarshaller had to be created.
+	 */
+	public long getUnmarshallerMissCount() {
+		return this.unmarshallers.missCount.get();
+	}
+
+	/**
+	 * Returns the number of idle unmarshallers, for all classes.
+	 */
+	public int getIdleUnmarshallerCount() {
+		return this.unmarshallers.idleCount();
 	}
 
 	private JAXBContext getJaxbContext(Class<?> clazz) throws JAXBException {
@@ -53,4 +175,38 @@ final class JaxbContextContainer {
 		return jaxbContext;
 	}
 
+
+	/**
+	 * Bounded queues of idle instances, per class.
+	 */
+	private class Pool<T> {
+
+		private final ConcurrentMap<Class<?>, Queue<T>> idle = new ConcurrentHashMap<>(64);
+
+		private final AtomicLong hitCount = new AtomicLong();
+
+		private final AtomicLong missCount = new AtomicLong();
+
+		public T poll(Class<?> clazz) {
+			Queue<T> queue = this.idle.get(clazz);
+			T instance = (queue != null ? queue.poll() : null);
+			if (instance != null) {
+				this.hitCount.incrementAndGet();
+			}
+			else {
+				this.missCount.incrementAndGet();
+			}
+			return instance;
+		}
+
+		public void offer(Class<?> clazz, T instance) {
+			this.idle.computeIfAbsent(clazz, key -> new ArrayBlockingQueue<>(maxIdle)).
+					offer(instance);
+		}
+
+		public int idleCount() {
+			return this.idle.values().stream().mapToInt(Queue::size).sum();
+		}
+	}
+
 }
@@ -16,8 +16,8 @@
 
 package org.springframework.http.codec.xml;
 
-import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.function.Function;
 import javax.xml.stream.XMLEventReader;
@@ -33,11 +33,15 @@ import com.fasterxml.aalto.evt.EventAllocatorImpl;
 import org.reactivestreams.Publisher;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
 import org.springframework.core.ResolvableType;
 import org.springframework.core.codec.AbstractDecoder;
 import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.support.DataBufferInputStream;
 import org.springframework.core.io.buffer.support.DataBufferUtils;
+import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.MimeType;
 import org.springframework.util.MimeTypeUtils;
@@ -64,6 +68,11 @@ import org.springframework.util.MimeTypeUtils;
  * <li>{@link javax.xml.stream.events.EndElement} {@code root}</li>
  * </ol>
  *
+ * <p>When Aalto is available, data buffers are parsed as they arrive, without blocking.
+ * Otherwise, the parser of the JDK reads the data buffers through a blocking input
+ * stream on a {@linkplain #setScheduler separate scheduler}. In both cases, memory use
+ * does not depend on the size of the document.
+ *
  * Note that this decoder is not registered by default, but used internally by other
  * decoders who are.
  *
@@ -71,6 +80,11 @@ import org.springframework.util.MimeTypeUtils;
  */
 public class XmlEventDecoder extends AbstractDecoder<XMLEvent> {
 
+	/**
+	 * The number of data buffers requested ahead of the blocking JDK parser.
+	 */
+	private static final int BLOCKING_PREFETCH = 4;
+
 	private static final boolean aaltoPresent = ClassUtils
 			.isPresent("com.fasterxml.aalto.AsyncXMLStreamReader",
 					XmlEventDecoder.class.getClassLoader());
@@ -79,38 +93,70 @@ public class XmlEventDecoder extends AbstractDecoder<XMLEvent> {
 
 	boolean useAalto = true;
 
+	private Scheduler scheduler = Schedulers.elastic();
+
+
 	public XmlEventDecoder() {
 		super(MimeTypeUtils.APPLICATION_XML, MimeTypeUtils.TEXT_XML);
 	}
 
+
+	/**
+	 * Sets the scheduler on which the parser of the JDK blocks while waiting for data,
+	 * used when Aalto is not available. Defaults to {@link Schedulers#elastic()}.
+	 * @param scheduler the scheduler to parse on
+	 */
+	public void setScheduler(Scheduler scheduler) {
+		Assert.notNull(scheduler, "'scheduler' must not be null");
+		this.scheduler = scheduler;
+	}
+
 	@Override
 	public Flux<XMLEvent> decode(Publisher<DataBuffer> inputStream, ResolvableType elementType,
 			MimeType mimeType, Object... hints) {
-		Flux<DataBuffer> flux = Flux.from(inputStream);
-		if (useAalto && aaltoPresent) {
-			return flux.flatMap(new AaltoDataBufferToXmlEvent());
+		if (usesAalto()) {
+			return Flux.from(inputStream).flatMap(new AaltoDataBufferToXmlEvent());
 		}
 		else {
-			Mono<DataBuffer> singleBuffer = flux.reduce(DataBuffer::write);
-			return singleBuffer.
-					flatMap(dataBuffer -> {
-						try {
-							InputStream is = dataBuffer.asInputStream();
-							XMLEventReader eventReader =
-									inputFactory.createXMLEventReader(is);
-							return Flux
-									.fromIterable((Iterable<XMLEvent>) () -> eventReader);
-						}
-						catch (XMLStreamException ex) {
-							return Mono.error(ex);
-						}
-						finally {
-							DataBufferUtils.release(dataBuffer);
-						}
-					});
+			return readBlocking(inputStream, eventReader -> {
+				@SuppressWarnings("unchecked")
+				Iterator<XMLEvent> events = eventReader;
+				return events;
+			});
 		}
 	}
 
+	/**
+	 * Indicates whether the non-blocking Aalto parser is used.
+	 */
+	boolean usesAalto() {
+		return this.useAalto && aaltoPresent;
+	}
+
+	/**
+	 * Reads the given data buffers with an {@link XMLEventReader} of the JDK, on the
+	 * configured scheduler. The elements of the resulting flux are obtained from the
+	 * iterator that the given function creates for the reader; they are produced on
+	 * demand, as the reader consumes the data buffers.
+	 */
+	<T> Flux<T> readBlocking(Publisher<DataBuffer> inputStream,
+			Function<XMLEventReader, Iterator<T>> iteratorFunction) {
+
+		return Flux.using(() -> new DataBufferInputStream(inputStream, BLOCKING_PREFETCH),
+				is -> {
+					XMLEventReader eventReader;
+					try {
+						eventReader = inputFactory.createXMLEventReader(is);
+					}
+					catch (XMLStreamException ex) {
+						return Flux.error(ex);
+					}
+					return Flux.fromIterable(() -> iteratorFunction.apply(eventReader));
+				},
+				DataBufferInputStream::close).
+				subscribeOn(this.scheduler);
+	}
+
 	/*
 	 * Separate static class to isolate Aalto dependency.
 	 */
@@ -26,6 +26,8 @@ import org.springframework.core.ResolvableType;
 import org.springframework.http.MediaType;
 import org.springframework.http.ReactiveHttpInputMessage;
 import org.springframework.http.ReactiveHttpOutputMessage;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
 
 /**
  * Strategy interface that specifies a converter that can convert from and to HTTP
@@ -99,4 +101,24 @@ public interface HttpMessageConverter<T> {
 	Mono<Void> write(Publisher<? extends T> inputStream,
 			ResolvableType type, MediaType contentType,
 			ReactiveHttpOutputMessage outputMessage);
-}
\ No newline at end of file
+
+	/**
+	 * Write an given object to the given server response, with access to the
+	 * request that is being handled. Converters can use the request to
+	 * honor request headers such as {@code Range}.
+	 * <p>The default implementation ignores the request and delegates to
+	 * {@link #write(Publisher, ResolvableType, MediaType, ReactiveHttpOutputMessage)}.
+	 * @param inputStream the input stream to write
+	 * @param type the stream element type to process.
+	 * @param contentType the content type to use when writing. May be {@code null} to
+	 * indicate that the default content type of the converter must be used.
+	 * @param request the current request
+	 * @param response the response to write to
+	 * @return a {@link Mono} that indicates completion or error
+	 */
+	default Mono<Void> write(Publisher<? extends T> inputStream,
+			ResolvableType type, MediaType contentType,
+			ServerHttpRequest request, ServerHttpResponse response) {
+		return write(inputStream, type, contentType, response);
+	}
+}
@@ -18,6 +18,10 @@ package org.springframework.http.converter.reactive;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 
 import org.reactivestreams.Publisher;
@@ -29,28 +33,62 @@ import org.springframework.core.codec.ResourceDecoder;
 import org.springframework.core.codec.ResourceEncoder;
 import org.springframework.core.io.InputStreamResource;
 import org.springframework.core.io.Resource;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.support.ResourceRegion;
 import org.springframework.core.io.support.ResourceUtils2;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ReactiveHttpOutputMessage;
 import org.springframework.http.ZeroCopyHttpOutputMessage;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.http.support.MediaTypeUtils;
+import org.springframework.util.MimeTypeUtils;
 import org.springframework.util.MimeTypeUtils2;
 
 /**
  * Implementation of {@link HttpMessageConverter} that can read and write
  * {@link Resource Resources} and supports byte range requests.
- **
+ *
+ * <p>When writing to a server response, {@code Range} requests for {@code GET} are
+ * answered with {@code 206 Partial Content}. A single range is written through
+ * {@link ZeroCopyHttpOutputMessage} when possible; multiple ranges are written as
+ * a {@code multipart/byteranges} body that streams only the requested regions.
+ * Ranges that together exceed the length of the resource, as overlapping ranges
+ * can, are answered with the full resource instead.
+ *
  * @author Arjen Poutsma
  */
 public class ResourceHttpMessageConverter extends CodecHttpMessageConverter<Resource> {
 
+	/**
+	 * The maximum number of ranges that are honored in a single request. Requests
+	 * for more ranges are answered with the full resource.
+	 */
+	public static final int MAX_RANGES = 100;
+
+	private static final MediaType MULTIPART_BYTERANGES =
+			new MediaType("multipart", "byteranges");
+
+
+	private final ResourceEncoder encoder;
+
+
 	public ResourceHttpMessageConverter() {
-		super(new ResourceEncoder(), new ResourceDecoder());
+		this(new ResourceEncoder());
 	}
 
 	public ResourceHttpMessageConverter(int bufferSize) {
-		super(new ResourceEncoder(bufferSize), new ResourceDecoder());
+		this(new ResourceEncoder(bufferSize));
+	}
+
+	private ResourceHttpMessageConverter(ResourceEncoder encoder) {
+		super(encoder, new ResourceDecoder());
+		this.encoder = encoder;
 	}
 
 	@Override
@@ -67,6 +105,204 @@ public class ResourceHttpMessageConverter extends CodecHttpMessageConverter<Reso
 				}));
 	}
 
+	@Override
+	public Mono<Void> write(Publisher<? extends Resource> inputStream,
+			ResolvableType type, MediaType contentType,
+			ServerHttpRequest request, ServerHttpResponse response) {
+		return Mono.from(Flux.from(inputStream).
+				take(1).
+				concatMap(resource -> {
+					HttpHeaders headers = response.getHeaders();
+					addHeaders(headers, resource, contentType);
+
+					Optional<Long> length = contentLength(resource);
+					if (!length.isPresent()) {
+						return writeContent(resource, type, contentType, response);
+					}
+					headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+					List<HttpRange> ranges = getRequestedRanges(request, headers, resource);
+					if (ranges.isEmpty()) {
+						return writeContent(resource, type, contentType, response);
+					}
+					List<ResourceRegion> regions = getRegions(ranges, resource, length.get());
+					if (getCount(regions) > length.get()) {
+						// overlapping ranges would amplify the transfer beyond the resource
+						return writeContent(resource, type, contentType, response);
+					}
+					if (regions.isEmpty()) {
+						response.setStatusCode(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE);
+						headers.set(HttpHeaders.CONTENT_RANGE, "bytes */" + length.get());
+						headers.setContentLength(0);
+						return response.setComplete();
+					}
+
+					response.setStatusCode(HttpStatus.PARTIAL_CONTENT);
+					if (regions.size() == 1) {
+						return writeRegion(regions.get(0), length.get(), response);
+					}
+					else {
+						return writeRegions(regions, length.get(), response);
+					}
+				}));
+	}
+
+	/**
+	 * Return the ranges of the given request that apply to the given resource, or an
+	 * empty list if the whole resource is to be written.
+	 */
+	private List<HttpRange> getRequestedRanges(ServerHttpRequest request,
+			HttpHeaders responseHeaders, Resource resource) {
+
+		HttpHeaders requestHeaders = request.getHeaders();
+		String rangeHeader = requestHeaders.getFirst(HttpHeaders.RANGE);
+		if (rangeHeader == null || HttpMethod.GET != request.getMethod() ||
+				InputStreamResource.class == resource.getClass()) {
+			return Collections.emptyList();
+		}
+		if (!matchesIfRange(requestHeaders, responseHeaders, resource)) {
+			return Collections.emptyList();
+		}
+		try {
+			List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+			return (ranges.size() <= MAX_RANGES ? ranges : Collections.emptyList());
+		}
+		catch (IllegalArgumentException ex) {
+			// invalid Range headers are ignored, see RFC 7233 section 3.1
+			return Collections.emptyList();
+		}
+	}
+
+	/**
+	 * Evaluate the {@code If-Range} precondition: an entity tag has to strongly
+	 * match the response {@code ETag}, a date has to equal the last modification
+	 * time of the resource.
+	 */
+	private static boolean matchesIfRange(HttpHeaders requestHeaders,
+			HttpHeaders responseHeaders, Resource resource) {
+
+		String ifRange = requestHeaders.getFirst(HttpHeaders.IF_RANGE);
+		if (ifRange == null) {
+			return true;
+		}
+		if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+			String eTag = responseHeaders.getETag();
+			return (!ifRange.startsWith("W/") && ifRange.equals(eTag));
+		}
+		long ifRangeDate;
+		try {
+			ifRangeDate = requestHeaders.getFirstDate(HttpHeaders.IF_RANGE);
+		}
+		catch (IllegalArgumentException ex) {
+			return false;
+		}
+		long lastModified = responseHeaders.getLastModified();
+		if (lastModified < 0) {
+			try {
+				lastModified = resource.lastModified();
+			}
+			catch (IOException ex) {
+				return false;
+			}
+		}
+		// HTTP dates have second precision
+		return (ifRangeDate >= 0 && lastModified / 1000 == ifRangeDate / 1000);
+	}
+
+	/**
+	 * Turn the given ranges into resource regions, dropping those that start beyond
+	 * the end of the resource.
+	 */
+	private static List<ResourceRegion> getRegions(List<HttpRange> ranges,
+			Resource resource, long length) {
+
+		List<ResourceRegion> regions = new ArrayList<>(ranges.size());
+		for (HttpRange range : ranges) {
+			long start = range.getRangeStart(length);
+			long end = range.getRangeEnd(length);
+			if (start < length && start <= end) {
+				regions.add(new ResourceRegion(resource, start, end - start + 1));
+			}
+		}
+		return regions;
+	}
+
+	private static long getCount(List<ResourceRegion> regions) {
+		long count = 0;
+		for (ResourceRegion region : regions) {
+			count += region.getCount();
+		}
+		return count;
+	}
+
+	private Mono<Void> writeRegion(ResourceRegion region, long length,
+			ServerHttpResponse response) {
+
+		HttpHeaders headers = response.getHeaders();
+		headers.set(HttpHeaders.CONTENT_RANGE, contentRange(region, length));
+		headers.setContentLength(region.getCount());
+
+		if (response instanceof ZeroCopyHttpOutputMessage) {
+			Optional<File> file = getFile(region.getResource());
+			if (file.isPresent()) {
+				return ((ZeroCopyHttpOutputMessage) response)
+						.writeWith(file.get(), region.getPosition(), region.getCount());
+			}
+		}
+		return response.writeWith(this.encoder.encodeRegion(region,
+				response.bufferFactory()));
+	}
+
+	private Mono<Void> writeRegions(List<ResourceRegion> regions, long length,
+			ServerHttpResponse response) {
+
+		HttpHeaders headers = response.getHeaders();
+		MediaType resourceType = headers.getContentType();
+		String boundary = MimeTypeUtils.generateMultipartBoundaryString();
+		headers.setContentType(new MediaType(MULTIPART_BYTERANGES,
+				Collections.singletonMap("boundary", boundary)));
+
+		List<byte[]> partHeaders = new ArrayList<>(regions.size());
+		long contentLength = 0;
+		for (int i = 0; i < regions.size(); i++) {
+			ResourceRegion region = regions.get(i);
+			StringBuilder builder = new StringBuilder();
+			if (i > 0) {
+				builder.append("\r\n");
+			}
+			builder.append("--").append(boundary).append("\r\n");
+			builder.append(HttpHeaders.CONTENT_TYPE).append(": ").
+					append(resourceType).append("\r\n");
+			builder.append(HttpHeaders.CONTENT_RANGE).append(": ").
+					append(contentRange(region, length)).append("\r\n\r\n");
+			byte[] partHeader = builder.toString().getBytes(StandardCharsets.US_ASCII);
+			partHeaders.add(partHeader);
+			contentLength += partHeader.length + region.getCount();
+		}
+		byte[] end = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+		headers.setContentLength(contentLength + end.length);
+
+		DataBufferFactory bufferFactory = response.bufferFactory();
+		Flux<DataBuffer> body = Flux.range(0, regions.size()).
+				concatMap(i -> Flux.just(partHeaders.get(i)).
+						map(bytes -> wrap(bytes, bufferFactory)).
+						concatWith(this.encoder.encodeRegion(regions.get(i), bufferFactory))).
+				concatWith(Mono.fromSupplier(() -> wrap(end, bufferFactory)));
+		return response.writeWith(body);
+	}
+
+	private static String contentRange(ResourceRegion region, long length) {
+		long start = region.getPosition();
+		long end = start + region.getCount() - 1;
+		return "bytes " + start + "-" + end + "/" + length;
+	}
+
+	private static DataBuffer wrap(byte[] bytes, DataBufferFactory bufferFactory) {
+		DataBuffer buffer = bufferFactory.allocateBuffer(bytes.length);
+		buffer.write(bytes);
+		return buffer;
+	}
+
 	protected void addHeaders(HttpHeaders headers, Resource resource,
 			MediaType contentType) {
 		if (headers.getContentType() == null) {
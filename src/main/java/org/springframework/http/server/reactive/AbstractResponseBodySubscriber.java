@@ -18,8 +18,11 @@ package org.springframework.http.server.reactive;
 
 import java.io.IOException;
 import java.nio.channels.Channel;
-import java.util.Objects;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.servlet.WriteListener;
 
 import org.apache.commons.logging.Log;
@@ -36,53 +39,117 @@ import org.springframework.util.Assert;
  * Abstract base class for {@code Subscriber} implementations that bridge between
  * event-listener APIs and Reactive Streams. Specifically, base class for the Servlet 3.1
  * and Undertow support.
+ *
+ * <p>Requests buffers in batches of a configurable prefetch size, and queues them
+ * until the output is ready. Queued buffers are then handed to {@link #write(List)}
+ * together, so that implementations can write them in a single, gathering operation.
+ * A batch ends after a {@link FlushingDataBuffer}, which causes a {@link #flush()}
+ * once the batch has been written.
+ *
  * @author Arjen Poutsma
  * @see ServletServerHttpRequest
  * @see UndertowHttpHandlerAdapter
  */
 abstract class AbstractResponseBodySubscriber implements Subscriber<DataBuffer> {
 
+	/**
+	 * The default number of buffers requested ahead of writing them.
+	 */
+	public static final int DEFAULT_PREFETCH = 32;
+
+	/**
+	 * The maximum number of bytes in a batch. Batches are closed once they contain at
+	 * least this amount, so that a batch never grows much larger than this.
+	 */
+	static final int MAX_BATCH_SIZE = 64 * 1024;
+
+
 	protected final Log logger = LogFactory.getLog(getClass());
 
-	private final AtomicReference<State> state =
-			new AtomicReference<>(State.UNSUBSCRIBED);
+	private final int prefetch;
 
-	private volatile DataBuffer currentBuffer;
+	private final int limit;
 
-	private volatile boolean subscriptionCompleted;
+	private final Queue<DataBuffer> queue = new ConcurrentLinkedQueue<>();
+
+	private final AtomicInteger wip = new AtomicInteger();
 
 	private Subscription subscription;
 
+	private volatile boolean done;
+
+	private volatile Throwable error;
+
+	private volatile boolean terminated;
+
+	private List<DataBuffer> currentBatch;
+
+	private int consumed;
+
+
+	protected AbstractResponseBodySubscriber() {
+		this(DEFAULT_PREFETCH);
+	}
+
+	/**
+	 * Creates a new subscriber that requests the given number of buffers ahead.
+	 * @param prefetch the number of buffers to request ahead of writing them
+	 */
+	protected AbstractResponseBodySubscriber(int prefetch) {
+		Assert.isTrue(prefetch > 0, "'prefetch' must be larger than 0");
+		this.prefetch = prefetch;
+		// replenish once three quarters of the window have been written
+		this.limit = Math.max(1, prefetch - (prefetch >> 2));
+	}
+
+
 	@Override
 	public final void onSubscribe(Subscription subscription) {
 		if (logger.isTraceEnabled()) {
-			logger.trace(this.state + " onSubscribe: " + subscription);
+			logger.trace("onSubscribe: " + subscription);
 		}
-		this.state.get().onSubscribe(this, subscription);
+		Assert.notNull(subscription, "Subscription cannot be null");
+		if (this.subscription != null) {
+			subscription.cancel();
+			return;
+		}
+		this.subscription = subscription;
+		subscription.request(this.prefetch);
 	}
 
 	@Override
 	public final void onNext(DataBuffer dataBuffer) {
 		if (logger.isTraceEnabled()) {
-			logger.trace(this.state + " onNext: " + dataBuffer);
+			logger.trace("onNext: " + dataBuffer);
+		}
+		if (this.done) {
+			DataBufferUtils.release(dataBuffer);
+			return;
 		}
-		this.state.get().onNext(this, dataBuffer);
+		this.queue.offer(dataBuffer);
+		drain();
 	}
 
 	@Override
 	public final void onError(Throwable t) {
 		if (logger.isErrorEnabled()) {
-			logger.error(this.state + " onError: " + t, t);
+			logger.error("onError: " + t, t);
+		}
+		if (this.done) {
+			return;
 		}
-		this.state.get().onError(this, t);
+		this.error = t;
+		this.done = true;
+		drain();
 	}
 
 	@Override
 	public final void onComplete() {
 		if (logger.isTraceEnabled()) {
-			logger.trace(this.state + " onComplete");
+			logger.trace("onComplete");
 		}
-		this.state.get().onComplete(this);
+		this.done = true;
+		drain();
 	}
 
 	/**
@@ -91,38 +158,127 @@ abstract class AbstractResponseBodySubscriber implements Subscriber<DataBuffer>
 	 * @see org.xnio.ChannelListener#handleEvent(Channel)
 	 */
 	protected final void onWritePossible() {
-		this.state.get().onWritePossible(this);
+		drain();
 	}
 
 	/**
-	 * Called when a {@link DataBuffer} is received via {@link Subscriber#onNext(Object)}
-	 * @param dataBuffer the buffer that was received.
+	 * Writes queued buffers while the output accepts them. Serialized through
+	 * {@link #wip}, so that only one thread writes at a time, and signals that arrive
+	 * while writing are handled by the writing thread.
 	 */
-	protected void receiveBuffer(DataBuffer dataBuffer) {
-		Assert.state(this.currentBuffer == null);
-		this.currentBuffer = dataBuffer;
+	private void drain() {
+		if (this.wip.getAndIncrement() != 0) {
+			return;
+		}
+		int missed = 1;
+		do {
+			if (!this.terminated) {
+				try {
+					writeBatches();
+				}
+				catch (IOException ex) {
+					this.subscription.cancel();
+					terminate(ex);
+				}
+			}
+			if (this.terminated) {
+				releaseAll();
+			}
+			missed = this.wip.addAndGet(-missed);
+		}
+		while (missed != 0);
+	}
+
+	private void writeBatches() throws IOException {
+		for (;;) {
+			Throwable error = this.error;
+			if (error != null) {
+				terminate(error);
+				return;
+			}
+			if (this.currentBatch == null) {
+				boolean done = this.done;
+				this.currentBatch = nextBatch();
+				if (this.currentBatch == null) {
+					if (done) {
+						terminate(null);
+					}
+					return;
+				}
+			}
+			List<DataBuffer> batch = this.currentBatch;
+			if (!write(batch)) {
+				// wait for onWritePossible
+				return;
+			}
+			this.currentBatch = null;
+			DataBuffer last = batch.get(batch.size() - 1);
+			batch.forEach(DataBufferUtils::release);
+			if (last instanceof FlushingDataBuffer) {
+				flush();
+			}
+			this.consumed += batch.size();
+			if (this.consumed >= this.limit) {
+				int consumed = this.consumed;
+				this.consumed = 0;
+				this.subscription.request(consumed);
+			}
+		}
 	}
 
 	/**
-	 * Called when the current buffer should be
-	 * {@linkplain DataBufferUtils#release(DataBuffer) released}.
+	 * Takes the next batch off the queue: consecutive buffers up to the first
+	 * flushing buffer, at most {@link #MAX_BATCH_SIZE} bytes, and at most
+	 * {@link #prefetch} buffers.
 	 */
-	protected void releaseBuffer() {
-		if (logger.isTraceEnabled()) {
-			logger.trace("releaseBuffer: " + this.currentBuffer);
+	private List<DataBuffer> nextBatch() {
+		DataBuffer dataBuffer = this.queue.poll();
+		if (dataBuffer == null) {
+			return null;
+		}
+		List<DataBuffer> batch = new ArrayList<>();
+		int byteCount = 0;
+		while (dataBuffer != null) {
+			batch.add(dataBuffer);
+			byteCount += dataBuffer.readableByteCount();
+			if (dataBuffer instanceof FlushingDataBuffer || byteCount >= MAX_BATCH_SIZE ||
+					batch.size() >= this.prefetch) {
+				break;
+			}
+			dataBuffer = this.queue.poll();
+		}
+		return batch;
+	}
+
+	private void terminate(Throwable error) {
+		this.terminated = true;
+		if (error != null) {
+			writeError(error);
+		}
+		close();
+	}
+
+	private void releaseAll() {
+		if (this.currentBatch != null) {
+			this.currentBatch.forEach(DataBufferUtils::release);
+			this.currentBatch = null;
+		}
+		DataBuffer dataBuffer;
+		while ((dataBuffer = this.queue.poll()) != null) {
+			DataBufferUtils.release(dataBuffer);
 		}
-		DataBufferUtils.release(this.currentBuffer);
-		this.currentBuffer = null;
 	}
 
 	/**
-	 * Writes the given data buffer to the output, indicating if the entire buffer was
-	 * written.
-	 * @param dataBuffer the data buffer to write
-	 * @return {@code true} if {@code dataBuffer} was fully written and a new buffer
-	 * can be requested; {@code false} otherwise
+	 * Writes the given buffers to the output, in order, as far as the output is ready
+	 * to accept them. If not all buffers could be written, this method is invoked
+	 * again with the same list instance once writing is possible, and should continue
+	 * where it left off. The buffers are released by the caller.
+	 * @param dataBuffers the data buffers to write
+	 * @return {@code true} if all buffers were fully written and the next batch can be
+	 * written; {@code false} otherwise
 	 */
-	protected abstract boolean write(DataBuffer dataBuffer) throws IOException;
+	protected abstract boolean write(List<DataBuffer> dataBuffers) throws IOException;
 
 	/**
 	 * Writes the given exception to the output.
@@ -139,172 +295,4 @@ abstract class AbstractResponseBodySubscriber implements Subscriber<DataBuffer>
 	 */
 	protected abstract void close();
 
-	private boolean changeState(State oldState, State newState) {
-		return this.state.compareAndSet(oldState, newState);
-	}
-
-	/**
-	 * Represents a state for the {@link Subscriber} to be in. The following figure
-	 * indicate the four different states that exist, and the relationships between them.
-	 *
-	 * <pre>
-	 *       UNSUBSCRIBED
-	 *        |
-	 *        v
-	 * REQUESTED -------------------> RECEIVED
-	 *         ^                      ^
-	 *         |                      |
-	 *         --------- WRITING <-----
-	 *                      |
-	 *                      v
-	 *                  COMPLETED
-	 * </pre>
-	 * Refer to the individual states for more information.
-	 */
-	private enum State {
-
-		/**
-		 * The initial unsubscribed state. Will respond to {@code onSubscribe} by
-		 * requesting 1 buffer from the subscription, and change state to {@link
-		 * #REQUESTED}.
-		 */
-		UNSUBSCRIBED {
-			@Override
-			void onSubscribe(AbstractResponseBodySubscriber subscriber,
-					Subscription subscription) {
-				Objects.requireNonNull(subscription, "Subscription cannot be null");
-				if (subscriber.changeState(this, REQUESTED)) {
-					subscriber.subscription = subscription;
-					subscription.request(1);
-				}
-				else {
-					super.onSubscribe(subscriber, subscription);
-				}
-			}
-		},
-		/**
-		 * State that gets entered after a buffer has been
-		 * {@linkplain Subscription#request(long) requested}. Responds to {@code onNext}
-		 * by changing state to {@link #RECEIVED}, and responds to {@code onComplete} by
-		 * changing state to {@link #COMPLETED}.
-		 */
-		REQUESTED {
-			@Override
-			void onNext(AbstractResponseBodySubscriber subscriber,
-					DataBuffer dataBuffer) {
-				if (subscriber.changeState(this, RECEIVED)) {
-					subscriber.receiveBuffer(dataBuffer);
-				}
-			}
-
-			@Override
-			void onComplete(AbstractResponseBodySubscriber subscriber) {
-				if (subscriber.changeState(this, COMPLETED)) {
-					subscriber.subscriptionCompleted = true;
-					subscriber.close();
-				}
-			}
-		},
-		/**
-		 * State that gets entered after a buffer has been
-		 * {@linkplain Subscriber#onNext(Object) received}. Responds to
-		 * {@code onWritePossible} by writing the current buffer and changes
-		 * the state to {@link #WRITING}. If it can be written completely,
-		 * changes the state to either {@link #REQUESTED} if the subscription
-		 * has not been completed; or {@link #COMPLETED} if it has. If it cannot
-		 * be written completely the state will be changed to {@link #RECEIVED}.
-		 */
-		RECEIVED {
-			@Override
-			void onWritePossible(AbstractResponseBodySubscriber subscriber) {
-				if (subscriber.changeState(this, WRITING)) {
-					DataBuffer dataBuffer = subscriber.currentBuffer;
-					try {
-						boolean writeCompleted = subscriber.write(dataBuffer);
-						if (writeCompleted) {
-							if (dataBuffer instanceof FlushingDataBuffer) {
-								subscriber.flush();
-							}
-							subscriber.releaseBuffer();
-							boolean subscriptionCompleted = subscriber.subscriptionCompleted;
-							if (!subscriptionCompleted) {
-								subscriber.changeState(WRITING, REQUESTED);
-								subscriber.subscription.request(1);
-							}
-							else {
-								subscriber.changeState(WRITING, COMPLETED);
-								subscriber.close();
-							}
-						}
-						else {
-							subscriber.changeState(WRITING, RECEIVED);
-						}
-					}
-					catch (IOException ex) {
-						subscriber.onError(ex);
-					}
-				}
-			}
-
-			@Override
-			void onComplete(AbstractResponseBodySubscriber subscriber) {
-				subscriber.subscriptionCompleted = true;
-			}
-		},
-		/**
-		 * State that gets entered after a writing of the current buffer has been
-		 * {@code onWritePossible started}.
-		 */
-		WRITING {
-			@Override
-			void onComplete(AbstractResponseBodySubscriber subscriber) {
-				subscriber.subscriptionCompleted = true;
-			}
-		},
-		/**
-		 * The terminal completed state. Does not respond to any events.
-		 */
-		COMPLETED {
-			@Override
-			void onNext(AbstractResponseBodySubscriber subscriber,
-					DataBuffer dataBuffer) {
-				// ignore
-			}
-
-			@Override
-			void onError(AbstractResponseBodySubscriber subscriber, Throwable t) {
-				// ignore
-			}
-
-			@Override
-			void onComplete(AbstractResponseBodySubscriber subscriber) {
-				// ignore
-			}
-		};
-
-		void onSubscribe(AbstractResponseBodySubscriber subscriber, Subscription s) {
-			s.cancel();
-		}
-
-		void onNext(AbstractResponseBodySubscriber subscriber, DataBuffer dataBuffer) {
-			throw new IllegalStateException(toString());
-		}
-
-		void onError(AbstractResponseBodySubscriber subscriber, Throwable t) {
-			if (subscriber.changeState(this, COMPLETED)) {
-				subscriber.writeError(t);
-				subscriber.close();
-			}
-		}
-
-		void onComplete(AbstractResponseBodySubscriber subscriber) {
-			throw new IllegalStateException(toString());
-		}
-
-		void onWritePossible(AbstractResponseBodySubscriber subscriber) {
-			// ignore
-		}
-
-	}
-
 }
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2002-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.server.reactive;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Function;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletResponse;
+
+import org.eclipse.jetty.server.HttpOutput;
+import org.eclipse.jetty.util.Callback;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.support.DataBufferUtils;
+import org.springframework.http.ZeroCopyHttpOutputMessage;
+
+/**
+ * {@link ServletServerHttpResponse} for Jetty, which hands file regions to Jetty's
+ * {@link HttpOutput} as a single mapped buffer, written asynchronously from the page
+ * cache. Other Servlet containers have no asynchronous equivalent, and therefore use
+ * a plain {@link ServletServerHttpResponse} that does not support zero-copy.
+ *
+ * <p>Only used by {@link ServletHttpHandlerAdapter} when the response output stream
+ * is a Jetty {@code HttpOutput}.
+ */
+class JettyServerHttpResponse extends ServletServerHttpResponse
+		implements ZeroCopyHttpOutputMessage {
+
+	private static final int MAPPED_REGION_SIZE = 64 * 1024;
+
+
+	public JettyServerHttpResponse(HttpServletResponse response,
+			DataBufferFactory dataBufferFactory,
+			Function<Publisher<DataBuffer>, Mono<Void>> responseBodyWriter) {
+		super(response, dataBufferFactory, responseBodyWriter);
+	}
+
+
+	/**
+	 * Indicates whether the given output stream is a Jetty {@code HttpOutput}.
+	 */
+	public static boolean isHttpOutput(ServletOutputStream outputStream) {
+		return (outputStream instanceof HttpOutput);
+	}
+
+	@Override
+	public Mono<Void> writeWith(File file, long position, long count) {
+		try {
+			ServletOutputStream outputStream = getServletResponse().getOutputStream();
+			if (count <= Integer.MAX_VALUE && !((HttpOutput) outputStream).isWritten()) {
+				return applyBeforeCommit().then(() ->
+						send((HttpOutput) outputStream, file, position, count));
+			}
+		}
+		catch (IOException ex) {
+			return Mono.error(ex);
+		}
+		// Content was written already, or the region is too large to map at once
+		return writeWith(Flux.defer(() -> {
+			try {
+				FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+				return DataBufferUtils.readMapped(channel, position, count, bufferFactory(),
+						MAPPED_REGION_SIZE);
+			}
+			catch (IOException ex) {
+				return Flux.error(ex);
+			}
+		}));
+	}
+
+	private static Mono<Void> send(HttpOutput output, File file, long position,
+			long count) {
+		return Mono.create(emitter -> {
+			MappedByteBuffer buffer;
+			try (FileChannel channel = FileChannel.open(file.toPath(),
+					StandardOpenOption.READ)) {
+				buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, count);
+			}
+			catch (IOException ex) {
+				emitter.fail(ex);
+				return;
+			}
+			output.sendContent(buffer, new Callback() {
+
+				@Override
+				public void succeeded() {
+					emitter.complete();
+				}
+
+				@Override
+				public void failed(Throwable ex) {
+					emitter.fail(ex);
+				}
+			});
+		});
+	}
+
+}
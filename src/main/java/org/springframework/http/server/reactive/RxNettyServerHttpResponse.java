@@ -16,15 +16,25 @@
 
 package org.springframework.http.server.reactive;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.file.StandardOpenOption;
+
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.CompositeByteBuf;
 import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.DefaultFileRegion;
+import io.netty.channel.FileRegion;
 import io.netty.handler.codec.http.HttpResponseStatus;
 import io.netty.handler.codec.http.cookie.Cookie;
 import io.netty.handler.codec.http.cookie.DefaultCookie;
+import io.netty.handler.ssl.SslHandler;
 import io.reactivex.netty.protocol.http.server.HttpServerResponse;
 import org.reactivestreams.Publisher;
 import reactor.core.converter.RxJava1ObservableConverter;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import rx.Observable;
 
@@ -32,8 +42,10 @@ import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.FlushingDataBuffer;
 import org.springframework.core.io.buffer.NettyDataBuffer;
 import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.core.io.buffer.support.DataBufferUtils;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseCookie;
+import org.springframework.http.ZeroCopyHttpOutputMessage;
 import org.springframework.util.Assert;
 
 /**
@@ -42,7 +54,10 @@ import org.springframework.util.Assert;
  * @author Rossen Stoyanchev
  * @author Stephane Maldini
  */
-public class RxNettyServerHttpResponse extends AbstractServerHttpResponse {
+public class RxNettyServerHttpResponse extends AbstractServerHttpResponse
+		implements ZeroCopyHttpOutputMessage {
+
+	private static final int FILE_BUFFER_SIZE = 64 * 1024;
 
 	private final HttpServerResponse<ByteBuf> response;
 
@@ -65,6 +80,39 @@ public class RxNettyServerHttpResponse extends AbstractServerHttpResponse {
 		return RxJava1ObservableConverter.from(this.response.write(content, bb -> bb instanceof FlushingByteBuf)).then();
 	}
 
+	@Override
+	public Mono<Void> writeWith(File file, long position, long count) {
+		Channel channel = this.response.unsafeNettyChannel();
+		if (channel.pipeline().get(SslHandler.class) != null) {
+			// a FileRegion would bypass encryption, read the file instead
+			return writeWith(Flux.defer(() -> {
+				try {
+					AsynchronousFileChannel fileChannel = AsynchronousFileChannel
+							.open(file.toPath(), StandardOpenOption.READ);
+					return DataBufferUtils.takeUntilByteCount(DataBufferUtils
+							.read(fileChannel, position, bufferFactory(), FILE_BUFFER_SIZE),
+							count);
+				}
+				catch (IOException ex) {
+					return Flux.error(ex);
+				}
+			}));
+		}
+		return applyBeforeCommit().
+				then(() -> RxJava1ObservableConverter.from(this.response.sendHeaders()).then()).
+				then(() -> Mono.create(emitter -> {
+					FileRegion fileRegion = new DefaultFileRegion(file, position, count);
+					channel.writeAndFlush(fileRegion).addListener(future -> {
+						if (future.isSuccess()) {
+							emitter.complete();
+						}
+						else {
+							emitter.fail(future.cause());
+						}
+					});
+				}));
+	}
+
 	private ByteBuf toByteBuf(DataBuffer buffer) {
 		ByteBuf byteBuf = (buffer instanceof NettyDataBuffer ? ((NettyDataBuffer) buffer).getNativeBuffer() :  Unpooled.wrappedBuffer(buffer.asByteBuffer()));
 		return (buffer instanceof FlushingDataBuffer ? new FlushingByteBuf(byteBuf) : byteBuf);
@@ -110,36 +158,4 @@ public class RxNettyServerHttpResponse extends AbstractServerHttpResponse {
 			this.addComponent(true, byteBuf);
 		}
 	}
-
-/*
-	While the underlying implementation of {@link ZeroCopyHttpOutputMessage} seems to
-	work; it does bypass {@link #applyBeforeCommit} and more importantly it doesn't change
-	its {@linkplain #state()). Therefore it's commented out, for now.
-
-	We should revisit this code once
-	https://github.com/ReactiveX/RxNetty/issues/194 has been fixed.
-	
-
-	@Override
-	public Mono<Void> writeWith(File file, long position, long count) {
-		Channel channel = this.response.unsafeNettyChannel();
-
-		HttpResponse httpResponse =
-				new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK);
-		io.netty.handler.codec.http.HttpHeaders headers = httpResponse.headers();
-
-		for (Map.Entry<String, List<String>> header : getHeaders().entrySet()) {
-			String headerName = header.getKey();
-			for (String headerValue : header.getValue()) {
-				headers.add(headerName, headerValue);
-			}
-		}
-		Mono<Void> responseWrite = MonoChannelFuture.from(channel.write(httpResponse));
-
-		FileRegion fileRegion = new DefaultFileRegion(file, position, count);
-		Mono<Void> fileWrite = MonoChannelFuture.from(channel.writeAndFlush(fileRegion));
-
-		return Flux.concat(applyBeforeCommit(), responseWrite, fileWrite).then();
-	}
-*/
-}
\ No newline at end of file
+}
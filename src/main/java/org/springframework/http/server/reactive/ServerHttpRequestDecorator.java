@@ -0,0 +1,86 @@
+/*
+ * Copyright 2002-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.http.server.reactive;
+
+import java.net.URI;
+
+import reactor.core.publisher.Flux;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpCookie;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.util.Assert;
+import org.springframework.util.MultiValueMap;
+
+/**
+ * Wraps another {@link ServerHttpRequest} and delegates all methods to it.
+ * Sub-classes can override specific methods, e.g. {@link #getBody()}.
+ */
+public class ServerHttpRequestDecorator implements ServerHttpRequest {
+
+	private final ServerHttpRequest delegate;
+
+
+	public ServerHttpRequestDecorator(ServerHttpRequest delegate) {
+		Assert.notNull(delegate, "'delegate' must not be null");
+		this.delegate = delegate;
+	}
+
+
+	public ServerHttpRequest getDelegate() {
+		return this.delegate;
+	}
+
+
+	@Override
+	public HttpMethod getMethod() {
+		return this.delegate.getMethod();
+	}
+
+	@Override
+	public URI getURI() {
+		return this.delegate.getURI();
+	}
+
+	@Override
+	public HttpHeaders getHeaders() {
+		return this.delegate.getHeaders();
+	}
+
+	@Override
+	public MultiValueMap<String, String> getQueryParams() {
+		return this.delegate.getQueryParams();
+	}
+
+	@Override
+	public MultiValueMap<String, HttpCookie> getCookies() {
+		return this.delegate.getCookies();
+	}
+
+	@Override
+	public Flux<DataBuffer> getBody() {
+		return this.delegate.getBody();
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + " [delegate=" + this.delegate + "]";
+	}
+
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2002-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.http.server.reactive;
+
+import java.util.function.Supplier;
+
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Mono;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseCookie;
+import org.springframework.util.Assert;
+import org.springframework.util.MultiValueMap;
+
+/**
+ * Wraps another {@link ServerHttpResponse} and delegates all methods to it.
+ * Sub-classes can override specific methods, e.g. {@link #writeWith(Publisher)}.
+ */
+public class ServerHttpResponseDecorator implements ServerHttpResponse {
+
+	private final ServerHttpResponse delegate;
+
+
+	public ServerHttpResponseDecorator(ServerHttpResponse delegate) {
+		Assert.notNull(delegate, "'delegate' must not be null");
+		this.delegate = delegate;
+	}
+
+
+	public ServerHttpResponse getDelegate() {
+		return this.delegate;
+	}
+
+
+	@Override
+	public boolean setStatusCode(HttpStatus status) {
+		return this.delegate.setStatusCode(status);
+	}
+
+	@Override
+	public HttpHeaders getHeaders() {
+		return this.delegate.getHeaders();
+	}
+
+	@Override
+	public MultiValueMap<String, ResponseCookie> getCookies() {
+		return this.delegate.getCookies();
+	}
+
+	@Override
+	public void beforeCommit(Supplier<? extends Mono<Void>> action) {
+		this.delegate.beforeCommit(action);
+	}
+
+	@Override
+	public Mono<Void> writeWith(Publisher<DataBuffer> body) {
+		return this.delegate.writeWith(body);
+	}
+
+	@Override
+	public DataBufferFactory bufferFactory() {
+		return this.delegate.bufferFactory();
+	}
+
+	@Override
+	public Mono<Void> setComplete() {
+		return this.delegate.setComplete();
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + " [delegate=" + this.delegate + "]";
+	}
+
+}
@@ -17,7 +17,8 @@
 package org.springframework.http.server.reactive;
 
 import java.io.IOException;
-import java.io.InputStream;
+import java.util.List;
+import java.util.function.Function;
 import javax.servlet.AsyncContext;
 import javax.servlet.ReadListener;
 import javax.servlet.ServletException;
@@ -31,6 +32,7 @@ import javax.servlet.http.HttpServletResponse;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.reactivestreams.Publisher;
 import org.reactivestreams.Subscriber;
 import org.reactivestreams.Subscription;
 import reactor.core.publisher.Mono;
@@ -38,8 +40,10 @@ import reactor.core.publisher.Mono;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferFactory;
 import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.core.io.buffer.support.DataBufferUtils;
 import org.springframework.http.HttpStatus;
 import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
 
 /**
  * @author Arjen Poutsma
@@ -48,8 +52,14 @@ import org.springframework.util.Assert;
 @WebServlet(asyncSupported = true)
 public class ServletHttpHandlerAdapter extends HttpServlet {
 
+	private static final boolean jettyPresent = ClassUtils.isPresent(
+			"org.eclipse.jetty.server.HttpOutput",
+			ServletHttpHandlerAdapter.class.getClassLoader());
+
 	private static final int DEFAULT_BUFFER_SIZE = 8192;
 
+	private static final int MAX_READ_SIZE = 64 * 1024;
+
 	private static Log logger = LogFactory.getLog(ServletHttpHandlerAdapter.class);
 
 
@@ -61,6 +71,8 @@ public class ServletHttpHandlerAdapter extends HttpServlet {
 
 	private int bufferSize = DEFAULT_BUFFER_SIZE;
 
+	private int responsePrefetch = AbstractResponseBodySubscriber.DEFAULT_PREFETCH;
+
 
 	public void setHandler(HttpHandler handler) {
 		Assert.notNull(handler, "'handler' must not be null");
@@ -77,6 +89,16 @@ public class ServletHttpHandlerAdapter extends HttpServlet {
 		this.bufferSize = bufferSize;
 	}
 
+	/**
+	 * Set the number of response body buffers to request ahead of writing them.
+	 * Buffers that are available when the output stream is ready are written
+	 * together, with a single write of their coalesced bytes.
+	 */
+	public void setResponsePrefetch(int responsePrefetch) {
+		Assert.isTrue(responsePrefetch > 0, "'responsePrefetch' must be larger than 0");
+		this.responsePrefetch = responsePrefetch;
+	}
+
 	@Override
 	protected void service(HttpServletRequest servletRequest, HttpServletResponse servletResponse)
 			throws ServletException, IOException {
@@ -92,12 +114,16 @@ public class ServletHttpHandlerAdapter extends HttpServlet {
 				new ServletServerHttpRequest(servletRequest, requestBody);
 
 		ResponseBodySubscriber responseBody =
-				new ResponseBodySubscriber(synchronizer, this.bufferSize);
+				new ResponseBodySubscriber(synchronizer, this.responsePrefetch);
 		responseBody.registerListener();
-		ServletServerHttpResponse response =
-				new ServletServerHttpResponse(servletResponse, this.dataBufferFactory,
-						publisher -> Mono
-								.from(subscriber -> publisher.subscribe(responseBody)));
+		Function<Publisher<DataBuffer>, Mono<Void>> responseBodyWriter =
+				publisher -> Mono.from(subscriber -> publisher.subscribe(responseBody));
+		ServletServerHttpResponse response = (jettyPresent &&
+				JettyServerHttpResponse.isHttpOutput(servletResponse.getOutputStream()) ?
+						new JettyServerHttpResponse(servletResponse, this.dataBufferFactory,
+								responseBodyWriter) :
+						new ServletServerHttpResponse(servletResponse, this.dataBufferFactory,
+								responseBodyWriter));
 
 		HandlerResultSubscriber resultSubscriber =
 				new HandlerResultSubscriber(synchronizer);
@@ -148,13 +174,19 @@ public class ServletHttpHandlerAdapter extends HttpServlet {
 
 		private final DataBufferFactory dataBufferFactory;
 
-		private final byte[] buffer;
+		private final int minReadSize;
+
+		private int maxReadSize;
+
+		private int readSize;
 
 		public RequestBodyPublisher(ServletAsyncContextSynchronizer synchronizer,
 				DataBufferFactory dataBufferFactory, int bufferSize) {
 			this.synchronizer = synchronizer;
 			this.dataBufferFactory = dataBufferFactory;
-			this.buffer = new byte[bufferSize];
+			this.minReadSize = bufferSize;
+			this.maxReadSize = Math.max(bufferSize, MAX_READ_SIZE);
+			this.readSize = bufferSize;
 		}
 
 		public void registerListener() throws IOException {
@@ -166,20 +198,46 @@ public class ServletHttpHandlerAdapter extends HttpServlet {
 		protected DataBuffer read() throws IOException {
 			ServletInputStream input = this.synchronizer.getRequest().getInputStream();
 			if (input.isReady()) {
-				int read = input.read(this.buffer);
+				// read straight into the storage of the data buffer
+				DataBuffer dataBuffer = this.dataBufferFactory.allocateBuffer(this.readSize);
+				int read;
+				try {
+					read = dataBuffer.write(input, this.readSize);
+				}
+				catch (IOException ex) {
+					DataBufferUtils.release(dataBuffer);
+					throw ex;
+				}
 				if (logger.isTraceEnabled()) {
 					logger.trace("read:" + read);
 				}
 
 				if (read > 0) {
-					DataBuffer dataBuffer = this.dataBufferFactory.allocateBuffer(read);
-					dataBuffer.write(this.buffer, 0, read);
+					adjustReadSize(read, input);
 					return dataBuffer;
 				}
+				DataBufferUtils.release(dataBuffer);
 			}
 			return null;
 		}
 
+		/**
+		 * Doubles the read size while reads fill the buffer and more input is ready.
+		 * When a grown buffer is not filled, the container evidently delivers less
+		 * per read, so the read size is halved and not grown again.
+		 */
+		private void adjustReadSize(int read, ServletInputStream input) {
+			if (read == this.readSize) {
+				if (this.readSize < this.maxReadSize && input.isReady()) {
+					this.readSize = Math.min(this.readSize * 2, this.maxReadSize);
+				}
+			}
+			else if (this.readSize > this.minReadSize && read <= this.readSize / 2) {
+				this.readSize = Math.max(this.readSize / 2, this.minReadSize);
+				this.maxReadSize = this.readSize;
+			}
+		}
+
 		@Override
 		protected void close() {
 			this.synchronizer.readComplete();
@@ -214,14 +272,12 @@ public class ServletHttpHandlerAdapter extends HttpServlet {
 
 		private final ServletAsyncContextSynchronizer synchronizer;
 
-		private final int bufferSize;
-
 		private volatile boolean flushOnNext;
 
 		public ResponseBodySubscriber(ServletAsyncContextSynchronizer synchronizer,
-				int bufferSize) {
+				int prefetch) {
+			super(prefetch);
 			this.synchronizer = synchronizer;
-			this.bufferSize = bufferSize;
 		}
 
 		public void registerListener() throws IOException {
@@ -233,21 +289,7 @@ public class ServletHttpHandlerAdapter extends HttpServlet {
 		}
 
 		@Override
-		protected void receiveBuffer(DataBuffer dataBuffer) {
-			super.receiveBuffer(dataBuffer);
-
-			try {
-				if (outputStream().isReady()) {
-					onWritePossible();
-				}
-			}
-			catch (IOException ex) {
-				onError(ex);
-			}
-		}
-
-		@Override
-		protected boolean write(DataBuffer dataBuffer) throws IOException {
+		protected boolean write(List<DataBuffer> dataBuffers) throws IOException {
 			ServletOutputStream output = outputStream();
 
 			if (this.flushOnNext) {
@@ -257,23 +299,37 @@ public class ServletHttpHandlerAdapter extends HttpServlet {
 			boolean ready = output.isReady();
 
 			if (this.logger.isTraceEnabled()) {
-				this.logger.trace("write: " + dataBuffer + " ready: " + ready);
+				this.logger.trace("write: " + dataBuffers + " ready: " + ready);
 			}
 
 			if (ready) {
-				int total = dataBuffer.readableByteCount();
-				int written = writeDataBuffer(dataBuffer);
-
-				if (this.logger.isTraceEnabled()) {
-					this.logger.trace("written: " + written + " total: " + total);
-				}
-				return written == total;
+				// a non-blocking ServletOutputStream accepts all bytes of a write,
+				// buffering what it cannot send yet, so write the batch in one go.
+				// Jetty keeps the written array, and the batch is released once this
+				// returns, so always write a copy rather than a backing array
+				output.write(coalesce(dataBuffers));
+				return true;
 			}
 			else {
 				return false;
 			}
 		}
 
+		private static byte[] coalesce(List<DataBuffer> dataBuffers) {
+			int total = 0;
+			for (DataBuffer dataBuffer : dataBuffers) {
+				total += dataBuffer.readableByteCount();
+			}
+			byte[] bytes = new byte[total];
+			int offset = 0;
+			for (DataBuffer dataBuffer : dataBuffers) {
+				int count = dataBuffer.readableByteCount();
+				dataBuffer.read(bytes, offset, count);
+				offset += count;
+			}
+			return bytes;
+		}
+
 		@Override
 		protected void writeError(Throwable t) {
 			HttpServletResponse response =
@@ -306,22 +362,6 @@ public class ServletHttpHandlerAdapter extends HttpServlet {
 			this.synchronizer.writeComplete();
 		}
 
-		private int writeDataBuffer(DataBuffer dataBuffer) throws IOException {
-			InputStream input = dataBuffer.asInputStream();
-			ServletOutputStream output = outputStream();
-
-			int bytesWritten = 0;
-			byte[] buffer = new byte[this.bufferSize];
-			int bytesRead = -1;
-
-			while (output.isReady() && (bytesRead = input.read(buffer)) != -1) {
-				output.write(buffer, 0, bytesRead);
-				bytesWritten += bytesRead;
-			}
-
-			return bytesWritten;
-		}
-
 		private class ResponseBodyWriteListener implements WriteListener {
 
 			@Override
@@ -39,6 +39,8 @@ public class UndertowHttpHandlerAdapter implements io.undertow.server.HttpHandle
 
 	private final DataBufferFactory dataBufferFactory;
 
+	private int responsePrefetch = AbstractResponseBodySubscriber.DEFAULT_PREFETCH;
+
 	public UndertowHttpHandlerAdapter(HttpHandler delegate,
 			DataBufferFactory dataBufferFactory) {
 		Assert.notNull(delegate, "'delegate' is required");
@@ -47,6 +49,16 @@ public class UndertowHttpHandlerAdapter implements io.undertow.server.HttpHandle
 		this.dataBufferFactory = dataBufferFactory;
 	}
 
+	/**
+	 * Set the number of response body buffers to request ahead of writing them.
+	 * Buffers that are available when the response channel is ready are written
+	 * together, with a single gathering write.
+	 */
+	public void setResponsePrefetch(int responsePrefetch) {
+		Assert.isTrue(responsePrefetch > 0, "'responsePrefetch' must be larger than 0");
+		this.responsePrefetch = responsePrefetch;
+	}
+
 	@Override
 	public void handleRequest(HttpServerExchange exchange) throws Exception {
 
@@ -54,7 +66,8 @@ public class UndertowHttpHandlerAdapter implements io.undertow.server.HttpHandle
 				new UndertowServerHttpRequest(exchange, this.dataBufferFactory);
 
 		ServerHttpResponse response =
-				new UndertowServerHttpResponse(exchange, this.dataBufferFactory);
+				new UndertowServerHttpResponse(exchange, this.dataBufferFactory,
+						this.responsePrefetch);
 
 		this.delegate.handle(request, response).subscribe(new Subscriber<Void>() {
 
@@ -17,23 +17,27 @@
 package org.springframework.http.server.reactive;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import io.undertow.server.HttpServerExchange;
 import io.undertow.server.handlers.Cookie;
 import io.undertow.server.handlers.CookieImpl;
 import io.undertow.util.HttpString;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import org.reactivestreams.Publisher;
 import org.xnio.ChannelListener;
 import org.xnio.ChannelListeners;
 import org.xnio.IoUtils;
 import org.xnio.channels.StreamSinkChannel;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoEmitter;
 
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferFactory;
@@ -52,13 +56,30 @@ import org.springframework.util.Assert;
 public class UndertowServerHttpResponse extends AbstractServerHttpResponse
 		implements ZeroCopyHttpOutputMessage {
 
+	private static final Log logger = LogFactory.getLog(UndertowServerHttpResponse.class);
+
 	private final HttpServerExchange exchange;
 
+	private final int prefetch;
+
 	public UndertowServerHttpResponse(HttpServerExchange exchange,
 			DataBufferFactory dataBufferFactory) {
+		this(exchange, dataBufferFactory, AbstractResponseBodySubscriber.DEFAULT_PREFETCH);
+	}
+
+	/**
+	 * Create a new response for the given exchange.
+	 * @param exchange the Undertow exchange
+	 * @param dataBufferFactory the factory for data buffers
+	 * @param prefetch the number of body buffers to request ahead of writing them
+	 */
+	public UndertowServerHttpResponse(HttpServerExchange exchange,
+			DataBufferFactory dataBufferFactory, int prefetch) {
 		super(dataBufferFactory);
 		Assert.notNull(exchange, "'exchange' is required.");
+		Assert.isTrue(prefetch > 0, "'prefetch' must be larger than 0");
 		this.exchange = exchange;
+		this.prefetch = prefetch;
 	}
 
 
@@ -72,7 +93,8 @@ public class UndertowServerHttpResponse extends AbstractServerHttpResponse
 			// lazily create Subscriber, since calling
 			// {@link HttpServerExchange#getResponseChannel} as done in the
 			// ResponseBodySubscriber constructor commits the response status and headers
-			ResponseBodySubscriber subscriber = new ResponseBodySubscriber(this.exchange);
+			ResponseBodySubscriber subscriber =
+					new ResponseBodySubscriber(this.exchange, this.prefetch);
 			subscriber.registerListener();
 			publisher.subscribe(subscriber);
 		});
@@ -80,25 +102,19 @@ public class UndertowServerHttpResponse extends AbstractServerHttpResponse
 
 	@Override
 	public Mono<Void> writeWith(File file, long position, long count) {
-		writeHeaders();
-		writeCookies();
-
-		try {
-			StreamSinkChannel responseChannel =
-					getUndertowExchange().getResponseChannel();
-			FileChannel in = new FileInputStream(file).getChannel();
-			long result = responseChannel.transferFrom(in, position, count);
-			if (result < count) {
-				return Mono.error(new IOException("Could only write " + result +
-						" out of " + count + " bytes"));
+		return applyBeforeCommit().then(() -> Mono.create(emitter -> {
+			try {
+				FileChannel fileChannel = FileChannel.open(file.toPath(),
+						StandardOpenOption.READ);
+				FileTransfer transfer = new FileTransfer(fileChannel, position, count,
+						this.exchange.getResponseChannel(), emitter);
+				emitter.setCancellation(transfer::cancel);
+				transfer.registerListener();
 			}
-			else {
-				return Mono.empty();
+			catch (IOException ex) {
+				emitter.fail(ex);
 			}
-		}
-		catch (IOException ex) {
-			return Mono.error(ex);
-		}
+		}));
 	}
 
 	@Override
@@ -142,9 +158,14 @@ public class UndertowServerHttpResponse extends AbstractServerHttpResponse
 
 		private final StreamSinkChannel responseChannel;
 
-		private volatile ByteBuffer byteBuffer;
+		private List<DataBuffer> dataBuffers;
+
+		private ByteBuffer[] byteBuffers;
 
-		public ResponseBodySubscriber(HttpServerExchange exchange) {
+		private long remaining;
+
+		public ResponseBodySubscriber(HttpServerExchange exchange, int prefetch) {
+			super(prefetch);
 			this.exchange = exchange;
 			this.responseChannel = exchange.getResponseChannel();
 		}
@@ -171,43 +192,36 @@ public class UndertowServerHttpResponse extends AbstractServerHttpResponse
 		}
 
 		@Override
-		protected boolean write(DataBuffer dataBuffer) throws IOException {
-			if (this.byteBuffer == null) {
-				return false;
+		protected boolean write(List<DataBuffer> dataBuffers) throws IOException {
+			if (this.dataBuffers != dataBuffers) {
+				// new batch, as opposed to the remainder of a partially written one
+				this.dataBuffers = dataBuffers;
+				this.byteBuffers = new ByteBuffer[dataBuffers.size()];
+				this.remaining = 0;
+				for (int i = 0; i < this.byteBuffers.length; i++) {
+					this.byteBuffers[i] = dataBuffers.get(i).asByteBuffer();
+					this.remaining += this.byteBuffers[i].remaining();
+				}
 			}
 			if (logger.isTraceEnabled()) {
-				logger.trace("write: " + dataBuffer);
+				logger.trace("write: " + dataBuffers);
+			}
+			long written;
+			do {
+				written = this.responseChannel.write(this.byteBuffers);
+				this.remaining -= written;
 			}
-			int total = this.byteBuffer.remaining();
-			int written = writeByteBuffer(this.byteBuffer);
+			while (this.remaining > 0 && written > 0);
 
 			if (logger.isTraceEnabled()) {
-				logger.trace("written: " + written + " total: " + total);
+				logger.trace("remaining: " + this.remaining);
 			}
-			return written == total;
-		}
-
-		private int writeByteBuffer(ByteBuffer byteBuffer) throws IOException {
-			int written;
-			int totalWritten = 0;
-			do {
-				written = this.responseChannel.write(byteBuffer);
-				totalWritten += written;
+			if (this.remaining > 0) {
+				return false;
 			}
-			while (byteBuffer.hasRemaining() && written > 0);
-			return totalWritten;
-		}
-
-		@Override
-		protected void receiveBuffer(DataBuffer dataBuffer) {
-			super.receiveBuffer(dataBuffer);
-			this.byteBuffer = dataBuffer.asByteBuffer();
-		}
-
-		@Override
-		protected void releaseBuffer() {
-			super.releaseBuffer();
-			this.byteBuffer = null;
+			this.dataBuffers = null;
+			this.byteBuffers = null;
+			return true;
 		}
 
 		@Override
@@ -237,4 +251,96 @@ public class UndertowServerHttpResponse extends AbstractServerHttpResponse
 		}
 
 	}
+
+
+	/**
+	 * Transfers a region of a file to the response channel. Every transfer is
+	 * performed on the IO thread when the channel is ready for writing, and is
+	 * resumed there if the channel could not accept all bytes at once.
+	 */
+	private static class FileTransfer implements ChannelListener<StreamSinkChannel> {
+
+		private final FileChannel fileChannel;
+
+		private final long end;
+
+		private final StreamSinkChannel responseChannel;
+
+		private final MonoEmitter<Void> emitter;
+
+		private final AtomicBoolean terminated = new AtomicBoolean();
+
+		private long position;
+
+		private long transferred;
+
+		public FileTransfer(FileChannel fileChannel, long position, long count,
+				StreamSinkChannel responseChannel, MonoEmitter<Void> emitter) {
+			this.fileChannel = fileChannel;
+			this.position = position;
+			this.end = position + count;
+			this.responseChannel = responseChannel;
+			this.emitter = emitter;
+		}
+
+		public void registerListener() {
+			this.responseChannel.getWriteSetter().set(this);
+			this.responseChannel.resumeWrites();
+		}
+
+		@Override
+		public void handleEvent(StreamSinkChannel channel) {
+			try {
+				while (this.position < this.end) {
+					// some conduits read from the current file position rather than
+					// the given one, so keep both in sync
+					this.fileChannel.position(this.position);
+					long result = channel.transferFrom(this.fileChannel, this.position,
+							this.end - this.position);
+					if (result > 0) {
+						this.position += result;
+						this.transferred += result;
+					}
+					else if (this.position >= this.fileChannel.size()) {
+						throw new IOException("File ended after " + this.transferred +
+								" out of " + (this.transferred + this.end - this.position) +
+								" bytes");
+					}
+					else {
+						// channel is full, wait for the next write-ready event
+						return;
+					}
+				}
+				if (terminate()) {
+					if (logger.isTraceEnabled()) {
+						logger.trace("transferred: " + this.transferred);
+					}
+					this.emitter.complete();
+				}
+			}
+			catch (IOException ex) {
+				if (terminate()) {
+					this.emitter.fail(ex);
+				}
+			}
+		}
+
+		public void cancel() {
+			if (terminate() && logger.isTraceEnabled()) {
+				logger.trace("cancelled after: " + this.transferred);
+			}
+		}
+
+		private boolean terminate() {
+			if (this.terminated.compareAndSet(false, true)) {
+				this.responseChannel.suspendWrites();
+				this.responseChannel.getWriteSetter().set(null);
+				IoUtils.safeClose(this.fileChannel);
+				return true;
+			}
+			return false;
+		}
+
+	}
+
 }
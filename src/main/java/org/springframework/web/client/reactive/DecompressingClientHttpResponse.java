@@ -0,0 +1,102 @@
+/*
+ * Copyright 2002-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.web.client.reactive;
+
+import reactor.core.publisher.Flux;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.support.DataBufferInflater;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseCookie;
+import org.springframework.http.client.reactive.ClientHttpResponse;
+import org.springframework.util.MultiValueMap;
+
+/**
+ * {@link ClientHttpResponse} that decompresses the body of a {@code gzip} or
+ * {@code deflate} encoded response.
+ */
+class DecompressingClientHttpResponse implements ClientHttpResponse {
+
+	private final ClientHttpResponse delegate;
+
+	private final DataBufferFactory bufferFactory;
+
+	private final boolean gzip;
+
+	private final HttpHeaders headers = new HttpHeaders();
+
+
+	private DecompressingClientHttpResponse(ClientHttpResponse delegate,
+			DataBufferFactory bufferFactory, boolean gzip) {
+
+		this.delegate = delegate;
+		this.bufferFactory = bufferFactory;
+		this.gzip = gzip;
+		this.headers.putAll(delegate.getHeaders());
+		this.headers.remove(HttpHeaders.CONTENT_ENCODING);
+		this.headers.remove(HttpHeaders.CONTENT_LENGTH);
+	}
+
+
+	@Override
+	public HttpStatus getStatusCode() {
+		return this.delegate.getStatusCode();
+	}
+
+	@Override
+	public HttpHeaders getHeaders() {
+		return this.headers;
+	}
+
+	@Override
+	public MultiValueMap<String, ResponseCookie> getCookies() {
+		return this.delegate.getCookies();
+	}
+
+	@Override
+	public Flux<DataBuffer> getBody() {
+		return DataBufferInflater.inflate(this.delegate.getBody(), this.bufferFactory,
+				this.gzip, -1).
+				mapError(IllegalStateException.class,
+						ex -> new WebClientException(ex.getMessage(), ex));
+	}
+
+
+	/**
+	 * Decompress the given response if it has a {@code gzip} or {@code deflate}
+	 * {@code Content-Encoding}; otherwise, return it as is.
+	 */
+	public static ClientHttpResponse decompress(ClientHttpResponse response,
+			DataBufferFactory bufferFactory) {
+
+		String contentEncoding = response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING);
+		if (contentEncoding != null) {
+			contentEncoding = contentEncoding.trim().toLowerCase();
+			if ("gzip".equals(contentEncoding) || "x-gzip".equals(contentEncoding)) {
+				return new DecompressingClientHttpResponse(response, bufferFactory, true);
+			}
+			else if ("deflate".equals(contentEncoding)) {
+				return new DecompressingClientHttpResponse(response, bufferFactory, false);
+			}
+		}
+		return response;
+	}
+
+}
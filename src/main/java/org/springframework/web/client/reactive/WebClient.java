@@ -17,6 +17,7 @@
 package org.springframework.web.client.reactive;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.function.Consumer;
 
@@ -26,10 +27,14 @@ import org.springframework.core.codec.Decoder;
 import org.springframework.core.codec.Encoder;
 import org.springframework.core.codec.ByteBufferDecoder;
 import org.springframework.core.codec.ByteBufferEncoder;
+import org.springframework.http.codec.SseEventDecoder;
 import org.springframework.http.codec.json.JacksonJsonDecoder;
 import org.springframework.http.codec.json.JacksonJsonEncoder;
+import org.springframework.http.codec.json.JacksonNdjsonDecoder;
+import org.springframework.http.codec.json.JacksonNdjsonEncoder;
 import org.springframework.core.codec.StringDecoder;
 import org.springframework.core.codec.StringEncoder;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.client.reactive.ClientHttpRequest;
 import org.springframework.http.client.reactive.ClientHttpRequestFactory;
@@ -67,6 +72,8 @@ public final class WebClient {
 
 	private List<Decoder<?>> messageDecoders;
 
+	private boolean decompressResponses;
+
 	/**
 	 * Create a {@code ReactiveRestClient} instance, using the {@link ClientHttpRequestFactory}
 	 * implementation given as an argument to drive the underlying HTTP client implementation.
@@ -74,8 +81,10 @@ public final class WebClient {
 	 * Register by default the following Encoders and Decoders:
 	 * <ul>
 	 *     <li>{@link ByteBufferEncoder} / {@link ByteBufferDecoder}</li>
+	 *     <li>{@link SseEventDecoder}</li>
 	 *     <li>{@link StringEncoder} / {@link StringDecoder}</li>
 	 *     <li>{@link JacksonJsonEncoder} / {@link JacksonJsonDecoder}</li>
+	 *     <li>{@link JacksonNdjsonEncoder} / {@link JacksonNdjsonDecoder}</li>
 	 * </ul>
 	 *
 	 * @param requestFactory the {@code ClientHttpRequestFactory} to use
@@ -83,9 +92,10 @@ public final class WebClient {
 	public WebClient(ClientHttpRequestFactory requestFactory) {
 		this.requestFactory = requestFactory;
 		this.messageEncoders = Arrays.asList(new ByteBufferEncoder(), new StringEncoder(),
-				new JacksonJsonEncoder());
-		this.messageDecoders = Arrays.asList(new ByteBufferDecoder(), new StringDecoder(),
-				new JacksonJsonDecoder());
+				new JacksonJsonEncoder(), new JacksonNdjsonEncoder());
+		this.messageDecoders = Arrays.asList(new ByteBufferDecoder(),
+				new SseEventDecoder(Collections.singletonList(new JacksonJsonDecoder())),
+				new StringDecoder(), new JacksonJsonDecoder(), new JacksonNdjsonDecoder());
 	}
 
 	/**
@@ -102,6 +112,16 @@ public final class WebClient {
 		this.messageDecoders = messageDecoders;
 	}
 
+	/**
+	 * Indicate whether to ask for compressed responses, by sending an
+	 * {@code Accept-Encoding: gzip, deflate} header unless the request already has
+	 * one, and to decompress {@code gzip} or {@code deflate} encoded response bodies.
+	 * <p>By default this is set to {@code false}.
+	 */
+	public void setDecompressResponses(boolean decompressResponses) {
+		this.decompressResponses = decompressResponses;
+	}
+
 	/**
 	 * Perform the actual HTTP request/response exchange
 	 *
@@ -115,7 +135,15 @@ public final class WebClient {
 	public WebResponseActions perform(HttpRequestBuilder builder) {
 
 		ClientHttpRequest request = builder.build(this.requestFactory, this.messageEncoders);
-		final Mono<ClientHttpResponse> clientResponse = request.execute()
+		if (this.decompressResponses && !request.getHeaders().containsKey(HttpHeaders.ACCEPT_ENCODING)) {
+			request.getHeaders().set(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate");
+		}
+		Mono<ClientHttpResponse> response = request.execute();
+		if (this.decompressResponses) {
+			response = response.map(clientHttpResponse ->
+					DecompressingClientHttpResponse.decompress(clientHttpResponse, request.bufferFactory()));
+		}
+		final Mono<ClientHttpResponse> clientResponse = response
 				.log("org.springframework.http.client.reactive");
 
 		return new WebResponseActions() {
@@ -43,8 +43,17 @@ import org.springframework.format.support.DefaultFormattingConversionService;
 import org.springframework.format.support.FormattingConversionService;
 import org.springframework.http.MediaType;
 import org.springframework.http.codec.SseEventEncoder;
+import org.springframework.http.codec.multipart.MultipartDecoder;
+import org.springframework.http.codec.json.JacksonCborDecoder;
+import org.springframework.http.codec.json.JacksonCborEncoder;
 import org.springframework.http.codec.json.JacksonJsonDecoder;
 import org.springframework.http.codec.json.JacksonJsonEncoder;
+import org.springframework.http.codec.json.JacksonNdjsonDecoder;
+import org.springframework.http.codec.json.JacksonNdjsonEncoder;
+import org.springframework.http.codec.json.JacksonSmileDecoder;
+import org.springframework.http.codec.json.JacksonSmileEncoder;
+import org.springframework.http.codec.protobuf.ProtobufDecoder;
+import org.springframework.http.codec.protobuf.ProtobufEncoder;
 import org.springframework.http.codec.xml.Jaxb2Decoder;
 import org.springframework.http.codec.xml.Jaxb2Encoder;
 import org.springframework.http.converter.reactive.CodecHttpMessageConverter;
@@ -81,6 +90,15 @@ public class WebReactiveConfiguration implements ApplicationContextAware {
 			ClassUtils.isPresent("com.fasterxml.jackson.databind.ObjectMapper", classLoader) &&
 					ClassUtils.isPresent("com.fasterxml.jackson.core.JsonGenerator", classLoader);
 
+	private static final boolean jackson2SmilePresent = jackson2Present &&
+			ClassUtils.isPresent("com.fasterxml.jackson.dataformat.smile.SmileFactory", classLoader);
+
+	private static final boolean jackson2CborPresent = jackson2Present &&
+			ClassUtils.isPresent("com.fasterxml.jackson.dataformat.cbor.CBORFactory", classLoader);
+
+	private static final boolean protobufPresent =
+			ClassUtils.isPresent("com.google.protobuf.Message", classLoader);
+
 	private static final boolean jaxb2Present =
 			ClassUtils.isPresent("javax.xml.bind.Binder", classLoader);
 
@@ -254,10 +272,20 @@ public class WebReactiveConfiguration implements ApplicationContextAware {
 			JacksonJsonDecoder jacksonDecoder = new JacksonJsonDecoder();
 			converters.add(converter(jacksonEncoder, jacksonDecoder));
 			sseDataEncoders.add(jacksonEncoder);
-		} else {
-
+			// After the JSON codecs, so that JSON is preferred when any type is accepted
+			converters.add(converter(new JacksonNdjsonEncoder(), new JacksonNdjsonDecoder()));
+		}
+		if (jackson2SmilePresent) {
+			converters.add(converter(new JacksonSmileEncoder(), new JacksonSmileDecoder()));
+		}
+		if (jackson2CborPresent) {
+			converters.add(converter(new JacksonCborEncoder(), new JacksonCborDecoder()));
+		}
+		if (protobufPresent) {
+			converters.add(converter(new ProtobufEncoder(), new ProtobufDecoder()));
 		}
 		converters.add(converter(new SseEventEncoder(sseDataEncoders), null));
+		converters.add(converter(null, new MultipartDecoder()));
 	}
 
 	private static <T> HttpMessageConverter<T> converter(Encoder<T> encoder, Decoder<T> decoder) {
@@ -28,6 +28,7 @@ import org.springframework.core.convert.ConversionService;
 import org.springframework.core.convert.TypeDescriptor;
 import org.springframework.http.MediaType;
 import org.springframework.http.converter.reactive.HttpMessageConverter;
+import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.util.Assert;
 import org.springframework.web.reactive.accept.RequestedContentTypeResolver;
@@ -119,8 +120,10 @@ public abstract class AbstractMessageConverterResultHandler extends ContentNegot
 		if (bestMediaType != null) {
 			for (HttpMessageConverter<?> converter : getMessageConverters()) {
 				if (converter.canWrite(elementType, bestMediaType)) {
+					ServerHttpRequest request = exchange.getRequest();
 					ServerHttpResponse response = exchange.getResponse();
-					return converter.write((Publisher) publisher, elementType, bestMediaType, response);
+					return converter.write((Publisher) publisher, elementType, bestMediaType,
+							request, response);
 				}
 			}
 		}
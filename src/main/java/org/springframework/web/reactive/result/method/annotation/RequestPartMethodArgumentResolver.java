@@ -0,0 +1,176 @@
+/*
+ * Copyright 2002-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.web.reactive.result.method.annotation;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.beans.factory.config.ConfigurableBeanFactory;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.CodecException;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.io.buffer.support.DataBufferUtils;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.multipart.MultipartDecoder;
+import org.springframework.http.codec.multipart.Part;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.util.Assert;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.bind.annotation.RequestPart;
+import org.springframework.web.bind.annotation.ValueConstants;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.ServerWebInputException;
+
+/**
+ * Resolves method arguments annotated with an @{@link RequestPart} from the parts of
+ * a {@code multipart/form-data} request.
+ *
+ * <p>Arguments of type {@link Part} are given the part itself. For other types, the
+ * content of the part is read as a String, and converted to the argument type.
+ *
+ * <p>The request is decoded once, by a {@link MultipartDecoder} that stores parts
+ * rather than streaming them, so that parts can be resolved in any order. Temporary
+ * files of stored parts are deleted when the response is committed; use
+ * {@link Part#transferTo} to keep the content of a part.
+ *
+ * @see MultipartDecoder
+ */
+public class RequestPartMethodArgumentResolver extends AbstractNamedValueMethodArgumentResolver {
+
+	private static final String PARTS_ATTRIBUTE =
+			RequestPartMethodArgumentResolver.class.getName() + ".PARTS";
+
+	private static final ResolvableType PART_TYPE = ResolvableType.forClass(Part.class);
+
+
+	private final MultipartDecoder multipartDecoder;
+
+
+	public RequestPartMethodArgumentResolver(ConversionService conversionService,
+			ConfigurableBeanFactory beanFactory) {
+
+		this(createMultipartDecoder(), conversionService, beanFactory);
+	}
+
+	/**
+	 * @param multipartDecoder the decoder to read parts with; streaming must be disabled
+	 * @param conversionService for type conversion (to be replaced with WebDataBinder)
+	 * @param beanFactory a bean factory to use for resolving ${...} placeholder
+	 * and #{...} SpEL expressions in default values, or {@code null} if default
+	 * values are not expected to contain expressions
+	 */
+	public RequestPartMethodArgumentResolver(MultipartDecoder multipartDecoder,
+			ConversionService conversionService, ConfigurableBeanFactory beanFactory) {
+
+		super(conversionService, beanFactory);
+		Assert.notNull(multipartDecoder, "'multipartDecoder' must not be null");
+		Assert.isTrue(!multipartDecoder.isStreaming(), "'multipartDecoder' must not be streaming");
+		this.multipartDecoder = multipartDecoder;
+	}
+
+	private static MultipartDecoder createMultipartDecoder() {
+		MultipartDecoder multipartDecoder = new MultipartDecoder();
+		multipartDecoder.setStreaming(false);
+		return multipartDecoder;
+	}
+
+
+	@Override
+	public boolean supportsParameter(MethodParameter parameter) {
+		return parameter.hasParameterAnnotation(RequestPart.class);
+	}
+
+	@Override
+	protected NamedValueInfo createNamedValueInfo(MethodParameter parameter) {
+		RequestPart annot = parameter.getParameterAnnotation(RequestPart.class);
+		return new NamedValueInfo(annot.name(), annot.required(), ValueConstants.DEFAULT_NONE);
+	}
+
+	@Override
+	protected Mono<Object> resolveName(String name, MethodParameter parameter,
+			ServerWebExchange exchange) {
+
+		return getParts(exchange, parameter).then(parts -> {
+			Part part = parts.getFirst(name);
+			if (part == null) {
+				return Mono.empty();
+			}
+			if (Part.class.isAssignableFrom(parameter.getNestedParameterType())) {
+				return Mono.just(part);
+			}
+			MediaType contentType = part.getHeaders().getContentType();
+			Charset charset = (contentType != null && contentType.getCharset() != null ?
+					contentType.getCharset() : StandardCharsets.UTF_8);
+			return Flux.from(DataBufferUtils.join(part.getContent())).
+					map(dataBuffer -> {
+						byte[] bytes = new byte[dataBuffer.readableByteCount()];
+						dataBuffer.read(bytes);
+						DataBufferUtils.release(dataBuffer);
+						return (Object) new String(bytes, charset);
+					}).
+					single();
+		});
+	}
+
+	/**
+	 * Return the parts of the request by name, decoding them only once per exchange.
+	 */
+	private Mono<MultiValueMap<String, Part>> getParts(ServerWebExchange exchange,
+			MethodParameter parameter) {
+
+		return exchange.<Mono<MultiValueMap<String, Part>>>getAttribute(PARTS_ATTRIBUTE).
+				orElseGet(() -> {
+					Mono<MultiValueMap<String, Part>> parts = decodeParts(exchange, parameter).cache();
+					exchange.getAttributes().put(PARTS_ATTRIBUTE, parts);
+					return parts;
+				});
+	}
+
+	private Mono<MultiValueMap<String, Part>> decodeParts(ServerWebExchange exchange,
+			MethodParameter parameter) {
+
+		ServerHttpRequest request = exchange.getRequest();
+		MediaType contentType = request.getHeaders().getContentType();
+		if (contentType == null || !this.multipartDecoder.canDecode(PART_TYPE, contentType)) {
+			return Mono.just(new LinkedMultiValueMap<>());
+		}
+		return this.multipartDecoder.decode(request.getBody(), PART_TYPE, contentType).
+				mapError(CodecException.class, ex ->
+						new ServerWebInputException("Failed to read multipart request", parameter, ex)).
+				<MultiValueMap<String, Part>>collect(LinkedMultiValueMap::new,
+						(parts, part) -> parts.add(part.getName(), part)).
+				doOnSuccess(parts -> exchange.getResponse().beforeCommit(() ->
+						Flux.fromIterable(parts.values()).
+								flatMap(Flux::fromIterable).
+								concatMap(Part::delete).
+								then()));
+	}
+
+	@Override
+	protected void handleMissingValue(String name, MethodParameter parameter) {
+		String type = parameter.getNestedParameterType().getSimpleName();
+		String reason = "Missing request part '" + name + "' of type " + type;
+		throw new ServerWebInputException(reason, parameter);
+	}
+
+}
@@ -29,6 +29,7 @@ import org.springframework.core.codec.Encoder;
 import org.springframework.http.MediaType;
 import org.springframework.http.converter.reactive.CodecHttpMessageConverter;
 import org.springframework.http.converter.reactive.HttpMessageConverter;
+import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.ui.ModelMap;
 import org.springframework.util.Assert;
@@ -164,8 +165,10 @@ public class HttpMessageConverterView implements View {
 		}
 		Publisher<? extends T> stream = Mono.just((T) value);
 		ResolvableType type = ResolvableType.forClass(value.getClass());
+		ServerHttpRequest request = exchange.getRequest();
 		ServerHttpResponse response = exchange.getResponse();
-		return ((HttpMessageConverter<T>) getConverter()).write(stream, type, contentType, response);
+		return ((HttpMessageConverter<T>) getConverter()).write(stream, type, contentType,
+				request, response);
 	}
 
 }
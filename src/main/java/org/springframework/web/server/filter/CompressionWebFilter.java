@@ -0,0 +1,529 @@
+/*
+ * Copyright 2002-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.web.server.filter;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.Deflater;
+
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.FlushingDataBuffer;
+import org.springframework.core.io.buffer.support.DataBufferDeflater;
+import org.springframework.core.io.buffer.support.DataBufferInflater;
+import org.springframework.core.io.buffer.support.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ZeroCopyHttpOutputMessage;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.ServerWebExchangeDecorator;
+import org.springframework.web.server.ServerWebInputException;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+/**
+ * {@link WebFilter} that applies the {@code gzip} and {@code deflate} content
+ * codings to the request and response bodies, one data buffer at a time.
+ *
+ * <p>Response bodies are compressed when the client accepts one of the supported
+ * codings in its {@code Accept-Encoding} header, the response has no
+ * {@code Content-Encoding} yet, is not a partial ({@code 206}) response, and its
+ * content type matches one of the
+ * {@linkplain #setMimeTypes(MediaType...) allowed MIME types}, and the body reaches
+ * the {@linkplain #setMinResponseSize(int) minimum response size}. Since the size of
+ * a streamed body is not known upfront, data is held back until that size is
+ * reached; a {@link FlushingDataBuffer} ends the wait, and compression is applied
+ * from that point on. Files written through {@link ZeroCopyHttpOutputMessage} are
+ * compressed likewise, unless compression does not apply; they are then passed on to
+ * the underlying response, so that zero-copy transfer is preserved.
+ *
+ * <p>Request bodies with a {@code gzip} or {@code deflate} {@code Content-Encoding}
+ * are decompressed, up to the {@linkplain #setMaxRequestSize(long) maximum
+ * decompressed size}.
+ */
+public class CompressionWebFilter implements WebFilter {
+
+	/** The default minimum size of a response body to be compressed: 1024 bytes. */
+	public static final int DEFAULT_MIN_RESPONSE_SIZE = 1024;
+
+	/** The default maximum size of a decompressed request body: 10 MB. */
+	public static final long DEFAULT_MAX_REQUEST_SIZE = 10 * 1024 * 1024;
+
+	/** The MIME types of response bodies compressed by default. */
+	public static final List<MediaType> DEFAULT_MIME_TYPES = Arrays.asList(
+			MediaType.parseMediaType("text/*"),
+			MediaType.APPLICATION_JSON,
+			MediaType.parseMediaType("application/*+json"),
+			MediaType.APPLICATION_XML,
+			MediaType.parseMediaType("application/*+xml"),
+			MediaType.parseMediaType("application/javascript"));
+
+	private static final String GZIP = "gzip";
+
+	private static final String DEFLATE = "deflate";
+
+	private static final int FILE_BUFFER_SIZE = 8 * 1024;
+
+
+	private int minResponseSize = DEFAULT_MIN_RESPONSE_SIZE;
+
+	private List<MediaType> mimeTypes = DEFAULT_MIME_TYPES;
+
+	private int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+
+	private boolean decompressRequests = true;
+
+	private long maxRequestSize = DEFAULT_MAX_REQUEST_SIZE;
+
+
+	/**
+	 * Set the minimum size of a response body to be compressed. Smaller bodies are
+	 * written as is.
+	 * <p>By default this is set to {@link #DEFAULT_MIN_RESPONSE_SIZE}.
+	 */
+	public void setMinResponseSize(int minResponseSize) {
+		Assert.isTrue(minResponseSize >= 0, "'minResponseSize' must not be negative");
+		this.minResponseSize = minResponseSize;
+	}
+
+	/**
+	 * Return the minimum size of a response body to be compressed.
+	 */
+	public int getMinResponseSize() {
+		return this.minResponseSize;
+	}
+
+	/**
+	 * Set the MIME types of response bodies to compress.
+	 * <p>By default this is set to {@link #DEFAULT_MIME_TYPES}.
+	 */
+	public void setMimeTypes(MediaType... mimeTypes) {
+		Assert.notEmpty(mimeTypes, "'mimeTypes' must not be empty");
+		this.mimeTypes = Arrays.asList(mimeTypes);
+	}
+
+	/**
+	 * Return the MIME types of response bodies to compress.
+	 */
+	public List<MediaType> getMimeTypes() {
+		return this.mimeTypes;
+	}
+
+	/**
+	 * Set the compression level, from {@code 0} to {@code 9}.
+	 * <p>By default this is set to {@link Deflater#DEFAULT_COMPRESSION}.
+	 */
+	public void setCompressionLevel(int compressionLevel) {
+		Assert.isTrue(compressionLevel == Deflater.DEFAULT_COMPRESSION ||
+				(compressionLevel >= 0 && compressionLevel <= 9),
+				"'compressionLevel' must be between 0 and 9");
+		this.compressionLevel = compressionLevel;
+	}
+
+	/**
+	 * Return the compression level.
+	 */
+	public int getCompressionLevel() {
+		return this.compressionLevel;
+	}
+
+	/**
+	 * Indicate whether compressed request bodies should be decompressed.
+	 * <p>By default this is set to {@code true}.
+	 */
+	public void setDecompressRequests(boolean decompressRequests) {
+		this.decompressRequests = decompressRequests;
+	}
+
+	/**
+	 * Return whether compressed request bodies are decompressed.
+	 */
+	public boolean isDecompressRequests() {
+		return this.decompressRequests;
+	}
+
+	/**
+	 * Set the maximum size of a decompressed request body, or {@code -1} for no
+	 * limit. Larger bodies result in a {@link ServerWebInputException}.
+	 * <p>By default this is set to {@link #DEFAULT_MAX_REQUEST_SIZE}.
+	 */
+	public void setMaxRequestSize(long maxRequestSize) {
+		this.maxRequestSize = maxRequestSize;
+	}
+
+	/**
+	 * Return the maximum size of a decompressed request body.
+	 */
+	public long getMaxRequestSize() {
+		return this.maxRequestSize;
+	}
+
+
+	@Override
+	public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+		ServerHttpRequest request = exchange.getRequest();
+		ServerHttpResponse response = exchange.getResponse();
+		String contentEncoding = request.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING);
+		if (this.decompressRequests && contentEncoding != null) {
+			contentEncoding = contentEncoding.trim().toLowerCase();
+			if (GZIP.equals(contentEncoding) || "x-gzip".equals(contentEncoding)) {
+				request = new DecompressingRequest(request, response, true);
+			}
+			else if (DEFLATE.equals(contentEncoding)) {
+				request = new DecompressingRequest(request, response, false);
+			}
+		}
+		String acceptedEncoding = selectEncoding(request.getHeaders().get(HttpHeaders.ACCEPT_ENCODING));
+		if (acceptedEncoding != null) {
+			boolean gzip = GZIP.equals(acceptedEncoding);
+			response = (response instanceof ZeroCopyHttpOutputMessage ?
+					new ZeroCopyCompressingResponse(response, gzip) :
+					new CompressingResponse(response, gzip));
+		}
+		if (request == exchange.getRequest() && response == exchange.getResponse()) {
+			return chain.filter(exchange);
+		}
+		return chain.filter(new CompressionExchange(exchange, request, response));
+	}
+
+	/**
+	 * Select the coding to apply from the given {@code Accept-Encoding} values,
+	 * preferring {@code gzip} over {@code deflate} when both are equally acceptable.
+	 * @return {@code "gzip"}, {@code "deflate"}, or {@code null} if neither is accepted
+	 */
+	private static String selectEncoding(List<String> acceptEncodings) {
+		if (acceptEncodings == null) {
+			return null;
+		}
+		double gzipQuality = -1;
+		double deflateQuality = -1;
+		double wildcardQuality = -1;
+		for (String acceptEncoding : acceptEncodings) {
+			for (String token : StringUtils.tokenizeToStringArray(acceptEncoding, ",")) {
+				String[] parts = StringUtils.tokenizeToStringArray(token, ";");
+				if (parts.length == 0) {
+					continue;
+				}
+				double quality = 1;
+				for (int i = 1; i < parts.length; i++) {
+					if (parts[i].startsWith("q=")) {
+						try {
+							quality = Double.parseDouble(parts[i].substring(2));
+						}
+						catch (NumberFormatException ex) {
+							quality = 0;
+						}
+					}
+				}
+				String coding = parts[0].toLowerCase();
+				if (GZIP.equals(coding) || "x-gzip".equals(coding)) {
+					gzipQuality = quality;
+				}
+				else if (DEFLATE.equals(coding)) {
+					deflateQuality = quality;
+				}
+				else if ("*".equals(coding)) {
+					wildcardQuality = quality;
+				}
+			}
+		}
+		if (gzipQuality == -1) {
+			gzipQuality = wildcardQuality;
+		}
+		if (deflateQuality == -1) {
+			deflateQuality = wildcardQuality;
+		}
+		if (gzipQuality > 0 && gzipQuality >= deflateQuality) {
+			return GZIP;
+		}
+		else if (deflateQuality > 0) {
+			return DEFLATE;
+		}
+		return null;
+	}
+
+
+	private static class CompressionExchange extends ServerWebExchangeDecorator {
+
+		private final ServerHttpRequest request;
+
+		private final ServerHttpResponse response;
+
+		public CompressionExchange(ServerWebExchange delegate, ServerHttpRequest request,
+				ServerHttpResponse response) {
+
+			super(delegate);
+			this.request = request;
+			this.response = response;
+		}
+
+		@Override
+		public ServerHttpRequest getRequest() {
+			return this.request;
+		}
+
+		@Override
+		public ServerHttpResponse getResponse() {
+			return this.response;
+		}
+	}
+
+
+	private class DecompressingRequest extends ServerHttpRequestDecorator {
+
+		private final ServerHttpResponse response;
+
+		private final boolean gzip;
+
+		private final HttpHeaders headers = new HttpHeaders();
+
+		public DecompressingRequest(ServerHttpRequest delegate, ServerHttpResponse response,
+				boolean gzip) {
+
+			super(delegate);
+			this.response = response;
+			this.gzip = gzip;
+			this.headers.putAll(delegate.getHeaders());
+			this.headers.remove(HttpHeaders.CONTENT_ENCODING);
+			this.headers.remove(HttpHeaders.CONTENT_LENGTH);
+		}
+
+		@Override
+		public HttpHeaders getHeaders() {
+			return this.headers;
+		}
+
+		@Override
+		public Flux<DataBuffer> getBody() {
+			return DataBufferInflater.inflate(getDelegate().getBody(),
+					this.response.bufferFactory(), this.gzip, maxRequestSize).
+					mapError(IllegalStateException.class,
+							ex -> new ServerWebInputException(ex.getMessage()));
+		}
+	}
+
+
+	private class CompressingResponse extends ServerHttpResponseDecorator {
+
+		private final boolean gzip;
+
+		private HttpStatus statusCode;
+
+		public CompressingResponse(ServerHttpResponse delegate, boolean gzip) {
+			super(delegate);
+			this.gzip = gzip;
+		}
+
+		@Override
+		public boolean setStatusCode(HttpStatus status) {
+			boolean result = super.setStatusCode(status);
+			if (result) {
+				this.statusCode = status;
+			}
+			return result;
+		}
+
+		@Override
+		public Mono<Void> writeWith(Publisher<DataBuffer> body) {
+			HttpHeaders headers = getHeaders();
+			if (!shouldCompress(headers)) {
+				return super.writeWith(body);
+			}
+			headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+			long contentLength = headers.getContentLength();
+			if (contentLength != -1 && contentLength < minResponseSize) {
+				return super.writeWith(body);
+			}
+			int threshold = (contentLength != -1 ? 0 : minResponseSize);
+			Flux<DataBuffer> compressed = Flux.using(() -> new BodyCompressor(headers, threshold),
+					compressor -> Flux.from(body).
+							concatMap(compressor::next).
+							concatWith(Flux.defer(compressor::complete)),
+					BodyCompressor::release);
+			return super.writeWith(compressed);
+		}
+
+		protected boolean shouldCompress(HttpHeaders headers) {
+			return !headers.containsKey(HttpHeaders.CONTENT_ENCODING) &&
+					!isPartialContent(headers) && isCompressible(headers);
+		}
+
+		private boolean isPartialContent(HttpHeaders headers) {
+			// compressing a range would change the meaning of its byte positions
+			return (HttpStatus.PARTIAL_CONTENT.equals(this.statusCode) ||
+					headers.containsKey(HttpHeaders.CONTENT_RANGE));
+		}
+
+		private boolean isCompressible(HttpHeaders headers) {
+			MediaType contentType = headers.getContentType();
+			if (contentType == null) {
+				return false;
+			}
+			for (MediaType mimeType : mimeTypes) {
+				if (mimeType.isCompatibleWith(contentType)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+
+		/**
+		 * Holds back data buffers until the compression threshold is reached, and
+		 * compresses them from that point on.
+		 */
+		private class BodyCompressor {
+
+			private final HttpHeaders headers;
+
+			private final int threshold;
+
+			private final List<DataBuffer> pending = new ArrayList<>();
+
+			private int pendingSize;
+
+			private boolean decided;
+
+			private DataBufferDeflater deflater;
+
+			public BodyCompressor(HttpHeaders headers, int threshold) {
+				this.headers = headers;
+				this.threshold = threshold;
+			}
+
+			public Publisher<DataBuffer> next(DataBuffer dataBuffer) {
+				if (this.decided) {
+					return (this.deflater != null ? compress(dataBuffer) : Mono.just(dataBuffer));
+				}
+				boolean flush = dataBuffer instanceof FlushingDataBuffer;
+				if (!flush) {
+					this.pending.add(dataBuffer);
+					this.pendingSize += dataBuffer.readableByteCount();
+					if (this.pendingSize < this.threshold) {
+						return Flux.empty();
+					}
+				}
+				startCompression();
+				List<DataBuffer> result = new ArrayList<>();
+				for (DataBuffer pendingBuffer : drainPending()) {
+					addIfNotEmpty(result, this.deflater.deflate(pendingBuffer));
+				}
+				if (flush) {
+					addIfNotEmpty(result, this.deflater.flush());
+					result.add(dataBuffer);
+				}
+				return Flux.fromIterable(result);
+			}
+
+			public Publisher<DataBuffer> complete() {
+				if (!this.decided) {
+					// Too small to compress
+					this.decided = true;
+					return Flux.fromIterable(drainPending());
+				}
+				return (this.deflater != null ? Mono.just(this.deflater.finish()) : Mono.empty());
+			}
+
+			public void release() {
+				drainPending().forEach(DataBufferUtils::release);
+				if (this.deflater != null) {
+					this.deflater.release();
+				}
+			}
+
+			private void startCompression() {
+				this.decided = true;
+				this.deflater = new DataBufferDeflater(bufferFactory(), gzip, compressionLevel);
+				this.headers.set(HttpHeaders.CONTENT_ENCODING, (gzip ? GZIP : DEFLATE));
+				this.headers.remove(HttpHeaders.CONTENT_LENGTH);
+			}
+
+			private Publisher<DataBuffer> compress(DataBuffer dataBuffer) {
+				List<DataBuffer> result = new ArrayList<>(2);
+				if (dataBuffer instanceof FlushingDataBuffer) {
+					addIfNotEmpty(result, this.deflater.flush());
+					result.add(dataBuffer);
+				}
+				else {
+					addIfNotEmpty(result, this.deflater.deflate(dataBuffer));
+				}
+				return Flux.fromIterable(result);
+			}
+
+			private List<DataBuffer> drainPending() {
+				List<DataBuffer> result = new ArrayList<>(this.pending);
+				this.pending.clear();
+				this.pendingSize = 0;
+				return result;
+			}
+
+			private void addIfNotEmpty(List<DataBuffer> result, DataBuffer dataBuffer) {
+				if (dataBuffer.readableByteCount() > 0) {
+					result.add(dataBuffer);
+				}
+				else {
+					DataBufferUtils.release(dataBuffer);
+				}
+			}
+		}
+	}
+
+
+	private class ZeroCopyCompressingResponse extends CompressingResponse
+			implements ZeroCopyHttpOutputMessage {
+
+		public ZeroCopyCompressingResponse(ServerHttpResponse delegate, boolean gzip) {
+			super(delegate, gzip);
+		}
+
+		@Override
+		public Mono<Void> writeWith(File file, long position, long count) {
+			if (!shouldCompress(getHeaders())) {
+				return ((ZeroCopyHttpOutputMessage) getDelegate()).writeWith(file, position, count);
+			}
+			return writeWith(Flux.defer(() -> {
+				try {
+					AsynchronousFileChannel fileChannel = AsynchronousFileChannel
+							.open(file.toPath(), StandardOpenOption.READ);
+					return DataBufferUtils.takeUntilByteCount(DataBufferUtils
+							.read(fileChannel, position, bufferFactory(), FILE_BUFFER_SIZE),
+							count);
+				}
+				catch (IOException ex) {
+					return Flux.error(ex);
+				}
+			}));
+		}
+	}
+
+}
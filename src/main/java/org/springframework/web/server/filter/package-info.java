@@ -0,0 +1,4 @@
+/**
+ * Provides WebFilter implementations.
+ */
+package org.springframework.web.server.filter;
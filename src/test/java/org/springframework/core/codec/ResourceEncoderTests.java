@@ -25,10 +25,12 @@ import reactor.core.test.TestSubscriber;
 
 import org.springframework.core.ResolvableType;
 import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.InputStreamResource;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.buffer.AbstractDataBufferAllocatingTestCase;
 import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.support.DataBufferUtils;
 import org.springframework.http.MediaType;
 
 import static org.junit.Assert.assertTrue;
@@ -74,4 +76,23 @@ public class ResourceEncoderTests extends AbstractDataBufferAllocatingTestCase {
 
 	}
 
+	@Test
+	public void encodeFile() throws Exception {
+		Resource resource = new ClassPathResource("DataBufferUtilsTests.txt",
+				DataBufferUtils.class);
+
+		Mono<Resource> source = Mono.just(resource);
+
+		Flux<DataBuffer> output = new ResourceEncoder(8).encode(source,
+				this.dataBufferFactory, ResolvableType.forClass(Resource.class), null);
+
+		TestSubscriber
+				.subscribe(output)
+				.await()
+				.assertNoError()
+				.assertComplete()
+				.assertValuesWith(stringConsumer("foo\nbar\n"),
+						stringConsumer("baz\nqux\n"));
+	}
+
 }
\ No newline at end of file
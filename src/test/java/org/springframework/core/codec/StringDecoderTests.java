@@ -16,6 +16,9 @@
 
 package org.springframework.core.codec;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
 import org.junit.Before;
 import org.junit.Test;
 import reactor.core.publisher.Flux;
@@ -110,4 +113,69 @@ public class StringDecoderTests extends AbstractDataBufferAllocatingTestCase {
 				.assertValues("foobarbaz");
 	}
 
+	@Test
+	public void decodeMultiByteCharacterAcrossBuffers() throws InterruptedException {
+		this.decoder = new StringDecoder(false);
+		byte[] bytes = "f\u00e9\u20ac".getBytes(StandardCharsets.UTF_8);
+		Flux<DataBuffer> source = Flux.just(bytesBuffer(bytes, 0, 2), bytesBuffer(bytes, 2, 2),
+				bytesBuffer(bytes, 4, 2));
+		Mono<String> output =
+				this.decoder.decodeOne(source, ResolvableType.forClass(String.class), null);
+		TestSubscriber
+				.subscribe(output)
+				.assertNoError()
+				.assertComplete()
+				.assertValues("f\u00e9\u20ac");
+	}
+
+	@Test
+	public void decodeLines() throws InterruptedException {
+		this.decoder = new StringDecoder(StringDecoder.DEFAULT_DELIMITERS, true);
+		byte[] bytes = "\u00e9\r".getBytes(StandardCharsets.UTF_8);
+		Flux<DataBuffer> source = Flux.just(stringBuffer("fo"), stringBuffer("o\r\nba"),
+				stringBuffer("r\n\nb"), bytesBuffer(bytes, 0, 1), bytesBuffer(bytes, 1, 2),
+				stringBuffer("\nqux"));
+		Flux<String> output =
+				this.decoder.decode(source, ResolvableType.forClass(String.class), null);
+		TestSubscriber
+				.subscribe(output)
+				.assertNoError()
+				.assertComplete()
+				.assertValues("foo", "bar", "", "b\u00e9", "qux");
+	}
+
+	@Test
+	public void decodeLinesWithDelimiters() throws InterruptedException {
+		this.decoder = new StringDecoder(Arrays.asList("--", "|"), false);
+		Flux<DataBuffer> source = Flux.just(stringBuffer("foo-"), stringBuffer("-bar|b"),
+				stringBuffer("az"));
+		Flux<String> output =
+				this.decoder.decode(source, ResolvableType.forClass(String.class), null);
+		TestSubscriber
+				.subscribe(output)
+				.assertNoError()
+				.assertComplete()
+				.assertValues("foo--", "bar|", "baz");
+	}
+
+	@Test
+	public void decodeLineTooLong() throws InterruptedException {
+		this.decoder = new StringDecoder(StringDecoder.DEFAULT_DELIMITERS, true);
+		this.decoder.setMaxLineLength(4);
+		Flux<DataBuffer> source = Flux.just(stringBuffer("foo\nba"), stringBuffer("rbaz"),
+				stringBuffer("qux\n"));
+		Flux<String> output =
+				this.decoder.decode(source, ResolvableType.forClass(String.class), null);
+		TestSubscriber
+				.subscribe(output)
+				.assertValues("foo")
+				.assertError(IllegalStateException.class);
+	}
+
+	private DataBuffer bytesBuffer(byte[] bytes, int offset, int length) {
+		DataBuffer buffer = this.dataBufferFactory.allocateBuffer(length);
+		buffer.write(bytes, offset, length);
+		return buffer;
+	}
+
 }
@@ -27,9 +27,12 @@ import reactor.core.test.TestSubscriber;
 
 import org.springframework.core.ResolvableType;
 import org.springframework.core.io.buffer.AbstractDataBufferAllocatingTestCase;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.support.DataBufferUtils;
+import org.springframework.core.io.buffer.support.DataBufferTestUtils;
 import org.springframework.http.MediaType;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -71,4 +74,76 @@ public class StringEncoderTests extends AbstractDataBufferAllocatingTestCase {
 				.assertValues("foo");
 	}
 
+	@Test
+	public void writeWithCharset() throws InterruptedException {
+		MediaType mediaType = new MediaType("text", "plain", StandardCharsets.ISO_8859_1);
+		Flux<String> output = Flux.from(this.encoder.encode(Flux.just("f\u00e9\u00f6", ""),
+				this.dataBufferFactory, null, mediaType)).
+				map(chunk -> {
+					String result = DataBufferTestUtils.dumpString(chunk, StandardCharsets.ISO_8859_1);
+					DataBufferUtils.release(chunk);
+					return result;
+				});
+		TestSubscriber
+				.subscribe(output)
+				.assertValues("f\u00e9\u00f6", "");
+	}
+
+	@Test
+	public void writeLargerThanEstimate() throws InterruptedException {
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < 1000; i++) {
+			builder.append("f\u00e9\u4e16\ud83d\ude00");
+		}
+		String value = builder.toString();
+		Flux<String> output = Flux.from(this.encoder.encode(Flux.just(value, value),
+				this.dataBufferFactory, null, null)).
+				map(chunk -> {
+					String result = DataBufferTestUtils.dumpString(chunk, StandardCharsets.UTF_8);
+					DataBufferUtils.release(chunk);
+					return result;
+				});
+		TestSubscriber
+				.subscribe(output)
+				.assertValues(value, value);
+	}
+
+	@Test
+	public void encodeCachedValue() {
+		this.encoder.setCachedValues("data:");
+		DataBuffer first = this.encoder.encodeValue("data:", this.dataBufferFactory,
+				StandardCharsets.UTF_8);
+		assertEquals("data:", DataBufferTestUtils.dumpString(first, StandardCharsets.UTF_8));
+		DataBufferUtils.release(first);
+
+		DataBuffer second = this.encoder.encodeValue("data:", this.dataBufferFactory,
+				StandardCharsets.UTF_8);
+		assertEquals("data:", DataBufferTestUtils.dumpString(second, StandardCharsets.UTF_8));
+		DataBufferUtils.release(second);
+	}
+
+	@Test
+	public void encodeCachedValueCopied() {
+		this.encoder.setCachedValues("data:");
+		DataBuffer first = this.encoder.encodeValue("data:", this.dataBufferFactory,
+				StandardCharsets.UTF_8);
+		DataBuffer second = this.encoder.encodeValue("data:", this.dataBufferFactory,
+				StandardCharsets.UTF_8);
+		first.asByteBuffer().put(0, (byte) 'X');
+
+		assertEquals("data:", DataBufferTestUtils.dumpString(second, StandardCharsets.UTF_8));
+		DataBufferUtils.release(first);
+		DataBufferUtils.release(second);
+	}
+
+	@Test
+	public void encodeValueIntoBuffer() {
+		DataBuffer buffer = this.dataBufferFactory.allocateBuffer(1);
+		buffer.write((byte) 'a');
+		this.encoder.encodeValue(new StringBuilder("b\u00e9c"), buffer, StandardCharsets.UTF_8);
+
+		assertEquals("ab\u00e9c", DataBufferTestUtils.dumpString(buffer, StandardCharsets.UTF_8));
+		DataBufferUtils.release(buffer);
+	}
+
 }
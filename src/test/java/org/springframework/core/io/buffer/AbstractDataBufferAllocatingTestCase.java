@@ -47,7 +47,9 @@ public abstract class AbstractDataBufferAllocatingTestCase {
 				{new NettyDataBufferFactory(new PooledByteBufAllocator(true))},
 				{new NettyDataBufferFactory(new PooledByteBufAllocator(false))},
 				{new DefaultDataBufferFactory(true)},
-				{new DefaultDataBufferFactory(false)}
+				{new DefaultDataBufferFactory(false)},
+				{new PooledDefaultDataBufferFactory(true)},
+				{new PooledDefaultDataBufferFactory(false)}
 
 		};
 	}
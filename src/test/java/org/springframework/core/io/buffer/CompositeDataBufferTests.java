@@ -0,0 +1,210 @@
+/*
+ * Copyright 2002-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import org.springframework.core.io.buffer.support.DataBufferTestUtils;
+
+import static org.junit.Assert.*;
+
+public class CompositeDataBufferTests extends AbstractDataBufferAllocatingTestCase {
+
+	private CompositeDataBuffer composite(String... values) {
+		return new CompositeDataBuffer(Arrays.stream(values).map(this::stringBuffer)
+				.collect(Collectors.toList()));
+	}
+
+	@Test
+	public void read() {
+		CompositeDataBuffer buffer = composite("ab", "c", "def");
+		assertEquals(3, buffer.componentCount());
+		assertEquals(6, buffer.readableByteCount());
+
+		assertEquals('a', buffer.read());
+		byte[] result = new byte[4];
+		buffer.read(result);
+		assertArrayEquals(new byte[]{'b', 'c', 'd', 'e'}, result);
+		assertEquals(1, buffer.readableByteCount());
+
+		release(buffer);
+	}
+
+	@Test
+	public void componentReadPosition() {
+		DataBuffer first = stringBuffer("abc");
+		first.read();
+		CompositeDataBuffer buffer = new CompositeDataBuffer(
+				Arrays.asList(first, stringBuffer("de")));
+
+		assertEquals("bcde", DataBufferTestUtils.dumpString(buffer, StandardCharsets.UTF_8));
+
+		release(buffer);
+	}
+
+	@Test
+	public void write() {
+		CompositeDataBuffer buffer = composite("ab");
+		buffer.write((byte) 'c');
+		buffer.write(new byte[]{'d', 'e'});
+		buffer.write(stringBuffer("fg"));
+		buffer.write(ByteBuffer.wrap(new byte[]{'h'}));
+
+		assertEquals(4, buffer.componentCount());
+		assertEquals("abcdefgh",
+				DataBufferTestUtils.dumpString(buffer, StandardCharsets.UTF_8));
+
+		release(buffer);
+	}
+
+	@Test
+	public void writeInputStream() throws IOException {
+		CompositeDataBuffer buffer = composite("ab");
+		InputStream source = new ByteArrayInputStream(new byte[]{'c', 'd', 'e'});
+
+		assertEquals(2, buffer.write(source, 2));
+		assertEquals(1, buffer.write(source, 2));
+		assertEquals(-1, buffer.write(source, 2));
+
+		assertEquals("abcde",
+				DataBufferTestUtils.dumpString(buffer, StandardCharsets.UTF_8));
+
+		release(buffer);
+	}
+
+	@Test
+	public void writeCharSequence() throws IOException {
+		CompositeDataBuffer buffer = composite("ab");
+		String value = String.join("", Collections.nCopies(300, "c\u20ac"));
+
+		buffer.write(value, StandardCharsets.UTF_8.newEncoder());
+
+		assertEquals("ab" + value,
+				DataBufferTestUtils.dumpString(buffer, StandardCharsets.UTF_8));
+
+		release(buffer);
+	}
+
+	@Test
+	public void indexOf() {
+		CompositeDataBuffer buffer = composite("ab", "c", "", "dab");
+
+		assertEquals(0, buffer.indexOf(b -> b == 'a', -1));
+		assertEquals(2, buffer.indexOf(b -> b == 'c', 0));
+		assertEquals(4, buffer.indexOf(b -> b == 'a', 1));
+		assertEquals(5, buffer.indexOf(b -> b == 'b', 2));
+		assertEquals(-1, buffer.indexOf(b -> b == 'z', 0));
+		assertEquals(-1, buffer.indexOf(b -> b == 'a', 6));
+
+		release(buffer);
+	}
+
+	@Test
+	public void lastIndexOf() {
+		CompositeDataBuffer buffer = composite("ab", "c", "dab");
+
+		assertEquals(4, buffer.lastIndexOf(b -> b == 'a', 10));
+		assertEquals(0, buffer.lastIndexOf(b -> b == 'a', 3));
+		assertEquals(2, buffer.lastIndexOf(b -> b == 'c', 5));
+		assertEquals(-1, buffer.lastIndexOf(b -> b == 'z', 5));
+		assertEquals(-1, buffer.lastIndexOf(b -> b == 'a', -1));
+
+		release(buffer);
+	}
+
+	@Test
+	public void slice() {
+		CompositeDataBuffer buffer = composite("ab", "cd", "ef");
+
+		DataBuffer slice = buffer.slice(1, 4);
+		assertEquals(4, slice.readableByteCount());
+		assertEquals("bcde", DataBufferTestUtils.dumpString(slice, StandardCharsets.UTF_8));
+		assertEquals(2, slice.indexOf(b -> b == 'd', 0));
+
+		DataBuffer nested = slice.slice(1, 2);
+		assertEquals("cd", DataBufferTestUtils.dumpString(nested, StandardCharsets.UTF_8));
+
+		release(buffer);
+	}
+
+	@Test
+	public void asByteBuffer() {
+		CompositeDataBuffer buffer = composite("ab", "cd");
+		buffer.read();
+
+		ByteBuffer result = buffer.asByteBuffer();
+		assertEquals(3, result.remaining());
+		byte[] bytes = new byte[3];
+		result.get(bytes);
+		assertArrayEquals(new byte[]{'b', 'c', 'd'}, bytes);
+
+		release(buffer);
+	}
+
+	@Test
+	public void inputStream() throws IOException {
+		CompositeDataBuffer buffer = composite("ab", "cd", "e");
+		InputStream inputStream = buffer.asInputStream();
+
+		assertEquals(5, inputStream.available());
+		assertEquals('a', inputStream.read());
+
+		byte[] bytes = new byte[3];
+		assertEquals(3, inputStream.read(bytes));
+		assertArrayEquals(new byte[]{'b', 'c', 'd'}, bytes);
+
+		assertEquals(1, inputStream.read(bytes));
+		assertEquals('e', bytes[0]);
+		assertEquals(-1, inputStream.read(bytes));
+		assertEquals(-1, inputStream.read());
+
+		release(buffer);
+	}
+
+	@Test
+	public void nestedComposite() {
+		CompositeDataBuffer inner = composite("ab", "cd");
+		inner.read();
+		CompositeDataBuffer buffer = composite("xy");
+		buffer.write(inner);
+
+		assertEquals(3, buffer.componentCount());
+		assertEquals("xybcd", DataBufferTestUtils.dumpString(buffer, StandardCharsets.UTF_8));
+
+		release(buffer);
+	}
+
+	@Test
+	public void retainAndRelease() {
+		CompositeDataBuffer buffer = composite("ab", "cd");
+		DataBuffer slice = buffer.slice(1, 2);
+
+		buffer.retain();
+		assertFalse(buffer.release());
+		assertTrue(((PooledDataBuffer) slice).release());
+	}
+
+}
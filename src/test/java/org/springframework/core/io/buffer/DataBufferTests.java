@@ -16,14 +16,20 @@
 
 package org.springframework.core.io.buffer;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.Collections;
 
 import org.junit.Test;
 
+import org.springframework.core.io.buffer.support.DataBufferTestUtils;
+
 import static org.junit.Assert.*;
 
 /**
@@ -84,6 +90,48 @@ public class DataBufferTests extends AbstractDataBufferAllocatingTestCase {
 		release(buffer);
 	}
 
+	@Test
+	public void writeInputStream() throws IOException {
+		DataBuffer buffer = createDataBuffer(2);
+		buffer.write((byte) 'a');
+		InputStream source = new ByteArrayInputStream(new byte[]{'b', 'c', 'd', 'e'});
+
+		assertEquals(3, buffer.write(source, 3));
+		assertEquals(1, buffer.write(source, 3));
+		assertEquals(-1, buffer.write(source, 3));
+
+		byte[] result = new byte[5];
+		buffer.read(result);
+		assertArrayEquals(new byte[]{'a', 'b', 'c', 'd', 'e'}, result);
+
+		release(buffer);
+	}
+
+	@Test
+	public void writeCharSequence() throws IOException {
+		DataBuffer buffer = createDataBuffer(1);
+		buffer.write((byte) 'a');
+		String value = "b\u00e7\u20ac" + String.join("", Collections.nCopies(100, "d"));
+
+		buffer.write(value, StandardCharsets.UTF_8.newEncoder());
+		buffer.write("", StandardCharsets.UTF_8.newEncoder());
+
+		assertEquals("a" + value, DataBufferTestUtils.dumpString(buffer, StandardCharsets.UTF_8));
+
+		release(buffer);
+	}
+
+	@Test(expected = CharacterCodingException.class)
+	public void writeCharSequenceUnmappable() throws IOException {
+		DataBuffer buffer = createDataBuffer(4);
+		try {
+			buffer.write("\u20ac", StandardCharsets.US_ASCII.newEncoder());
+		}
+		finally {
+			release(buffer);
+		}
+	}
+
 	@Test
 	public void outputStream() throws IOException {
 		DataBuffer buffer = createDataBuffer(4);
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2002-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import io.netty.buffer.UnpooledByteBufAllocator;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class LeakTrackingDataBufferFactoryTests {
+
+	private final LeakTrackingDataBufferFactory factory = new LeakTrackingDataBufferFactory(
+			new NettyDataBufferFactory(new UnpooledByteBufAllocator(false)), 1);
+
+
+	@Test
+	public void liveCounts() {
+		DataBuffer buffer1 = this.factory.allocateBuffer(16);
+		DataBuffer buffer2 = this.factory.allocateBuffer(32);
+		assertEquals(2, this.factory.getLiveBufferCount());
+		assertEquals(48, this.factory.getLiveByteCount());
+
+		assertTrue(((PooledDataBuffer) buffer1).release());
+		assertEquals(1, this.factory.getLiveBufferCount());
+		assertEquals(32, this.factory.getLiveByteCount());
+
+		((PooledDataBuffer) buffer2).retain();
+		assertFalse(((PooledDataBuffer) buffer2).release());
+		assertEquals(1, this.factory.getLiveBufferCount());
+		assertTrue(((PooledDataBuffer) buffer2).release());
+		assertEquals(0, this.factory.getLiveBufferCount());
+		assertEquals(0, this.factory.getLiveByteCount());
+	}
+
+	@Test
+	public void releaseThroughSlice() {
+		DataBuffer buffer = this.factory.allocateBuffer(16);
+		buffer.write(new byte[]{'a', 'b', 'c'});
+		DataBuffer slice = buffer.slice(1, 2);
+		assertSame(this.factory, slice.factory());
+
+		assertTrue(((PooledDataBuffer) slice).release());
+		assertEquals(0, this.factory.getLiveBufferCount());
+	}
+
+	@Test
+	public void unpooledBuffersAreNotTracked() {
+		LeakTrackingDataBufferFactory factory =
+				new LeakTrackingDataBufferFactory(new DefaultDataBufferFactory(), 1);
+		DataBuffer buffer = factory.allocateBuffer(16);
+
+		assertTrue(buffer instanceof DefaultDataBuffer);
+		assertEquals(0, factory.getLiveBufferCount());
+	}
+
+	@Test
+	public void detectLeak() throws Exception {
+		allocateAndForget();
+		for (int i = 0; i < 50 && this.factory.getLeakCount() == 0; i++) {
+			System.gc();
+			Thread.sleep(10);
+			((PooledDataBuffer) this.factory.allocateBuffer(1)).release();
+		}
+		assertEquals(1, this.factory.getLeakCount());
+		assertEquals(1, this.factory.getLiveBufferCount());
+	}
+
+	@Test
+	public void releasedBuffersDoNotLeak() throws Exception {
+		((PooledDataBuffer) this.factory.allocateBuffer(16)).release();
+		for (int i = 0; i < 5; i++) {
+			System.gc();
+			Thread.sleep(10);
+			((PooledDataBuffer) this.factory.allocateBuffer(1)).release();
+		}
+		assertEquals(0, this.factory.getLeakCount());
+	}
+
+	private void allocateAndForget() {
+		this.factory.allocateBuffer(16).write((byte) 'a');
+	}
+
+}
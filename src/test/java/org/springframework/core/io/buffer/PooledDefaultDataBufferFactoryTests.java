@@ -0,0 +1,118 @@
+/*
+ * Copyright 2002-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class PooledDefaultDataBufferFactoryTests {
+
+	private final PooledDefaultDataBufferFactory factory =
+			new PooledDefaultDataBufferFactory(false, 256, 1024, 2, 1);
+
+
+	@Test
+	public void sizeClasses() {
+		assertEquals(256, this.factory.allocateBuffer(1).getNativeBuffer().capacity());
+		assertEquals(256, this.factory.allocateBuffer(256).getNativeBuffer().capacity());
+		assertEquals(512, this.factory.allocateBuffer(257).getNativeBuffer().capacity());
+		assertEquals(1024, this.factory.allocateBuffer(1000).getNativeBuffer().capacity());
+		assertEquals(1025, this.factory.allocateBuffer(1025).getNativeBuffer().capacity());
+	}
+
+	@Test
+	public void recycle() {
+		PooledDefaultDataBuffer buffer = this.factory.allocateBuffer(100);
+		ByteBuffer memory = buffer.getNativeBuffer();
+		buffer.write(new byte[]{'a', 'b', 'c'});
+		assertTrue(buffer.release());
+
+		PooledDefaultDataBuffer recycled = this.factory.allocateBuffer(200);
+		assertSame(memory, recycled.getNativeBuffer());
+		assertEquals(0, recycled.readableByteCount());
+		assertEquals(1, recycled.refCount());
+	}
+
+	@Test
+	public void recycleOnlyAfterLastRelease() {
+		PooledDefaultDataBuffer buffer = this.factory.allocateBuffer(100);
+		ByteBuffer memory = buffer.getNativeBuffer();
+		buffer.retain();
+		assertFalse(buffer.release());
+
+		assertNotSame(memory, this.factory.allocateBuffer(100).getNativeBuffer());
+		assertTrue(buffer.release());
+		assertSame(memory, this.factory.allocateBuffer(100).getNativeBuffer());
+	}
+
+	@Test
+	public void largeBuffersAreNotPooled() {
+		PooledDefaultDataBuffer buffer = this.factory.allocateBuffer(2048);
+		ByteBuffer memory = buffer.getNativeBuffer();
+		assertTrue(buffer.release());
+
+		assertNotSame(memory, this.factory.allocateBuffer(2048).getNativeBuffer());
+	}
+
+	@Test
+	public void growRecyclesOldMemory() {
+		PooledDefaultDataBuffer buffer = this.factory.allocateBuffer(256);
+		ByteBuffer memory = buffer.getNativeBuffer();
+		buffer.write(new byte[]{'a', 'b', 'c'});
+		buffer.read();
+		buffer.write(new byte[300]);
+
+		assertEquals(512, buffer.getNativeBuffer().capacity());
+		assertEquals(302, buffer.readableByteCount());
+		assertEquals('b', buffer.read());
+		assertSame(memory, this.factory.allocateBuffer(10).getNativeBuffer());
+	}
+
+	@Test
+	public void slicesShareReferenceCount() {
+		PooledDefaultDataBuffer buffer = this.factory.allocateBuffer(256);
+		buffer.write(new byte[]{'a', 'b', 'c'});
+
+		PooledDataBuffer slice = (PooledDataBuffer) buffer.slice(1, 2);
+		slice.retain();
+		assertEquals(2, buffer.refCount());
+
+		byte[] result = new byte[2];
+		slice.read(result);
+		assertArrayEquals(new byte[]{'b', 'c'}, result);
+
+		assertFalse(buffer.release());
+		assertTrue(slice.release());
+		assertEquals(0, buffer.refCount());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void retainAfterRelease() {
+		PooledDefaultDataBuffer buffer = this.factory.allocateBuffer(256);
+		buffer.release();
+		buffer.retain();
+	}
+
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2002-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.core.io.buffer.support;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import org.junit.Test;
+import reactor.core.publisher.Flux;
+
+import org.springframework.core.io.buffer.AbstractDataBufferAllocatingTestCase;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.FlushingDataBuffer;
+import org.springframework.util.StreamUtils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class DataBufferDeflaterTests extends AbstractDataBufferAllocatingTestCase {
+
+	@Test
+	public void gzip() throws Exception {
+		Flux<DataBuffer> source = Flux.just(stringBuffer("foo"), stringBuffer("bar"));
+		Flux<DataBuffer> result = DataBufferDeflater.deflate(source, this.dataBufferFactory,
+				true, Deflater.DEFAULT_COMPRESSION);
+
+		byte[] compressed = toByteArray(result.collectList().block());
+		InputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(compressed));
+		assertEquals("foobar", StreamUtils.copyToString(inputStream, StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void deflate() throws Exception {
+		Flux<DataBuffer> source = Flux.just(stringBuffer("foo"), stringBuffer("bar"));
+		Flux<DataBuffer> result = DataBufferDeflater.deflate(source, this.dataBufferFactory,
+				false, Deflater.BEST_COMPRESSION);
+
+		byte[] compressed = toByteArray(result.collectList().block());
+		InputStream inputStream = new InflaterInputStream(new ByteArrayInputStream(compressed));
+		assertEquals("foobar", StreamUtils.copyToString(inputStream, StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void empty() throws Exception {
+		Flux<DataBuffer> result = DataBufferDeflater.deflate(Flux.empty(),
+				this.dataBufferFactory, true, Deflater.DEFAULT_COMPRESSION);
+
+		byte[] compressed = toByteArray(result.collectList().block());
+		InputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(compressed));
+		assertEquals("", StreamUtils.copyToString(inputStream, StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void flush() throws Exception {
+		Flux<DataBuffer> source = Flux.just(stringBuffer("foo"), FlushingDataBuffer.INSTANCE,
+				stringBuffer("bar"));
+		List<DataBuffer> result = DataBufferDeflater.deflate(source, this.dataBufferFactory,
+				true, Deflater.DEFAULT_COMPRESSION).collectList().block();
+
+		int flushIndex = -1;
+		for (int i = 0; i < result.size(); i++) {
+			if (result.get(i) instanceof FlushingDataBuffer) {
+				flushIndex = i;
+			}
+		}
+		assertTrue(flushIndex > 0);
+		assertSame(FlushingDataBuffer.INSTANCE, result.remove(flushIndex));
+
+		// Data written before the flush can be decompressed on its own
+		byte[] flushed = toByteArray(result.subList(0, flushIndex));
+		byte[] remainder = toByteArray(result.subList(flushIndex, result.size()));
+		InflaterInputStream inputStream = new InflaterInputStream(
+				new ByteArrayInputStream(flushed, 10, flushed.length - 10),
+				new Inflater(true));
+		byte[] decompressed = new byte[3];
+		assertEquals(3, inputStream.read(decompressed));
+		assertEquals("foo", new String(decompressed, StandardCharsets.UTF_8));
+
+		ByteArrayOutputStream all = new ByteArrayOutputStream();
+		all.write(flushed);
+		all.write(remainder);
+		InputStream gzipStream = new GZIPInputStream(new ByteArrayInputStream(all.toByteArray()));
+		assertEquals("foobar", StreamUtils.copyToString(gzipStream, StandardCharsets.UTF_8));
+	}
+
+	private static byte[] toByteArray(List<DataBuffer> dataBuffers) throws Exception {
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		for (DataBuffer dataBuffer : dataBuffers) {
+			bos.write(DataBufferTestUtils.dumpBytes(dataBuffer));
+			DataBufferUtils.release(dataBuffer);
+		}
+		return bos.toByteArray();
+	}
+
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright 2002-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.core.io.buffer.support;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.test.TestSubscriber;
+
+import org.springframework.core.io.buffer.AbstractDataBufferAllocatingTestCase;
+import org.springframework.core.io.buffer.DataBuffer;
+
+import static org.junit.Assert.assertEquals;
+
+public class DataBufferInflaterTests extends AbstractDataBufferAllocatingTestCase {
+
+	@Test
+	public void gzip() throws Exception {
+		byte[] compressed = gzip("foobar");
+		Flux<DataBuffer> result = DataBufferInflater.inflate(Flux.just(bytesBuffer(compressed)),
+				this.dataBufferFactory, true, -1);
+
+		assertEquals("foobar", toString(result));
+	}
+
+	@Test
+	public void gzipSplitIntoSingleBytes() throws Exception {
+		byte[] compressed = gzip("foobar");
+		Flux<DataBuffer> result = DataBufferInflater.inflate(split(compressed, 1),
+				this.dataBufferFactory, true, -1);
+
+		assertEquals("foobar", toString(result));
+	}
+
+	@Test
+	public void gzipWithFileName() throws Exception {
+		byte[] compressed = gzip("foobar");
+		// Set the FNAME flag, and insert a zero-terminated file name after the header
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		bos.write(compressed, 0, 10);
+		bos.write("foo.txt\0".getBytes(StandardCharsets.ISO_8859_1));
+		bos.write(compressed, 10, compressed.length - 10);
+		compressed = bos.toByteArray();
+		compressed[3] = 8;
+
+		Flux<DataBuffer> result = DataBufferInflater.inflate(split(compressed, 3),
+				this.dataBufferFactory, true, -1);
+
+		assertEquals("foobar", toString(result));
+	}
+
+	@Test
+	public void deflate() throws Exception {
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		DeflaterOutputStream deflaterOutputStream = new DeflaterOutputStream(bos);
+		deflaterOutputStream.write("foobar".getBytes(StandardCharsets.UTF_8));
+		deflaterOutputStream.close();
+
+		Flux<DataBuffer> result = DataBufferInflater.inflate(split(bos.toByteArray(), 4),
+				this.dataBufferFactory, false, -1);
+
+		assertEquals("foobar", toString(result));
+	}
+
+	@Test
+	public void roundTrip() throws Exception {
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < 10000; i++) {
+			builder.append(i).append('\n');
+		}
+		String value = builder.toString();
+		Flux<DataBuffer> compressed = DataBufferDeflater.deflate(
+				Flux.just(stringBuffer(value)), this.dataBufferFactory, true, 1);
+		Flux<DataBuffer> result = DataBufferInflater.inflate(compressed,
+				this.dataBufferFactory, true, -1);
+
+		assertEquals(value, toString(result));
+	}
+
+	@Test
+	public void truncated() throws Exception {
+		byte[] compressed = gzip("foobar");
+		compressed = Arrays.copyOf(compressed, compressed.length - 4);
+		Flux<DataBuffer> result = DataBufferInflater.inflate(Flux.just(bytesBuffer(compressed)),
+				this.dataBufferFactory, true, -1);
+
+		TestSubscriber
+				.subscribe(result.doOnNext(DataBufferUtils::release))
+				.await()
+				.assertError(IllegalStateException.class);
+	}
+
+	@Test
+	public void corruptTrailer() throws Exception {
+		byte[] compressed = gzip("foobar");
+		compressed[compressed.length - 8]++;
+		Flux<DataBuffer> result = DataBufferInflater.inflate(Flux.just(bytesBuffer(compressed)),
+				this.dataBufferFactory, true, -1);
+
+		TestSubscriber
+				.subscribe(result.doOnNext(DataBufferUtils::release))
+				.await()
+				.assertError(IllegalStateException.class);
+	}
+
+	@Test
+	public void notGzip() throws Exception {
+		Flux<DataBuffer> result = DataBufferInflater.inflate(Flux.just(stringBuffer("foobarbazqux")),
+				this.dataBufferFactory, true, -1);
+
+		TestSubscriber
+				.subscribe(result.doOnNext(DataBufferUtils::release))
+				.await()
+				.assertError(IllegalStateException.class);
+	}
+
+	@Test
+	public void maxSizeExceeded() throws Exception {
+		byte[] compressed = gzip("foobar");
+		Flux<DataBuffer> result = DataBufferInflater.inflate(Flux.just(bytesBuffer(compressed)),
+				this.dataBufferFactory, true, 5);
+
+		TestSubscriber
+				.subscribe(result.doOnNext(DataBufferUtils::release))
+				.await()
+				.assertError(IllegalStateException.class);
+	}
+
+	private DataBuffer bytesBuffer(byte[] bytes) {
+		DataBuffer buffer = this.dataBufferFactory.allocateBuffer(bytes.length);
+		buffer.write(bytes);
+		return buffer;
+	}
+
+	private Flux<DataBuffer> split(byte[] bytes, int size) {
+		List<DataBuffer> result = new ArrayList<>();
+		for (int i = 0; i < bytes.length; i += size) {
+			result.add(bytesBuffer(Arrays.copyOfRange(bytes, i, Math.min(i + size, bytes.length))));
+		}
+		return Flux.fromIterable(result);
+	}
+
+	private static byte[] gzip(String value) throws Exception {
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		GZIPOutputStream gzipOutputStream = new GZIPOutputStream(bos);
+		gzipOutputStream.write(value.getBytes(StandardCharsets.UTF_8));
+		gzipOutputStream.close();
+		return bos.toByteArray();
+	}
+
+	private static String toString(Flux<DataBuffer> dataBuffers) {
+		StringBuilder builder = new StringBuilder();
+		for (DataBuffer dataBuffer : dataBuffers.toIterable()) {
+			builder.append(DataBufferTestUtils.dumpString(dataBuffer, StandardCharsets.UTF_8));
+			DataBufferUtils.release(dataBuffer);
+		}
+		return builder.toString();
+	}
+
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2002-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.core.io.buffer.support;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+import reactor.core.publisher.Flux;
+
+import org.springframework.core.io.buffer.AbstractDataBufferAllocatingTestCase;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.util.StreamUtils;
+
+import static org.junit.Assert.assertEquals;
+
+public class DataBufferInputStreamTests extends AbstractDataBufferAllocatingTestCase {
+
+	@Test
+	public void readAcrossBuffers() throws IOException {
+		Flux<DataBuffer> source = Flux.just(stringBuffer("foo"), stringBuffer(""),
+				stringBuffer("bar"), stringBuffer("baz"));
+		DataBufferInputStream inputStream = new DataBufferInputStream(source, 2);
+
+		assertEquals('f', inputStream.read());
+		byte[] bytes = new byte[4];
+		assertEquals(2, inputStream.read(bytes, 0, 4));
+		assertEquals("oo", new String(bytes, 0, 2, StandardCharsets.UTF_8));
+		assertEquals("barbaz", StreamUtils.copyToString(inputStream, StandardCharsets.UTF_8));
+		assertEquals(-1, inputStream.read());
+		inputStream.close();
+	}
+
+	@Test
+	public void closeReleasesBuffers() throws IOException {
+		Flux<DataBuffer> source = Flux.just(stringBuffer("foo"), stringBuffer("bar"));
+		DataBufferInputStream inputStream = new DataBufferInputStream(source, 2);
+
+		assertEquals('f', inputStream.read());
+		inputStream.close();
+	}
+
+	@Test(expected = IOException.class)
+	public void error() throws IOException {
+		Flux<DataBuffer> source = Flux.just(stringBuffer("foo")).
+				concatWith(Flux.error(new IllegalStateException()));
+		DataBufferInputStream inputStream = new DataBufferInputStream(source, 2);
+		try {
+			StreamUtils.copyToString(inputStream, StandardCharsets.UTF_8);
+		}
+		finally {
+			inputStream.close();
+		}
+	}
+
+}
@@ -18,17 +18,23 @@ package org.springframework.core.io.buffer.support;
 
 import java.io.InputStream;
 import java.net.URI;
+import java.nio.channels.AsynchronousFileChannel;
 import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
 
 import org.junit.Test;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import reactor.core.test.TestSubscriber;
 
 import org.springframework.core.io.buffer.AbstractDataBufferAllocatingTestCase;
 import org.springframework.core.io.buffer.DataBuffer;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 
 /**
@@ -75,6 +81,110 @@ public class DataBufferUtilsTests extends AbstractDataBufferAllocatingTestCase {
 		assertFalse(channel.isOpen());
 	}
 
+	@Test
+	public void readMapped() throws Exception {
+		URI uri = DataBufferUtilsTests.class.getResource("DataBufferUtilsTests.txt")
+				.toURI();
+		FileChannel channel = FileChannel.open(Paths.get(uri), StandardOpenOption.READ);
+
+		Flux<DataBuffer> flux = DataBufferUtils.readMapped(channel, this.dataBufferFactory, 6);
+
+		TestSubscriber
+				.subscribe(flux)
+				.assertNoError()
+				.assertComplete()
+				.assertValuesWith(
+						stringConsumer("foo\nba"), stringConsumer("r\nbaz\n"),
+						stringConsumer("qux\n"));
+
+		assertFalse(channel.isOpen());
+	}
+
+	@Test
+	public void readMappedRegion() throws Exception {
+		URI uri = DataBufferUtilsTests.class.getResource("DataBufferUtilsTests.txt")
+				.toURI();
+		FileChannel channel = FileChannel.open(Paths.get(uri), StandardOpenOption.READ);
+
+		Flux<DataBuffer> flux =
+				DataBufferUtils.readMapped(channel, 4, 9, this.dataBufferFactory, 6);
+
+		TestSubscriber
+				.subscribe(flux)
+				.assertNoError()
+				.assertComplete()
+				.assertValuesWith(
+						stringConsumer("bar\nba"), stringConsumer("z\nq"));
+
+		assertFalse(channel.isOpen());
+	}
+
+	@Test
+	public void readAsynchronousFileChannel() throws Exception {
+		URI uri = DataBufferUtilsTests.class.getResource("DataBufferUtilsTests.txt")
+				.toURI();
+		AsynchronousFileChannel channel =
+				AsynchronousFileChannel.open(Paths.get(uri), StandardOpenOption.READ);
+
+		Flux<DataBuffer> flux = DataBufferUtils.read(channel, 4, this.dataBufferFactory, 3);
+
+		TestSubscriber
+				.subscribe(flux)
+				.await()
+				.assertNoError()
+				.assertComplete()
+				.assertValuesWith(
+						stringConsumer("bar"), stringConsumer("\nba"),
+						stringConsumer("z\nq"), stringConsumer("ux\n"));
+
+		assertFalse(channel.isOpen());
+	}
+
+	@Test
+	public void readAsynchronousFileChannelCancelled() throws Exception {
+		URI uri = DataBufferUtilsTests.class.getResource("DataBufferUtilsTests.txt")
+				.toURI();
+		AsynchronousFileChannel channel =
+				AsynchronousFileChannel.open(Paths.get(uri), StandardOpenOption.READ);
+
+		// takeUntilByteCount cancels from within onNext
+		Flux<DataBuffer> flux = DataBufferUtils.takeUntilByteCount(
+				DataBufferUtils.read(channel, 0, this.dataBufferFactory, 3), 5);
+
+		TestSubscriber
+				.subscribe(flux)
+				.await()
+				.assertNoError()
+				.assertComplete()
+				.assertValuesWith(stringConsumer("foo"), stringConsumer("\nb"));
+
+		// the channel is closed on the completion thread, after onNext returns
+		for (int i = 0; i < 100 && channel.isOpen(); i++) {
+			Thread.sleep(10);
+		}
+		assertFalse(channel.isOpen());
+	}
+
+	@Test
+	public void writeAsynchronousFileChannel() throws Exception {
+		Path file = Files.createTempFile("DataBufferUtilsTests", ".tmp");
+		try {
+			AsynchronousFileChannel channel =
+					AsynchronousFileChannel.open(file, StandardOpenOption.WRITE);
+			Flux<DataBuffer> flux = Flux.just(stringBuffer("foo"), stringBuffer("bar"),
+					stringBuffer("baz"));
+
+			DataBufferUtils.write(flux, channel, 3).block();
+			channel.close();
+
+			assertEquals("\0\0\0foobarbaz",
+					new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+		}
+		finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
 	@Test
 	public void readInputStream() {
 		InputStream is = DataBufferUtilsTests.class
@@ -109,4 +219,31 @@ public class DataBufferUtilsTests extends AbstractDataBufferAllocatingTestCase {
 		release(baz);
 	}
 
+	@Test
+	public void join() {
+		DataBuffer foo = stringBuffer("foo");
+		DataBuffer bar = stringBuffer("bar");
+		DataBuffer baz = stringBuffer("baz");
+		Flux<DataBuffer> flux = Flux.just(foo, bar, baz);
+
+		Mono<DataBuffer> result = DataBufferUtils.join(flux);
+
+		TestSubscriber
+				.subscribe(result)
+				.assertNoError()
+				.assertComplete()
+				.assertValuesWith(stringConsumer("foobarbaz"));
+	}
+
+	@Test
+	public void joinEmpty() {
+		Mono<DataBuffer> result = DataBufferUtils.join(Flux.empty());
+
+		TestSubscriber
+				.subscribe(result)
+				.assertNoError()
+				.assertComplete()
+				.assertNoValues();
+	}
+
 }
\ No newline at end of file
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2002-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.http.codec;
+
+import java.util.Collections;
+
+import org.junit.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.test.TestSubscriber;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.AbstractDataBufferAllocatingTestCase;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.JacksonJsonDecoder;
+import org.springframework.util.MimeType;
+import org.springframework.web.reactive.sse.SseEvent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SseEventDecoderTests extends AbstractDataBufferAllocatingTestCase {
+
+	private static final MimeType EVENT_STREAM = new MimeType("text", "event-stream");
+
+	private final SseEventDecoder decoder =
+			new SseEventDecoder(Collections.singletonList(new JacksonJsonDecoder()));
+
+
+	@Test
+	public void canDecode() {
+		assertTrue(this.decoder.canDecode(ResolvableType.forClass(SseEvent.class), EVENT_STREAM));
+		assertTrue(this.decoder.canDecode(ResolvableType.forClass(String.class), EVENT_STREAM));
+		assertTrue(this.decoder.canDecode(ResolvableType.forClass(Pojo.class), EVENT_STREAM));
+		assertFalse(this.decoder.canDecode(ResolvableType.forClass(String.class), null));
+		assertFalse(this.decoder.canDecode(ResolvableType.forClass(String.class),
+				MediaType.TEXT_PLAIN));
+	}
+
+	@Test
+	public void decodeServerSentEvents() {
+		Flux<DataBuffer> source = Flux.just(
+				stringBuffer("id:c42\nevent:foo\nretry:123\n:bla\n:bla bla\ndata: bar\n"),
+				stringBuffer("data:baz\n\ndata:"), stringBuffer("qux\r\n\r\n"),
+				stringBuffer("id:c43\n\ndata:incomplete"));
+		Flux<Object> output = this.decoder.decode(source,
+				ResolvableType.forClass(SseEvent.class), EVENT_STREAM);
+
+		TestSubscriber
+				.subscribe(output)
+				.assertNoError()
+				.assertComplete()
+				.assertValuesWith(
+						value -> {
+							SseEvent event = (SseEvent) value;
+							assertEquals("c42", event.getId());
+							assertEquals("foo", event.getName());
+							assertEquals(Long.valueOf(123), event.getReconnectTime());
+							assertEquals("bla bla", event.getComment());
+							assertEquals("bar\nbaz", event.getData());
+						},
+						value -> {
+							SseEvent event = (SseEvent) value;
+							assertEquals("c42", event.getId());
+							assertNull(event.getName());
+							assertNull(event.getReconnectTime());
+							assertEquals("qux", event.getData());
+						});
+	}
+
+	@Test
+	public void decodeString() {
+		Flux<DataBuffer> source = Flux.just(stringBuffer("data:foo\ndata:bar\n\nda"),
+				stringBuffer("ta:baz\n\n"));
+		Flux<Object> output = this.decoder.decode(source,
+				ResolvableType.forClass(String.class), EVENT_STREAM);
+
+		TestSubscriber
+				.subscribe(output)
+				.assertNoError()
+				.assertComplete()
+				.assertValues("foo\nbar", "baz");
+	}
+
+	@Test
+	public void decodePojo() {
+		Flux<DataBuffer> source = Flux.just(
+				stringBuffer("data:{\"foo\": \"foofoo\",\n"),
+				stringBuffer("data:\"bar\": \"barbar\"}\n\n"),
+				stringBuffer("data:{\"foo\": \"f2\", \"bar\": \"b2\"}\n\n"));
+		Flux<Object> output = this.decoder.decode(source,
+				ResolvableType.forClass(Pojo.class), EVENT_STREAM);
+
+		TestSubscriber
+				.subscribe(output)
+				.assertNoError()
+				.assertComplete()
+				.assertValues(new Pojo("foofoo", "barbar"), new Pojo("f2", "b2"));
+	}
+
+	@Test
+	public void decodePojoSplitLines() {
+		Flux<DataBuffer> source = Flux.just(
+				stringBuffer("data:{\"foo\": \"fo"),
+				stringBuffer("ofoo\",\r\ndata: \"bar\": "),
+				stringBuffer("\"barbar\"}\r\n\r\n"));
+		Flux<Object> output = this.decoder.decode(source,
+				ResolvableType.forClass(Pojo.class), EVENT_STREAM);
+
+		TestSubscriber
+				.subscribe(output)
+				.assertNoError()
+				.assertComplete()
+				.assertValues(new Pojo("foofoo", "barbar"));
+	}
+
+	@Test
+	public void decodeEventTooLarge() {
+		this.decoder.setMaxEventSize(10);
+		Flux<DataBuffer> source = Flux.just(stringBuffer("data:foo\n\ndata:foo\ndata:bar\ndata:baz\n\n"));
+		Flux<Object> output = this.decoder.decode(source,
+				ResolvableType.forClass(String.class), EVENT_STREAM);
+
+		TestSubscriber
+				.subscribe(output)
+				.assertValues("foo")
+				.assertError(IllegalStateException.class);
+	}
+
+}
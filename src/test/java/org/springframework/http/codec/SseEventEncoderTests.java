@@ -19,9 +19,13 @@ package org.springframework.http.codec;
 import java.util.Arrays;
 
 import static org.junit.Assert.*;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import org.junit.Test;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.core.scheduler.TimedScheduler;
 import reactor.core.test.TestSubscriber;
 
 import org.springframework.core.ResolvableType;
@@ -74,8 +78,7 @@ public class SseEventEncoderTests extends AbstractDataBufferAllocatingTestCase {
 								"id:c42\n" +
 								"event:foo\n" +
 								"retry:123\n" +
-								":bla\n:bla bla\n:bla bla bla\n"),
-						stringConsumer("\n"),
+								":bla\n:bla bla\n:bla bla bla\n\n"),
 						b -> assertEquals(FlushingDataBuffer.class, b.getClass())
 				);
 	}
@@ -90,11 +93,9 @@ public class SseEventEncoderTests extends AbstractDataBufferAllocatingTestCase {
 				.subscribe(output)
 				.assertNoError()
 				.assertValuesWith(
-						stringConsumer("data:foo\n"),
-						stringConsumer("\n"),
+						stringConsumer("data:foo\n\n"),
 						b -> assertEquals(FlushingDataBuffer.class, b.getClass()),
-						stringConsumer("data:bar\n"),
-						stringConsumer("\n"),
+						stringConsumer("data:bar\n\n"),
 						b -> assertEquals(FlushingDataBuffer.class, b.getClass())
 				);
 	}
@@ -109,11 +110,9 @@ public class SseEventEncoderTests extends AbstractDataBufferAllocatingTestCase {
 				.subscribe(output)
 				.assertNoError()
 				.assertValuesWith(
-						stringConsumer("data:foo\ndata:bar\n"),
-						stringConsumer("\n"),
+						stringConsumer("data:foo\ndata:bar\n\n"),
 						b -> assertEquals(FlushingDataBuffer.class, b.getClass()),
-						stringConsumer("data:foo\ndata:baz\n"),
-						stringConsumer("\n"),
+						stringConsumer("data:foo\ndata:baz\n\n"),
 						b -> assertEquals(FlushingDataBuffer.class, b.getClass())
 				);
 	}
@@ -128,17 +127,112 @@ public class SseEventEncoderTests extends AbstractDataBufferAllocatingTestCase {
 				.subscribe(output)
 				.assertNoError()
 				.assertValuesWith(
-						stringConsumer("data:"),
-						stringConsumer("{\"foo\":\"foofoo\",\"bar\":\"barbar\"}"),
-						stringConsumer("\n"),
-						stringConsumer("\n"),
+						stringConsumer("data:{\"foo\":\"foofoo\",\"bar\":\"barbar\"}\n\n"),
 						b -> assertEquals(FlushingDataBuffer.class, b.getClass()),
-						stringConsumer("data:"),
-						stringConsumer("{\"foo\":\"foofoofoo\",\"bar\":\"barbarbar\"}"),
-						stringConsumer("\n"),
-						stringConsumer("\n"),
+						stringConsumer("data:{\"foo\":\"foofoofoo\",\"bar\":\"barbarbar\"}\n\n"),
 						b -> assertEquals(FlushingDataBuffer.class, b.getClass())
 				);
 	}
 
+	@Test
+	public void encodeMultilinePojo() {
+		JacksonJsonEncoder jsonEncoder = new JacksonJsonEncoder(
+				new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT));
+		SseEventEncoder encoder = new SseEventEncoder(Arrays.asList(jsonEncoder));
+		Flux<Pojo> source = Flux.just(new Pojo("foo", "bar"));
+		Flux<DataBuffer> output = encoder.encode(source, this.dataBufferFactory,
+				ResolvableType.forClass(Pojo.class), new MimeType("text", "event-stream"));
+		TestSubscriber
+				.subscribe(output)
+				.assertNoError()
+				.assertValuesWith(
+						stringConsumer("data:{\ndata:  \"foo\" : \"foo\",\n" +
+								"data:  \"bar\" : \"bar\"\ndata:}\n\n"),
+						b -> assertEquals(FlushingDataBuffer.class, b.getClass())
+				);
+	}
+
+	@Test
+	public void flushInterval() {
+		SseEventEncoder encoder = new SseEventEncoder(Arrays.asList(new JacksonJsonEncoder()));
+		encoder.setFlushInterval(2);
+		Flux<String> source = Flux.just("foo", "bar", "baz");
+		Flux<DataBuffer> output = encoder.encode(source, this.dataBufferFactory,
+				ResolvableType.forClass(String.class), new MimeType("text", "event-stream"));
+		TestSubscriber
+				.subscribe(output)
+				.assertNoError()
+				.assertValuesWith(
+						stringConsumer("data:foo\n\n"),
+						stringConsumer("data:bar\n\n"),
+						b -> assertEquals(FlushingDataBuffer.class, b.getClass()),
+						stringConsumer("data:baz\n\n"),
+						b -> assertEquals(FlushingDataBuffer.class, b.getClass())
+				);
+	}
+
+	@Test
+	public void flushThreshold() {
+		SseEventEncoder encoder = new SseEventEncoder(Arrays.asList(new JacksonJsonEncoder()));
+		encoder.setFlushInterval(0);
+		encoder.setFlushThreshold(15);
+		Flux<String> source = Flux.just("foo", "bar", "baz");
+		Flux<DataBuffer> output = encoder.encode(source, this.dataBufferFactory,
+				ResolvableType.forClass(String.class), new MimeType("text", "event-stream"));
+		TestSubscriber
+				.subscribe(output)
+				.assertNoError()
+				.assertValuesWith(
+						stringConsumer("data:foo\n\n"),
+						stringConsumer("data:bar\n\n"),
+						b -> assertEquals(FlushingDataBuffer.class, b.getClass()),
+						stringConsumer("data:baz\n\n"),
+						b -> assertEquals(FlushingDataBuffer.class, b.getClass())
+				);
+	}
+
+	@Test
+	public void flushPeriod() {
+		SseEventEncoder encoder = new SseEventEncoder(Arrays.asList(new JacksonJsonEncoder()));
+		encoder.setFlushInterval(0);
+		encoder.setFlushPeriod(50);
+		Flux<String> source = Flux.concat(Flux.just("foo", "bar"), Flux.never());
+		Flux<DataBuffer> output = encoder.encode(source, this.dataBufferFactory,
+				ResolvableType.forClass(String.class), new MimeType("text", "event-stream"));
+		TestSubscriber
+				.subscribe(output)
+				.awaitAndAssertNextValuesWith(
+						stringConsumer("data:foo\n\n"),
+						stringConsumer("data:bar\n\n"),
+						b -> assertEquals(FlushingDataBuffer.class, b.getClass())
+				);
+	}
+
+	@Test
+	public void flushPeriodSlowSubscriber() throws Exception {
+		SseEventEncoder encoder = new SseEventEncoder(Arrays.asList(new JacksonJsonEncoder()));
+		encoder.setFlushInterval(0);
+		encoder.setFlushPeriod(1);
+		TimedScheduler timer = Schedulers.newTimer("sse-test", 1);
+		encoder.setTimer(timer);
+		try {
+			Flux<String> source = Flux.concat(Flux.just("foo"), Flux.never());
+			Flux<DataBuffer> output = encoder.encode(source, this.dataBufferFactory,
+					ResolvableType.forClass(String.class), new MimeType("text", "event-stream"));
+			TestSubscriber<DataBuffer> subscriber = TestSubscriber.subscribe(output, 1);
+			subscriber.awaitAndAssertNextValuesWith(stringConsumer("data:foo\n\n"));
+
+			// many more flush periods elapse without demand than can be queued
+			Thread.sleep(500);
+			subscriber.request(1);
+			subscriber
+					.awaitAndAssertNextValuesWith(
+							b -> assertEquals(FlushingDataBuffer.class, b.getClass()))
+					.assertNoError();
+		}
+		finally {
+			timer.shutdown();
+		}
+	}
+
 }
@@ -26,6 +26,7 @@ import reactor.core.publisher.Mono;
 import reactor.core.test.TestSubscriber;
 
 import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.CodecException;
 import org.springframework.core.io.buffer.AbstractDataBufferAllocatingTestCase;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.MediaType;
@@ -84,6 +85,29 @@ public class JacksonJsonDecoderTests extends AbstractDataBufferAllocatingTestCas
 				assertValues(new Pojo("f1", "b1"), new Pojo("f2", "b2"));
 	}
 
+	@Test
+	public void decodeMultipleChunksToList() throws Exception {
+		Flux<DataBuffer> source = Flux.just(stringBuffer("[{\"bar\":\"b1\",\"fo"),
+				stringBuffer("o\":\"f1\"},{\"bar\":\"b2\",\"foo\":\"f2\"}]"));
+
+		Method method = getClass().getDeclaredMethod("handle", List.class);
+		ResolvableType elementType = ResolvableType.forMethodParameter(method, 0);
+		Mono<Object> mono = new JacksonJsonDecoder().decodeOne(source, elementType, null);
+
+		TestSubscriber.subscribe(mono).assertNoError().assertComplete().
+				assertValues(Arrays.asList(new Pojo("f1", "b1"), new Pojo("f2", "b2")));
+	}
+
+	@Test
+	public void decodeInvalidJson() throws Exception {
+		Flux<DataBuffer> source = Flux.just(stringBuffer("[{\"bar\":\"b1\",\"foo\"}]"));
+
+		ResolvableType elementType = ResolvableType.forClass(Pojo.class);
+		Flux<Object> flux = new JacksonJsonDecoder().decode(source, elementType, null);
+
+		TestSubscriber.subscribe(flux).assertError(CodecException.class);
+	}
+
 	@SuppressWarnings("unused")
 	void handle(List<Pojo> list) {
 	}
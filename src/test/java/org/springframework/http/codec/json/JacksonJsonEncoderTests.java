@@ -29,6 +29,7 @@ import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.MediaType;
 import org.springframework.http.codec.Pojo;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -67,16 +68,66 @@ public class JacksonJsonEncoderTests extends AbstractDataBufferAllocatingTestCas
 				.assertComplete()
 				.assertNoError()
 				.assertValuesWith(
-						stringConsumer("["),
-						stringConsumer("{\"foo\":\"foo\",\"bar\":\"bar\"}"),
-						stringConsumer(","),
-						stringConsumer("{\"foo\":\"foofoo\",\"bar\":\"barbar\"}"),
-						stringConsumer(","),
-						stringConsumer("{\"foo\":\"foofoofoo\",\"bar\":\"barbarbar\"}"),
-						stringConsumer("]")
+						stringConsumer("[{\"foo\":\"foo\",\"bar\":\"bar\"}," +
+								"{\"foo\":\"foofoo\",\"bar\":\"barbar\"}," +
+								"{\"foo\":\"foofoofoo\",\"bar\":\"barbarbar\"}]")
 				);
 	}
 
+	@Test
+	public void encodeWithoutBatching() {
+		Flux<Pojo> source = Flux.just(
+				new Pojo("foo", "bar"),
+				new Pojo("foofoo", "barbar")
+		);
+		this.encoder.setBatchSize(1);
+
+		ResolvableType type = ResolvableType.forClass(Pojo.class);
+		Flux<DataBuffer> output =
+				this.encoder.encode(source, this.dataBufferFactory, type, null);
+
+		TestSubscriber
+				.subscribe(output)
+				.assertComplete()
+				.assertNoError()
+				.assertValuesWith(
+						stringConsumer("[{\"foo\":\"foo\",\"bar\":\"bar\"}"),
+						stringConsumer(",{\"foo\":\"foofoo\",\"bar\":\"barbar\"}]")
+				);
+	}
+
+	@Test
+	public void encodeEmptyArray() {
+		ResolvableType type = ResolvableType.forClass(Pojo.class);
+		Flux<DataBuffer> output =
+				this.encoder.encode(Flux.empty(), this.dataBufferFactory, type, null);
+
+		TestSubscriber
+				.subscribe(output)
+				.assertComplete()
+				.assertNoError()
+				.assertValuesWith(stringConsumer("[]"));
+	}
+
+	@Test
+	public void encodeWithBackpressure() {
+		Flux<Pojo> source = Flux.just(
+				new Pojo("foo", "bar"),
+				new Pojo("foofoo", "barbar")
+		);
+		this.encoder.setBatchSize(1);
+
+		ResolvableType type = ResolvableType.forClass(Pojo.class);
+		Flux<DataBuffer> output =
+				this.encoder.encode(source, this.dataBufferFactory, type, null);
+
+		TestSubscriber<DataBuffer> subscriber = TestSubscriber.subscribe(output, 1);
+		subscriber.assertValuesWith(stringConsumer("[{\"foo\":\"foo\",\"bar\":\"bar\"}"))
+				.assertNotTerminated();
+		subscriber.request(1);
+		subscriber.assertValueCount(2).assertComplete();
+	}
+
 	@Test
 	public void encodeWithType() {
 		Flux<ParentClass> source = Flux.just(new Foo(), new Bar());
@@ -89,11 +140,19 @@ public class JacksonJsonEncoderTests extends AbstractDataBufferAllocatingTestCas
 				.subscribe(output)
 				.assertComplete()
 				.assertNoError()
-				.assertValuesWith(stringConsumer("["),
-						stringConsumer("{\"type\":\"foo\"}"),
-						stringConsumer(","),
-						stringConsumer("{\"type\":\"bar\"}"),
-						stringConsumer("]"));
+				.assertValuesWith(stringConsumer("[{\"type\":\"foo\"},{\"type\":\"bar\"}]"));
+	}
+
+	@Test
+	public void writerCache() {
+		ResolvableType type = ResolvableType.forClass(Pojo.class);
+		for (int i = 0; i < 2; i++) {
+			Flux<DataBuffer> output = this.encoder.encode(Flux.just(new Pojo("foo", "bar")),
+					this.dataBufferFactory, type, null);
+			TestSubscriber.subscribe(output).assertComplete();
+		}
+		assertEquals(1, this.encoder.getWriterCacheMissCount());
+		assertEquals(1, this.encoder.getWriterCacheHitCount());
 	}
 
 	@JsonTypeInfo(use = JsonTypeInfo.Id.NAME, include = JsonTypeInfo.As.PROPERTY, property = "type")
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2002-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.codec.json;
+
+import org.junit.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.test.TestSubscriber;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.AbstractDataBufferAllocatingTestCase;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.Pojo;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class JacksonNdjsonDecoderTests extends AbstractDataBufferAllocatingTestCase {
+
+	private final JacksonNdjsonDecoder decoder = new JacksonNdjsonDecoder();
+
+
+	@Test
+	public void canDecode() {
+		assertTrue(this.decoder.canDecode(null, MediaType.parseMediaType("application/x-ndjson")));
+		assertTrue(this.decoder.canDecode(null, MediaType.parseMediaType("application/stream+json")));
+		assertFalse(this.decoder.canDecode(null, MediaType.APPLICATION_JSON));
+	}
+
+	@Test
+	public void decode() {
+		Flux<DataBuffer> source = Flux.just(
+				stringBuffer("{\"bar\":\"b1\",\"foo\":\"f1\"}\n{\"bar\":\"b2\",\"foo\":\"f2\"}\n"));
+		ResolvableType elementType = ResolvableType.forClass(Pojo.class);
+		Flux<Object> flux = this.decoder.decode(source, elementType, null);
+
+		TestSubscriber.subscribe(flux).assertNoError().assertComplete().
+				assertValues(new Pojo("f1", "b1"), new Pojo("f2", "b2"));
+	}
+
+	@Test
+	public void decodeLinesAcrossChunks() {
+		Flux<DataBuffer> source = Flux.just(stringBuffer("{\"bar\":\"b1\","),
+				stringBuffer("\"foo\":\"f1\"}\r"), stringBuffer("\n\n  \n{\"bar\":"),
+				stringBuffer("\"b2\",\"foo\":\"f2\"}"));
+		ResolvableType elementType = ResolvableType.forClass(Pojo.class);
+		Flux<Object> flux = this.decoder.decode(source, elementType, null);
+
+		TestSubscriber.subscribe(flux).assertNoError().assertComplete().
+				assertValues(new Pojo("f1", "b1"), new Pojo("f2", "b2"));
+	}
+
+	@Test
+	public void decodeOne() {
+		Flux<DataBuffer> source = Flux.just(stringBuffer("{\"bar\":\"b1\",\"foo\":\"f1\"}\n"));
+		ResolvableType elementType = ResolvableType.forClass(Pojo.class);
+		Mono<Object> mono = this.decoder.decodeOne(source, elementType, null);
+
+		TestSubscriber.subscribe(mono).assertNoError().assertComplete().
+				assertValues(new Pojo("f1", "b1"));
+	}
+
+	@Test
+	public void decodeExceedingMaxLineLength() {
+		Flux<DataBuffer> source = Flux.just(stringBuffer("{\"bar\":\"b1\",\"foo\":\"f1\"}\n{\"bar\":"),
+				stringBuffer("\"b2\",\"foo\":\"foofoo\"}\n"));
+		this.decoder.setMaxLineLength(24);
+		ResolvableType elementType = ResolvableType.forClass(Pojo.class);
+		Flux<Object> flux = this.decoder.decode(source, elementType, null);
+
+		TestSubscriber.subscribe(flux).assertValues(new Pojo("f1", "b1")).
+				assertError(IllegalStateException.class);
+	}
+
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2002-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.codec.json;
+
+import org.junit.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.test.TestSubscriber;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.AbstractDataBufferAllocatingTestCase;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.FlushingDataBuffer;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.Pojo;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class JacksonNdjsonEncoderTests extends AbstractDataBufferAllocatingTestCase {
+
+	private final JacksonNdjsonEncoder encoder = new JacksonNdjsonEncoder();
+
+
+	@Test
+	public void canEncode() {
+		assertTrue(this.encoder.canEncode(null, MediaType.parseMediaType("application/x-ndjson")));
+		assertTrue(this.encoder.canEncode(null, MediaType.parseMediaType("application/stream+json")));
+		assertFalse(this.encoder.canEncode(null, MediaType.APPLICATION_JSON));
+	}
+
+	@Test
+	public void encode() {
+		Flux<Pojo> source = Flux.just(new Pojo("foo", "bar"), new Pojo("foofoo", "barbar"));
+		ResolvableType type = ResolvableType.forClass(Pojo.class);
+		Flux<DataBuffer> output =
+				this.encoder.encode(source, this.dataBufferFactory, type, null);
+
+		TestSubscriber
+				.subscribe(output)
+				.assertComplete()
+				.assertNoError()
+				.assertValuesWith(
+						stringConsumer("{\"foo\":\"foo\",\"bar\":\"bar\"}\n"),
+						dataBuffer -> assertTrue(dataBuffer instanceof FlushingDataBuffer),
+						stringConsumer("{\"foo\":\"foofoo\",\"bar\":\"barbar\"}\n"),
+						dataBuffer -> assertTrue(dataBuffer instanceof FlushingDataBuffer)
+				);
+	}
+
+	@Test
+	public void encodeWithFlushInterval() {
+		Flux<Pojo> source = Flux.just(new Pojo("foo", "bar"), new Pojo("foofoo", "barbar"),
+				new Pojo("foofoofoo", "barbarbar"));
+		this.encoder.setFlushInterval(2);
+		ResolvableType type = ResolvableType.forClass(Pojo.class);
+		Flux<DataBuffer> output =
+				this.encoder.encode(source, this.dataBufferFactory, type, null);
+
+		TestSubscriber
+				.subscribe(output)
+				.assertComplete()
+				.assertNoError()
+				.assertValuesWith(
+						stringConsumer("{\"foo\":\"foo\",\"bar\":\"bar\"}\n"),
+						stringConsumer("{\"foo\":\"foofoo\",\"bar\":\"barbar\"}\n"),
+						dataBuffer -> assertTrue(dataBuffer instanceof FlushingDataBuffer),
+						stringConsumer("{\"foo\":\"foofoofoo\",\"bar\":\"barbarbar\"}\n")
+				);
+	}
+
+	@Test
+	public void encodeMono() {
+		ResolvableType type = ResolvableType.forClass(Pojo.class);
+		Flux<DataBuffer> output = this.encoder.encode(Mono.just(new Pojo("foo", "bar")),
+				this.dataBufferFactory, type, null);
+
+		TestSubscriber
+				.subscribe(output)
+				.assertComplete()
+				.assertNoError()
+				.assertValuesWith(stringConsumer("{\"foo\":\"foo\",\"bar\":\"bar\"}\n"));
+	}
+
+}
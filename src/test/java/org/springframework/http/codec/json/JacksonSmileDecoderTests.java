@@ -0,0 +1,105 @@
+/*
+ * Copyright 2002-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.codec.json;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.test.TestSubscriber;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.AbstractDataBufferAllocatingTestCase;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.Pojo;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class JacksonSmileDecoderTests extends AbstractDataBufferAllocatingTestCase {
+
+	private final JacksonSmileDecoder decoder = new JacksonSmileDecoder();
+
+	private final ObjectMapper mapper = new ObjectMapper(new SmileFactory());
+
+
+	@Test
+	public void canDecode() {
+		assertTrue(this.decoder.canDecode(null,
+				MediaType.parseMediaType("application/x-jackson-smile")));
+		assertFalse(this.decoder.canDecode(null, MediaType.APPLICATION_JSON));
+	}
+
+	@Test
+	public void decodeOne() throws Exception {
+		Flux<DataBuffer> source = chunks(this.mapper.writeValueAsBytes(new Pojo("foo", "bar")));
+		ResolvableType elementType = ResolvableType.forClass(Pojo.class);
+		Mono<Object> mono = this.decoder.decodeOne(source, elementType, null);
+
+		TestSubscriber.subscribe(mono).assertNoError().assertComplete().
+				assertValues(new Pojo("foo", "bar"));
+	}
+
+	@Test
+	public void decodeArray() throws Exception {
+		List<Pojo> pojos = Arrays.asList(new Pojo("foo", "bar"), new Pojo("foofoo", "barbar"));
+		Flux<DataBuffer> source = chunks(this.mapper.writeValueAsBytes(pojos));
+		ResolvableType elementType = ResolvableType.forClass(Pojo.class);
+		Flux<Object> flux = this.decoder.decode(source, elementType, null);
+
+		TestSubscriber.subscribe(flux).await().assertNoError().assertComplete().
+				assertValues(new Pojo("foo", "bar"), new Pojo("foofoo", "barbar"));
+	}
+
+	@Test
+	public void decodeEncodedStream() throws Exception {
+		Flux<Pojo> pojos = Flux.just(new Pojo("foo", "bar"), new Pojo("foofoo", "barbar"));
+		ResolvableType elementType = ResolvableType.forClass(Pojo.class);
+		Flux<DataBuffer> source = new JacksonSmileEncoder().encode(pojos,
+				this.dataBufferFactory, elementType, null);
+		Flux<Object> flux = this.decoder.decode(source, elementType, null);
+
+		TestSubscriber.subscribe(flux).await().assertNoError().assertComplete().
+				assertValues(new Pojo("foo", "bar"), new Pojo("foofoo", "barbar"));
+	}
+
+	@Test
+	public void decodeStreamBeforeComplete() throws Exception {
+		Flux<Pojo> pojos = Flux.just(new Pojo("foo", "bar"));
+		ResolvableType elementType = ResolvableType.forClass(Pojo.class);
+		Flux<DataBuffer> source = new JacksonSmileEncoder().encode(pojos,
+				this.dataBufferFactory, elementType, null).concatWith(Flux.never());
+		Flux<Object> flux = this.decoder.decode(source, elementType, null).take(1);
+
+		TestSubscriber.subscribe(flux).await().assertNoError().assertComplete().
+				assertValues(new Pojo("foo", "bar"));
+	}
+
+	private Flux<DataBuffer> chunks(byte[] bytes) {
+		int half = bytes.length / 2;
+		return Flux.just(
+				this.dataBufferFactory.allocateBuffer(half).write(bytes, 0, half),
+				this.dataBufferFactory.allocateBuffer(bytes.length - half)
+						.write(bytes, half, bytes.length - half));
+	}
+
+}
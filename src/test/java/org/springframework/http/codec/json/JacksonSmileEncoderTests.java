@@ -0,0 +1,100 @@
+/*
+ * Copyright 2002-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.codec.json;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.test.TestSubscriber;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.AbstractDataBufferAllocatingTestCase;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.support.DataBufferUtils;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.Pojo;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class JacksonSmileEncoderTests extends AbstractDataBufferAllocatingTestCase {
+
+	private final JacksonSmileEncoder encoder = new JacksonSmileEncoder();
+
+	private final ObjectMapper mapper = new ObjectMapper(new SmileFactory());
+
+
+	@Test
+	public void canEncode() {
+		assertTrue(this.encoder.canEncode(null,
+				MediaType.parseMediaType("application/x-jackson-smile")));
+		assertFalse(this.encoder.canEncode(null, MediaType.APPLICATION_JSON));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void nonSmileMapper() {
+		new JacksonSmileEncoder(new ObjectMapper());
+	}
+
+	@Test
+	public void encode() throws Exception {
+		ResolvableType type = ResolvableType.forClass(Pojo.class);
+		Flux<DataBuffer> output = this.encoder.encode(Mono.just(new Pojo("foo", "bar")),
+				this.dataBufferFactory, type, null);
+
+		TestSubscriber.subscribe(output).assertComplete().assertNoError().
+				assertValuesWith(dataBuffer -> {
+					assertEquals(new Pojo("foo", "bar"), readValue(dataBuffer, Pojo.class));
+				});
+	}
+
+	@Test
+	public void encodeStream() throws Exception {
+		Flux<Pojo> source = Flux.just(new Pojo("foo", "bar"), new Pojo("foofoo", "barbar"));
+		ResolvableType type = ResolvableType.forClass(Pojo.class);
+		Flux<DataBuffer> output =
+				this.encoder.encode(source, this.dataBufferFactory, type, null);
+
+		// one buffer per element, and one for the end of the array
+		List<DataBuffer> buffers = output.collectList().block();
+		assertEquals(3, buffers.size());
+
+		DataBuffer joined = DataBufferUtils.join(Flux.fromIterable(buffers)).block();
+		Pojo[] result = readValue(joined, Pojo[].class);
+		assertEquals(Arrays.asList(new Pojo("foo", "bar"), new Pojo("foofoo", "barbar")),
+				Arrays.asList(result));
+	}
+
+	private <T> T readValue(DataBuffer dataBuffer, Class<T> type) {
+		try {
+			return this.mapper.readValue(dataBuffer.asInputStream(), type);
+		}
+		catch (Exception ex) {
+			throw new AssertionError(ex);
+		}
+		finally {
+			DataBufferUtils.release(dataBuffer);
+		}
+	}
+
+}
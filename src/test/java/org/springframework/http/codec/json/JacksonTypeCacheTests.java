@@ -0,0 +1,59 @@
+/*
+ * Copyright 2002-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.codec.json;
+
+import org.junit.Test;
+
+import org.springframework.core.ResolvableType;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class JacksonTypeCacheTests {
+
+	@Test
+	public void hitsAndMisses() {
+		JacksonTypeCache<Object> cache = new JacksonTypeCache<>();
+		ResolvableType stringType = ResolvableType.forClass(String.class);
+
+		Object result = cache.get(stringType, new Object[0], type -> new Object());
+		assertSame(result, cache.get(stringType, null, type -> new Object()));
+		assertNotSame(result, cache.get(stringType, new Object[]{"hint"}, type -> new Object()));
+		cache.get(ResolvableType.forClass(Integer.class), null, type -> new Object());
+
+		assertEquals(1, cache.getHitCount());
+		assertEquals(3, cache.getMissCount());
+		assertEquals(3, cache.size());
+	}
+
+	@Test
+	public void cacheLimit() {
+		JacksonTypeCache<Object> cache = new JacksonTypeCache<>(1);
+		ResolvableType stringType = ResolvableType.forClass(String.class);
+		ResolvableType integerType = ResolvableType.forClass(Integer.class);
+
+		cache.get(stringType, null, type -> new Object());
+		Object result = cache.get(integerType, null, type -> new Object());
+		assertNotSame(result, cache.get(integerType, null, type -> new Object()));
+
+		assertEquals(1, cache.size());
+		assertEquals(0, cache.getHitCount());
+		assertEquals(3, cache.getMissCount());
+	}
+
+}
@@ -24,6 +24,7 @@ import reactor.core.test.TestSubscriber;
 
 import org.springframework.core.io.buffer.AbstractDataBufferAllocatingTestCase;
 import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.support.DataBufferUtils;
 
 /**
  * @author Sebastien Deleuze
@@ -82,9 +83,71 @@ public class JsonObjectDecoderTests extends AbstractDataBufferAllocatingTestCase
 							  "{\"foo\": \"foofoofoo\", \"bar\": \"barbarbar\"}");
 	}
 
+	@Test
+	public void decodeEscapedQuoteAcrossChunks() throws InterruptedException {
+		JsonObjectDecoder decoder = new JsonObjectDecoder();
+		Flux<DataBuffer> source = Flux.just(stringBuffer("{\"foo\": \"a\\"),
+				stringBuffer("\"}\"}"), stringBuffer("{\"bar\": \"b\\\\\"}"));
+		Flux<String> output =
+				decoder.decode(source, null, null).map(JsonObjectDecoderTests::toString);
+		TestSubscriber
+				.subscribe(output)
+				.assertValues("{\"foo\": \"a\\\"}\"}", "{\"bar\": \"b\\\\\"}");
+	}
+
+	@Test
+	public void decodeByteByByteToArray() throws InterruptedException {
+		JsonObjectDecoder decoder = new JsonObjectDecoder();
+		String json = " [ {\"foo\": [1, 2]} , \"bar\" ,{\"baz\": \"]\"} ] ";
+		Flux<DataBuffer> source = Flux.fromArray(json.split("")).map(this::stringBuffer);
+		Flux<String> output =
+				decoder.decode(source, null, null).map(JsonObjectDecoderTests::toString);
+		TestSubscriber
+				.subscribe(output)
+				.assertValues("{\"foo\": [1, 2]}", "\"bar\"", "{\"baz\": \"]\"}");
+	}
+
+	@Test
+	public void decodeObjectsWithinSingleChunk() throws InterruptedException {
+		JsonObjectDecoder decoder = new JsonObjectDecoder();
+		Flux<DataBuffer> source = Flux.just(stringBuffer("{\"foo\": 1} {\"bar\""),
+				stringBuffer(": 2}\n{\"baz\": 3}"));
+		Flux<String> output =
+				decoder.decode(source, null, null).map(JsonObjectDecoderTests::toString);
+		TestSubscriber
+				.subscribe(output)
+				.assertValues("{\"foo\": 1}", "{\"bar\": 2}", "{\"baz\": 3}");
+	}
+
+	@Test
+	public void decodeExceedingMaxObjectLength() throws InterruptedException {
+		JsonObjectDecoder decoder = new JsonObjectDecoder(16);
+		Flux<DataBuffer> source = Flux.just(stringBuffer("[{\"foo\": 1}, {\"foo\":"),
+				stringBuffer(" \"foofoofoo\"}]"));
+		Flux<String> output =
+				decoder.decode(source, null, null).map(JsonObjectDecoderTests::toString);
+		TestSubscriber
+				.subscribe(output)
+				.assertValues("{\"foo\": 1}")
+				.assertError(IllegalStateException.class);
+	}
+
+	@Test
+	public void decodeInvalidJson() throws InterruptedException {
+		JsonObjectDecoder decoder = new JsonObjectDecoder();
+		Flux<DataBuffer> source = Flux.just(stringBuffer("{\"foo\": 1} foo"));
+		Flux<String> output =
+				decoder.decode(source, null, null).map(JsonObjectDecoderTests::toString);
+		TestSubscriber
+				.subscribe(output)
+				.assertValues("{\"foo\": 1}")
+				.assertError(IllegalStateException.class);
+	}
+
 	private static String toString(DataBuffer buffer) {
 		byte[] b = new byte[buffer.readableByteCount()];
 		buffer.read(b);
+		DataBufferUtils.release(buffer);
 		return new String(b, StandardCharsets.UTF_8);
 	}
 
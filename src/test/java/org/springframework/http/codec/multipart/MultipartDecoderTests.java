@@ -0,0 +1,251 @@
+/*
+ * Copyright 2002-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.http.codec.multipart;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.test.TestSubscriber;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.CodecException;
+import org.springframework.core.io.buffer.AbstractDataBufferAllocatingTestCase;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.support.DataBufferTestUtils;
+import org.springframework.core.io.buffer.support.DataBufferUtils;
+import org.springframework.http.MediaType;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.MimeType;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MultipartDecoderTests extends AbstractDataBufferAllocatingTestCase {
+
+	private static final String BOUNDARY = "---------------------------9051914041544843365972754266";
+
+	private static final MimeType CONTENT_TYPE =
+			MimeType.valueOf("multipart/form-data; boundary=" + BOUNDARY);
+
+	private static final ResolvableType PART_TYPE = ResolvableType.forClass(Part.class);
+
+	private static final String CONTENT = "preamble\r\n" +
+			"--" + BOUNDARY + "\r\n" +
+			"Content-Disposition: form-data; name=\"text\"\r\n" +
+			"\r\n" +
+			"text default\r\n" +
+			"--" + BOUNDARY + "\r\n" +
+			"Content-Disposition: form-data; name=\"file1\"; filename=\"a.txt\"\r\n" +
+			"Content-Type: text/plain\r\n" +
+			"\r\n" +
+			"Content of a.txt.\r\n-- not a boundary\r\n" +
+			"\r\n" +
+			"--" + BOUNDARY + "--\r\n" +
+			"epilogue";
+
+	private MultipartDecoder decoder;
+
+
+	@Before
+	public void createDecoder() {
+		this.decoder = new MultipartDecoder();
+	}
+
+
+	@Test
+	public void canDecode() {
+		assertTrue(this.decoder.canDecode(PART_TYPE, CONTENT_TYPE));
+		assertFalse(this.decoder.canDecode(PART_TYPE, MediaType.TEXT_PLAIN));
+		assertFalse(this.decoder.canDecode(ResolvableType.forClass(String.class), CONTENT_TYPE));
+	}
+
+	@Test
+	public void decode() {
+		Flux<Part> parts = this.decoder.decode(Flux.just(stringBuffer(CONTENT)), PART_TYPE,
+				CONTENT_TYPE);
+
+		List<String> result = readParts(parts);
+		assertEquals(2, result.size());
+		assertEquals("text|null|text default", result.get(0));
+		assertEquals("file1|a.txt|Content of a.txt.\r\n-- not a boundary\r\n", result.get(1));
+	}
+
+	@Test
+	public void decodeSplitIntoSingleBytes() {
+		List<DataBuffer> buffers = new ArrayList<>();
+		for (char c : CONTENT.toCharArray()) {
+			buffers.add(stringBuffer(String.valueOf(c)));
+		}
+		Flux<Part> parts = this.decoder.decode(Flux.fromIterable(buffers), PART_TYPE,
+				CONTENT_TYPE);
+
+		List<String> result = readParts(parts);
+		assertEquals(2, result.size());
+		assertEquals("text|null|text default", result.get(0));
+		assertEquals("file1|a.txt|Content of a.txt.\r\n-- not a boundary\r\n", result.get(1));
+	}
+
+	@Test
+	public void decodeWithoutPreamble() {
+		String content = "--" + BOUNDARY + "\r\n" +
+				"Content-Disposition: form-data; name=\"foo\"\r\n" +
+				"\r\n" +
+				"bar\r\n" +
+				"--" + BOUNDARY + "--";
+		Flux<Part> parts = this.decoder.decode(Flux.just(stringBuffer(content)), PART_TYPE,
+				CONTENT_TYPE);
+
+		List<String> result = readParts(parts);
+		assertEquals(1, result.size());
+		assertEquals("foo|null|bar", result.get(0));
+	}
+
+	@Test
+	public void cancelPartContent() {
+		Flux<Part> parts = this.decoder.decode(Flux.just(stringBuffer(CONTENT)), PART_TYPE,
+				CONTENT_TYPE);
+
+		List<String> names = parts.concatMap(part -> part.getContent().take(0).
+				then().
+				then(() -> Mono.just(part.getName()))).
+				collectList().
+				block();
+		assertEquals(2, names.size());
+		assertEquals("text", names.get(0));
+		assertEquals("file1", names.get(1));
+	}
+
+	@Test
+	public void noClosingBoundary() {
+		String content = "--" + BOUNDARY + "\r\n" +
+				"Content-Disposition: form-data; name=\"foo\"\r\n" +
+				"\r\n" +
+				"bar";
+		Flux<Part> parts = this.decoder.decode(Flux.just(stringBuffer(content)), PART_TYPE,
+				CONTENT_TYPE);
+
+		TestSubscriber
+				.subscribe(parts.concatMap(part -> part.getContent().doOnNext(DataBufferUtils::release)))
+				.await()
+				.assertError(CodecException.class);
+	}
+
+	@Test
+	public void headersTooLarge() {
+		this.decoder.setMaxHeaderSize(32);
+		Flux<Part> parts = this.decoder.decode(Flux.just(stringBuffer(CONTENT)), PART_TYPE,
+				CONTENT_TYPE);
+
+		TestSubscriber
+				.subscribe(parts)
+				.await()
+				.assertError(CodecException.class);
+	}
+
+	@Test
+	public void noBoundary() {
+		Flux<Part> parts = this.decoder.decode(Flux.empty(), PART_TYPE,
+				MediaType.MULTIPART_FORM_DATA);
+
+		TestSubscriber
+				.subscribe(parts)
+				.assertError(CodecException.class);
+	}
+
+	@Test
+	public void storeParts() throws Exception {
+		Path directory = Files.createTempDirectory("MultipartDecoderTests");
+		try {
+			this.decoder.setStreaming(false);
+			this.decoder.setMaxInMemorySize(16);
+			this.decoder.setFileStorageDirectory(directory);
+			List<Part> parts = this.decoder.decode(Flux.just(stringBuffer(CONTENT)), PART_TYPE,
+					CONTENT_TYPE).collectList().block();
+
+			assertEquals(2, parts.size());
+			assertEquals("text default", readContent(parts.get(0)));
+			assertEquals("Content of a.txt.\r\n-- not a boundary\r\n", readContent(parts.get(1)));
+			// Stored parts can be read more than once
+			assertEquals("text default", readContent(parts.get(0)));
+			assertEquals(1, Files.list(directory).count());
+
+			File dest = new File(directory.toFile(), "a.txt");
+			parts.get(1).transferTo(dest).block();
+			assertEquals("Content of a.txt.\r\n-- not a boundary\r\n",
+					new String(Files.readAllBytes(dest.toPath()), StandardCharsets.UTF_8));
+			assertEquals(1, Files.list(directory).count());
+		}
+		finally {
+			FileSystemUtils.deleteRecursively(directory.toFile());
+		}
+	}
+
+	@Test
+	public void transferStreamedPart() throws Exception {
+		Path directory = Files.createTempDirectory("MultipartDecoderTests");
+		try {
+			File dest = new File(directory.toFile(), "a.txt");
+			this.decoder.decode(Flux.just(stringBuffer(CONTENT)), PART_TYPE, CONTENT_TYPE).
+					concatMap(part -> part.getFilename().isPresent() ?
+							part.transferTo(dest) :
+							part.getContent().doOnNext(DataBufferUtils::release).then()).
+					then().
+					block();
+
+			assertEquals("Content of a.txt.\r\n-- not a boundary\r\n",
+					new String(Files.readAllBytes(dest.toPath()), StandardCharsets.UTF_8));
+		}
+		finally {
+			FileSystemUtils.deleteRecursively(directory.toFile());
+		}
+	}
+
+	private static List<String> readParts(Flux<Part> parts) {
+		return parts.concatMap(part -> DataBufferUtils.join(part.getContent()).
+				map(dataBuffer -> {
+					String content = DataBufferTestUtils.dumpString(dataBuffer, StandardCharsets.UTF_8);
+					DataBufferUtils.release(dataBuffer);
+					return part.getName() + "|" + part.getFilename().orElse(null) + "|" + content;
+				})).
+				toStream().
+				collect(Collectors.toList());
+	}
+
+	private static String readContent(Part part) {
+		return part.getContent().
+				map(dataBuffer -> {
+					String content = DataBufferTestUtils.dumpString(dataBuffer, StandardCharsets.UTF_8);
+					DataBufferUtils.release(dataBuffer);
+					return content;
+				}).
+				collect(StringBuilder::new, StringBuilder::append).
+				block().
+				toString();
+	}
+
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2002-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.codec.protobuf;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import com.google.protobuf.Message;
+import com.google.protobuf.StringValue;
+import org.junit.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.test.TestSubscriber;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.CodecException;
+import org.springframework.core.io.buffer.AbstractDataBufferAllocatingTestCase;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.MediaType;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ProtobufDecoderTests extends AbstractDataBufferAllocatingTestCase {
+
+	private static final ResolvableType STRING_VALUE_TYPE =
+			ResolvableType.forClass(StringValue.class);
+
+	private final ProtobufDecoder decoder = new ProtobufDecoder();
+
+
+	@Test
+	public void canDecode() {
+		MediaType protobuf = MediaType.parseMediaType("application/x-protobuf");
+		assertTrue(this.decoder.canDecode(STRING_VALUE_TYPE, protobuf));
+		assertFalse(this.decoder.canDecode(ResolvableType.forClass(String.class), protobuf));
+		assertFalse(this.decoder.canDecode(STRING_VALUE_TYPE, MediaType.APPLICATION_JSON));
+	}
+
+	@Test
+	public void decodeOne() {
+		byte[] bytes = stringValue("foo").toByteArray();
+		Flux<DataBuffer> source = Flux.just(buffer(bytes, 0, 2), buffer(bytes, 2, bytes.length));
+		Mono<Message> mono = this.decoder.decodeOne(source, STRING_VALUE_TYPE, null);
+
+		TestSubscriber.subscribe(mono).assertNoError().assertComplete().
+				assertValues(stringValue("foo"));
+	}
+
+	@Test
+	public void decodeOneEmpty() {
+		Mono<Message> mono = this.decoder.decodeOne(Flux.empty(), STRING_VALUE_TYPE, null);
+
+		TestSubscriber.subscribe(mono).assertNoError().assertComplete().
+				assertValues(StringValue.getDefaultInstance());
+	}
+
+	@Test
+	public void decodeStream() throws IOException {
+		byte[] bytes = delimited(stringValue("foo"), StringValue.getDefaultInstance(),
+				stringValue("barbar"));
+		Flux<DataBuffer> source = Flux.just(buffer(bytes, 0, bytes.length));
+		Flux<Message> flux = this.decoder.decode(source, STRING_VALUE_TYPE, null);
+
+		TestSubscriber.subscribe(flux).assertNoError().assertComplete().
+				assertValues(stringValue("foo"), StringValue.getDefaultInstance(),
+						stringValue("barbar"));
+	}
+
+	@Test
+	public void decodeStreamByteByByte() throws IOException {
+		StringBuilder large = new StringBuilder();
+		for (int i = 0; i < 100; i++) {
+			large.append("foo");
+		}
+		byte[] bytes = delimited(stringValue(large.toString()), stringValue("bar"));
+		DataBuffer[] buffers = new DataBuffer[bytes.length];
+		for (int i = 0; i < bytes.length; i++) {
+			buffers[i] = buffer(bytes, i, i + 1);
+		}
+		Flux<Message> flux = this.decoder.decode(Flux.just(buffers), STRING_VALUE_TYPE, null);
+
+		TestSubscriber.subscribe(flux).assertNoError().assertComplete().
+				assertValues(stringValue(large.toString()), stringValue("bar"));
+	}
+
+	@Test
+	public void decodeStreamExceedingMaxMessageSize() throws IOException {
+		byte[] bytes = delimited(stringValue("foo"), stringValue("foofoofoo"));
+		this.decoder.setMaxMessageSize(8);
+		Flux<Message> flux = this.decoder.decode(Flux.just(buffer(bytes, 0, bytes.length)),
+				STRING_VALUE_TYPE, null);
+
+		TestSubscriber.subscribe(flux).assertValues(stringValue("foo")).
+				assertError(CodecException.class);
+	}
+
+	@Test
+	public void decodeIncompleteStream() throws IOException {
+		byte[] bytes = delimited(stringValue("foo"), stringValue("bar"));
+		Flux<Message> flux = this.decoder.decode(
+				Flux.just(buffer(bytes, 0, bytes.length - 1)), STRING_VALUE_TYPE, null);
+
+		TestSubscriber.subscribe(flux).assertValues(stringValue("foo")).
+				assertError(CodecException.class);
+	}
+
+	private static StringValue stringValue(String value) {
+		return StringValue.newBuilder().setValue(value).build();
+	}
+
+	private static byte[] delimited(Message... messages) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		for (Message message : Arrays.asList(messages)) {
+			message.writeDelimitedTo(out);
+		}
+		return out.toByteArray();
+	}
+
+	private DataBuffer buffer(byte[] bytes, int from, int to) {
+		return this.dataBufferFactory.allocateBuffer(to - from).write(bytes, from, to - from);
+	}
+
+}
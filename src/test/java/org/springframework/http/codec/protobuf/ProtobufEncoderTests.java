@@ -0,0 +1,86 @@
+/*
+ * Copyright 2002-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.codec.protobuf;
+
+import java.io.IOException;
+
+import com.google.protobuf.Message;
+import com.google.protobuf.StringValue;
+import org.junit.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.test.TestSubscriber;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.AbstractDataBufferAllocatingTestCase;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.support.DataBufferUtils;
+import org.springframework.http.MediaType;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ProtobufEncoderTests extends AbstractDataBufferAllocatingTestCase {
+
+	private static final ResolvableType STRING_VALUE_TYPE =
+			ResolvableType.forClass(StringValue.class);
+
+	private final ProtobufEncoder encoder = new ProtobufEncoder();
+
+
+	@Test
+	public void canEncode() {
+		MediaType protobuf = MediaType.parseMediaType("application/x-protobuf");
+		assertTrue(this.encoder.canEncode(STRING_VALUE_TYPE, protobuf));
+		assertFalse(this.encoder.canEncode(ResolvableType.forClass(String.class), protobuf));
+		assertFalse(this.encoder.canEncode(STRING_VALUE_TYPE, MediaType.APPLICATION_JSON));
+	}
+
+	@Test
+	public void encode() {
+		Message message = StringValue.newBuilder().setValue("foo").build();
+		Flux<DataBuffer> output = this.encoder.encode(Mono.just(message),
+				this.dataBufferFactory, STRING_VALUE_TYPE, null);
+
+		TestSubscriber.subscribe(output).assertNoError().assertComplete().
+				assertValuesWith(dataBuffer -> {
+					try {
+						assertEquals(message, StringValue.parseFrom(dataBuffer.asInputStream()));
+					}
+					catch (IOException ex) {
+						throw new AssertionError(ex);
+					}
+					finally {
+						DataBufferUtils.release(dataBuffer);
+					}
+				});
+	}
+
+	@Test
+	public void encodeStream() {
+		Message foo = StringValue.newBuilder().setValue("foo").build();
+		Message bar = StringValue.newBuilder().setValue("bar").build();
+		Flux<DataBuffer> output = this.encoder.encode(Flux.just(foo, bar),
+				this.dataBufferFactory, STRING_VALUE_TYPE, null);
+		Flux<Message> decoded = new ProtobufDecoder().decode(output, STRING_VALUE_TYPE, null);
+
+		TestSubscriber.subscribe(decoded).assertNoError().assertComplete().
+				assertValues(foo, bar);
+	}
+
+}
@@ -210,6 +210,52 @@ public class Jaxb2DecoderTests extends AbstractDataBufferAllocatingTestCase {
 				.assertValues(new TypePojo("foo", "bar"), new TypePojo("foofoo", "barbar"));
 	}
 
+	@Test
+	public void unmarshallerPool() throws Exception {
+		Flux<DataBuffer> source = Flux.just(stringBuffer(POJO_CHILD));
+		Flux<Object> output =
+				this.decoder.decode(source, ResolvableType.forClass(Pojo.class), null);
+
+		TestSubscriber
+				.subscribe(output)
+				.assertNoError()
+				.assertValueCount(2);
+		assertEquals(1, this.decoder.getUnmarshallerPoolMissCount());
+		assertEquals(1, this.decoder.getUnmarshallerPoolHitCount());
+	}
+
+	@Test
+	public void decodeMultipleXmlRootElementNonAalto() throws Exception {
+		this.decoder.xmlEventDecoder.useAalto = false;
+		Flux<DataBuffer> source = Flux.just(stringBuffer("<?xml version=\"1.0\"?><root><po"),
+				stringBuffer("jo><foo>foo</foo><bar>bar</bar></pojo><other><pojo><foo>foofoo"),
+				stringBuffer("</foo><bar>barbar</bar></pojo></other></root>"));
+		Flux<Object> output =
+				this.decoder.decode(source, ResolvableType.forClass(Pojo.class), null);
+
+		TestSubscriber
+				.subscribe(output)
+				.await()
+				.assertNoError()
+				.assertComplete()
+				.assertValues(new Pojo("foo", "bar"), new Pojo("foofoo", "barbar"));
+	}
+
+	@Test
+	public void decodeInvalidXmlNonAalto() throws Exception {
+		this.decoder.xmlEventDecoder.useAalto = false;
+		Flux<DataBuffer> source = Flux.just(stringBuffer("<root><pojo><foo>foo</foo>"),
+				stringBuffer("<bar>bar</bar></pojo><pojo></root>"));
+		Flux<Object> output =
+				this.decoder.decode(source, ResolvableType.forClass(Pojo.class), null);
+
+		TestSubscriber
+				.subscribe(output)
+				.await()
+				.assertValues(new Pojo("foo", "bar"))
+				.assertError();
+	}
+
 	@Test
 	public void toExpectedQName() {
 		assertEquals(new QName("pojo"), this.decoder.toQName(Pojo.class));
@@ -23,6 +23,7 @@ import org.junit.Before;
 import org.junit.Test;
 import org.xml.sax.SAXException;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import reactor.core.test.TestSubscriber;
 
 import org.springframework.core.ResolvableType;
@@ -70,7 +71,7 @@ public class Jaxb2EncoderTests extends AbstractDataBufferAllocatingTestCase {
 
 	@Test
 	public void encode() {
-		Flux<Pojo> source = Flux.just(new Pojo("foofoo", "barbar"), new Pojo("foofoofoo", "barbarbar"));
+		Mono<Pojo> source = Mono.just(new Pojo("foofoo", "barbar"));
 		Flux<DataBuffer> output = this.encoder.encode(source, this.dataBufferFactory,
 				ResolvableType.forClass(Pojo.class),
 						MediaType.APPLICATION_XML);
@@ -91,4 +92,49 @@ public class Jaxb2EncoderTests extends AbstractDataBufferAllocatingTestCase {
 		});
 	}
 
+	@Test
+	public void encodeFlux() throws Exception {
+		this.encoder.setRootElementName("pojos");
+		Flux<Pojo> source = Flux.just(new Pojo("foofoo", "barbar"),
+				new Pojo("foofoofoo", "barbarbar"));
+		Flux<DataBuffer> output = this.encoder.encode(source, this.dataBufferFactory,
+				ResolvableType.forClass(Pojo.class), MediaType.APPLICATION_XML);
+
+		StringBuilder result = new StringBuilder();
+		TestSubscriber
+				.subscribe(output)
+				.assertNoError()
+				.assertComplete()
+				.assertValueCount(4)
+				.assertValuesWith(
+						dataBuffer -> appendAndRelease(result, dataBuffer),
+						dataBuffer -> appendAndRelease(result, dataBuffer),
+						dataBuffer -> appendAndRelease(result, dataBuffer),
+						dataBuffer -> appendAndRelease(result, dataBuffer));
+		assertXMLEqual("<pojos><pojo><bar>barbar</bar><foo>foofoo</foo></pojo>" +
+				"<pojo><bar>barbarbar</bar><foo>foofoofoo</foo></pojo></pojos>",
+				result.toString());
+	}
+
+	@Test
+	public void encodeEmptyFlux() throws Exception {
+		Flux<DataBuffer> output = this.encoder.encode(Flux.empty(), this.dataBufferFactory,
+				ResolvableType.forClass(Pojo.class), MediaType.APPLICATION_XML);
+
+		StringBuilder result = new StringBuilder();
+		TestSubscriber
+				.subscribe(output)
+				.assertNoError()
+				.assertComplete()
+				.assertValuesWith(
+						dataBuffer -> appendAndRelease(result, dataBuffer),
+						dataBuffer -> appendAndRelease(result, dataBuffer));
+		assertXMLEqual("<root/>", result.toString());
+	}
+
+	private static void appendAndRelease(StringBuilder builder, DataBuffer dataBuffer) {
+		builder.append(DataBufferTestUtils.dumpString(dataBuffer, StandardCharsets.UTF_8));
+		DataBufferUtils.release(dataBuffer);
+	}
+
 }
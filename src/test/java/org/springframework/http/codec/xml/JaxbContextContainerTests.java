@@ -0,0 +1,70 @@
+/*
+ * Copyright 2002-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.http.codec.xml;
+
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+
+import org.junit.Test;
+
+import org.springframework.http.codec.Pojo;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class JaxbContextContainerTests {
+
+	private final JaxbContextContainer container = new JaxbContextContainer(1);
+
+
+	@Test
+	public void reuseMarshaller() throws Exception {
+		Marshaller marshaller = this.container.borrowMarshaller(Pojo.class);
+		marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
+		this.container.returnMarshaller(Pojo.class, marshaller);
+
+		assertSame(marshaller, this.container.borrowMarshaller(Pojo.class));
+		assertEquals(Boolean.FALSE, marshaller.getProperty(Marshaller.JAXB_FORMATTED_OUTPUT));
+		assertEquals(1, this.container.getMarshallerHitCount());
+		assertEquals(1, this.container.getMarshallerMissCount());
+	}
+
+	@Test
+	public void reuseUnmarshaller() throws Exception {
+		Unmarshaller unmarshaller = this.container.borrowUnmarshaller(Pojo.class);
+		this.container.returnUnmarshaller(Pojo.class, unmarshaller);
+
+		assertSame(unmarshaller, this.container.borrowUnmarshaller(Pojo.class));
+		assertEquals(1, this.container.getUnmarshallerHitCount());
+		assertEquals(1, this.container.getUnmarshallerMissCount());
+	}
+
+	@Test
+	public void maxIdle() throws Exception {
+		Unmarshaller first = this.container.borrowUnmarshaller(Pojo.class);
+		Unmarshaller second = this.container.borrowUnmarshaller(Pojo.class);
+		assertNotSame(first, second);
+
+		this.container.returnUnmarshaller(Pojo.class, first);
+		this.container.returnUnmarshaller(Pojo.class, second);
+		assertEquals(1, this.container.getIdleUnmarshallerCount());
+		assertEquals(0, this.container.getIdleMarshallerCount());
+	}
+
+}
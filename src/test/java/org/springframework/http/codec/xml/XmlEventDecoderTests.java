@@ -70,6 +70,7 @@ public class XmlEventDecoderTests extends AbstractDataBufferAllocatingTestCase {
 
 		TestSubscriber
 				.subscribe(events)
+				.await()
 				.assertNoError()
 				.assertComplete()
 				.assertValuesWith(e -> assertTrue(e.isStartDocument()),
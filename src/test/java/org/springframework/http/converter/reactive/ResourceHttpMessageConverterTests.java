@@ -0,0 +1,284 @@
+/*
+ * Copyright 2002-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.http.converter.reactive;
+
+import java.io.File;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.support.DataBufferTestUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ZeroCopyHttpOutputMessage;
+import org.springframework.http.server.reactive.MockServerHttpRequest;
+import org.springframework.http.server.reactive.MockServerHttpResponse;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ResourceHttpMessageConverterTests {
+
+	private static final String CONTENT = "Spring Framework test resource content.";
+
+	private static final ResolvableType TYPE = ResolvableType.forClass(Resource.class);
+
+	@Rule
+	public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+	private final ResourceHttpMessageConverter converter = new ResourceHttpMessageConverter(8);
+
+	private MockServerHttpRequest request;
+
+	private MockServerHttpResponse response;
+
+	private Resource resource;
+
+
+	@Before
+	public void setUp() throws Exception {
+		this.request = new MockServerHttpRequest(HttpMethod.GET, new URI("/"));
+		this.response = new MockServerHttpResponse();
+		this.resource = new ByteArrayResource(CONTENT.getBytes(StandardCharsets.UTF_8));
+	}
+
+
+	@Test
+	public void noRange() throws Exception {
+		write(this.resource, this.response);
+
+		assertNull(this.response.getStatus());
+		assertEquals("bytes", this.response.getHeaders().getFirst(HttpHeaders.ACCEPT_RANGES));
+		assertEquals(CONTENT.length(), this.response.getHeaders().getContentLength());
+		assertEquals(CONTENT, bodyAsString());
+	}
+
+	@Test
+	public void singleRange() throws Exception {
+		this.request.getHeaders().set(HttpHeaders.RANGE, "bytes=0-5");
+		write(this.resource, this.response);
+
+		assertEquals(HttpStatus.PARTIAL_CONTENT, this.response.getStatus());
+		HttpHeaders headers = this.response.getHeaders();
+		assertEquals("bytes 0-5/39", headers.getFirst(HttpHeaders.CONTENT_RANGE));
+		assertEquals(6, headers.getContentLength());
+		assertEquals("Spring", bodyAsString());
+	}
+
+	@Test
+	public void suffixRange() throws Exception {
+		this.request.getHeaders().set(HttpHeaders.RANGE, "bytes=-8");
+		write(this.resource, this.response);
+
+		assertEquals(HttpStatus.PARTIAL_CONTENT, this.response.getStatus());
+		assertEquals("bytes 31-38/39",
+				this.response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE));
+		assertEquals("content.", bodyAsString());
+	}
+
+	@Test
+	public void singleRangeFromFile() throws Exception {
+		File file = this.tempFolder.newFile();
+		Files.write(file.toPath(), CONTENT.getBytes(StandardCharsets.UTF_8));
+		this.request.getHeaders().set(HttpHeaders.RANGE, "bytes=7-15");
+		write(new FileSystemResource(file), this.response);
+
+		assertEquals(HttpStatus.PARTIAL_CONTENT, this.response.getStatus());
+		assertEquals("bytes 7-15/39",
+				this.response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE));
+		assertEquals("Framework", bodyAsString());
+	}
+
+	@Test
+	public void singleRangeZeroCopy() throws Exception {
+		File file = this.tempFolder.newFile();
+		Files.write(file.toPath(), CONTENT.getBytes(StandardCharsets.UTF_8));
+		this.request.getHeaders().set(HttpHeaders.RANGE, "bytes=7-15");
+		ZeroCopyResponse zeroCopyResponse = new ZeroCopyResponse();
+		write(new FileSystemResource(file), zeroCopyResponse);
+
+		assertEquals(HttpStatus.PARTIAL_CONTENT, zeroCopyResponse.getStatus());
+		assertEquals(file, zeroCopyResponse.file);
+		assertEquals(7, zeroCopyResponse.position);
+		assertEquals(9, zeroCopyResponse.count);
+		assertEquals(9, zeroCopyResponse.getHeaders().getContentLength());
+	}
+
+	@Test
+	public void multipleRanges() throws Exception {
+		this.request.getHeaders().set(HttpHeaders.RANGE, "bytes=0-5,7-15");
+		write(this.resource, this.response);
+
+		assertEquals(HttpStatus.PARTIAL_CONTENT, this.response.getStatus());
+		HttpHeaders headers = this.response.getHeaders();
+		MediaType contentType = headers.getContentType();
+		assertEquals("multipart", contentType.getType());
+		assertEquals("byteranges", contentType.getSubtype());
+		String boundary = contentType.getParameter("boundary");
+
+		String expected = "--" + boundary + "\r\n" +
+				"Content-Type: application/octet-stream\r\n" +
+				"Content-Range: bytes 0-5/39\r\n\r\n" +
+				"Spring\r\n" +
+				"--" + boundary + "\r\n" +
+				"Content-Type: application/octet-stream\r\n" +
+				"Content-Range: bytes 7-15/39\r\n\r\n" +
+				"Framework\r\n" +
+				"--" + boundary + "--\r\n";
+		assertEquals(expected, bodyAsString());
+		assertEquals(expected.length(), headers.getContentLength());
+	}
+
+	@Test
+	public void overlappingRangesIgnored() throws Exception {
+		this.request.getHeaders().set(HttpHeaders.RANGE, "bytes=0-,0-,0-,10-20");
+		write(this.resource, this.response);
+
+		assertNull(this.response.getStatus());
+		assertEquals(CONTENT.length(), this.response.getHeaders().getContentLength());
+		assertEquals(CONTENT, bodyAsString());
+	}
+
+	@Test
+	public void unsatisfiableRange() throws Exception {
+		this.request.getHeaders().set(HttpHeaders.RANGE, "bytes=100-200");
+		write(this.resource, this.response);
+
+		assertEquals(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE, this.response.getStatus());
+		assertEquals("bytes */39", this.response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE));
+	}
+
+	@Test
+	public void invalidRangeIgnored() throws Exception {
+		this.request.getHeaders().set(HttpHeaders.RANGE, "bytes=foo");
+		write(this.resource, this.response);
+
+		assertNull(this.response.getStatus());
+		assertEquals(CONTENT, bodyAsString());
+	}
+
+	@Test
+	public void rangeIgnoredForPost() throws Exception {
+		this.request.setHttpMethod(HttpMethod.POST);
+		this.request.getHeaders().set(HttpHeaders.RANGE, "bytes=0-5");
+		write(this.resource, this.response);
+
+		assertNull(this.response.getStatus());
+		assertEquals(CONTENT, bodyAsString());
+	}
+
+	@Test
+	public void ifRangeETag() throws Exception {
+		this.request.getHeaders().set(HttpHeaders.RANGE, "bytes=0-5");
+		this.request.getHeaders().set(HttpHeaders.IF_RANGE, "\"foo\"");
+		this.response.getHeaders().setETag("\"foo\"");
+		write(this.resource, this.response);
+
+		assertEquals(HttpStatus.PARTIAL_CONTENT, this.response.getStatus());
+		assertEquals("Spring", bodyAsString());
+	}
+
+	@Test
+	public void ifRangeETagMismatch() throws Exception {
+		this.request.getHeaders().set(HttpHeaders.RANGE, "bytes=0-5");
+		this.request.getHeaders().set(HttpHeaders.IF_RANGE, "\"bar\"");
+		this.response.getHeaders().setETag("\"foo\"");
+		write(this.resource, this.response);
+
+		assertNull(this.response.getStatus());
+		assertEquals(CONTENT, bodyAsString());
+	}
+
+	@Test
+	public void ifRangeDate() throws Exception {
+		File file = this.tempFolder.newFile();
+		Files.write(file.toPath(), CONTENT.getBytes(StandardCharsets.UTF_8));
+		this.request.getHeaders().set(HttpHeaders.RANGE, "bytes=0-5");
+		this.request.getHeaders().setDate(HttpHeaders.IF_RANGE, file.lastModified());
+		write(new FileSystemResource(file), this.response);
+
+		assertEquals(HttpStatus.PARTIAL_CONTENT, this.response.getStatus());
+		assertEquals("Spring", bodyAsString());
+	}
+
+	@Test
+	public void ifRangeDateMismatch() throws Exception {
+		File file = this.tempFolder.newFile();
+		Files.write(file.toPath(), CONTENT.getBytes(StandardCharsets.UTF_8));
+		this.request.getHeaders().set(HttpHeaders.RANGE, "bytes=0-5");
+		this.request.getHeaders().setDate(HttpHeaders.IF_RANGE, file.lastModified() - 60000);
+		write(new FileSystemResource(file), this.response);
+
+		assertNull(this.response.getStatus());
+		assertEquals(CONTENT, bodyAsString());
+	}
+
+
+	private void write(Resource resource, MockServerHttpResponse response) {
+		this.converter.write(Mono.just(resource), TYPE, null, this.request, response).
+				block(Duration.ofSeconds(5));
+	}
+
+	private String bodyAsString() {
+		return Flux.from(this.response.getBody()).
+				map(buffer -> DataBufferTestUtils.dumpString(buffer, StandardCharsets.UTF_8)).
+				reduce("", String::concat).
+				block(Duration.ofSeconds(5));
+	}
+
+
+	private static class ZeroCopyResponse extends MockServerHttpResponse
+			implements ZeroCopyHttpOutputMessage {
+
+		private File file;
+
+		private long position;
+
+		private long count;
+
+		@Override
+		public Mono<Void> writeWith(File file, long position, long count) {
+			this.file = file;
+			this.position = position;
+			this.count = count;
+			return Mono.empty();
+		}
+
+		@Override
+		public Mono<Void> writeWith(Publisher<DataBuffer> body) {
+			throw new AssertionError("Zero-copy transfer expected");
+		}
+	}
+
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright 2002-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.http.server.reactive;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.reactivestreams.Subscription;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.core.io.buffer.FlushingDataBuffer;
+
+import static org.junit.Assert.*;
+
+public class AbstractResponseBodySubscriberTests {
+
+	private final DefaultDataBufferFactory bufferFactory = new DefaultDataBufferFactory();
+
+	private TestSubscription subscription;
+
+	private TestResponseBodySubscriber subscriber;
+
+
+	@Before
+	public void setUp() throws Exception {
+		this.subscription = new TestSubscription();
+		this.subscriber = new TestResponseBodySubscriber(4);
+		this.subscriber.onSubscribe(this.subscription);
+	}
+
+	@Test
+	public void prefetch() throws Exception {
+		assertEquals(4, this.subscription.requested);
+	}
+
+	@Test
+	public void writeWhenReady() throws Exception {
+		this.subscriber.onNext(stringBuffer("foo"));
+		this.subscriber.onNext(stringBuffer("bar"));
+
+		assertEquals(2, this.subscriber.writes.size());
+		assertEquals("foobar", this.subscriber.output());
+	}
+
+	@Test
+	public void gatherQueuedBuffers() throws Exception {
+		this.subscriber.ready = false;
+		this.subscriber.onNext(stringBuffer("foo"));
+		this.subscriber.onNext(stringBuffer("bar"));
+		this.subscriber.onNext(stringBuffer("baz"));
+		assertEquals("", this.subscriber.output());
+
+		this.subscriber.ready = true;
+		this.subscriber.onWritePossible();
+
+		assertEquals(2, this.subscriber.writes.size());
+		assertEquals(1, this.subscriber.writes.get(0).intValue());
+		assertEquals(2, this.subscriber.writes.get(1).intValue());
+		assertEquals("foobarbaz", this.subscriber.output());
+		// three quarters of the prefetch window written
+		assertEquals(7, this.subscription.requested);
+	}
+
+	@Test
+	public void flushEndsBatch() throws Exception {
+		this.subscriber.ready = false;
+		this.subscriber.onNext(stringBuffer("foo"));
+		this.subscriber.onNext(stringBuffer("bar"));
+		this.subscriber.onNext(FlushingDataBuffer.INSTANCE);
+		this.subscriber.onNext(stringBuffer("baz"));
+
+		this.subscriber.ready = true;
+		this.subscriber.onWritePossible();
+
+		assertEquals(3, this.subscriber.writes.size());
+		assertEquals(2, this.subscriber.writes.get(1).intValue());
+		assertEquals(1, this.subscriber.writes.get(2).intValue());
+		assertEquals(1, this.subscriber.flushes);
+		assertEquals("foobarbaz", this.subscriber.output());
+	}
+
+	@Test
+	public void closeAfterPendingWrites() throws Exception {
+		this.subscriber.ready = false;
+		this.subscriber.onNext(stringBuffer("foo"));
+		this.subscriber.onComplete();
+		assertFalse(this.subscriber.closed);
+
+		this.subscriber.ready = true;
+		this.subscriber.onWritePossible();
+
+		assertEquals("foo", this.subscriber.output());
+		assertTrue(this.subscriber.closed);
+	}
+
+	@Test
+	public void writeIOException() throws Exception {
+		this.subscriber.exception = new IOException();
+		this.subscriber.onNext(stringBuffer("foo"));
+
+		assertTrue(this.subscription.cancelled);
+		assertSame(this.subscriber.exception, this.subscriber.error);
+		assertTrue(this.subscriber.closed);
+
+		this.subscriber.onNext(stringBuffer("bar"));
+		assertEquals(1, this.subscriber.writes.size());
+	}
+
+	@Test
+	public void onError() throws Exception {
+		this.subscriber.ready = false;
+		this.subscriber.onNext(stringBuffer("foo"));
+		IllegalStateException ex = new IllegalStateException();
+		this.subscriber.onError(ex);
+
+		assertSame(ex, this.subscriber.error);
+		assertTrue(this.subscriber.closed);
+		assertEquals("", this.subscriber.output());
+	}
+
+	private DataBuffer stringBuffer(String value) {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		DataBuffer buffer = this.bufferFactory.allocateBuffer(bytes.length);
+		buffer.write(bytes);
+		return buffer;
+	}
+
+
+	private static class TestSubscription implements Subscription {
+
+		private long requested;
+
+		private boolean cancelled;
+
+		@Override
+		public void request(long n) {
+			this.requested += n;
+		}
+
+		@Override
+		public void cancel() {
+			this.cancelled = true;
+		}
+	}
+
+
+	private static class TestResponseBodySubscriber extends AbstractResponseBodySubscriber {
+
+		private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+		private final List<Integer> writes = new ArrayList<>();
+
+		private boolean ready = true;
+
+		private IOException exception;
+
+		private int flushes;
+
+		private Throwable error;
+
+		private boolean closed;
+
+		public TestResponseBodySubscriber(int prefetch) {
+			super(prefetch);
+		}
+
+		@Override
+		protected boolean write(List<DataBuffer> dataBuffers) throws IOException {
+			if (!this.ready) {
+				return false;
+			}
+			this.writes.add(dataBuffers.size());
+			if (this.exception != null) {
+				throw this.exception;
+			}
+			for (DataBuffer dataBuffer : dataBuffers) {
+				byte[] bytes = new byte[dataBuffer.readableByteCount()];
+				dataBuffer.read(bytes);
+				this.output.write(bytes);
+			}
+			return true;
+		}
+
+		@Override
+		protected void writeError(Throwable t) {
+			this.error = t;
+		}
+
+		@Override
+		protected void flush() throws IOException {
+			this.flushes++;
+		}
+
+		@Override
+		protected void close() {
+			this.closed = true;
+		}
+
+		public String output() {
+			return new String(this.output.toByteArray(), StandardCharsets.UTF_8);
+		}
+	}
+
+}
@@ -22,6 +22,7 @@ import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import javax.xml.bind.annotation.XmlRootElement;
 
+import com.google.protobuf.StringValue;
 import org.junit.Before;
 import org.junit.Test;
 import reactor.core.publisher.Flux;
@@ -41,6 +42,7 @@ import org.springframework.core.io.Resource;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.http.codec.json.JacksonJsonEncoder;
+import org.springframework.http.codec.multipart.Part;
 import org.springframework.http.codec.xml.Jaxb2Decoder;
 import org.springframework.http.codec.xml.Jaxb2Encoder;
 import org.springframework.http.converter.reactive.CodecHttpMessageConverter;
@@ -83,6 +85,18 @@ import static org.springframework.http.MediaType.TEXT_PLAIN;
  */
 public class WebReactiveConfigurationTests {
 
+	private static final MediaType APPLICATION_NDJSON =
+			MediaType.parseMediaType("application/x-ndjson");
+
+	private static final MediaType APPLICATION_SMILE =
+			MediaType.parseMediaType("application/x-jackson-smile");
+
+	private static final MediaType APPLICATION_CBOR = MediaType.parseMediaType("application/cbor");
+
+	private static final MediaType APPLICATION_PROTOBUF =
+			MediaType.parseMediaType("application/x-protobuf");
+
+
 	private MockServerHttpRequest request;
 
 	private ServerWebExchange exchange;
@@ -143,14 +157,19 @@ public class WebReactiveConfigurationTests {
 		assertNotNull(adapter);
 
 		List<HttpMessageConverter<?>> converters = adapter.getMessageConverters();
-		assertEquals(6, converters.size());
+		assertEquals(11, converters.size());
 
 		assertHasConverter(converters, ByteBuffer.class, APPLICATION_OCTET_STREAM, APPLICATION_OCTET_STREAM);
 		assertHasConverter(converters, String.class, TEXT_PLAIN, TEXT_PLAIN);
 		assertHasConverter(converters, Resource.class, IMAGE_PNG, IMAGE_PNG);
 		assertHasConverter(converters, TestBean.class, APPLICATION_XML, APPLICATION_XML);
 		assertHasConverter(converters, TestBean.class, APPLICATION_JSON, APPLICATION_JSON);
+		assertHasConverter(converters, TestBean.class, APPLICATION_NDJSON, APPLICATION_NDJSON);
+		assertHasConverter(converters, TestBean.class, APPLICATION_SMILE, APPLICATION_SMILE);
+		assertHasConverter(converters, TestBean.class, APPLICATION_CBOR, APPLICATION_CBOR);
+		assertHasConverter(converters, StringValue.class, APPLICATION_PROTOBUF, APPLICATION_PROTOBUF);
 		assertHasConverter(converters, TestBean.class, null, MediaType.parseMediaType("text/event-stream"));
+		assertHasConverter(converters, Part.class, MediaType.MULTIPART_FORM_DATA, null);
 
 		name = "mvcConversionService";
 		ConversionService service = context.getBean(name, ConversionService.class);
@@ -200,13 +219,17 @@ public class WebReactiveConfigurationTests {
 		assertEquals(0, handler.getOrder());
 
 		List<HttpMessageConverter<?>> converters = handler.getMessageConverters();
-		assertEquals(6, converters.size());
+		assertEquals(11, converters.size());
 
 		assertHasConverter(converters, ByteBuffer.class, APPLICATION_OCTET_STREAM, APPLICATION_OCTET_STREAM);
 		assertHasConverter(converters, String.class, TEXT_PLAIN, TEXT_PLAIN);
 		assertHasConverter(converters, Resource.class, IMAGE_PNG, IMAGE_PNG);
 		assertHasConverter(converters, TestBean.class, APPLICATION_XML, APPLICATION_XML);
 		assertHasConverter(converters, TestBean.class, APPLICATION_JSON, APPLICATION_JSON);
+		assertHasConverter(converters, TestBean.class, APPLICATION_NDJSON, APPLICATION_NDJSON);
+		assertHasConverter(converters, TestBean.class, APPLICATION_SMILE, APPLICATION_SMILE);
+		assertHasConverter(converters, TestBean.class, APPLICATION_CBOR, APPLICATION_CBOR);
+		assertHasConverter(converters, StringValue.class, APPLICATION_PROTOBUF, APPLICATION_PROTOBUF);
 		assertHasConverter(converters, TestBean.class, null, MediaType.parseMediaType("text/event-stream"));
 
 		name = "mvcContentTypeResolver";
@@ -225,13 +248,17 @@ public class WebReactiveConfigurationTests {
 		assertEquals(100, handler.getOrder());
 
 		List<HttpMessageConverter<?>> converters = handler.getMessageConverters();
-		assertEquals(6, converters.size());
+		assertEquals(11, converters.size());
 
 		assertHasConverter(converters, ByteBuffer.class, APPLICATION_OCTET_STREAM, APPLICATION_OCTET_STREAM);
 		assertHasConverter(converters, String.class, TEXT_PLAIN, TEXT_PLAIN);
 		assertHasConverter(converters, Resource.class, IMAGE_PNG, IMAGE_PNG);
 		assertHasConverter(converters, TestBean.class, APPLICATION_XML, APPLICATION_XML);
 		assertHasConverter(converters, TestBean.class, APPLICATION_JSON, APPLICATION_JSON);
+		assertHasConverter(converters, TestBean.class, APPLICATION_NDJSON, APPLICATION_NDJSON);
+		assertHasConverter(converters, TestBean.class, APPLICATION_SMILE, APPLICATION_SMILE);
+		assertHasConverter(converters, TestBean.class, APPLICATION_CBOR, APPLICATION_CBOR);
+		assertHasConverter(converters, StringValue.class, APPLICATION_PROTOBUF, APPLICATION_PROTOBUF);
 		assertHasConverter(converters, TestBean.class, null, MediaType.parseMediaType("text/event-stream"));
 
 		name = "mvcContentTypeResolver";
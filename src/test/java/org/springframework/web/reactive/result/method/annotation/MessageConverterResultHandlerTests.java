@@ -47,7 +47,9 @@ import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.buffer.support.DataBufferTestUtils;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
 import org.springframework.http.codec.json.JacksonJsonEncoder;
+import org.springframework.http.codec.json.JacksonNdjsonEncoder;
 import org.springframework.http.codec.xml.Jaxb2Encoder;
 import org.springframework.http.converter.reactive.CodecHttpMessageConverter;
 import org.springframework.http.converter.reactive.HttpMessageConverter;
@@ -171,6 +173,45 @@ public class MessageConverterResultHandlerTests {
 	}
 
 
+	@Test
+	public void jacksonAcceptAll() throws Exception {
+		this.exchange = createExchange(MediaType.ALL);
+		ParentClass body = new Foo("foo");
+		ResolvableType type = ResolvableType.forClass(ParentClass.class);
+		this.resultHandler.writeBody(this.exchange, body, type, returnType(type)).block(Duration.ofSeconds(5));
+
+		assertEquals(APPLICATION_JSON_UTF8, this.response.getHeaders().getContentType());
+		assertResponseBody("{\"type\":\"foo\",\"parentProperty\":\"foo\"}");
+	}
+
+	@Test
+	public void jacksonFluxAcceptAll() throws Exception {
+		this.exchange = createExchange(MediaType.ALL);
+		Flux<ParentClass> body = Flux.just(new Foo("foo"));
+		ResolvableType type = ResolvableType.forClassWithGenerics(Flux.class, ParentClass.class);
+		this.resultHandler.writeBody(this.exchange, body, type, returnType(type)).block(Duration.ofSeconds(5));
+
+		assertEquals(APPLICATION_JSON_UTF8, this.response.getHeaders().getContentType());
+	}
+
+	@Test
+	public void jacksonFluxAcceptStreamJson() throws Exception {
+		MediaType streamJson = MediaType.parseMediaType("application/stream+json");
+		this.exchange = createExchange(streamJson);
+		Flux<ParentClass> body = Flux.just(new Foo("foo"));
+		ResolvableType type = ResolvableType.forClassWithGenerics(Flux.class, ParentClass.class);
+		this.resultHandler.writeBody(this.exchange, body, type, returnType(type)).block(Duration.ofSeconds(5));
+
+		assertEquals(streamJson, this.response.getHeaders().getContentType());
+	}
+
+
+	private ServerWebExchange createExchange(MediaType accept) throws Exception {
+		ServerHttpRequest request = new MockServerHttpRequest(HttpMethod.GET, new URI("/path"));
+		request.getHeaders().setAccept(Collections.singletonList(accept));
+		return new DefaultServerWebExchange(request, this.response, new MockWebSessionManager());
+	}
+
 	private MethodParameter returnType(ResolvableType bodyType) {
 		return ResolvableMethod.on(TestController.class).returning(bodyType).resolveReturnType();
 	}
@@ -184,6 +225,7 @@ public class MessageConverterResultHandlerTests {
 			converterList.add(new ResourceHttpMessageConverter());
 			converterList.add(new CodecHttpMessageConverter<>(new Jaxb2Encoder()));
 			converterList.add(new CodecHttpMessageConverter<>(new JacksonJsonEncoder()));
+			converterList.add(new CodecHttpMessageConverter<>(new JacksonNdjsonEncoder()));
 		}
 		else {
 			converterList = Arrays.asList(converters);
@@ -288,6 +330,10 @@ public class MessageConverterResultHandlerTests {
 
 		OutputStream outputStream() { return null; }
 
+		ParentClass parentClass() { return null; }
+
+		Flux<ParentClass> fluxParentClass() { return null; }
+
 		List<ParentClass> listParentClass() { return null; }
 
 		Identifiable identifiable() { return null; }
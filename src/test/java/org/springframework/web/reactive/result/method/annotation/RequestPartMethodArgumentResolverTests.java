@@ -0,0 +1,172 @@
+/*
+ * Copyright 2002-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.web.reactive.result.method.annotation;
+
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Before;
+import org.junit.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.test.TestSubscriber;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.core.annotation.SynthesizingMethodParameter;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.core.io.buffer.support.DataBufferTestUtils;
+import org.springframework.core.io.buffer.support.DataBufferUtils;
+import org.springframework.format.support.DefaultFormattingConversionService;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.multipart.Part;
+import org.springframework.http.server.reactive.MockServerHttpRequest;
+import org.springframework.http.server.reactive.MockServerHttpResponse;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RequestPart;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.ServerWebInputException;
+import org.springframework.web.server.adapter.DefaultServerWebExchange;
+import org.springframework.web.server.session.MockWebSessionManager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link RequestPartMethodArgumentResolver}.
+ */
+public class RequestPartMethodArgumentResolverTests {
+
+	private static final String BOUNDARY = "boundary";
+
+	private RequestPartMethodArgumentResolver resolver;
+
+	private MethodParameter paramPart;
+	private MethodParameter paramString;
+	private MethodParameter paramInt;
+	private MethodParameter paramOptional;
+	private MethodParameter paramRequired;
+	private MethodParameter paramNotAnnotated;
+
+	private ServerWebExchange exchange;
+
+
+	@Before
+	public void setUp() throws Exception {
+		this.resolver = new RequestPartMethodArgumentResolver(new DefaultFormattingConversionService(), null);
+
+		Method method = ReflectionUtils.findMethod(getClass(), "params", (Class<?>[]) null);
+		this.paramPart = new SynthesizingMethodParameter(method, 0);
+		this.paramString = new SynthesizingMethodParameter(method, 1);
+		this.paramInt = new SynthesizingMethodParameter(method, 2);
+		this.paramOptional = new SynthesizingMethodParameter(method, 3);
+		this.paramRequired = new SynthesizingMethodParameter(method, 4);
+		this.paramNotAnnotated = new SynthesizingMethodParameter(method, 5);
+
+		String content = "--" + BOUNDARY + "\r\n" +
+				"Content-Disposition: form-data; name=\"file\"; filename=\"foo.txt\"\r\n" +
+				"Content-Type: text/plain\r\n" +
+				"\r\n" +
+				"Lorem ipsum\r\n" +
+				"--" + BOUNDARY + "\r\n" +
+				"Content-Disposition: form-data; name=\"text\"\r\n" +
+				"\r\n" +
+				"foo\r\n" +
+				"--" + BOUNDARY + "\r\n" +
+				"Content-Disposition: form-data; name=\"number\"\r\n" +
+				"\r\n" +
+				"42\r\n" +
+				"--" + BOUNDARY + "--\r\n";
+		DataBuffer body = new DefaultDataBufferFactory().wrap(
+				ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8)));
+		MockServerHttpRequest request = new MockServerHttpRequest(Flux.just(body),
+				HttpMethod.POST, new URI("/"));
+		request.getHeaders().setContentType(
+				MediaType.parseMediaType("multipart/form-data; boundary=" + BOUNDARY));
+		this.exchange = new DefaultServerWebExchange(request, new MockServerHttpResponse(),
+				new MockWebSessionManager());
+	}
+
+
+	@Test
+	public void supportsParameter() {
+		assertTrue(this.resolver.supportsParameter(this.paramPart));
+		assertTrue(this.resolver.supportsParameter(this.paramString));
+		assertFalse(this.resolver.supportsParameter(this.paramNotAnnotated));
+	}
+
+	@Test
+	public void resolvePart() throws Exception {
+		Object result = this.resolver.resolveArgument(this.paramPart, null, this.exchange).block();
+		assertTrue(result instanceof Part);
+		Part part = (Part) result;
+		assertEquals("file", part.getName());
+		assertEquals("foo.txt", part.getFilename().get());
+		assertEquals(MediaType.TEXT_PLAIN, part.getHeaders().getContentType());
+
+		DataBuffer content = DataBufferUtils.join(part.getContent()).block();
+		assertEquals("Lorem ipsum", DataBufferTestUtils.dumpString(content, StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void resolveConvertedArguments() throws Exception {
+		Mono<Object> text = this.resolver.resolveArgument(this.paramString, null, this.exchange);
+		Mono<Object> number = this.resolver.resolveArgument(this.paramInt, null, this.exchange);
+		assertEquals("foo", text.block());
+		assertEquals(42, number.block());
+	}
+
+	@Test
+	public void requestDecodedOnce() throws Exception {
+		Object part1 = this.resolver.resolveArgument(this.paramPart, null, this.exchange).block();
+		Object part2 = this.resolver.resolveArgument(this.paramPart, null, this.exchange).block();
+		assertSame(part1, part2);
+	}
+
+	@Test
+	public void resolveOptionalMissing() throws Exception {
+		assertNull(this.resolver.resolveArgument(this.paramOptional, null, this.exchange).block());
+	}
+
+	@Test
+	public void resolveRequiredMissing() throws Exception {
+		Mono<Object> mono = this.resolver.resolveArgument(this.paramRequired, null, this.exchange);
+		TestSubscriber
+				.subscribe(mono)
+				.assertError(ServerWebInputException.class);
+	}
+
+
+	@SuppressWarnings("unused")
+	public void params(
+			@RequestPart("file") Part file,
+			@RequestPart("text") String text,
+			@RequestPart("number") int number,
+			@RequestPart(name = "missing", required = false) String optional,
+			@RequestPart("missing") Part required,
+			@RequestParam("file") Part notAnnotated) {
+	}
+
+}
@@ -0,0 +1,296 @@
+/*
+ * Copyright 2002-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.web.server.filter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.junit.Before;
+import org.junit.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.core.io.buffer.FlushingDataBuffer;
+import org.springframework.core.io.buffer.support.DataBufferTestUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ZeroCopyHttpOutputMessage;
+import org.springframework.http.server.reactive.MockServerHttpRequest;
+import org.springframework.http.server.reactive.MockServerHttpResponse;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.reactive.ResponseStatusExceptionHandler;
+import org.springframework.web.server.WebHandler;
+import org.springframework.web.server.adapter.WebHttpHandlerBuilder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class CompressionWebFilterTests {
+
+	private static final String BODY = "Lorem ipsum dolor sit amet, consectetur adipiscing elit. ";
+
+	private final DefaultDataBufferFactory bufferFactory = new DefaultDataBufferFactory();
+
+	private CompressionWebFilter filter;
+
+	private MockServerHttpRequest request;
+
+	private MockServerHttpResponse response;
+
+
+	@Before
+	public void setUp() throws Exception {
+		this.filter = new CompressionWebFilter();
+		this.filter.setMinResponseSize(BODY.length() * 2);
+		this.request = new MockServerHttpRequest(HttpMethod.GET, new URI("http://localhost"));
+		this.response = new MockServerHttpResponse();
+	}
+
+
+	@Test
+	public void gzipResponse() throws Exception {
+		this.request.getHeaders().set(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate");
+		handle(MediaType.TEXT_PLAIN, BODY, BODY, BODY);
+
+		assertEquals("gzip", this.response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+		assertEquals(HttpHeaders.ACCEPT_ENCODING, this.response.getHeaders().getFirst(HttpHeaders.VARY));
+		InputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(responseBytes()));
+		assertEquals(BODY + BODY + BODY, StreamUtils.copyToString(inputStream, StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void deflateResponse() throws Exception {
+		this.request.getHeaders().set(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0.5, deflate");
+		handle(MediaType.APPLICATION_JSON, BODY, BODY, BODY);
+
+		assertEquals("deflate", this.response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+		InputStream inputStream = new InflaterInputStream(new ByteArrayInputStream(responseBytes()));
+		assertEquals(BODY + BODY + BODY, StreamUtils.copyToString(inputStream, StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void notAccepted() throws Exception {
+		this.request.getHeaders().set(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, identity");
+		handle(MediaType.TEXT_PLAIN, BODY, BODY, BODY);
+
+		assertFalse(this.response.getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING));
+		assertEquals(BODY + BODY + BODY, new String(responseBytes(), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void tooSmall() throws Exception {
+		this.request.getHeaders().set(HttpHeaders.ACCEPT_ENCODING, "gzip");
+		handle(MediaType.TEXT_PLAIN, BODY);
+
+		assertNull(this.response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+		assertEquals(BODY, new String(responseBytes(), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void mimeTypeNotAllowed() throws Exception {
+		this.request.getHeaders().set(HttpHeaders.ACCEPT_ENCODING, "gzip");
+		handle(MediaType.IMAGE_PNG, BODY, BODY, BODY);
+
+		assertNull(this.response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+		assertEquals(BODY + BODY + BODY, new String(responseBytes(), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void partialContent() throws Exception {
+		this.request.getHeaders().set(HttpHeaders.ACCEPT_ENCODING, "gzip");
+		WebHandler webHandler = exchange -> {
+			exchange.getResponse().setStatusCode(HttpStatus.PARTIAL_CONTENT);
+			exchange.getResponse().getHeaders().setContentType(MediaType.TEXT_PLAIN);
+			return exchange.getResponse().writeWith(Flux.just(buffer(BODY + BODY + BODY)));
+		};
+		WebHttpHandlerBuilder.webHandler(webHandler).filters(this.filter).build()
+				.handle(this.request, this.response).block();
+
+		assertNull(this.response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+		assertEquals(BODY + BODY + BODY, new String(responseBytes(), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void contentRange() throws Exception {
+		this.request.getHeaders().set(HttpHeaders.ACCEPT_ENCODING, "gzip");
+		WebHandler webHandler = exchange -> {
+			exchange.getResponse().getHeaders().set(HttpHeaders.CONTENT_RANGE, "bytes 0-170/1000");
+			exchange.getResponse().getHeaders().setContentType(MediaType.TEXT_PLAIN);
+			return exchange.getResponse().writeWith(Flux.just(buffer(BODY + BODY + BODY)));
+		};
+		WebHttpHandlerBuilder.webHandler(webHandler).filters(this.filter).build()
+				.handle(this.request, this.response).block();
+
+		assertNull(this.response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+		assertEquals(BODY + BODY + BODY, new String(responseBytes(), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void zeroCopyNotCompressible() throws Exception {
+		ZeroCopyResponse response = new ZeroCopyResponse();
+		this.response = response;
+		this.request.getHeaders().set(HttpHeaders.ACCEPT_ENCODING, "gzip");
+		File file = createFile(BODY + BODY + BODY);
+		handleFile(MediaType.IMAGE_PNG, file);
+
+		assertSame(file, response.file);
+		assertNull(this.response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+	}
+
+	@Test
+	public void zeroCopyCompressible() throws Exception {
+		ZeroCopyResponse response = new ZeroCopyResponse();
+		this.response = response;
+		this.request.getHeaders().set(HttpHeaders.ACCEPT_ENCODING, "gzip");
+		File file = createFile(BODY + BODY + BODY);
+		handleFile(MediaType.TEXT_PLAIN, file);
+
+		assertNull(response.file);
+		assertEquals("gzip", this.response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+		InputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(responseBytes()));
+		assertEquals(BODY + BODY, StreamUtils.copyToString(inputStream, StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void flushBeforeMinResponseSize() throws Exception {
+		this.request.getHeaders().set(HttpHeaders.ACCEPT_ENCODING, "gzip");
+		WebHandler webHandler = exchange -> {
+			exchange.getResponse().getHeaders().setContentType(MediaType.TEXT_PLAIN);
+			return exchange.getResponse().writeWith(Flux.defer(() ->
+					Flux.just(buffer(BODY), FlushingDataBuffer.INSTANCE)));
+		};
+		WebHttpHandlerBuilder.webHandler(webHandler).filters(this.filter).build()
+				.handle(this.request, this.response).block();
+
+		assertEquals("gzip", this.response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+		InputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(responseBytes()));
+		assertEquals(BODY, StreamUtils.copyToString(inputStream, StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void gzipRequest() throws Exception {
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		GZIPOutputStream gzipOutputStream = new GZIPOutputStream(bos);
+		gzipOutputStream.write(BODY.getBytes(StandardCharsets.UTF_8));
+		gzipOutputStream.close();
+		byte[] compressed = bos.toByteArray();
+		this.request = new MockServerHttpRequest(Flux.just(this.bufferFactory.wrap(ByteBuffer.wrap(compressed))),
+				HttpMethod.POST, new URI("http://localhost"));
+		this.request.getHeaders().set(HttpHeaders.CONTENT_ENCODING, "gzip");
+		this.request.getHeaders().setContentLength(compressed.length);
+
+		StringBuilder body = new StringBuilder();
+		WebHandler webHandler = exchange -> {
+			assertFalse(exchange.getRequest().getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING));
+			assertEquals(-1, exchange.getRequest().getHeaders().getContentLength());
+			return exchange.getRequest().getBody().
+					map(dataBuffer -> DataBufferTestUtils.dumpString(dataBuffer, StandardCharsets.UTF_8)).
+					doOnNext(body::append).
+					then();
+		};
+		WebHttpHandlerBuilder.webHandler(webHandler).filters(this.filter).build()
+				.handle(this.request, this.response).block();
+
+		assertEquals(BODY, body.toString());
+	}
+
+	@Test
+	public void invalidGzipRequest() throws Exception {
+		this.request = new MockServerHttpRequest(Flux.just(buffer(BODY)),
+				HttpMethod.POST, new URI("http://localhost"));
+		this.request.getHeaders().set(HttpHeaders.CONTENT_ENCODING, "gzip");
+
+		WebHandler webHandler = exchange -> exchange.getRequest().getBody().then();
+		WebHttpHandlerBuilder.webHandler(webHandler).filters(this.filter)
+				.exceptionHandlers(new ResponseStatusExceptionHandler()).build()
+				.handle(this.request, this.response).block();
+
+		assertEquals(HttpStatus.BAD_REQUEST, this.response.getStatus());
+	}
+
+	private void handle(MediaType contentType, String... values) {
+		WebHandler webHandler = exchange -> {
+			exchange.getResponse().getHeaders().setContentType(contentType);
+			return exchange.getResponse().writeWith(Flux.fromArray(values).map(this::buffer));
+		};
+		WebHttpHandlerBuilder.webHandler(webHandler).filters(this.filter).build()
+				.handle(this.request, this.response).block();
+	}
+
+	private void handleFile(MediaType contentType, File file) {
+		WebHandler webHandler = exchange -> {
+			exchange.getResponse().getHeaders().setContentType(contentType);
+			ZeroCopyHttpOutputMessage response = (ZeroCopyHttpOutputMessage) exchange.getResponse();
+			return response.writeWith(file, BODY.length(), file.length() - BODY.length());
+		};
+		WebHttpHandlerBuilder.webHandler(webHandler).filters(this.filter).build()
+				.handle(this.request, this.response).block();
+	}
+
+	private File createFile(String content) throws Exception {
+		File file = File.createTempFile("CompressionWebFilterTests", ".txt");
+		file.deleteOnExit();
+		Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+		return file;
+	}
+
+	private DataBuffer buffer(String value) {
+		return this.bufferFactory.wrap(ByteBuffer.wrap(value.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	private byte[] responseBytes() throws Exception {
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		Flux.from(this.response.getBody()).
+				filter(dataBuffer -> !(dataBuffer instanceof FlushingDataBuffer)).
+				toIterable().
+				forEach(dataBuffer -> {
+					byte[] bytes = DataBufferTestUtils.dumpBytes(dataBuffer);
+					bos.write(bytes, 0, bytes.length);
+				});
+		return bos.toByteArray();
+	}
+
+
+	private static class ZeroCopyResponse extends MockServerHttpResponse
+			implements ZeroCopyHttpOutputMessage {
+
+		private File file;
+
+		@Override
+		public Mono<Void> writeWith(File file, long position, long count) {
+			this.file = file;
+			return Mono.empty();
+		}
+	}
+
+}